@@ -0,0 +1,181 @@
+/*
+ * Copyright (C) 2014 Qiujuer <qiujuer@live.cn>
+ * WebSite http://www.qiujuer.net
+ * Created 10/19/2026
+ * Changed 10/19/2026
+ * Version 1.0.0
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.qiujuer.genius.app;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Created by Qiujuer
+ * on 2026/10/19.
+ * <p/>
+ * One blur of an image by each engine, the pixels are reset before each call
+ * so every engine blurs the same random image. Run by {@link BlurBenchmarkMain}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class BlurBenchmark {
+    @Param({"640x480", "1280x720", "1920x1080"})
+    public String size;
+
+    @Param({"5", "25", "50"})
+    public int radius;
+
+    @Param({"STACK", "STACK_BUFFER", "STACK_PARALLEL", "STACK_PREMULTIPLIED", "BOX", "GAUSSIAN", "SCALED",
+            "NATIVE_PIXELS", "NATIVE_BUFFER"})
+    public Engine engine;
+
+    int mWidth;
+    int mHeight;
+    int[] mSource;
+    int[] mPixels;
+    IntBuffer mBuffer;
+    BlurContext mContext;
+
+    /**
+     * The engines, a new engine is added here and to the engine param
+     */
+    public enum Engine {
+        STACK {
+            @Override
+            void blur(BlurBenchmark state) {
+                StackBlur.blur(state.mPixels, state.mWidth, state.mHeight, state.radius, state.mContext);
+            }
+        },
+        STACK_BUFFER {
+            @Override
+            void blur(BlurBenchmark state) {
+                StackBlur.blur(state.mBuffer, 0, state.mWidth, 0, 0, state.mWidth, state.mHeight,
+                        state.radius, state.mContext);
+            }
+        },
+        STACK_PARALLEL {
+            @Override
+            void blur(BlurBenchmark state) {
+                StackBlur.blurParallel(state.mPixels, state.mWidth, state.mHeight, state.radius, 0, state.mContext);
+            }
+        },
+        STACK_PREMULTIPLIED {
+            @Override
+            void blur(BlurBenchmark state) {
+                PremultipliedBlur.blur(state.mPixels, state.mWidth, state.mHeight, state.radius, state.mContext);
+            }
+        },
+        BOX {
+            @Override
+            void blur(BlurBenchmark state) {
+                BoxBlur.blur(state.mPixels, state.mWidth, state.mHeight, state.radius, state.mContext);
+            }
+        },
+        GAUSSIAN {
+            @Override
+            void blur(BlurBenchmark state) {
+                GaussianBlur.blur(state.mPixels, state.mWidth, state.mHeight, state.radius, state.mContext);
+            }
+        },
+        SCALED {
+            @Override
+            void blur(BlurBenchmark state) {
+                ScaleBlur.blur(state.mPixels, state.mWidth, state.mHeight, state.radius, state.mContext);
+            }
+        },
+        NATIVE_PIXELS {
+            @Override
+            void blur(BlurBenchmark state) {
+                BlurNative.blurPixels(state.mPixels, state.mWidth, state.mHeight, state.radius);
+            }
+
+            @Override
+            boolean isNative() {
+                return true;
+            }
+        },
+        NATIVE_BUFFER {
+            @Override
+            void blur(BlurBenchmark state) {
+                BlurNative.blurBuffer(state.mBuffer, 0, state.mWidth, state.mHeight, state.radius);
+            }
+
+            @Override
+            boolean isNative() {
+                return true;
+            }
+        };
+
+        abstract void blur(BlurBenchmark state);
+
+        boolean isNative() {
+            return false;
+        }
+    }
+
+    /**
+     * The width and height of a size param as "640x480"
+     */
+    static int[] parseSize(String size) {
+        int index = size.indexOf('x');
+        return new int[]{Integer.parseInt(size.substring(0, index)), Integer.parseInt(size.substring(index + 1))};
+    }
+
+    @Setup(Level.Trial)
+    public void setupTrial() {
+        int[] wh = parseSize(size);
+        mWidth = wh[0];
+        mHeight = wh[1];
+        mSource = new int[mWidth * mHeight];
+        Random random = new Random(mWidth * 31 + mHeight);
+        for (int i = 0; i < mSource.length; i++)
+            mSource[i] = random.nextInt();
+        mPixels = new int[mSource.length];
+        mBuffer = ByteBuffer.allocateDirect(mSource.length * 4).order(ByteOrder.nativeOrder()).asIntBuffer();
+        mContext = new BlurContext();
+    }
+
+    @Setup(Level.Invocation)
+    public void setupInvocation() {
+        if (engine == Engine.NATIVE_BUFFER || engine == Engine.STACK_BUFFER) {
+            mBuffer.clear();
+            mBuffer.put(mSource);
+            mBuffer.rewind();
+        } else {
+            System.arraycopy(mSource, 0, mPixels, 0, mSource.length);
+        }
+    }
+
+    @Benchmark
+    public int[] blur() {
+        engine.blur(this);
+        return mPixels;
+    }
+}
@@ -0,0 +1,162 @@
+/*
+ * Copyright (C) 2014 Qiujuer <qiujuer@live.cn>
+ * WebSite http://www.qiujuer.net
+ * Created 10/19/2026
+ * Changed 10/19/2026
+ * Version 1.0.0
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.qiujuer.genius.app;
+
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Created by Qiujuer
+ * on 2026/10/19.
+ * <p/>
+ * Run {@link BlurBenchmark} with the GC profiler and write a JSON array,
+ * one entry of each size, radius and engine:
+ * <pre>
+ * {"size": "640x480", "radius": 5, "engine": "STACK",
+ *  "nsPerOp": 8421000.0, "nsPerPixel": 27.41, "bytesPerOp": 0.0, "allocMBPerSec": 0.0}
+ * </pre>
+ * The JMH result is written beside it with the ".jmh.json" suffix.
+ * The native engines are skipped when the BlurNative library is not in java.library.path.
+ * <p/>
+ * Args: [output file] [engine,engine...]
+ */
+public final class BlurBenchmarkMain {
+    private BlurBenchmarkMain() {
+    }
+
+    public static void main(String[] args) throws RunnerException, IOException {
+        File output = new File(args.length > 0 ? args[0] : "blur-benchmark.json");
+        String[] engines = args.length > 1 ? args[1].split(",") : allEngines();
+
+        List<String> runs = new ArrayList<String>();
+        boolean hasNative = isNativeLoaded();
+        for (String engine : engines) {
+            if (!hasNative && BlurBenchmark.Engine.valueOf(engine).isNative())
+                System.out.println("Skip " + engine + ": BlurNative is not in java.library.path");
+            else
+                runs.add(engine);
+        }
+
+        File parent = output.getAbsoluteFile().getParentFile();
+        if (parent != null && !parent.exists() && !parent.mkdirs())
+            throw new IOException("Can't create " + parent);
+
+        ChainedOptionsBuilder options = new OptionsBuilder()
+                .include(BlurBenchmark.class.getName() + ".blur")
+                .param("engine", runs.toArray(new String[runs.size()]))
+                .addProfiler(GCProfiler.class)
+                .forks(1)
+                .warmupIterations(3)
+                .warmupTime(TimeValue.seconds(1))
+                .measurementIterations(5)
+                .measurementTime(TimeValue.seconds(1))
+                .resultFormat(ResultFormatType.JSON)
+                .result(output.getPath().replaceAll("\\.json$", "") + ".jmh.json");
+        String libraryPath = System.getProperty("java.library.path");
+        if (libraryPath != null)
+            options.jvmArgsAppend("-Djava.library.path=" + libraryPath);
+
+        Collection<RunResult> results = new Runner(options.build()).run();
+        write(results, output);
+        System.out.println("Results: " + output.getAbsolutePath());
+    }
+
+    private static String[] allEngines() {
+        BlurBenchmark.Engine[] values = BlurBenchmark.Engine.values();
+        String[] engines = new String[values.length];
+        for (int i = 0; i < values.length; i++)
+            engines[i] = values[i].name();
+        return engines;
+    }
+
+    private static boolean isNativeLoaded() {
+        try {
+            System.loadLibrary("BlurNative");
+            return true;
+        } catch (UnsatisfiedLinkError e) {
+            return false;
+        }
+    }
+
+    private static void write(Collection<RunResult> results, File file) throws IOException {
+        StringBuilder builder = new StringBuilder("[\n");
+        boolean first = true;
+        for (RunResult result : results) {
+            BenchmarkParams params = result.getParams();
+            String size = params.getParam("size");
+            int[] wh = BlurBenchmark.parseSize(size);
+            double nsPerOp = result.getPrimaryResult().getScore();
+
+            double bytesPerOp = Double.NaN;
+            double allocRate = Double.NaN;
+            Map<String, ?> secondary = result.getSecondaryResults();
+            for (String key : secondary.keySet()) {
+                Result<?> value = (Result<?>) secondary.get(key);
+                // The key has a dot prefix in old JMH versions
+                if (key.endsWith("gc.alloc.rate.norm"))
+                    bytesPerOp = value.getScore();
+                else if (key.endsWith("gc.alloc.rate"))
+                    allocRate = value.getScore();
+            }
+
+            if (!first)
+                builder.append(",\n");
+            first = false;
+            builder.append("  {\"size\": \"").append(size)
+                    .append("\", \"radius\": ").append(params.getParam("radius"))
+                    .append(", \"engine\": \"").append(params.getParam("engine"))
+                    .append("\", \"nsPerOp\": ").append(number(nsPerOp))
+                    .append(", \"nsPerPixel\": ").append(number(nsPerOp / ((double) wh[0] * wh[1])))
+                    .append(", \"bytesPerOp\": ").append(number(bytesPerOp))
+                    .append(", \"allocMBPerSec\": ").append(number(allocRate))
+                    .append('}');
+        }
+        builder.append("\n]\n");
+
+        Writer writer = new OutputStreamWriter(new FileOutputStream(file), "UTF-8");
+        try {
+            writer.write(builder.toString());
+        } finally {
+            writer.close();
+        }
+    }
+
+    private static String number(double value) {
+        return Double.isNaN(value) || Double.isInfinite(value) ? "null" : String.valueOf(value);
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright (C) 2014 Qiujuer <qiujuer@live.cn>
+ * WebSite http://www.qiujuer.net
+ * Created 10/19/2026
+ * Changed 10/19/2026
+ * Version 1.0.0
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.qiujuer.genius.app;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Created by Qiujuer
+ * on 2026/10/19.
+ * <p/>
+ * A dirty square painted at a moving place of a 1920 * 1080 image,
+ * patched by {@link BlurCache#update(int[], int, int, int, int)}
+ * against a full blur of the image.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class BlurCacheBenchmark {
+    static final int W = 1920;
+    static final int H = 1080;
+
+    @Param({"16", "64", "256"})
+    public int dirty;
+
+    @Param({"10"})
+    public int radius;
+
+    int[] mSource;
+    int[] mPixels;
+    BlurCache mCache;
+    BlurContext mContext;
+    int mStep;
+
+    @Setup
+    public void setup() {
+        mSource = new int[W * H];
+        Random random = new Random(1);
+        for (int i = 0; i < mSource.length; i++)
+            mSource[i] = random.nextInt();
+        mPixels = new int[mSource.length];
+        mContext = new BlurContext();
+        mCache = new BlurCache(radius, mContext);
+        mCache.blur(mSource, W, H);
+    }
+
+    // Paint the next dirty square
+    int paint() {
+        mStep = (mStep + 1) & 0xff;
+        int x = mStep * 7 % (W - dirty);
+        int y = mStep * 3 % (H - dirty);
+        int color = mStep * 0x010101;
+        for (int row = y; row < y + dirty; row++) {
+            for (int i = row * W + x, end = i + dirty; i < end; i++)
+                mSource[i] = color;
+        }
+        return y * W + x;
+    }
+
+    @Benchmark
+    public int[] patch() {
+        int index = paint();
+        return mCache.update(mSource, index % W, index / W, dirty, dirty);
+    }
+
+    @Benchmark
+    public int[] full() {
+        paint();
+        System.arraycopy(mSource, 0, mPixels, 0, mSource.length);
+        StackBlur.blur(mPixels, W, H, radius, mContext);
+        return mPixels;
+    }
+}
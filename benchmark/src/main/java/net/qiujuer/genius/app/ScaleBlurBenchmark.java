@@ -0,0 +1,86 @@
+/*
+ * Copyright (C) 2014 Qiujuer <qiujuer@live.cn>
+ * WebSite http://www.qiujuer.net
+ * Created 10/19/2026
+ * Changed 10/19/2026
+ * Version 1.0.0
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.qiujuer.genius.app;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Created by Qiujuer
+ * on 2026/10/19.
+ * <p/>
+ * {@link ScaleBlur} by the factor against the full size {@link StackBlur},
+ * factor 1 is the full size blur and 0 is {@link ScaleBlur#getFactor(int)}.
+ * The quality of the picked factor is bound by the ScaleBlurTest of the host module.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ScaleBlurBenchmark {
+    @Param({"1920x1080"})
+    public String size;
+
+    @Param({"10", "20", "40", "80"})
+    public int radius;
+
+    @Param({"1", "0"})
+    public int factor;
+
+    int mWidth;
+    int mHeight;
+    int[] mSource;
+    int[] mPixels;
+    BlurContext mContext;
+
+    @Setup(Level.Trial)
+    public void setupTrial() {
+        int[] wh = BlurBenchmark.parseSize(size);
+        mWidth = wh[0];
+        mHeight = wh[1];
+        mSource = new int[mWidth * mHeight];
+        Random random = new Random(mWidth * 31 + mHeight);
+        for (int i = 0; i < mSource.length; i++)
+            mSource[i] = random.nextInt();
+        mPixels = new int[mSource.length];
+        mContext = new BlurContext();
+    }
+
+    @Setup(Level.Invocation)
+    public void setupInvocation() {
+        System.arraycopy(mSource, 0, mPixels, 0, mSource.length);
+    }
+
+    @Benchmark
+    public int[] blur() {
+        ScaleBlur.blur(mPixels, mWidth, mHeight, radius,
+                factor < 1 ? ScaleBlur.getFactor(radius) : factor, mContext);
+        return mPixels;
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright (C) 2014 Qiujuer <qiujuer@live.cn>
+ * WebSite http://www.qiujuer.net
+ * Created 10/19/2026
+ * Changed 10/19/2026
+ * Version 1.0.0
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.qiujuer.genius.app;
+
+import android.os.Looper;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Created by Qiujuer
+ * on 2026/10/19.
+ * <p/>
+ * Post {@link #BATCH} runnables to a looper poster one by one, as a collection
+ * and by a {@link UIKitBatch}, and wait until all are run. The time is per runnable.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class UIKitEnqueueBenchmark {
+    static final int BATCH = 100;
+
+    final AtomicLong mRuns = new AtomicLong();
+    final Runnable mTask = new Runnable() {
+        @Override
+        public void run() {
+            mRuns.incrementAndGet();
+        }
+    };
+    final List<Runnable> mTasks = new ArrayList<>(BATCH);
+    Looper mLooper;
+    UIKitPoster mPoster;
+    UIKitBatch mBatch;
+
+    @Setup(Level.Trial)
+    public void setup() throws InterruptedException {
+        final Looper[] looper = new Looper[1];
+        final CountDownLatch prepared = new CountDownLatch(1);
+        Thread thread = new Thread("UIKitEnqueueBenchmark:looper") {
+            @Override
+            public void run() {
+                Looper.prepare();
+                looper[0] = Looper.myLooper();
+                prepared.countDown();
+                Looper.loop();
+            }
+        };
+        thread.setDaemon(true);
+        thread.start();
+        prepared.await();
+        mLooper = looper[0];
+        mPoster = UIKitPoster.create(mLooper, 20);
+        mBatch = mPoster.newBatch();
+        for (int i = 0; i < BATCH; i++)
+            mTasks.add(mTask);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        mPoster.dispose();
+        mLooper.quit();
+    }
+
+    private long await(long runs) {
+        while (mRuns.get() < runs)
+            Thread.yield();
+        return runs;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public long single() {
+        long runs = mRuns.get() + BATCH;
+        for (int i = 0; i < BATCH; i++)
+            mPoster.async(mTask);
+        return await(runs);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public long collection() {
+        long runs = mRuns.get() + BATCH;
+        mPoster.async(mTasks);
+        return await(runs);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public long batch() {
+        long runs = mRuns.get() + BATCH;
+        for (int i = 0; i < BATCH; i++)
+            mBatch.add(mTask);
+        mBatch.post();
+        return await(runs);
+    }
+}
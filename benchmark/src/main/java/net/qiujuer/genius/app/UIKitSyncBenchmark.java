@@ -0,0 +1,97 @@
+/*
+ * Copyright (C) 2014 Qiujuer <qiujuer@live.cn>
+ * WebSite http://www.qiujuer.net
+ * Created 10/19/2026
+ * Changed 10/19/2026
+ * Version 1.0.0
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.qiujuer.genius.app;
+
+import android.os.Looper;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Created by Qiujuer
+ * on 2026/10/19.
+ * <p/>
+ * Post a runnable to a looper poster synchronously, the caller waits until
+ * it is run, as {@link UIKit#runOnMainThreadSync}. The posts are pooled
+ * {@link UIKitSyncPost}s, run with -prof gc to see the bytes per post.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class UIKitSyncBenchmark {
+    int mRuns;
+    final Runnable mTask = new Runnable() {
+        @Override
+        public void run() {
+            mRuns++;
+        }
+    };
+    Looper mLooper;
+    UIKitPoster mPoster;
+
+    @Setup(Level.Trial)
+    public void setup() throws InterruptedException {
+        final Looper[] looper = new Looper[1];
+        final CountDownLatch prepared = new CountDownLatch(1);
+        Thread thread = new Thread("UIKitSyncBenchmark:looper") {
+            @Override
+            public void run() {
+                Looper.prepare();
+                looper[0] = Looper.myLooper();
+                prepared.countDown();
+                Looper.loop();
+            }
+        };
+        thread.setDaemon(true);
+        thread.start();
+        prepared.await();
+        mLooper = looper[0];
+        mPoster = UIKitPoster.create(mLooper, 20);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        mPoster.dispose();
+        mLooper.quit();
+    }
+
+    @Benchmark
+    public int sync() {
+        mPoster.sync(mTask);
+        // Read after the wait, the run happens before the sync returns
+        return mRuns;
+    }
+
+    @Benchmark
+    public int syncWaitTime() {
+        mPoster.sync(mTask, 1000, false);
+        return mRuns;
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright (C) 2014 Qiujuer <qiujuer@live.cn>
+ * WebSite http://www.qiujuer.net
+ * Created 10/19/2026
+ * Changed 10/19/2026
+ * Version 1.0.0
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.qiujuer.genius.nettool;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Created by Qiujuer
+ * on 2026/10/19.
+ * <p/>
+ * Encode of a query and decode of a response of 4 A records,
+ * with one buffer and codec as {@link DnsResolve}
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class DnsCodecBenchmark {
+    private static final int ID = 0x0206;
+    private static final String DOMAIN = "www.qiujuer.net";
+
+    ByteBuffer mQuery;
+    ByteBuffer mResponse;
+    DnsCodec mCodec;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        mQuery = ByteBuffer.allocate(DnsCodec.MAX_PACKET_SIZE);
+        mResponse = ByteBuffer.allocate(DnsCodec.MAX_PACKET_SIZE);
+        mCodec = new DnsCodec();
+
+        // The query and 4 answers of the name pointer
+        DnsCodec.encodeQuery(mResponse, ID, DOMAIN, DnsCodec.TYPE_A);
+        mResponse.putShort(2, (short) 0x8180);
+        mResponse.putShort(6, (short) 4);
+        for (int i = 0; i < 4; i++) {
+            mResponse.putShort((short) 0xC00C);
+            mResponse.putShort((short) DnsCodec.TYPE_A).putShort((short) DnsCodec.CLASS_IN).putInt(60);
+            mResponse.putShort((short) 4).putInt(0x0A000001 + i);
+        }
+        mResponse.flip();
+    }
+
+    @Benchmark
+    public int encode() {
+        mQuery.clear();
+        return DnsCodec.encodeQuery(mQuery, ID, DOMAIN, DnsCodec.TYPE_A);
+    }
+
+    @Benchmark
+    public int decode() {
+        return mCodec.decodeResponse(mResponse, ID);
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright (C) 2014 Qiujuer <qiujuer@live.cn>
+ * WebSite http://www.qiujuer.net
+ * Created 10/19/2026
+ * Changed 10/19/2026
+ * Version 1.0.0
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.qiujuer.genius.nettool;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Created by Qiujuer
+ * on 2026/10/19.
+ * <p/>
+ * Parse the ping outputs of ping-corpus.txt: replies, summaries of
+ * linux and bsd, ttl exceeded, unreachable and all lost.
+ * One parser is reused as {@link Ping} does, against a new parser each output.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PingParserBenchmark {
+    private static final String CORPUS = "/ping-corpus.txt";
+    private static final String SEPARATOR = "\n====\n";
+
+    String[] mOutputs;
+    PingParser mParser;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        mOutputs = load().split(SEPARATOR);
+        mParser = new PingParser();
+    }
+
+    private static String load() throws IOException {
+        InputStream in = PingParserBenchmark.class.getResourceAsStream(CORPUS);
+        if (in == null)
+            throw new IOException("Not found: " + CORPUS);
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8 * 1024];
+            int count;
+            while ((count = in.read(buffer)) != -1)
+                out.write(buffer, 0, count);
+            return out.toString("UTF-8");
+        } finally {
+            in.close();
+        }
+    }
+
+    @Benchmark
+    public int parseCorpus() {
+        int replies = 0;
+        for (String output : mOutputs)
+            replies += mParser.parse(output).getReplyCount();
+        return replies;
+    }
+
+    @Benchmark
+    public int parseCorpusNewParser() {
+        int replies = 0;
+        for (String output : mOutputs)
+            replies += new PingParser().parse(output).getReplyCount();
+        return replies;
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright (C) 2014 Qiujuer <qiujuer@live.cn>
+ * WebSite http://www.qiujuer.net
+ * Created 10/19/2026
+ * Changed 10/19/2026
+ * Version 1.0.0
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.qiujuer.genius.app;
+
+import android.graphics.Bitmap;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Created by Qiujuer
+ * on 2026/10/19.
+ * <p/>
+ * Random dirty regions patched by {@link BlurCache}
+ * must give the pixels of a full blur.
+ */
+public class BlurCacheTest {
+    private static final int W = 160;
+    private static final int H = 120;
+    private static final int RADIUS = 7;
+
+    private static int[] full(int[] source) {
+        int[] pix = source.clone();
+        StackBlur.blur(pix, W, H, RADIUS, null);
+        return pix;
+    }
+
+    private static void paint(int[] pix, Random random, int[] region) {
+        region[0] = random.nextInt(W + 20) - 10;
+        region[1] = random.nextInt(H + 20) - 10;
+        region[2] = 1 + random.nextInt(40);
+        region[3] = 1 + random.nextInt(40);
+        int color = random.nextInt() | 0xff000000;
+        for (int y = Math.max(0, region[1]); y < Math.min(H, region[1] + region[3]); y++) {
+            for (int x = Math.max(0, region[0]); x < Math.min(W, region[0] + region[2]); x++)
+                pix[y * W + x] = color;
+        }
+    }
+
+    @Test
+    public void updatesEqualFullBlur() {
+        Random random = new Random(1);
+        int[] source = BlurImages.checkers(W, H, 1);
+        BlurCache cache = new BlurCache(RADIUS);
+        assertArrayEquals(full(source), cache.blur(source, W, H));
+
+        int[] region = new int[4];
+        for (int i = 0; i < 50; i++) {
+            paint(source, random, region);
+            int[] output = i % 2 == 0
+                    ? cache.update(source, region[0], region[1], region[2], region[3])
+                    : cache.update(source);
+            assertArrayEquals("update " + i, full(source), output);
+        }
+    }
+
+    @Test
+    public void unchangedHasNoPatch() {
+        int[] source = BlurImages.checkers(W, H, 2);
+        BlurCache cache = new BlurCache(RADIUS);
+        cache.blur(source, W, H);
+        cache.update(source.clone());
+        assertEquals(0, cache.getPatch()[2]);
+        assertEquals(0, cache.getPatch()[3]);
+    }
+
+    @Test
+    public void arrayUpdateKeepsBitmap() {
+        Random random = new Random(3);
+        int[] source = BlurImages.checkers(W, H, 3);
+        Bitmap bitmap = Bitmap.createBitmap(W, H, Bitmap.Config.ARGB_8888);
+        bitmap.setPixels(source, 0, W, 0, 0, W, H);
+        BlurCache cache = new BlurCache(RADIUS);
+        Bitmap output = cache.blur(bitmap);
+
+        int[] region = new int[4];
+        int[] pix = new int[W * H];
+        for (int i = 0; i < 20; i++) {
+            paint(source, random, region);
+            if (i % 2 == 0) {
+                cache.update(source, region[0], region[1], region[2], region[3]);
+            } else {
+                bitmap.setPixels(source, 0, W, 0, 0, W, H);
+                assertSame(output, cache.update(bitmap, region[0], region[1], region[2], region[3]));
+            }
+            output.getPixels(pix, 0, W, 0, 0, W, H);
+            assertArrayEquals("update " + i, full(source), pix);
+        }
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright (C) 2014 Qiujuer <qiujuer@live.cn>
+ * WebSite http://www.qiujuer.net
+ * Created 10/19/2026
+ * Changed 10/19/2026
+ * Version 1.0.0
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.qiujuer.genius.app;
+
+import java.util.Random;
+
+/**
+ * Created by Qiujuer
+ * on 2026/10/19.
+ * <p/>
+ * Test images and the double precision reference of the blur tests
+ */
+final class BlurImages {
+    private BlurImages() {
+    }
+
+    /**
+     * Opaque checkers of 40 pixels with noise over a color gradient,
+     * both flat regions and hard edges
+     */
+    static int[] checkers(int w, int h, long seed) {
+        Random random = new Random(seed);
+        int[] pix = new int[w * h];
+        for (int y = 0; y < h; y++) {
+            for (int x = 0; x < w; x++) {
+                int v = ((x / 40 + y / 40) % 2) * 200 + random.nextInt(50);
+                pix[y * w + x] = 0xff000000 | (v << 16) | ((x * 255 / w) << 8) | (y * 255 / h);
+            }
+        }
+        return pix;
+    }
+
+    /**
+     * Random colors and alpha
+     */
+    static int[] noise(int w, int h, long seed) {
+        Random random = new Random(seed);
+        int[] pix = new int[w * h];
+        for (int i = 0; i < pix.length; i++)
+            pix[i] = random.nextInt();
+        return pix;
+    }
+
+    /**
+     * Peak signal to noise ratio of the colors
+     *
+     * @return dB, infinity if same
+     */
+    static double psnr(int[] a, int[] b) {
+        double se = 0;
+        for (int i = 0; i < a.length; i++) {
+            for (int s = 0; s < 24; s += 8) {
+                int d = ((a[i] >> s) & 0xff) - ((b[i] >> s) & 0xff);
+                se += d * d;
+            }
+        }
+        se /= a.length * 3.0;
+        return 10 * Math.log10(255 * 255 / se);
+    }
+
+    /**
+     * Gaussian blur in double precision with the sigma of the stack blur radius,
+     * the edges are clamped, the alpha is opaque
+     */
+    static int[] gaussian(int[] pix, int w, int h, int radius) {
+        double sigma = Math.sqrt(radius * (radius + 2) / 6.0);
+        int k = (int) Math.ceil(sigma * 4);
+        double[] kernel = new double[2 * k + 1];
+        double total = 0;
+        for (int i = -k; i <= k; i++) {
+            kernel[i + k] = Math.exp(-i * i / (2 * sigma * sigma));
+            total += kernel[i + k];
+        }
+        for (int i = 0; i < kernel.length; i++)
+            kernel[i] /= total;
+
+        int[] out = new int[pix.length];
+        double[] c = new double[w * h];
+        double[] d = new double[w * h];
+        for (int s = 0; s < 24; s += 8) {
+            for (int i = 0; i < c.length; i++)
+                c[i] = (pix[i] >> s) & 0xff;
+            for (int y = 0; y < h; y++) {
+                for (int x = 0; x < w; x++) {
+                    double v = 0;
+                    for (int j = -k; j <= k; j++)
+                        v += kernel[j + k] * c[y * w + clamp(x + j, w)];
+                    d[y * w + x] = v;
+                }
+            }
+            for (int y = 0; y < h; y++) {
+                for (int x = 0; x < w; x++) {
+                    double v = 0;
+                    for (int j = -k; j <= k; j++)
+                        v += kernel[j + k] * d[clamp(y + j, h) * w + x];
+                    c[y * w + x] = v;
+                }
+            }
+            for (int i = 0; i < c.length; i++)
+                out[i] |= ((int) Math.round(c[i])) << s;
+        }
+        for (int i = 0; i < out.length; i++)
+            out[i] |= 0xff000000;
+        return out;
+    }
+
+    private static int clamp(int v, int size) {
+        return v < 0 ? 0 : v >= size ? size - 1 : v;
+    }
+}
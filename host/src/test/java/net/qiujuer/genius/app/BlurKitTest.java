@@ -0,0 +1,113 @@
+/*
+ * Copyright (C) 2014 Qiujuer <qiujuer@live.cn>
+ * WebSite http://www.qiujuer.net
+ * Created 10/19/2026
+ * Changed 10/19/2026
+ * Version 1.0.0
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.qiujuer.genius.app;
+
+import android.graphics.Bitmap;
+
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Created by Qiujuer
+ * on 2026/10/19.
+ * <p/>
+ * The Bitmap methods of {@link BlurKit} must give the pixels of their
+ * int array engine, and the context one must not allocate once warm.
+ */
+public class BlurKitTest {
+    private static final int W = 200;
+    private static final int H = 150;
+
+    private static Bitmap bitmap(int[] pix) {
+        Bitmap bitmap = Bitmap.createBitmap(W, H, Bitmap.Config.ARGB_8888);
+        bitmap.setPixels(pix, 0, W, 0, 0, W, H);
+        return bitmap;
+    }
+
+    private static int[] pixels(Bitmap bitmap) {
+        int[] pix = new int[W * H];
+        bitmap.getPixels(pix, 0, W, 0, 0, W, H);
+        return pix;
+    }
+
+    @Test
+    public void bitmapEqualsEngine() {
+        int[] source = BlurImages.checkers(W, H, 1);
+        int radius = 12;
+
+        int[] stack = source.clone();
+        StackBlur.blur(stack, W, H, radius, null);
+        assertArrayEquals(stack, pixels(BlurKit.blur(bitmap(source), radius, false)));
+        assertArrayEquals(stack, pixels(BlurKit.blur(bitmap(source), radius, false, new BlurContext())));
+        assertArrayEquals(stack, pixels(BlurKit.blurParallel(bitmap(source), radius, false)));
+
+        int[] scaled = source.clone();
+        ScaleBlur.blur(scaled, W, H, radius, null);
+        assertArrayEquals(scaled, pixels(BlurKit.blurScaled(bitmap(source), radius, false, 0, null)));
+
+        for (BlurAlgorithm algorithm : BlurAlgorithm.values()) {
+            int[] expected = source.clone();
+            algorithm.blur(expected, W, H, radius, null);
+            assertArrayEquals(algorithm.name(), expected,
+                    pixels(BlurKit.blur(bitmap(source), radius, false, algorithm, null)));
+        }
+    }
+
+    @Test
+    public void reuseKeepsBitmap() {
+        Bitmap source = bitmap(BlurImages.checkers(W, H, 2));
+        int[] origin = pixels(source);
+        Bitmap copy = BlurKit.blur(source, 5, false);
+        assertNotSame(source, copy);
+        assertArrayEquals(origin, pixels(source));
+        assertArrayEquals(origin, pixels(BlurKit.blur(source, 1, false, new BlurContext())));
+        assertSame(source, BlurKit.blur(source, 5, true));
+        assertNull(BlurKit.blur(source, 0, true));
+    }
+
+    @Test
+    public void secondBlurAllocatesNothing() {
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long id = Thread.currentThread().getId();
+        Bitmap bitmap = bitmap(BlurImages.checkers(W, H, 3));
+        BlurContext context = new BlurContext();
+
+        // The first call allocates the buffers of the context
+        BlurKit.blur(bitmap, 10, true, context);
+        // Warm the measure itself
+        threads.getThreadAllocatedBytes(id);
+
+        long before = threads.getThreadAllocatedBytes(id);
+        for (int i = 0; i < 10; i++)
+            BlurKit.blur(bitmap, 10, true, context);
+        long allocated = threads.getThreadAllocatedBytes(id) - before;
+
+        // One pixels array is W * H * 4 bytes, allow the measure itself
+        assertTrue("Allocated " + allocated + " bytes", allocated < 1024);
+    }
+}
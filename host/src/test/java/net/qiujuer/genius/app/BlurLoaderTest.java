@@ -0,0 +1,213 @@
+/*
+ * Copyright (C) 2014 Qiujuer <qiujuer@live.cn>
+ * WebSite http://www.qiujuer.net
+ * Created 10/19/2026
+ * Changed 10/19/2026
+ * Version 1.0.0
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.qiujuer.genius.app;
+
+import android.graphics.Bitmap;
+import android.os.Looper;
+
+import org.junit.After;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Created by Qiujuer
+ * on 2026/10/19.
+ * <p/>
+ * {@link BlurLoader} on a main looper thread: delivery, cache,
+ * failure, the dropping of the full queue and cancel.
+ */
+public class BlurLoaderTest {
+    private static final int W = 120;
+    private static final int H = 90;
+    private static final long TIMEOUT = 10;
+
+    private BlurLoader mLoader;
+
+    @BeforeClass
+    public static void prepareMainLooper() throws InterruptedException {
+        synchronized (BlurLoaderTest.class) {
+            if (Looper.getMainLooper() != null)
+                return;
+            final CountDownLatch prepared = new CountDownLatch(1);
+            Thread thread = new Thread("main") {
+                @Override
+                public void run() {
+                    Looper.prepareMainLooper();
+                    prepared.countDown();
+                    Looper.loop();
+                }
+            };
+            thread.setDaemon(true);
+            thread.start();
+            prepared.await();
+        }
+    }
+
+    @After
+    public void dispose() {
+        if (mLoader != null)
+            mLoader.dispose();
+    }
+
+    private static Bitmap bitmap(int w, int h, long seed) {
+        Bitmap bitmap = Bitmap.createBitmap(w, h, Bitmap.Config.ARGB_8888);
+        bitmap.setPixels(BlurImages.checkers(w, h, seed), 0, w, 0, 0, w, h);
+        return bitmap;
+    }
+
+    private static int[] pixels(Bitmap bitmap) {
+        int w = bitmap.getWidth(), h = bitmap.getHeight();
+        int[] pix = new int[w * h];
+        bitmap.getPixels(pix, 0, w, 0, 0, w, h);
+        return pix;
+    }
+
+    /**
+     * Keep the results with the thread they are called on
+     */
+    private static class Results implements BlurLoader.BlurListener {
+        final LinkedBlockingQueue<Object[]> mResults = new LinkedBlockingQueue<>();
+
+        @Override
+        public void onBlurred(Object key, Bitmap bitmap) {
+            mResults.add(new Object[]{key, bitmap, Thread.currentThread()});
+        }
+
+        @Override
+        public void onFailed(Object key, Throwable error) {
+            mResults.add(new Object[]{key, error, Thread.currentThread()});
+        }
+
+        Object[] take() throws InterruptedException {
+            Object[] result = mResults.poll(TIMEOUT, TimeUnit.SECONDS);
+            assertNotNull("No result", result);
+            assertSame(Looper.getMainLooper().getThread(), result[2]);
+            return result;
+        }
+    }
+
+    @Test
+    public void deliveredThenCached() throws InterruptedException {
+        mLoader = new BlurLoader(1, 1 << 20);
+        Bitmap source = bitmap(W, H, 1);
+        int[] origin = pixels(source);
+        int[] expected = origin.clone();
+        StackBlur.blur(expected, W, H, 6, null);
+
+        Results results = new Results();
+        BlurLoader.BlurTask task = mLoader.blur("a", source, 6, results);
+        Object[] result = results.take();
+        assertEquals("a", result[0]);
+        assertArrayEquals(expected, pixels((Bitmap) result[1]));
+        assertArrayEquals(origin, pixels(source));
+        assertTrue(task.isDelivered());
+        assertEquals(1, mLoader.getCompletedCount());
+
+        BlurLoader.BlurTask hit = mLoader.blur("a", source, 6, results);
+        assertSame(result[1], results.take()[1]);
+        assertTrue(hit.isDelivered());
+        assertEquals(1, mLoader.getCacheHitCount());
+        assertEquals(1, mLoader.getCompletedCount());
+    }
+
+    @Test
+    public void recycledSourceFails() throws InterruptedException {
+        mLoader = new BlurLoader(1, 1 << 20);
+        Bitmap source = bitmap(W, H, 2);
+        source.recycle();
+        Results results = new Results();
+        BlurLoader.BlurTask task = mLoader.blur("b", source, 6, results);
+        Object[] result = results.take();
+        assertTrue(result[1] instanceof IllegalStateException);
+        assertTrue(task.isFailed());
+        assertFalse(task.isCancelled());
+        assertFalse(task.cancel());
+        assertEquals(1, mLoader.getFailedCount());
+        assertEquals(0, mLoader.getCacheSize());
+    }
+
+    @Test
+    public void fullQueueDropsOldest() throws InterruptedException {
+        mLoader = new BlurLoader(1, 1, 1 << 24);
+        Results results = new Results();
+        // Slow enough to fill the queue behind it
+        mLoader.blur("slow", bitmap(600, 600, 3), 50, BlurAlgorithm.GAUSSIAN, results);
+        waitRunning();
+
+        BlurLoader.BlurTask dropped = mLoader.blur("c", bitmap(W, H, 4), 6, results);
+        BlurLoader.BlurTask kept = mLoader.blur("d", bitmap(W, H, 5), 6, results);
+        assertEquals(1, mLoader.getQueueSize());
+
+        Object[] result = results.take();
+        assertEquals("c", result[0]);
+        assertTrue(result[1] instanceof RejectedExecutionException);
+        assertTrue(dropped.isFailed());
+
+        assertEquals("slow", results.take()[0]);
+        assertEquals("d", results.take()[0]);
+        assertTrue(kept.isDelivered());
+        assertEquals(1, mLoader.getFailedCount());
+    }
+
+    @Test
+    public void cancelledNotDelivered() throws InterruptedException {
+        mLoader = new BlurLoader(1, 4, 1 << 24);
+        Results results = new Results();
+        mLoader.blur("slow", bitmap(600, 600, 6), 50, BlurAlgorithm.GAUSSIAN, results);
+        waitRunning();
+
+        BlurLoader.BlurTask cancelled = mLoader.blur("e", bitmap(W, H, 7), 6, results);
+        BlurLoader.BlurTask coalesced = mLoader.blur("f", bitmap(W, H, 8), 6, results);
+        BlurLoader.BlurTask latest = mLoader.blur("f", bitmap(W, H, 8), 7, results);
+        assertTrue(cancelled.cancel());
+        assertTrue(cancelled.isCancelled());
+        assertTrue(coalesced.isCancelled());
+        assertFalse(mLoader.cancel("e"));
+        assertEquals(1, mLoader.getQueueSize());
+
+        assertEquals("slow", results.take()[0]);
+        assertEquals("f", results.take()[0]);
+        assertTrue(latest.isDelivered());
+        assertNull(results.mResults.poll(100, TimeUnit.MILLISECONDS));
+        assertEquals(1, mLoader.getCancelledCount());
+        assertEquals(1, mLoader.getCoalescedCount());
+    }
+
+    private void waitRunning() throws InterruptedException {
+        long end = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(TIMEOUT);
+        while (mLoader.getActiveCount() == 0 || mLoader.getQueueSize() > 0) {
+            assertTrue("Not running", System.currentTimeMillis() < end);
+            Thread.sleep(1);
+        }
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright (C) 2014 Qiujuer <qiujuer@live.cn>
+ * WebSite http://www.qiujuer.net
+ * Created 10/19/2026
+ * Changed 10/19/2026
+ * Version 1.0.0
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.qiujuer.genius.app;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Created by Qiujuer
+ * on 2026/10/19.
+ * <p/>
+ * {@link PremultipliedBlur} on transparent inputs:
+ * transparent pixels must not add their color to the visible ones.
+ */
+public class PremultipliedBlurTest {
+    private static final int W = 100;
+    private static final int H = 100;
+
+    // An opaque red square on transparent white
+    private static int[] redSquare() {
+        int[] pix = new int[W * H];
+        for (int y = 0; y < H; y++) {
+            for (int x = 0; x < W; x++)
+                pix[y * W + x] = x >= 30 && x < 70 && y >= 30 && y < 70 ? 0xffff0000 : 0x00ffffff;
+        }
+        return pix;
+    }
+
+    // The most green or blue of the visible pixels
+    private static int halo(int[] pix) {
+        int max = 0;
+        for (int c : pix) {
+            if (c >>> 24 > 0)
+                max = Math.max(max, Math.max((c >> 8) & 0xff, c & 0xff));
+        }
+        return max;
+    }
+
+    @Test
+    public void transparentStaysTransparent() {
+        int[] pix = BlurImages.noise(W, H, 1);
+        for (int i = 0; i < pix.length; i++)
+            pix[i] &= 0x00ffffff;
+        PremultipliedBlur.blur(pix, W, H, 10, null);
+        for (int c : pix)
+            assertEquals(0, c);
+    }
+
+    @Test
+    public void noHaloOnTransparentEdge() {
+        int[] stack = redSquare();
+        int[] premultiplied = redSquare();
+        StackBlur.blur(stack, W, H, 10, null);
+        PremultipliedBlur.blur(premultiplied, W, H, 10, null);
+
+        // The white of the transparent pixels leaks in the color blur only
+        assertTrue(halo(stack) > 128);
+        assertEquals(0, halo(premultiplied));
+        // The alpha is blurred, the edge is half covered
+        int edge = premultiplied[50 * W + 30] >>> 24;
+        assertTrue("Edge alpha " + edge, edge > 96 && edge < 160);
+        assertEquals(0, premultiplied[50 * W + 5] >>> 24);
+        assertEquals(0xffff0000, premultiplied[50 * W + 50]);
+    }
+
+    @Test
+    public void opaqueEqualsStack() {
+        for (int radius : new int[]{1, 3, 10, 40}) {
+            int[] stack = BlurImages.checkers(W, H, radius);
+            int[] premultiplied = stack.clone();
+            StackBlur.blur(stack, W, H, radius, null);
+            PremultipliedBlur.blur(premultiplied, W, H, radius, null);
+            assertArrayEquals("radius " + radius, stack, premultiplied);
+        }
+    }
+
+    @Test
+    public void flatTranslucentUnchanged() {
+        for (int alpha : new int[]{1, 17, 128, 254}) {
+            int[] pix = new int[W * H];
+            Arrays.fill(pix, (alpha << 24) | 0x336699);
+            int[] expected = pix.clone();
+            PremultipliedBlur.blur(pix, W, H, 8, null);
+            int[] diff = new int[4];
+            for (int i = 0; i < pix.length; i++) {
+                for (int s = 0, j = 0; s < 32; s += 8, j++)
+                    diff[j] = Math.max(diff[j], Math.abs(((pix[i] >> s) & 0xff) - ((expected[i] >> s) & 0xff)));
+            }
+            assertEquals("alpha " + alpha, 0, diff[3]);
+            // Colors lose precision under a low alpha only
+            int limit = alpha < 32 ? 255 / alpha : 1;
+            for (int j = 0; j < 3; j++)
+                assertTrue("alpha " + alpha + " diff " + diff[j], diff[j] <= limit);
+        }
+    }
+}
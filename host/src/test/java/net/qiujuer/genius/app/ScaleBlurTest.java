@@ -0,0 +1,80 @@
+/*
+ * Copyright (C) 2014 Qiujuer <qiujuer@live.cn>
+ * WebSite http://www.qiujuer.net
+ * Created 10/19/2026
+ * Changed 10/19/2026
+ * Version 1.0.0
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.qiujuer.genius.app;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Created by Qiujuer
+ * on 2026/10/19.
+ * <p/>
+ * {@link ScaleBlur} against the full size {@link StackBlur}:
+ * the factor picked for each radius must keep the quality bound.
+ */
+public class ScaleBlurTest {
+    private static final int W = 640;
+    private static final int H = 480;
+
+    // Lowest PSNR in dB against the full blur for the picked factor,
+    // measured 33.5 dB at radius 30 to 48.1 dB at radius 80
+    private static final double MIN_PSNR = 32;
+
+    @Test
+    public void closeToFullBlur() {
+        int[] source = BlurImages.checkers(W, H, 1);
+        BlurContext context = new BlurContext();
+        for (int radius : new int[]{10, 15, 20, 30, 39, 40, 50, 80}) {
+            int[] full = source.clone();
+            StackBlur.blur(full, W, H, radius, context);
+            int[] scaled = source.clone();
+            ScaleBlur.blur(scaled, W, H, radius, context);
+            double psnr = BlurImages.psnr(full, scaled);
+            assertTrue("radius " + radius + " " + psnr + " dB", psnr > MIN_PSNR);
+        }
+    }
+
+    @Test
+    public void factorOneIsFullBlur() {
+        int[] full = BlurImages.checkers(W, H, 2);
+        int[] scaled = full.clone();
+        StackBlur.blur(full, W, H, 6, null);
+        ScaleBlur.blur(scaled, W, H, 6, null);
+        assertArrayEquals(full, scaled);
+    }
+
+    @Test
+    public void alphaKeptAndOddSize() {
+        int w = 101, h = 37;
+        int[] source = BlurImages.noise(w, h, 3);
+        int[] pix = source.clone();
+        ScaleBlur.blur(pix, w, h, 30, 8, null);
+        for (int i = 0; i < pix.length; i++)
+            assertEquals(source[i] >>> 24, pix[i] >>> 24);
+
+        int[] tiny = {0xff102030, 0x80405060};
+        ScaleBlur.blur(tiny, 2, 1, 40, 8, null);
+        assertEquals(0xff, tiny[0] >>> 24);
+        assertEquals(0x80, tiny[1] >>> 24);
+    }
+}
@@ -0,0 +1,140 @@
+/*
+ * Copyright (C) 2014 Qiujuer <qiujuer@live.cn>
+ * WebSite http://www.qiujuer.net
+ * Created 10/19/2026
+ * Changed 10/19/2026
+ * Version 1.0.0
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.qiujuer.genius.app;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+/**
+ * Created by Qiujuer
+ * on 2026/10/19.
+ * <p/>
+ * The parallel, region and buffer paths of {@link StackBlur}
+ * must give the same pixels as the whole array blur.
+ */
+public class StackBlurTest {
+    private static final int W = 320;
+    private static final int H = 200;
+
+    @Test
+    public void parallelEqualsSerial() {
+        BlurContext context = new BlurContext();
+        for (int threads : new int[]{2, 3, 4, 8}) {
+            for (int radius : new int[]{1, 5, 30}) {
+                int[] serial = BlurImages.checkers(W, H, radius);
+                int[] parallel = serial.clone();
+                StackBlur.blur(serial, W, H, radius, context);
+                StackBlur.blurParallel(parallel, W, H, radius, threads, context);
+                assertArrayEquals("threads " + threads + " radius " + radius, serial, parallel);
+            }
+        }
+    }
+
+    @Test
+    public void parallelReusesBands() {
+        BlurContext context = new BlurContext();
+        int[] pix = BlurImages.checkers(W, H, 1);
+        StackBlur.blurParallel(pix.clone(), W, H, 10, 4, context);
+        long size = context.getSize();
+        StackBlur.blurParallel(pix.clone(), W, H, 10, 4, context);
+        StackBlur.blurParallel(pix.clone(), W, H, 10, 2, context);
+        assertEquals(size, context.getSize());
+    }
+
+    @Test
+    public void regionEqualsCrop() {
+        int stride = W + 7;
+        int[] pix = BlurImages.checkers(stride, H, 2);
+        int[] origin = pix.clone();
+        int x = 10, y = 20, w = 100, h = 60, offset = 3;
+        StackBlur.blur(pix, offset, stride, x, y, w, h, 6, null);
+
+        int[] crop = new int[w * h];
+        for (int row = 0; row < h; row++)
+            System.arraycopy(origin, offset + (y + row) * stride + x, crop, row * w, w);
+        StackBlur.blur(crop, w, h, 6, null);
+
+        for (int i = 0; i < pix.length; i++) {
+            int p = i - offset;
+            int px = p % stride, py = p / stride;
+            if (p >= 0 && px >= x && px < x + w && py >= y && py < y + h)
+                assertEquals(crop[(py - y) * w + px - x], pix[i]);
+            else
+                assertEquals("outside at " + i, origin[i], pix[i]);
+        }
+    }
+
+    @Test
+    public void buffersEqualArray() {
+        int[] expected = BlurImages.checkers(W, H, 3);
+        int[] origin = expected.clone();
+        StackBlur.blur(expected, W, H, 8, null);
+
+        IntBuffer direct = ByteBuffer.allocateDirect((W * H + 5) * 4)
+                .order(ByteOrder.nativeOrder()).asIntBuffer();
+        direct.position(5);
+        direct.put(origin);
+        direct.position(5);
+        StackBlur.blur(direct, 0, W, 0, 0, W, H, 8, null);
+        assertEquals(5, direct.position());
+        int[] out = new int[W * H];
+        direct.get(out);
+        assertArrayEquals(expected, out);
+
+        int[] backing = new int[W * H + 5];
+        System.arraycopy(origin, 0, backing, 5, W * H);
+        IntBuffer heap = IntBuffer.wrap(backing);
+        heap.position(5);
+        StackBlur.blur(heap, 0, W, 0, 0, W, H, 8, null);
+        assertArrayEquals(expected, Arrays.copyOfRange(backing, 5, backing.length));
+    }
+
+    @Test
+    public void bufferRegionOutOfRemainingThrows() {
+        IntBuffer direct = ByteBuffer.allocateDirect(W * H * 4)
+                .order(ByteOrder.nativeOrder()).asIntBuffer();
+        direct.position(1);
+        try {
+            StackBlur.blur(direct, 0, W, 0, 0, W, H, 8, null);
+            fail("Region over the remaining");
+        } catch (ArrayIndexOutOfBoundsException ignored) {
+        }
+        IntBuffer heap = IntBuffer.wrap(new int[W * H]);
+        heap.limit(W * H - 1);
+        try {
+            StackBlur.blur(heap, 0, W, 0, 0, W, H, 8, null);
+            fail("Region over the limit");
+        } catch (ArrayIndexOutOfBoundsException ignored) {
+        }
+        try {
+            StackBlur.blur(new int[W * H], 0, W, 1, 0, W, H, 8, null);
+            fail("Region over the stride");
+        } catch (ArrayIndexOutOfBoundsException ignored) {
+        }
+    }
+}
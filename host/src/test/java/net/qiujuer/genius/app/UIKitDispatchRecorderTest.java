@@ -0,0 +1,284 @@
+/*
+ * Copyright (C) 2014 Qiujuer <qiujuer@live.cn>
+ * WebSite http://www.qiujuer.net
+ * Created 10/19/2026
+ * Changed 10/19/2026
+ * Version 1.0.0
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.qiujuer.genius.app;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Created by Qiujuer
+ * on 2026/10/19.
+ * <p/>
+ * {@link UIKitDispatchRecorder} fed with known times: the buckets of the
+ * run and the wait times, the batches and the queue depth, the slow
+ * runnables; then on an executor poster, started and stopped.
+ */
+public class UIKitDispatchRecorderTest {
+    private static final long US = 1000L;
+    private static final long MS = 1000000L;
+    private static final long WAIT = 10;
+
+    private ExecutorService mExecutor;
+
+    @After
+    public void tearDown() {
+        if (mExecutor != null)
+            mExecutor.shutdownNow();
+    }
+
+    /**
+     * Keep the slow reports
+     */
+    private static class Slow implements UIKitDispatchListener {
+        final List<Object[]> mReports = Collections.synchronizedList(new ArrayList<Object[]>());
+
+        @Override
+        public void onSlowTask(String name, long waitNanos, long runNanos) {
+            mReports.add(new Object[]{name, waitNanos, runNanos});
+        }
+    }
+
+    private static class SlowTask implements Runnable {
+        @Override
+        public void run() {
+            long end = System.nanoTime() + 30 * MS;
+            while (System.nanoTime() < end) {
+                Thread.yield();
+            }
+        }
+    }
+
+    private static class SlowCallable implements Callable<Integer> {
+        @Override
+        public Integer call() {
+            new SlowTask().run();
+            return 1;
+        }
+    }
+
+    private static long[] histogram(int... counts) {
+        long[] histogram = new long[UIKitDispatchStats.getBucketBoundsMicros().length + 1];
+        for (int i = 0; i < counts.length; i += 2)
+            histogram[counts[i]] = counts[i + 1];
+        return histogram;
+    }
+
+    @Test
+    public void bucketsAreUpperExclusive() {
+        long[] bounds = UIKitDispatchStats.getBucketBoundsMicros();
+        assertEquals(0, UIKitDispatchStats.bucketOf(0));
+        assertEquals(0, UIKitDispatchStats.bucketOf(bounds[0] * US - 1));
+        for (int i = 0; i < bounds.length; i++) {
+            assertEquals(i, UIKitDispatchStats.bucketOf(bounds[i] * US - 1));
+            assertEquals(i + 1, UIKitDispatchStats.bucketOf(bounds[i] * US));
+        }
+        assertEquals(bounds.length, UIKitDispatchStats.bucketOf(Long.MAX_VALUE));
+        // A copy, the buckets can't be changed
+        bounds[0] = 0;
+        assertEquals(100, UIKitDispatchStats.getBucketBoundsMicros()[0]);
+    }
+
+    @Test
+    public void runAndWaitInTheirBuckets() {
+        UIKitDispatchRecorder recorder = new UIKitDispatchRecorder(0, null);
+        Runnable target = new SlowTask();
+        // Wait 300 us and run 1.5 ms
+        long offered = recorder.onOffer();
+        recorder.onBatchStart();
+        recorder.onPoll(offered);
+        long begin = offered + 300 * US;
+        recorder.onRun(target, offered, begin, begin + 1500 * US);
+        // Wait 50 ms and run 50 us
+        offered = recorder.onOffer();
+        recorder.onPoll(offered);
+        begin = offered + 50 * MS;
+        recorder.onRun(target, offered, begin, begin + 50 * US);
+        // Offered before the start, no wait time
+        recorder.onRun(target, 0, begin, begin + 200 * MS);
+        recorder.onBatchEnd(3, false);
+
+        UIKitDispatchStats stats = recorder.snapshot();
+        assertEquals(3, stats.getTasks());
+        assertArrayEquals(histogram(4, 1, 0, 1, 11, 1), stats.getRunHistogram());
+        assertEquals(1500 * US + 50 * US + 200 * MS, stats.getRunNanos());
+        assertEquals(200 * MS, stats.getMaxRunNanos());
+        assertEquals(2, stats.getWaitedTasks());
+        assertArrayEquals(histogram(2, 1, 9, 1), stats.getWaitHistogram());
+        assertEquals(300 * US + 50 * MS, stats.getWaitNanos());
+        assertEquals(50 * MS, stats.getMaxWaitNanos());
+        assertEquals((300 * US + 50 * MS) / 2, stats.getAverageWaitNanos());
+        assertEquals(0, stats.getSlowTasks());
+    }
+
+    @Test
+    public void batchesAndQueueDepth() {
+        UIKitDispatchRecorder recorder = new UIKitDispatchRecorder(0, null);
+        long[] offered = new long[5];
+        for (int i = 0; i < 3; i++)
+            offered[i] = recorder.onOffer();
+        offered[3] = offered[4] = System.nanoTime();
+        recorder.onOfferAll(2);
+        assertEquals(5, recorder.snapshot().getQueueDepth());
+
+        // 3 of 5 and stopped by the budget
+        recorder.onBatchStart();
+        for (int i = 0; i < 3; i++) {
+            recorder.onPoll(offered[i]);
+            recorder.onRun(this, offered[i], offered[i], offered[i]);
+        }
+        recorder.onBatchEnd(3, true);
+        UIKitDispatchStats stats = recorder.snapshot();
+        assertEquals(5, stats.getMaxQueueDepth());
+        assertEquals(2, stats.getQueueDepth());
+        assertEquals(1, stats.getReschedules());
+
+        // The rest
+        recorder.onBatchStart();
+        for (int i = 3; i < 5; i++) {
+            recorder.onPoll(offered[i]);
+            recorder.onRun(this, offered[i], offered[i], offered[i]);
+        }
+        recorder.onBatchEnd(2, false);
+        stats = recorder.snapshot();
+        assertEquals(2, stats.getBatches());
+        assertEquals(3, stats.getMaxBatchSize());
+        assertEquals(2.5f, stats.getAverageBatchSize(), 0);
+        assertEquals(1, stats.getReschedules());
+        assertEquals(0, stats.getQueueDepth());
+        assertEquals(5, stats.getMaxQueueDepth());
+
+        // Polled but offered before the start, not in the depth
+        recorder.onPoll(0);
+        assertEquals(0, recorder.snapshot().getQueueDepth());
+    }
+
+    @Test
+    public void slowTasksAreReportedByName() {
+        Slow slow = new Slow();
+        UIKitDispatchRecorder recorder = new UIKitDispatchRecorder(2 * MS, slow);
+        long offered = recorder.onOffer();
+        long begin = offered + 100 * US;
+        // Shorter than the threshold
+        recorder.onRun(new SlowTask(), offered, begin, begin + MS);
+        recorder.onRun(new SlowTask(), offered, begin, begin + 2 * MS);
+        // A future is named by its callable
+        recorder.onRun(SlowCallable.class, 0, begin, begin + 5 * MS);
+
+        assertEquals(2, recorder.snapshot().getSlowTasks());
+        assertEquals(2, slow.mReports.size());
+        assertArrayEquals(new Object[]{SlowTask.class.getName(), 100 * US, 2 * MS}, slow.mReports.get(0));
+        assertArrayEquals(new Object[]{SlowCallable.class.getName(), -1L, 5 * MS}, slow.mReports.get(1));
+
+        // 0 is not report
+        recorder = new UIKitDispatchRecorder(0, slow);
+        recorder.onRun(new SlowTask(), 0, begin, begin + 500 * MS);
+        assertEquals(0, recorder.snapshot().getSlowTasks());
+        assertEquals(2, slow.mReports.size());
+    }
+
+    @Test
+    public void posterReportsTheTargets() throws Exception {
+        mExecutor = Executors.newSingleThreadExecutor();
+        UIKitPoster poster = UIKitPoster.create(mExecutor, 1000);
+        Slow slow = new Slow();
+        // Far from the slow runnables and the marker, a preempted marker is not slow
+        poster.startInstrumentation(15, slow);
+
+        final CountDownLatch done = new CountDownLatch(1);
+        poster.async(new SlowTask(), UIKit.Priority.HIGH);
+        poster.async("key", new SlowTask(), UIKit.Priority.NORMAL);
+        assertEquals(1, (int) poster.submit(new SlowCallable(), UIKit.Priority.IDLE).get(WAIT, TimeUnit.SECONDS));
+        poster.async(new Runnable() {
+            @Override
+            public void run() {
+                done.countDown();
+            }
+        });
+        assertTrue(done.await(WAIT, TimeUnit.SECONDS));
+        // The batch is recorded after its last runnable, wait the executor
+        mExecutor.submit(new Runnable() {
+            @Override
+            public void run() {
+            }
+        }).get();
+
+        // The wrappers of the keyed and the future are not the names
+        assertEquals(3, slow.mReports.size());
+        assertEquals(SlowTask.class.getName(), slow.mReports.get(0)[0]);
+        assertEquals(SlowTask.class.getName(), slow.mReports.get(1)[0]);
+        assertEquals(SlowCallable.class.getName(), slow.mReports.get(2)[0]);
+        UIKitDispatchStats stats = poster.getDispatchStats();
+        assertEquals(4, stats.getTasks());
+        assertEquals(4, stats.getWaitedTasks());
+        assertEquals(3, stats.getSlowTasks());
+        assertEquals(0, stats.getQueueDepth());
+        assertTrue(stats.toString(), stats.getBatches() >= 1);
+    }
+
+    @Test
+    public void stoppedPosterRecordsNothing() throws Exception {
+        mExecutor = Executors.newSingleThreadExecutor();
+        UIKitPoster poster = UIKitPoster.create(mExecutor, 1000);
+        assertNull(poster.getDispatchStats());
+        final CountDownLatch first = new CountDownLatch(10);
+        Runnable runnable = new Runnable() {
+            @Override
+            public void run() {
+                first.countDown();
+            }
+        };
+        for (int i = 0; i < 10; i++)
+            poster.async(runnable);
+        assertTrue(first.await(WAIT, TimeUnit.SECONDS));
+        mExecutor.submit(runnable).get();
+
+        // Started after, the runs and the offers before are not counted
+        poster.startInstrumentation(1, new Slow());
+        UIKitDispatchStats stats = poster.getDispatchStats();
+        assertEquals(0, stats.getTasks());
+        assertEquals(0, stats.getBatches());
+        assertEquals(0, stats.getQueueDepth());
+
+        poster.stopInstrumentation();
+        assertNull(poster.getDispatchStats());
+        poster.async(new SlowTask());
+        mExecutor.submit(runnable).get();
+        assertNull(poster.getDispatchStats());
+
+        // A start again is a new recorder
+        poster.startInstrumentation(1, new Slow());
+        assertEquals(0, poster.getDispatchStats().getTasks());
+        assertEquals(0, poster.getDispatchStats().getSlowTasks());
+    }
+}
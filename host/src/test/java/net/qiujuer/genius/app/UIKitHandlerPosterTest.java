@@ -0,0 +1,392 @@
+/*
+ * Copyright (C) 2014 Qiujuer <qiujuer@live.cn>
+ * WebSite http://www.qiujuer.net
+ * Created 10/19/2026
+ * Changed 10/19/2026
+ * Version 1.0.0
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.qiujuer.genius.app;
+
+import android.os.Looper;
+import android.os.MessageQueue;
+import android.view.Choreographer;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Created by Qiujuer
+ * on 2026/10/19.
+ * <p/>
+ * The poster of a looper with the frames of the host Choreographer:
+ * the batches stop at the frame budget, the rest runs in the next frame,
+ * and the frame statistics count the tasks and the overruns.
+ * The idle runnables run within the budget of each idle slot of the looper
+ * and are promoted to the normal lane after their max wait time.
+ */
+public class UIKitHandlerPosterTest {
+    private static final long WAIT = 10;
+    private static final long MS = 1000000L;
+    private static final long FRAME = 16666667L;
+
+    private Looper mLooper;
+
+    @After
+    public void tearDown() {
+        if (mLooper != null)
+            mLooper.quit();
+    }
+
+    private UIKitHandlerPoster looperPoster() throws InterruptedException {
+        return looperPoster(1000);
+    }
+
+    private UIKitHandlerPoster looperPoster(int maxMillisInsideBatch) throws InterruptedException {
+        final Looper[] looper = new Looper[1];
+        final CountDownLatch prepared = new CountDownLatch(1);
+        Thread thread = new Thread("UIKitHandlerPosterTest:looper") {
+            @Override
+            public void run() {
+                Looper.prepare();
+                looper[0] = Looper.myLooper();
+                prepared.countDown();
+                Looper.loop();
+            }
+        };
+        thread.setDaemon(true);
+        thread.start();
+        prepared.await();
+        mLooper = looper[0];
+        return new UIKitHandlerPoster(mLooper, maxMillisInsideBatch);
+    }
+
+    private static void spin(long nanos) {
+        long end = System.nanoTime() + nanos;
+        while (System.nanoTime() < end) {
+            Thread.yield();
+        }
+    }
+
+    /**
+     * Post the count of runnables which spin for the nanos,
+     * the start times are returned after all are run
+     */
+    private static long[] runSpins(UIKitPoster poster, int count, final long nanos) throws InterruptedException {
+        final long[] starts = new long[count];
+        final CountDownLatch done = new CountDownLatch(count);
+        for (int i = 0; i < count; i++) {
+            final int index = i;
+            poster.async(new Runnable() {
+                @Override
+                public void run() {
+                    starts[index] = System.nanoTime();
+                    spin(nanos);
+                    done.countDown();
+                }
+            });
+        }
+        assertTrue(done.await(WAIT, TimeUnit.SECONDS));
+        return starts;
+    }
+
+    /**
+     * Record the frame times on the looper until the returned flag is set
+     */
+    private static List<Long> recordFrames(UIKitPoster poster, final boolean[] stop) {
+        final List<Long> frames = new ArrayList<>();
+        poster.sync(new Runnable() {
+            @Override
+            public void run() {
+                Choreographer.getInstance().postFrameCallback(new Choreographer.FrameCallback() {
+                    @Override
+                    public void doFrame(long frameTimeNanos) {
+                        frames.add(frameTimeNanos);
+                        if (!stop[0])
+                            Choreographer.getInstance().postFrameCallback(this);
+                    }
+                });
+            }
+        });
+        return frames;
+    }
+
+    @Test
+    public void batchesStopAtFrameDeadline() throws InterruptedException {
+        final UIKitHandlerPoster poster = looperPoster();
+        poster.setFrameBudget(0.5f);
+        final boolean[] stop = new boolean[1];
+        final List<Long> frames = recordFrames(poster, stop);
+
+        final int count = 60;
+        long[] starts = runSpins(poster, count, MS);
+        final long[] lastFrame = new long[1];
+        poster.sync(new Runnable() {
+            @Override
+            public void run() {
+                stop[0] = true;
+                lastFrame[0] = frames.isEmpty() ? 0 : frames.get(frames.size() - 1);
+            }
+        });
+
+        // A task after the first of a batch starts before the half of its frame,
+        // so with 1 ms tasks the second half of the frames is left free
+        int late = 0;
+        int checked = 0;
+        for (long start : starts) {
+            long frame = 0;
+            for (int i = 0; i < frames.size() && frames.get(i) <= start; i++)
+                frame = frames.get(i);
+            if (frame == 0 || frame > lastFrame[0])
+                continue;
+            checked++;
+            if (start - frame > FRAME / 2 + MS)
+                late++;
+        }
+        assertTrue("checked " + checked, checked > count / 2);
+        assertTrue(late + " late of " + checked, late <= 3);
+
+        // The rest of each frame was deferred to the next frame
+        UIKitFrameStats stats = poster.getFrameStats();
+        assertTrue(stats.toString(), stats.getTasks() >= count);
+        assertTrue(stats.toString(), stats.getDeferrals() >= 4);
+        assertTrue(stats.toString(), stats.getFrames() >= 5);
+        assertTrue(stats.toString(), stats.getMaxFrameTasks() <= 10);
+        assertEquals(FRAME, stats.getFrameIntervalNanos(), MS);
+    }
+
+    @Test
+    public void framesCountTheTasks() throws InterruptedException {
+        final UIKitHandlerPoster poster = looperPoster();
+        poster.setFrameBudget(0.5f);
+        runSpins(poster, 30, MS);
+        // The tasks of a frame are counted by the next frame callback
+        Thread.sleep(100);
+
+        UIKitFrameStats stats = poster.getFrameStats();
+        assertEquals(30, stats.getTasks());
+        assertEquals(30, stats.getFrames() * stats.getAverageFrameTasks(), 0.001);
+        assertTrue(stats.toString(), stats.getLastFrameTasks() > 0);
+        assertTrue(stats.toString(), stats.getMaxFrameTasks() >= stats.getLastFrameTasks());
+        assertTrue(stats.toString(), stats.getMaxFrameTasks() < 30);
+
+        poster.resetFrameStats();
+        stats = poster.getFrameStats();
+        assertEquals(0, stats.getTasks());
+        assertEquals(0, stats.getFrames());
+        assertEquals(0, stats.getMaxFrameTasks());
+        assertEquals(0, stats.getLastFrameTasks());
+        assertEquals(0, stats.getDeferrals());
+        assertEquals(0f, stats.getAverageFrameTasks(), 0);
+    }
+
+    @Test
+    public void longTaskIsAnOverrun() throws InterruptedException {
+        UIKitHandlerPoster poster = looperPoster();
+        poster.setFrameBudget(0.5f);
+        // Longer than a frame, the batch ends after the end of its frame
+        runSpins(poster, 2, 2 * FRAME);
+
+        UIKitFrameStats stats = poster.getFrameStats();
+        assertTrue(stats.toString(), stats.getOverruns() >= 1);
+        assertTrue(stats.toString(), stats.getMaxOverrunNanos() >= FRAME / 2);
+        assertTrue(stats.toString(), stats.getOverrunNanos() >= stats.getMaxOverrunNanos());
+        // The second waits the next frame
+        assertTrue(stats.toString(), stats.getDeferrals() >= 1);
+
+        poster.resetFrameStats();
+        stats = poster.getFrameStats();
+        assertEquals(0, stats.getOverruns());
+        assertEquals(0, stats.getOverrunNanos());
+        assertEquals(0, stats.getMaxOverrunNanos());
+    }
+
+    @Test
+    public void frameCallbackIsRegisteredOnce() throws InterruptedException {
+        UIKitHandlerPoster poster = looperPoster();
+        poster.setFrameBudget(0.5f);
+        final int[] max = new int[1];
+        Runnable runnable = new Runnable() {
+            @Override
+            public void run() {
+                max[0] = Math.max(max[0], Choreographer.getInstance().getFrameCallbackCount());
+            }
+        };
+        // Each sync is a batch of its own, many batches in a frame
+        for (int i = 0; i < 50; i++)
+            poster.sync(runnable);
+        assertEquals(1, max[0]);
+    }
+
+    @Test
+    public void withoutBudgetNoFrames() throws InterruptedException {
+        UIKitHandlerPoster poster = looperPoster();
+        runSpins(poster, 30, MS);
+        Thread.sleep(50);
+
+        UIKitFrameStats stats = poster.getFrameStats();
+        assertEquals(30, stats.getTasks());
+        assertEquals(0, stats.getFrames());
+        assertEquals(0, stats.getDeferrals());
+        assertEquals(0, stats.getFrameIntervalNanos());
+    }
+
+    /**
+     * Count the idle slots of the looper, added before the idle handler
+     * of the poster so a runnable sees the count of its slot
+     */
+    private static int[] countIdleSlots(UIKitPoster poster) {
+        final int[] slots = new int[1];
+        poster.sync(new Runnable() {
+            @Override
+            public void run() {
+                Looper.myQueue().addIdleHandler(new MessageQueue.IdleHandler() {
+                    @Override
+                    public boolean queueIdle() {
+                        slots[0]++;
+                        return true;
+                    }
+                });
+            }
+        });
+        return slots;
+    }
+
+    @Test
+    public void idleRunsWithinTheSlotBudget() throws InterruptedException {
+        UIKitHandlerPoster poster = looperPoster();
+        poster.setIdleBudget(5);
+        final int[] slots = countIdleSlots(poster);
+
+        final int count = 12;
+        final int[] slotOf = new int[count];
+        final List<Integer> order = new ArrayList<>();
+        final CountDownLatch done = new CountDownLatch(count);
+        for (int i = 0; i < count; i++) {
+            final int index = i;
+            poster.idle(new Runnable() {
+                @Override
+                public void run() {
+                    slotOf[index] = slots[0];
+                    order.add(index);
+                    spin(2 * MS);
+                    done.countDown();
+                }
+            }, 0);
+        }
+        assertTrue(done.await(WAIT, TimeUnit.SECONDS));
+
+        // All in order, the rest of a slot waits the next slot
+        for (int i = 0; i < count; i++)
+            assertEquals(i, (int) order.get(i));
+        // 2 ms runnables in 5 ms slots: 3 at most in a slot
+        int inSlot = 1;
+        int used = 1;
+        for (int i = 1; i < count; i++) {
+            assertTrue(slotOf[i] >= slotOf[i - 1]);
+            if (slotOf[i] == slotOf[i - 1]) {
+                inSlot++;
+                assertTrue("slot of " + inSlot, inSlot <= 3);
+            } else {
+                inSlot = 1;
+                used++;
+            }
+        }
+        assertTrue("used " + used, used >= count / 3);
+    }
+
+    @Test
+    public void idleRunsOneLongerThanTheBudget() throws InterruptedException {
+        UIKitHandlerPoster poster = looperPoster();
+        poster.setIdleBudget(1);
+        final int[] slots = countIdleSlots(poster);
+
+        final int count = 4;
+        final int[] slotOf = new int[count];
+        final CountDownLatch done = new CountDownLatch(count);
+        for (int i = 0; i < count; i++) {
+            final int index = i;
+            poster.idle(new Runnable() {
+                @Override
+                public void run() {
+                    slotOf[index] = slots[0];
+                    spin(5 * MS);
+                    done.countDown();
+                }
+            }, 0);
+        }
+        assertTrue(done.await(WAIT, TimeUnit.SECONDS));
+        // Each in a slot of its own
+        for (int i = 1; i < count; i++)
+            assertTrue(slotOf[i] > slotOf[i - 1]);
+    }
+
+    @Test
+    public void idleIsPromotedAfterMaxWait() throws InterruptedException {
+        // Short batches, the looper is busy without an idle slot
+        final UIKitHandlerPoster poster = looperPoster(5);
+        final long[] busyUntil = new long[1];
+        final boolean[] busy = {true};
+        busyUntil[0] = System.nanoTime() + 400 * MS;
+        poster.async(new Runnable() {
+            @Override
+            public void run() {
+                spin(MS);
+                if (System.nanoTime() < busyUntil[0])
+                    poster.async(this);
+                else
+                    busy[0] = false;
+            }
+        });
+        long posted = System.nanoTime();
+
+        final long[] promotedAt = new long[1];
+        final boolean[] promotedBusy = new boolean[1];
+        final CountDownLatch promoted = new CountDownLatch(1);
+        poster.idle(new Runnable() {
+            @Override
+            public void run() {
+                promotedAt[0] = System.nanoTime();
+                promotedBusy[0] = busy[0];
+                promoted.countDown();
+            }
+        }, 50);
+        final boolean[] waitedBusy = {true};
+        final CountDownLatch waited = new CountDownLatch(1);
+        poster.idle(new Runnable() {
+            @Override
+            public void run() {
+                waitedBusy[0] = busy[0];
+                waited.countDown();
+            }
+        }, 0);
+
+        assertTrue(promoted.await(WAIT, TimeUnit.SECONDS));
+        // Run in the normal lane while the looper is busy
+        assertTrue(promotedBusy[0]);
+        assertTrue(promotedAt[0] - posted >= 50 * MS);
+        // Without a max wait time it waits the idle slot
+        assertTrue(waited.await(WAIT, TimeUnit.SECONDS));
+        assertFalse(waitedBusy[0]);
+    }
+}
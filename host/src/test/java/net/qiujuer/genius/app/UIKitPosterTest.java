@@ -0,0 +1,683 @@
+/*
+ * Copyright (C) 2014 Qiujuer <qiujuer@live.cn>
+ * WebSite http://www.qiujuer.net
+ * Created 10/19/2026
+ * Changed 10/19/2026
+ * Version 1.0.0
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.qiujuer.genius.app;
+
+import android.os.Looper;
+
+import org.junit.After;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Created by Qiujuer
+ * on 2026/10/19.
+ * <p/>
+ * The posters on a single thread executor and on a looper thread:
+ * the weights of the lanes, the coalescing by key, the batches,
+ * the allocation of the sync path, a rejected executor and the futures
+ * of the callables, also on the main looper by {@link UIKit} with the
+ * idle runnables.
+ */
+public class UIKitPosterTest {
+    private static final long WAIT = 10;
+
+    private ExecutorService mExecutor;
+    private Looper mLooper;
+
+    @BeforeClass
+    public static void prepareMainLooper() throws InterruptedException {
+        synchronized (Looper.class) {
+            if (Looper.getMainLooper() != null)
+                return;
+            final CountDownLatch prepared = new CountDownLatch(1);
+            Thread thread = new Thread("main") {
+                @Override
+                public void run() {
+                    Looper.prepareMainLooper();
+                    prepared.countDown();
+                    Looper.loop();
+                }
+            };
+            thread.setDaemon(true);
+            thread.start();
+            prepared.await();
+        }
+    }
+
+    @After
+    public void tearDown() {
+        if (mExecutor != null)
+            mExecutor.shutdownNow();
+        if (mLooper != null)
+            mLooper.quit();
+    }
+
+    private UIKitPoster executorPoster() {
+        mExecutor = Executors.newSingleThreadExecutor();
+        return UIKitPoster.create(mExecutor, 1000);
+    }
+
+    private UIKitPoster looperPoster() throws InterruptedException {
+        final Looper[] looper = new Looper[1];
+        final CountDownLatch prepared = new CountDownLatch(1);
+        Thread thread = new Thread("UIKitPosterTest:looper") {
+            @Override
+            public void run() {
+                Looper.prepare();
+                looper[0] = Looper.myLooper();
+                prepared.countDown();
+                Looper.loop();
+            }
+        };
+        thread.setDaemon(true);
+        thread.start();
+        prepared.await();
+        mLooper = looper[0];
+        return UIKitPoster.create(mLooper, 1000);
+    }
+
+    /**
+     * Block the consumer until the returned latch is counted down
+     */
+    private static CountDownLatch block(UIKitPoster poster, UIKit.Priority priority) {
+        final CountDownLatch gate = new CountDownLatch(1);
+        final CountDownLatch blocked = new CountDownLatch(1);
+        poster.async(new Runnable() {
+            @Override
+            public void run() {
+                blocked.countDown();
+                try {
+                    gate.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }, priority);
+        try {
+            blocked.await();
+        } catch (InterruptedException e) {
+            throw new AssertionError(e);
+        }
+        return gate;
+    }
+
+    /**
+     * Wait until the runnables posted before are run,
+     * each lane is in order so a marker is posted to all
+     */
+    private static void await(UIKitPoster poster) {
+        final CountDownLatch done = new CountDownLatch(UIKit.Priority.values().length);
+        for (UIKit.Priority priority : UIKit.Priority.values()) {
+            poster.async(new Runnable() {
+                @Override
+                public void run() {
+                    done.countDown();
+                }
+            }, priority);
+        }
+        try {
+            assertTrue(done.await(WAIT, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    private static int count(CharSequence sequence, char c) {
+        int count = 0;
+        for (int i = 0; i < sequence.length(); i++) {
+            if (sequence.charAt(i) == c)
+                count++;
+        }
+        return count;
+    }
+
+    @Test
+    public void lanesAreWeighted() {
+        final int count = 3000;
+        UIKitPoster poster = executorPoster();
+        CountDownLatch gate = block(poster, UIKit.Priority.HIGH);
+        final StringBuffer order = new StringBuffer();
+        for (UIKit.Priority priority : UIKit.Priority.values()) {
+            final char c = priority.name().charAt(0);
+            for (int i = 0; i < count; i++) {
+                poster.async(new Runnable() {
+                    @Override
+                    public void run() {
+                        order.append(c);
+                    }
+                }, priority);
+            }
+        }
+        gate.countDown();
+        await(poster);
+
+        assertEquals(3 * count, order.length());
+        // 4:2:1 while all lanes are busy, the idle lane is not starved
+        CharSequence busy = order.subSequence(0, 700);
+        assertEquals(400, count(busy, 'H'), 8);
+        assertEquals(200, count(busy, 'N'), 8);
+        assertEquals(100, count(busy, 'I'), 8);
+        assertTrue(order.indexOf("I") < 8);
+    }
+
+    @Test
+    public void keyRunsLatestOnly() throws InterruptedException {
+        final int producers = 4;
+        final int count = 5000;
+        final UIKitPoster poster = executorPoster();
+        CountDownLatch gate = block(poster, UIKit.Priority.HIGH);
+        final List<Integer> seen = Collections.synchronizedList(new ArrayList<Integer>());
+        Thread[] threads = new Thread[producers];
+        for (int p = 0; p < producers; p++) {
+            final int id = p;
+            threads[p] = new Thread() {
+                @Override
+                public void run() {
+                    for (int i = 0; i < count; i++) {
+                        final int value = id * count + i;
+                        poster.async("progress" + id, new Runnable() {
+                            @Override
+                            public void run() {
+                                seen.add(value);
+                            }
+                        }, UIKit.Priority.IDLE);
+                    }
+                }
+            };
+            threads[p].start();
+        }
+        for (Thread thread : threads)
+            thread.join();
+        gate.countDown();
+        await(poster);
+
+        Collections.sort(seen);
+        List<Integer> expect = new ArrayList<>();
+        for (int p = 0; p < producers; p++)
+            expect.add(p * count + count - 1);
+        assertEquals(expect, seen);
+        assertEquals(producers * (count - 1), poster.getCoalescedCount());
+
+        // After the run the key posts again
+        seen.clear();
+        poster.async("progress0", new Runnable() {
+            @Override
+            public void run() {
+                seen.add(-1);
+            }
+        }, UIKit.Priority.NORMAL);
+        await(poster);
+        assertEquals(Collections.singletonList(-1), seen);
+    }
+
+    @Test
+    public void batchesAreContiguous() throws InterruptedException {
+        final int producers = 4;
+        final int batches = 500;
+        final int size = 50;
+        final UIKitPoster poster = executorPoster();
+        final List<int[]> seen = Collections.synchronizedList(new ArrayList<int[]>());
+        Thread[] threads = new Thread[producers];
+        for (int p = 0; p < producers; p++) {
+            final int id = p;
+            threads[p] = new Thread() {
+                @Override
+                public void run() {
+                    UIKitBatch batch = poster.newBatch();
+                    for (int b = 0; b < batches; b++) {
+                        for (int i = 0; i < size; i++) {
+                            final int[] value = {id, b, i};
+                            batch.add(new Runnable() {
+                                @Override
+                                public void run() {
+                                    seen.add(value);
+                                }
+                            });
+                        }
+                        batch.post();
+                    }
+                }
+            };
+            threads[p].start();
+        }
+        for (Thread thread : threads)
+            thread.join();
+        await(poster);
+
+        assertEquals(producers * batches * size, seen.size());
+        for (int k = 0; k < seen.size(); k += size) {
+            int[] first = seen.get(k);
+            for (int i = 0; i < size; i++) {
+                int[] value = seen.get(k + i);
+                assertEquals(first[0], value[0]);
+                assertEquals(first[1], value[1]);
+                assertEquals(i, value[2]);
+            }
+        }
+    }
+
+    @Test
+    public void nullIsThrownAndNothingQueued() {
+        final AtomicInteger runs = new AtomicInteger();
+        Runnable runnable = new Runnable() {
+            @Override
+            public void run() {
+                runs.incrementAndGet();
+            }
+        };
+        UIKitPoster poster = executorPoster();
+        try {
+            poster.async((Runnable) null);
+            fail();
+        } catch (NullPointerException ignored) {
+        }
+        try {
+            poster.async("key", null, UIKit.Priority.NORMAL);
+            fail();
+        } catch (NullPointerException ignored) {
+        }
+        try {
+            poster.async(Arrays.asList(runnable, null, runnable));
+            fail();
+        } catch (NullPointerException ignored) {
+        }
+        poster.async(runnable);
+        await(poster);
+        assertEquals(1, runs.get());
+    }
+
+    @Test
+    public void syncIsAllocationFree() throws InterruptedException {
+        final com.sun.management.ThreadMXBean bean =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        UIKitPoster poster = looperPoster();
+        final long[] consumer = new long[1];
+        poster.sync(new Runnable() {
+            @Override
+            public void run() {
+                consumer[0] = Thread.currentThread().getId();
+            }
+        });
+        final int[] counter = new int[1];
+        Runnable runnable = new Runnable() {
+            @Override
+            public void run() {
+                counter[0]++;
+            }
+        };
+        long caller = Thread.currentThread().getId();
+        for (int i = 0; i < 20000; i++)
+            poster.sync(runnable);
+
+        final int count = 100000;
+        long callerStart = bean.getThreadAllocatedBytes(caller);
+        long consumerStart = bean.getThreadAllocatedBytes(consumer[0]);
+        for (int i = 0; i < count; i++)
+            poster.sync(runnable);
+        double callerBytes = (bean.getThreadAllocatedBytes(caller) - callerStart) / (double) count;
+        double consumerBytes = (bean.getThreadAllocatedBytes(consumer[0]) - consumerStart) / (double) count;
+
+        assertEquals(120000, counter[0]);
+        // The posts and the messages are pooled, the rest is the noise of the measure
+        assertTrue("caller " + callerBytes + " B/call", callerBytes < 1);
+        assertTrue("consumer " + consumerBytes + " B/call", consumerBytes < 1);
+    }
+
+    @Test
+    public void rejectedExecutorPostsAgain() {
+        final AtomicInteger rejects = new AtomicInteger(1);
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        mExecutor = executor;
+        UIKitPoster poster = UIKitPoster.create(new Executor() {
+            @Override
+            public void execute(Runnable command) {
+                if (rejects.getAndDecrement() > 0)
+                    throw new RejectedExecutionException();
+                executor.execute(command);
+            }
+        }, 1000);
+
+        final AtomicInteger runs = new AtomicInteger();
+        Runnable runnable = new Runnable() {
+            @Override
+            public void run() {
+                runs.incrementAndGet();
+            }
+        };
+        try {
+            poster.async(runnable);
+            fail();
+        } catch (RejectedExecutionException ignored) {
+        }
+        // The queued runnable is kept and run by the next post
+        poster.async(runnable);
+        await(poster);
+        assertEquals(2, runs.get());
+    }
+
+    @Test
+    public void rejectKeepsTheOtherSenders() throws InterruptedException {
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        mExecutor = executor;
+        final UIKitPoster[] poster = new UIKitPoster[1];
+        final AtomicInteger runs = new AtomicInteger();
+        final Runnable runnable = new Runnable() {
+            @Override
+            public void run() {
+                runs.incrementAndGet();
+            }
+        };
+        final Thread syncer = new Thread("UIKitPosterTest:sync") {
+            @Override
+            public void run() {
+                poster[0].sync(runnable);
+            }
+        };
+        final AtomicInteger rejects = new AtomicInteger(1);
+        poster[0] = UIKitPoster.create(new Executor() {
+            @Override
+            public void execute(Runnable command) {
+                if (rejects.getAndDecrement() > 0) {
+                    // A sync is sent while the async is being rejected,
+                    // it sees the runner executed and waits for it
+                    syncer.start();
+                    while (syncer.getState() != Thread.State.WAITING) {
+                        Thread.yield();
+                    }
+                    throw new RejectedExecutionException();
+                }
+                executor.execute(command);
+            }
+        }, 1000);
+
+        try {
+            poster[0].async(runnable);
+            fail();
+        } catch (RejectedExecutionException ignored) {
+        }
+        assertTrue(syncer.isAlive());
+        // The next post runs the batch of the sync too
+        poster[0].async(runnable);
+        syncer.join(TimeUnit.SECONDS.toMillis(WAIT));
+        assertFalse(syncer.isAlive());
+        await(poster[0]);
+        assertEquals(3, runs.get());
+    }
+
+    private static Callable<Integer> counting(final AtomicInteger runs, final int value) {
+        return new Callable<Integer>() {
+            @Override
+            public Integer call() {
+                runs.incrementAndGet();
+                return value;
+            }
+        };
+    }
+
+    @Test
+    public void submitReturnsTheValue() throws Exception {
+        UIKitPoster poster = executorPoster();
+        final AtomicInteger runs = new AtomicInteger();
+        Future<Integer> future = poster.submit(counting(runs, 42), UIKit.Priority.HIGH);
+        assertEquals(42, (int) future.get(WAIT, TimeUnit.SECONDS));
+        assertTrue(future.isDone());
+        assertFalse(future.isCancelled());
+        // Done, the cancel is too late
+        assertFalse(future.cancel(true));
+        assertEquals(1, runs.get());
+    }
+
+    @Test
+    public void submitKeepsTheException() throws Exception {
+        UIKitPoster poster = executorPoster();
+        Future<Object> future = poster.submit(new Callable<Object>() {
+            @Override
+            public Object call() throws Exception {
+                throw new IOException("callable");
+            }
+        }, UIKit.Priority.NORMAL);
+        try {
+            future.get(WAIT, TimeUnit.SECONDS);
+            fail();
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof IOException);
+            assertEquals("callable", e.getCause().getMessage());
+        }
+        // The exception is not thrown on the consumer, the next runs
+        Future<Integer> next = poster.submit(counting(new AtomicInteger(), 7), UIKit.Priority.NORMAL);
+        assertEquals(7, (int) next.get(WAIT, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void getTimesOutWhileWaiting() throws Exception {
+        UIKitPoster poster = executorPoster();
+        CountDownLatch gate = block(poster, UIKit.Priority.HIGH);
+        Future<Integer> future = poster.submit(counting(new AtomicInteger(), 3), UIKit.Priority.NORMAL);
+        long start = System.nanoTime();
+        try {
+            future.get(50, TimeUnit.MILLISECONDS);
+            fail();
+        } catch (TimeoutException ignored) {
+        }
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(50));
+        assertFalse(future.isDone());
+
+        gate.countDown();
+        assertEquals(3, (int) future.get(WAIT, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void cancelRemovesFromQueue() throws Exception {
+        UIKitPoster poster = executorPoster();
+        CountDownLatch gate = block(poster, UIKit.Priority.HIGH);
+        final AtomicInteger runs = new AtomicInteger();
+        Future<Integer> cancelled = poster.submit(counting(runs, 1), UIKit.Priority.NORMAL);
+        Future<Integer> kept = poster.submit(counting(runs, 2), UIKit.Priority.NORMAL);
+        assertTrue(cancelled.cancel(true));
+        assertTrue(cancelled.isCancelled());
+        assertTrue(cancelled.isDone());
+        // A second cancel finds the slot empty
+        assertFalse(cancelled.cancel(true));
+        try {
+            cancelled.get();
+            fail();
+        } catch (CancellationException ignored) {
+        }
+
+        gate.countDown();
+        assertEquals(2, (int) kept.get(WAIT, TimeUnit.SECONDS));
+        await(poster);
+        // The batch is counted after its last runnable, wait the executor
+        mExecutor.submit(new Runnable() {
+            @Override
+            public void run() {
+            }
+        }).get();
+        assertEquals(1, runs.get());
+        // The cancelled slot is skipped, not counted as a task:
+        // the blocker, the kept and the markers of the lanes
+        assertEquals(2 + UIKit.Priority.values().length, poster.getFrameStats().getTasks());
+    }
+
+    @Test
+    public void submitOnPosterThreadRunsAtOnce() throws InterruptedException {
+        final UIKitPoster poster = looperPoster();
+        final boolean[] done = new boolean[1];
+        poster.sync(new Runnable() {
+            @Override
+            public void run() {
+                done[0] = poster.submit(counting(new AtomicInteger(), 1), UIKit.Priority.IDLE).isDone();
+            }
+        });
+        assertTrue(done[0]);
+    }
+
+    @Test
+    public void runOnMainThreadCallable() throws Exception {
+        Future<Thread> thread = UIKit.runOnMainThread(new Callable<Thread>() {
+            @Override
+            public Thread call() {
+                return Thread.currentThread();
+            }
+        });
+        assertEquals(Looper.getMainLooper().getThread(), thread.get(WAIT, TimeUnit.SECONDS));
+
+        Future<Object> failed = UIKit.runOnMainThread(new Callable<Object>() {
+            @Override
+            public Object call() {
+                throw new IllegalStateException("main");
+            }
+        }, UIKit.Priority.HIGH);
+        try {
+            failed.get(WAIT, TimeUnit.SECONDS);
+            fail();
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof IllegalStateException);
+        }
+
+        // Cancelled while the main thread is blocked, never run
+        final CountDownLatch gate = new CountDownLatch(1);
+        final CountDownLatch blocked = new CountDownLatch(1);
+        UIKit.runOnMainThreadAsync(new Runnable() {
+            @Override
+            public void run() {
+                blocked.countDown();
+                try {
+                    gate.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+        assertTrue(blocked.await(WAIT, TimeUnit.SECONDS));
+        AtomicInteger runs = new AtomicInteger();
+        Future<Integer> cancelled = UIKit.runOnMainThread(counting(runs, 1));
+        assertTrue(cancelled.cancel(false));
+        gate.countDown();
+        Future<Integer> after = UIKit.runOnMainThread(counting(runs, 2));
+        assertEquals(2, (int) after.get(WAIT, TimeUnit.SECONDS));
+        assertEquals(1, runs.get());
+    }
+
+    @Test
+    public void runOnMainThreadWhenIdle() throws InterruptedException {
+        final Thread[] threads = new Thread[2];
+        final CountDownLatch done = new CountDownLatch(2);
+        UIKit.runOnMainThreadWhenIdle(new Runnable() {
+            @Override
+            public void run() {
+                threads[0] = Thread.currentThread();
+                done.countDown();
+            }
+        });
+        UIKit.runOnMainThreadWhenIdle(new Runnable() {
+            @Override
+            public void run() {
+                threads[1] = Thread.currentThread();
+                done.countDown();
+            }
+        }, 100);
+        assertTrue(done.await(WAIT, TimeUnit.SECONDS));
+        assertEquals(Looper.getMainLooper().getThread(), threads[0]);
+        assertEquals(Looper.getMainLooper().getThread(), threads[1]);
+        try {
+            UIKit.runOnMainThreadWhenIdle(new Runnable() {
+                @Override
+                public void run() {
+                }
+            }, -1);
+            fail();
+        } catch (IllegalArgumentException ignored) {
+        }
+    }
+
+    @Test
+    public void throttleTokensAreNotAsyncKeys() throws InterruptedException {
+        try {
+            UIKit.runOnMainThreadThrottled("token", new Runnable() {
+                @Override
+                public void run() {
+                }
+            }, 0);
+            fail();
+        } catch (IllegalArgumentException ignored) {
+        }
+
+        final CountDownLatch gate = new CountDownLatch(1);
+        final CountDownLatch blocked = new CountDownLatch(1);
+        UIKit.runOnMainThreadAsync(new Runnable() {
+            @Override
+            public void run() {
+                blocked.countDown();
+                try {
+                    gate.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+        assertTrue(blocked.await(WAIT, TimeUnit.SECONDS));
+        final List<String> runs = Collections.synchronizedList(new ArrayList<String>());
+        final CountDownLatch done = new CountDownLatch(2);
+        UIKit.runOnMainThreadAsync("token", new Runnable() {
+            @Override
+            public void run() {
+                runs.add("async");
+                done.countDown();
+            }
+        }, UIKit.Priority.NORMAL);
+        // The same token neither replaces nor is replaced by the keyed async
+        UIKit.runOnMainThreadThrottled("token", new Runnable() {
+            @Override
+            public void run() {
+                runs.add("throttled");
+                done.countDown();
+            }
+        }, 50);
+        gate.countDown();
+        assertTrue(done.await(WAIT, TimeUnit.SECONDS));
+        assertEquals(Arrays.asList("async", "throttled"), runs);
+        UIKit.cancelOnMainThread("token");
+    }
+}
@@ -0,0 +1,146 @@
+/*
+ * Copyright (C) 2014 Qiujuer <qiujuer@live.cn>
+ * WebSite http://www.qiujuer.net
+ * Created 10/19/2026
+ * Changed 10/19/2026
+ * Version 1.0.0
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.qiujuer.genius.app;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Created by Qiujuer
+ * on 2026/10/19.
+ * <p/>
+ * The limiter on a fake clock, the shared timer is fired by {@link #advance(long)}
+ * so the runs are checked at the exact times.
+ */
+public class UIKitRateLimiterTest {
+    private final List<String> mLog = new ArrayList<>();
+    private long mTimer;
+    private int mSchedules;
+    private long mNow;
+    private UIKitRateLimiter mLimiter;
+
+    @Before
+    public void setUp() {
+        mTimer = UIKitRateLimiter.NONE;
+        mLimiter = new UIKitRateLimiter() {
+            @Override
+            void schedule(long time) {
+                mTimer = time;
+                mSchedules++;
+            }
+
+            @Override
+            void dispatch(Runnable runnable) {
+                runnable.run();
+            }
+        };
+    }
+
+    private Runnable log(final String name) {
+        return new Runnable() {
+            @Override
+            public void run() {
+                mLog.add(name + "@" + mNow);
+            }
+        };
+    }
+
+    /**
+     * Move the clock, fire the timer when due
+     */
+    private void advance(long to) {
+        while (mTimer <= to) {
+            mNow = mTimer;
+            mTimer = UIKitRateLimiter.NONE;
+            mLimiter.fire(mNow);
+        }
+        mNow = to;
+    }
+
+    private void assertLog(String expect) {
+        assertEquals(expect, mLog.toString());
+        mLog.clear();
+    }
+
+    @Test
+    public void debounceRunsLatestAfterQuiet() {
+        // Every 10ms for 100ms with the delay 30
+        for (mNow = 0; mNow <= 100; mNow += 10) {
+            advance(mNow);
+            mLimiter.debounce("d", log("d" + mNow), 30, mNow);
+        }
+        advance(500);
+        assertLog("[d100@130]");
+        assertEquals(0, mLimiter.size());
+    }
+
+    @Test
+    public void debounceTokensAreIndependent() {
+        mLimiter.debounce("a", log("a"), 50, 0);
+        mLimiter.debounce("b", log("b"), 20, 0);
+        advance(100);
+        assertLog("[b@20, a@50]");
+    }
+
+    @Test
+    public void throttleRunsLeadingAndTrailing() {
+        // Every 5ms from 1000 to 1095 with the interval 40
+        for (long time = 1000; time < 1100; time += 5) {
+            advance(time);
+            mLimiter.throttle("t", log("t" + time), 40, time);
+        }
+        advance(2000);
+        assertLog("[t1000@1000, t1035@1040, t1075@1080, t1095@1120]");
+
+        // After quiet it runs at once again
+        advance(3000);
+        mLimiter.throttle("t", log("q"), 40, mNow);
+        assertLog("[q@3000]");
+    }
+
+    @Test
+    public void cancelDropsWaiting() {
+        mLimiter.throttle("t", log("t"), 40, 0);
+        mLimiter.throttle("t", log("x"), 40, 1);
+        mLimiter.cancel("t");
+        mLimiter.debounce("c", log("c"), 10, 1);
+        mLimiter.cancel("c");
+        advance(1000);
+        assertLog("[t@0]");
+        assertEquals(0, mLimiter.size());
+    }
+
+    @Test
+    public void sharedTimerIsBounded() {
+        for (int i = 0; i < 1000; i++)
+            mLimiter.debounce(i, log("k"), 100, 0);
+        advance(200);
+        assertEquals(1000, mLog.size());
+        assertEquals(0, mLimiter.size());
+        // One timer for all tokens, not one each
+        assertTrue("schedules " + mSchedules, mSchedules <= 2);
+    }
+}
@@ -0,0 +1,168 @@
+/*
+ * Copyright (C) 2014 Qiujuer <qiujuer@live.cn>
+ * WebSite http://www.qiujuer.net
+ * Created 10/19/2026
+ * Changed 10/19/2026
+ * Version 1.0.0
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.qiujuer.genius.app;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Created by Qiujuer
+ * on 2026/10/19.
+ * <p/>
+ * Producers offer sequence numbers while one consumer polls,
+ * each producer order must be kept and nothing lost.
+ */
+public class UIKitTaskQueueTest {
+    private static final int PRODUCERS = 4;
+    private static final int COUNT = 100000;
+
+    @Test
+    public void producersKeepOrder() throws InterruptedException {
+        final UIKitTaskQueue<long[]> queue = new UIKitTaskQueue<>();
+        final CountDownLatch start = new CountDownLatch(1);
+        Thread[] producers = new Thread[PRODUCERS];
+        for (int p = 0; p < PRODUCERS; p++) {
+            final int id = p;
+            producers[p] = new Thread() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    for (int i = 0; i < COUNT; i++) {
+                        if (i % 100 == 0)
+                            queue.offerAll(Arrays.asList(new long[]{id, i}, new long[]{id, i + 1}), 0);
+                        else if (i % 100 != 1)
+                            queue.offer(new long[]{id, i});
+                    }
+                }
+            };
+            producers[p].start();
+        }
+        start.countDown();
+
+        int[] next = new int[PRODUCERS];
+        int total = 0;
+        long deadline = System.nanoTime() + 30000000000L;
+        while (total < PRODUCERS * COUNT && System.nanoTime() < deadline) {
+            long[] value = queue.poll();
+            if (value == null) {
+                Thread.yield();
+                continue;
+            }
+            int id = (int) value[0];
+            assertEquals("producer " + id, next[id], value[1]);
+            next[id]++;
+            total++;
+        }
+        for (Thread producer : producers)
+            producer.join();
+        assertEquals(PRODUCERS * COUNT, total);
+        assertNull(queue.poll());
+        assertTrue(queue.isEmpty());
+    }
+
+    @Test
+    public void offerAllIsNotMixed() throws InterruptedException {
+        final UIKitTaskQueue<long[]> queue = new UIKitTaskQueue<>();
+        final int batches = 2000;
+        final int size = 16;
+        Thread[] producers = new Thread[PRODUCERS];
+        for (int p = 0; p < PRODUCERS; p++) {
+            final int id = p;
+            producers[p] = new Thread() {
+                @Override
+                public void run() {
+                    for (int b = 0; b < batches; b++) {
+                        List<long[]> batch = new ArrayList<>(size);
+                        for (int i = 0; i < size; i++)
+                            batch.add(new long[]{id, b, i});
+                        assertEquals(size, queue.offerAll(batch, 0));
+                    }
+                }
+            };
+            producers[p].start();
+        }
+        for (Thread producer : producers)
+            producer.join();
+
+        int count = 0;
+        long[] value;
+        while ((value = queue.poll()) != null) {
+            // Each batch is whole in order
+            assertEquals(0, value[2]);
+            for (int i = 1; i < size; i++) {
+                long[] item = queue.poll();
+                assertEquals(value[0], item[0]);
+                assertEquals(value[1], item[1]);
+                assertEquals(i, item[2]);
+            }
+            count++;
+        }
+        assertEquals(PRODUCERS * batches, count);
+    }
+
+    @Test
+    public void nullIsThrown() {
+        UIKitTaskQueue<Runnable> queue = new UIKitTaskQueue<>();
+        Runnable runnable = new Runnable() {
+            @Override
+            public void run() {
+            }
+        };
+        try {
+            queue.offer(null);
+            fail();
+        } catch (NullPointerException ignored) {
+        }
+        try {
+            queue.offerAll(Arrays.asList(runnable, null), 0);
+            fail();
+        } catch (NullPointerException ignored) {
+        }
+        // Nothing is added by the failed offers
+        assertTrue(queue.isEmpty());
+        queue.offer(runnable);
+        assertEquals(runnable, queue.poll());
+        assertNull(queue.poll());
+    }
+
+    @Test
+    public void syncQueueNullIsThrown() {
+        UIKitSyncQueue queue = new UIKitSyncQueue();
+        try {
+            queue.offer(null);
+            fail();
+        } catch (NullPointerException ignored) {
+        }
+        assertTrue(queue.isEmpty());
+    }
+}
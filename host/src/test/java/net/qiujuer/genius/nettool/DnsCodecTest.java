@@ -0,0 +1,216 @@
+/*
+ * Copyright (C) 2014 Qiujuer <qiujuer@live.cn>
+ * WebSite http://www.qiujuer.net
+ * Created 10/19/2026
+ * Changed 10/19/2026
+ * Version 1.0.0
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.qiujuer.genius.nettool;
+
+import org.junit.Test;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Created by Qiujuer
+ * on 2026/10/19.
+ * <p/>
+ * Round trip of random queries and answers, and random damaged responses
+ * which must be rejected without an exception.
+ */
+public class DnsCodecTest {
+    private static final int ID = 0x0206;
+    private static final int ROUNDS = 5000;
+    // The answers of the full names are bigger than an UDP packet
+    private static final int RESPONSE_SIZE = 8192;
+
+    @Test
+    public void roundTripRandomNames() {
+        Random random = new Random(26);
+        ByteBuffer buffer = ByteBuffer.allocate(RESPONSE_SIZE);
+        DnsCodec codec = new DnsCodec(1);
+        for (int round = 0; round < ROUNDS; round++) {
+            String domain = randomDomain(random);
+            int[] addresses = new int[random.nextInt(12)];
+            for (int i = 0; i < addresses.length; i++)
+                addresses[i] = random.nextInt();
+            int id = random.nextInt(0x10000);
+
+            buffer.clear();
+            int length = DnsCodec.encodeQuery(buffer, id, domain, DnsCodec.TYPE_A);
+            assertEquals(length, buffer.position());
+            assertEquals(domain, readName(buffer, 12));
+
+            buffer.clear();
+            buildResponse(buffer, id, domain, addresses, random.nextBoolean(), 0);
+            buffer.flip();
+            assertEquals(addresses.length, codec.decodeResponse(buffer, id));
+            assertEquals(0, codec.getResponseCode());
+            for (int i = 0; i < addresses.length; i++)
+                assertEquals(addresses[i], codec.getAddress(i));
+            // Decode is in place
+            assertEquals(0, buffer.position());
+        }
+    }
+
+    @Test
+    public void damagedResponsesAreRejected() {
+        Random random = new Random(2026);
+        ByteBuffer buffer = ByteBuffer.allocate(RESPONSE_SIZE);
+        DnsCodec codec = new DnsCodec();
+        for (int round = 0; round < ROUNDS * 4; round++) {
+            buffer.clear();
+            buildResponse(buffer, ID, randomDomain(random), new int[1 + random.nextInt(4)],
+                    random.nextBoolean(), 0);
+            buffer.flip();
+            // Flip bytes or cut the response
+            if (random.nextBoolean()) {
+                for (int i = random.nextInt(4); i >= 0; i--) {
+                    int pos = random.nextInt(buffer.limit());
+                    buffer.put(pos, (byte) random.nextInt(256));
+                }
+            } else {
+                buffer.limit(random.nextInt(buffer.limit()));
+            }
+            int count = codec.decodeResponse(buffer, ID);
+            assertTrue(count >= -1 && count <= 4);
+            assertEquals(Math.max(count, 0), codec.getCount());
+            if (count < 0)
+                assertEquals(-1, codec.getResponseCode());
+        }
+    }
+
+    @Test
+    public void truncatedResponseIsRejected() {
+        ByteBuffer buffer = ByteBuffer.allocate(DnsCodec.MAX_PACKET_SIZE);
+        DnsCodec codec = new DnsCodec();
+        buildResponse(buffer, ID, "example.com", new int[]{0x01020304}, true, 0x0200);
+        buffer.flip();
+        assertEquals(-1, codec.decodeResponse(buffer, ID));
+        assertTrue(codec.isTruncated());
+        assertEquals(-1, codec.getResponseCode());
+
+        buffer.clear();
+        buildResponse(buffer, ID, "example.com", new int[]{0x01020304}, true, 0);
+        buffer.flip();
+        assertEquals(1, codec.decodeResponse(buffer, ID));
+        assertFalse(codec.isTruncated());
+        assertEquals("1.2.3.4", DnsCodec.appendAddress(codec.getAddress(0), new StringBuilder()).toString());
+    }
+
+    @Test
+    public void rejectedNameDoesNotWrite() {
+        StringBuilder label = new StringBuilder();
+        for (int i = 0; i < 64; i++)
+            label.append('a');
+        StringBuilder longName = new StringBuilder();
+        for (int i = 0; i < 64; i++)
+            longName.append("abc.");
+        String[] names = {label + ".com", longName.toString(), "caf\u00e9.com"};
+        for (String name : names) {
+            ByteBuffer buffer = ByteBuffer.allocate(DnsCodec.MAX_PACKET_SIZE);
+            try {
+                DnsCodec.encodeQuery(buffer, ID, name, DnsCodec.TYPE_A);
+                fail("Accepted " + name);
+            } catch (IllegalArgumentException e) {
+                assertEquals(0, buffer.position());
+                assertEquals(0, buffer.getLong(0));
+            }
+        }
+
+        // Too small, nothing is written
+        ByteBuffer small = ByteBuffer.allocate(20);
+        try {
+            DnsCodec.encodeQuery(small, ID, "example.com", DnsCodec.TYPE_A);
+            fail();
+        } catch (BufferOverflowException e) {
+            assertEquals(0, small.position());
+        }
+
+        // The longest name is 255 bytes: 3 labels of 63, 1 label of 61 and the 0 end
+        StringBuilder name = new StringBuilder();
+        for (int i = 0; i < 3; i++)
+            name.append(label.substring(1)).append('.');
+        name.append(label.substring(3));
+        ByteBuffer buffer = ByteBuffer.allocate(DnsCodec.MAX_PACKET_SIZE);
+        assertEquals(12 + 255 + 4, DnsCodec.encodeQuery(buffer, ID, name, DnsCodec.TYPE_A));
+    }
+
+    private static String randomDomain(Random random) {
+        StringBuilder builder = new StringBuilder();
+        int labels = 1 + random.nextInt(5);
+        for (int i = 0; i < labels; i++) {
+            if (i > 0)
+                builder.append('.');
+            int length = 1 + random.nextInt(20);
+            for (int j = 0; j < length; j++)
+                builder.append((char) ('a' + random.nextInt(26)));
+        }
+        return builder.toString();
+    }
+
+    private static String readName(ByteBuffer buffer, int pos) {
+        StringBuilder builder = new StringBuilder();
+        int length;
+        while ((length = buffer.get(pos++)) != 0) {
+            if (builder.length() > 0)
+                builder.append('.');
+            for (int i = 0; i < length; i++)
+                builder.append((char) buffer.get(pos++));
+        }
+        return builder.toString();
+    }
+
+    /**
+     * A response of the query, the answer names are pointers to the query name
+     * or the full name, each answer is led by a CNAME record
+     */
+    private static void buildResponse(ByteBuffer buffer, int id, String domain, int[] addresses,
+                                      boolean pointer, int flags) {
+        int start = buffer.position();
+        DnsCodec.encodeQuery(buffer, id, domain, DnsCodec.TYPE_A);
+        buffer.putShort(start + 2, (short) (0x8180 | flags));
+        buffer.putShort(start + 6, (short) (addresses.length * 2));
+        for (int address : addresses) {
+            putName(buffer, domain, pointer);
+            buffer.putShort((short) 5).putShort((short) 1).putInt(60);
+            buffer.putShort((short) 2).putShort((short) 0xC00C);
+
+            putName(buffer, domain, pointer);
+            buffer.putShort((short) DnsCodec.TYPE_A).putShort((short) DnsCodec.CLASS_IN).putInt(60);
+            buffer.putShort((short) 4).putInt(address);
+        }
+    }
+
+    private static void putName(ByteBuffer buffer, String domain, boolean pointer) {
+        if (pointer) {
+            buffer.putShort((short) 0xC00C);
+            return;
+        }
+        for (String label : domain.split("\\.")) {
+            buffer.put((byte) label.length());
+            for (int i = 0; i < label.length(); i++)
+                buffer.put((byte) label.charAt(i));
+        }
+        buffer.put((byte) 0);
+    }
+}
@@ -0,0 +1,174 @@
+/*
+ * Copyright (C) 2014 Qiujuer <qiujuer@live.cn>
+ * WebSite http://www.qiujuer.net
+ * Created 10/19/2026
+ * Changed 10/19/2026
+ * Version 1.0.0
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.qiujuer.genius.nettool;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Created by Qiujuer
+ * on 2026/10/19.
+ * <p/>
+ * The buckets are read back by the percentiles: a value recorded next to
+ * a much bigger one is reported at the highest of its bucket.
+ */
+public class LatencyHistogramTest {
+    private static final double DELTA = 1e-6;
+
+    /**
+     * The highest value of the bucket of the value
+     */
+    private static long bucketHigh(long value) {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(value);
+        histogram.record(LatencyHistogram.MAX_TRACKABLE);
+        return histogram.getValueAtPercentile(50);
+    }
+
+    @Test
+    public void bucketBoundaries() {
+        // Exact below 64
+        for (long value = 0; value < 64; value++)
+            assertEquals(value, bucketHigh(value));
+        // A power of two starts a bucket, the one before ends a bucket
+        for (int bit = 6; bit <= 36; bit++) {
+            long power = 1L << bit;
+            assertEquals(power - 1, bucketHigh(power - 1));
+            assertTrue(bucketHigh(power) >= power);
+        }
+        // Each bucket is less than 1/32 of its values
+        Random random = new Random(2026);
+        for (int i = 0; i < 10000; i++) {
+            long value = (long) Math.pow(2, random.nextDouble() * 36);
+            if (value > LatencyHistogram.MAX_TRACKABLE - 1)
+                continue;
+            long high = bucketHigh(value);
+            assertTrue(value + " in " + high, high >= value && high - value <= value / 32);
+            // The next value after the bucket is in the next bucket
+            assertTrue(bucketHigh(high + 1) > high);
+        }
+    }
+
+    @Test
+    public void percentilesUseNearestRank() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int value = 1; value <= 50; value++)
+            histogram.record(value);
+        assertEquals(1, histogram.getValueAtPercentile(0));
+        assertEquals(1, histogram.getValueAtPercentile(2));
+        // The rank is rounded up: 2.5% of 50 is the 2nd value
+        assertEquals(2, histogram.getValueAtPercentile(2.5));
+        assertEquals(25, histogram.getValueAtPercentile(50));
+        assertEquals(26, histogram.getValueAtPercentile(50.1));
+        assertEquals(45, histogram.getValueAtPercentile(90));
+        assertEquals(50, histogram.getValueAtPercentile(100));
+        // Out of range percentiles are clamped
+        assertEquals(1, histogram.getValueAtPercentile(-1));
+        assertEquals(50, histogram.getValueAtPercentile(200));
+
+        // The bucket highest is never above the max
+        LatencyHistogram single = new LatencyHistogram();
+        single.record(1000);
+        assertTrue(bucketHigh(1000) > 1000);
+        assertEquals(1000, single.getValueAtPercentile(50));
+        assertEquals(1000, single.getValueAtPercentile(99));
+        assertEquals(0, new LatencyHistogram().getValueAtPercentile(50));
+    }
+
+    @Test
+    public void mergeEqualsOneHistogram() {
+        Random random = new Random(7);
+        LatencyHistogram all = new LatencyHistogram();
+        LatencyHistogram total = new LatencyHistogram();
+        for (int part = 0; part < 4; part++) {
+            LatencyHistogram histogram = new LatencyHistogram();
+            for (int i = 0; i < 1000; i++) {
+                long value = 1000 + random.nextInt(50000000);
+                histogram.record(value);
+                all.record(value);
+            }
+            histogram.recordLost();
+            all.recordLost();
+            total.merge(histogram);
+        }
+        // Merge self and empty change nothing
+        total.merge(total);
+        total.merge(new LatencyHistogram());
+
+        LatencyStatistics expect = all.getStatistics();
+        LatencyStatistics statistics = total.getStatistics();
+        assertEquals(expect.getCount(), statistics.getCount());
+        assertEquals(expect.getLost(), statistics.getLost());
+        assertEquals(expect.getMin(), statistics.getMin());
+        assertEquals(expect.getMax(), statistics.getMax());
+        assertEquals(expect.getMean(), statistics.getMean(), DELTA);
+        assertEquals(expect.getStdDev(), statistics.getStdDev(), expect.getStdDev() * DELTA);
+        assertEquals(expect.getP50(), statistics.getP50());
+        assertEquals(expect.getP90(), statistics.getP90());
+        assertEquals(expect.getP99(), statistics.getP99());
+        assertEquals(4f / 4004, statistics.getLossRate(), DELTA);
+    }
+
+    @Test
+    public void valuesAboveMaxTrackable() {
+        long max = LatencyHistogram.MAX_TRACKABLE;
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(max * 2);
+        histogram.record(max * 4);
+        // Both are in the last bucket, its values are up to the max
+        LatencyStatistics statistics = histogram.getStatistics();
+        assertEquals(2, statistics.getCount());
+        assertEquals(max * 2, statistics.getMin());
+        assertEquals(max * 4, statistics.getMax());
+        assertEquals(max * 3, statistics.getMean(), max * DELTA);
+        assertEquals(max * 4, histogram.getValueAtPercentile(50));
+        assertEquals(max * 4, histogram.getValueAtPercentile(100));
+
+        // Below the max stays in its own bucket
+        histogram.record(1);
+        assertEquals(1, histogram.getValueAtPercentile(1));
+    }
+
+    @Test
+    public void negativeAndReset() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(-5);
+        histogram.recordLost();
+        LatencyStatistics statistics = histogram.getStatistics();
+        assertEquals(0, statistics.getMin());
+        assertEquals(0, statistics.getMax());
+        assertEquals(0.5f, statistics.getLossRate(), DELTA);
+
+        histogram.reset();
+        statistics = histogram.getStatistics();
+        assertEquals(0, statistics.getCount());
+        assertEquals(0, statistics.getLost());
+        assertEquals(0, statistics.getMin());
+        assertEquals(0, statistics.getP99());
+        // Nothing sent is all lost
+        assertEquals(1f, statistics.getLossRate(), DELTA);
+        histogram.record(30);
+        assertEquals(30, histogram.getStatistics().getMin());
+    }
+}
@@ -0,0 +1,163 @@
+/*
+ * Copyright (C) 2014 Qiujuer <qiujuer@live.cn>
+ * WebSite http://www.qiujuer.net
+ * Created 10/19/2026
+ * Changed 10/19/2026
+ * Version 1.0.0
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.qiujuer.genius.nettool;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Created by Qiujuer
+ * on 2026/10/19.
+ * <p/>
+ * Probes with fixed results, the delays come from the probe
+ * so the statistics don't depend on the timing of the pool.
+ */
+public class NetMonitorTest {
+    private static final long WAIT = 5000;
+    private static final long LONG_PERIOD = TimeUnit.MINUTES.toMillis(10);
+
+    private NetMonitor mMonitor;
+    private final BlockingQueue<LatencyStatistics> mResults = new ArrayBlockingQueue<>(256);
+
+    @Before
+    public void setUp() {
+        mMonitor = new NetMonitor(1, 4);
+        mMonitor.addListener(new NetMonitor.NetMonitorListener() {
+            @Override
+            public void onStatistics(String target, LatencyStatistics statistics) {
+                mResults.offer(statistics);
+            }
+        });
+    }
+
+    @After
+    public void tearDown() {
+        mMonitor.dispose();
+    }
+
+    @Test
+    public void firstProbeRunsAtOnce() throws InterruptedException {
+        long startTime = System.nanoTime();
+        mMonitor.register("a", LONG_PERIOD, new FixedProbe(1000));
+        assertNotNull(mResults.poll(WAIT, TimeUnit.MILLISECONDS));
+        assertTrue(System.nanoTime() - startTime < TimeUnit.MILLISECONDS.toNanos(WAIT));
+    }
+
+    @Test
+    public void registerAgainReplacesProbe() throws InterruptedException {
+        FixedProbe first = new FixedProbe(1000);
+        FixedProbe second = new FixedProbe(2000);
+        mMonitor.register("a", 10, first);
+        assertNotNull(mResults.poll(WAIT, TimeUnit.MILLISECONDS));
+        mMonitor.register("a", 10, second);
+
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(WAIT);
+        while (second.mRuns.get() == 0 && System.nanoTime() < deadline)
+            mResults.poll(10, TimeUnit.MILLISECONDS);
+        assertTrue(second.mRuns.get() > 0);
+        int runs = first.mRuns.get();
+        mResults.clear();
+        assertNotNull(mResults.poll(WAIT, TimeUnit.MILLISECONDS));
+        assertEquals(runs, first.mRuns.get());
+    }
+
+    @Test
+    public void statisticsOfWindow() throws InterruptedException {
+        // Ring of 4 over the results: 1000, lost, 3000, 4000, 5000, lost
+        FixedProbe probe = new FixedProbe(1000, -1, 3000, 4000, 5000, -1);
+        mMonitor.register("a", 1, probe);
+        LatencyStatistics statistics = null;
+        for (int i = 0; i < 6; i++)
+            statistics = mResults.poll(WAIT, TimeUnit.MILLISECONDS);
+        mMonitor.unregister("a");
+
+        assertNotNull(statistics);
+        // The window holds 3000, 4000, 5000 and a lost
+        assertEquals(3, statistics.getCount());
+        assertEquals(1, statistics.getLost());
+        assertEquals(3000, statistics.getMin());
+        assertEquals(5000, statistics.getMax());
+        assertEquals(4000, statistics.getMean(), 0.001);
+        assertEquals(4000, statistics.getP50(), 4000 / 32);
+    }
+
+    @Test
+    public void unregisterStopsProbe() throws InterruptedException {
+        FixedProbe probe = new FixedProbe(1000);
+        mMonitor.register("a", 1, probe);
+        assertNotNull(mResults.poll(WAIT, TimeUnit.MILLISECONDS));
+        mMonitor.unregister("a");
+        assertNull(mMonitor.getStatistics("a"));
+
+        // A run in flight may still finish, after that nothing runs
+        Thread.sleep(50);
+        int runs = probe.mRuns.get();
+        Thread.sleep(100);
+        assertEquals(runs, probe.mRuns.get());
+    }
+
+    /**
+     * Returns the delays in turn, a negative delay is a failed probe
+     */
+    private static class FixedProbe extends NetMonitor.Probe {
+        private final long[] mDelays;
+        private final AtomicInteger mRuns = new AtomicInteger();
+
+        FixedProbe(long... delays) {
+            this.mDelays = delays;
+        }
+
+        @Override
+        public NetModel create() {
+            final long delay = mDelays[mRuns.getAndIncrement() % mDelays.length];
+            return new NetModel() {
+                @Override
+                public void start() {
+                    mError = delay < 0 ? UNKNOWN_ERROR : SUCCEED;
+                }
+
+                @Override
+                public void cancel() {
+                }
+
+                @Override
+                public String toString() {
+                    return String.valueOf(delay);
+                }
+            };
+        }
+
+        @Override
+        public long getDelay(NetModel model, long elapsed) {
+            return Long.parseLong(model.toString());
+        }
+    }
+}
@@ -0,0 +1,223 @@
+/*
+ * Copyright (C) 2014 Qiujuer <qiujuer@live.cn>
+ * WebSite http://www.qiujuer.net
+ * Created 10/19/2026
+ * Changed 10/19/2026
+ * Version 1.0.0
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.qiujuer.genius.nettool;
+
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Created by Qiujuer
+ * on 2026/10/19.
+ * <p/>
+ * The outputs of Linux (iputils), Android (toybox) and BusyBox ping,
+ * whole and fed in random chunks.
+ */
+public class PingParserTest {
+    private static final long MS = 1000000;
+
+    private static final String LINUX = "PING www.qiujuer.net (180.76.76.76) 56(84) bytes of data.\n" +
+            "64 bytes from 180.76.76.76 (180.76.76.76): icmp_seq=1 ttl=52 time=15.5 ms\n" +
+            "64 bytes from 180.76.76.76 (180.76.76.76): icmp_seq=2 ttl=52 time=16.25 ms\n" +
+            "64 bytes from 180.76.76.76 (180.76.76.76): icmp_seq=4 ttl=51 time=12.9 ms\n" +
+            "\n" +
+            "--- www.qiujuer.net ping statistics ---\n" +
+            "4 packets transmitted, 3 received, 25% packet loss, time 3004ms\n" +
+            "rtt min/avg/max/mdev = 12.888/14.907/16.300/1.462 ms\n";
+
+    private static final String LINUX_EXCEEDED = "PING 8.8.8.8 (8.8.8.8) 56(84) bytes of data.\n" +
+            "From 10.0.0.1 icmp_seq=1 Time to live exceeded\n" +
+            "From 10.0.0.2 icmp_seq=2 Time to live exceeded\n" +
+            "\n" +
+            "--- 8.8.8.8 ping statistics ---\n" +
+            "2 packets transmitted, 0 received, +2 errors, 100% packet loss, time 1001ms\n";
+
+    private static final String TOYBOX = "PING 10.0.0.1 (10.0.0.1): 56(84) data bytes\r\n" +
+            "64 bytes from 10.0.0.1: icmp_seq=1 ttl=64 time=1 ms\r\n" +
+            "64 bytes from 10.0.0.1: icmp_seq=2 ttl=64 time=2.125 ms\r\n" +
+            "\r\n" +
+            "--- 10.0.0.1 ping statistics ---\r\n" +
+            "2 packets transmitted, 2 received, 0% packet loss, time 1002ms\r\n" +
+            "round-trip min/avg/max = 1.000/1.562/2.125 ms\r\n";
+
+    private static final String BUSYBOX = "PING example.com (93.184.216.34): 56 data bytes\n" +
+            "64 bytes from 93.184.216.34: seq=0 ttl=55 time=90.123 ms\n" +
+            "64 bytes from 93.184.216.34: seq=2 ttl=55 time=91.877 ms\n" +
+            "From 192.168.1.1: seq=3 Destination Host Unreachable\n" +
+            "\n" +
+            "--- example.com ping statistics ---\n" +
+            "4 packets transmitted, 2 packets received, 50% packet loss\n" +
+            "round-trip min/avg/max = 90.123/91.000/91.877 ms";
+
+    private static PingResult parseChunks(String output, Random random) {
+        PingParser parser = new PingParser();
+        char[] chars = output.toCharArray();
+        int start = 0;
+        boolean array = false;
+        while (start < chars.length) {
+            int end = Math.min(chars.length, start + 1 + random.nextInt(7));
+            if (array)
+                parser.feed(chars, start, end);
+            else
+                parser.feed(output, start, end);
+            array = !array;
+            start = end;
+        }
+        return parser.finish();
+    }
+
+    private static void assertSame(PingResult expect, PingResult result) {
+        assertEquals(expect.toString(), result.toString());
+        assertEquals(expect.getReplyCount(), result.getReplyCount());
+        for (int i = 0; i < expect.getReplyCount(); i++) {
+            assertEquals(expect.getRtt(i), result.getRtt(i));
+            assertEquals(expect.getTtl(i), result.getTtl(i));
+        }
+        assertEquals(expect.getErrors(), result.getErrors());
+        assertEquals(expect.getMin(), result.getMin());
+        assertEquals(expect.getMax(), result.getMax());
+        assertEquals(expect.getMdev(), result.getMdev());
+        assertEquals(expect.isExceeded(), result.isExceeded());
+        assertEquals(expect.isUnreachable(), result.isUnreachable());
+        assertEquals(expect.getLossRate(), result.getLossRate(), 0);
+    }
+
+    @Test
+    public void linux() {
+        PingResult result = new PingParser().parse(LINUX);
+        assertEquals("180.76.76.76", result.getIp());
+        assertEquals("180.76.76.76", result.getFromIp());
+        assertEquals(3, result.getReplyCount());
+        assertEquals(15 * MS + MS / 2, result.getRtt(0));
+        assertEquals(16 * MS + MS / 4, result.getRtt(1));
+        assertEquals(51, result.getTtl(2));
+        assertEquals(4, result.getTransmitted());
+        assertEquals(3, result.getReceived());
+        assertEquals(0.25f, result.getLossRate(), 0);
+        assertEquals(12888000, result.getMin());
+        assertEquals(14907000, result.getAvg());
+        assertEquals(16300000, result.getMax());
+        assertEquals(1462000, result.getMdev());
+        assertFalse(result.isAllLost());
+    }
+
+    @Test
+    public void linuxExceeded() {
+        PingResult result = new PingParser().parse(LINUX_EXCEEDED);
+        assertEquals("8.8.8.8", result.getIp());
+        // The first router is kept
+        assertEquals("10.0.0.1", result.getFromIp());
+        assertTrue(result.isExceeded());
+        assertEquals(0, result.getReplyCount());
+        assertEquals(2, result.getErrors());
+        assertTrue(result.isAllLost());
+        assertEquals(-1, result.getAvg());
+    }
+
+    @Test
+    public void toybox() {
+        PingResult result = new PingParser().parse(TOYBOX);
+        assertEquals("10.0.0.1", result.getIp());
+        assertEquals(2, result.getReplyCount());
+        assertEquals(MS, result.getRtt(0));
+        assertEquals(2125000, result.getRtt(1));
+        assertEquals(64, result.getTtl(1));
+        assertEquals(0f, result.getLossRate(), 0);
+        assertEquals(1000000, result.getMin());
+        assertEquals(1562000, result.getAvg());
+        assertEquals(2125000, result.getMax());
+        // No mdev in the summary
+        assertEquals(-1, result.getMdev());
+    }
+
+    @Test
+    public void busybox() {
+        PingResult result = new PingParser().parse(BUSYBOX);
+        assertEquals("93.184.216.34", result.getIp());
+        assertEquals("93.184.216.34", result.getFromIp());
+        assertEquals(2, result.getReplyCount());
+        assertEquals(90123000, result.getRtt(0));
+        assertEquals(55, result.getTtl(0));
+        assertTrue(result.isUnreachable());
+        assertEquals(4, result.getTransmitted());
+        assertEquals(2, result.getReceived());
+        assertEquals(0.5f, result.getLossRate(), 0);
+        // The last line has no line end
+        assertEquals(91000000, result.getAvg());
+    }
+
+    @Test
+    public void chunksMatchWhole() {
+        Random random = new Random(2026);
+        for (String output : new String[]{LINUX, LINUX_EXCEEDED, TOYBOX, BUSYBOX}) {
+            PingResult expect = new PingParser().parse(output);
+            for (int round = 0; round < 50; round++)
+                assertSame(expect, parseChunks(output, random));
+        }
+    }
+
+    @Test
+    public void resetForNextOutput() {
+        PingParser parser = new PingParser();
+        PingResult result = parser.parse(LINUX_EXCEEDED);
+        assertEquals("10.0.0.1", result.getFromIp());
+        // A line left without end is dropped by the reset
+        parser.feed("64 bytes from 1.1.1.1: icmp_seq=1 ttl=1 time=1 ms", 0, 10);
+        assertTrue(result == parser.parse(TOYBOX));
+        assertFalse(result.isExceeded());
+        assertEquals(0, result.getErrors());
+        assertEquals(2, result.getReplyCount());
+
+        parser.reset(new PingResult());
+        assertNull(parser.getResult().getIp());
+        assertTrue(result != parser.getResult());
+    }
+
+    @Test
+    public void repliesDoNotAllocate() {
+        StringBuilder builder = new StringBuilder("PING 10.0.0.1 (10.0.0.1) 56(84) bytes of data.\n");
+        for (int i = 1; i <= 100; i++)
+            builder.append("64 bytes from 10.0.0.1: icmp_seq=").append(i).append(" ttl=64 time=1.4 ms\n");
+        builder.append("100 packets transmitted, 100 received, 0% packet loss, time 99003ms\n");
+        String output = builder.toString();
+
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long id = Thread.currentThread().getId();
+        PingParser parser = new PingParser();
+        // The first parse grows the reply arrays
+        parser.parse(output);
+        threads.getThreadAllocatedBytes(id);
+
+        long before = threads.getThreadAllocatedBytes(id);
+        for (int i = 0; i < 10; i++)
+            parser.parse(output);
+        long allocated = threads.getThreadAllocatedBytes(id) - before;
+
+        // Two ip strings a parse, a string for each reply line would be over 40 KB
+        assertTrue("Allocated " + allocated + " bytes", allocated < 2048);
+    }
+}
@@ -0,0 +1,154 @@
+/*
+ * Copyright (C) 2014 Qiujuer <qiujuer@live.cn>
+ * WebSite http://www.qiujuer.net
+ * Created 10/19/2026
+ * Changed 10/19/2026
+ * Version 1.0.0
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.qiujuer.genius.nettool;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Created by Qiujuer
+ * on 2026/10/19.
+ * <p/>
+ * Scans against a loopback {@link ServerSocket}, a closed port
+ * and a name which can not be resolved.
+ */
+public class TelnetScannerTest {
+    private static final String LOOPBACK = "127.0.0.1";
+    private static final String UNKNOWN = "nonexistent.invalid";
+
+    private ServerSocket mServer;
+    private int mOpenPort;
+    private int mClosedPort;
+
+    @Before
+    public void setUp() throws IOException {
+        mServer = new ServerSocket(0, 50, InetAddress.getByName(LOOPBACK));
+        mOpenPort = mServer.getLocalPort();
+        // Bind and close at once, nothing listens on the port after
+        ServerSocket closed = new ServerSocket(0, 50, InetAddress.getByName(LOOPBACK));
+        mClosedPort = closed.getLocalPort();
+        closed.close();
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        mServer.close();
+    }
+
+    @Test
+    public void openPortConnects() {
+        TelnetScanner scanner = new TelnetScanner(4, 1000, 5000, null);
+        scanner.add(LOOPBACK, mOpenPort);
+        scanner.start();
+
+        Telnet telnet = scanner.getTelnets().get(0);
+        assertEquals(NetModel.SUCCEED, telnet.getError());
+        assertTrue(telnet.isConnected());
+        assertTrue(telnet.getDelayNanos() > 0);
+        assertEquals(telnet.getDelayNanos() / 1000000, telnet.getDelay());
+    }
+
+    @Test
+    public void closedPortFails() {
+        TelnetScanner scanner = new TelnetScanner(4, 1000, 5000, null);
+        scanner.add(LOOPBACK, mClosedPort);
+        scanner.start();
+
+        Telnet telnet = scanner.getTelnets().get(0);
+        assertEquals(NetModel.TCP_LINK_ERROR, telnet.getError());
+        assertFalse(telnet.isConnected());
+    }
+
+    @Test
+    public void unknownHostFailsWithoutBlockingOthers() {
+        final int[] results = new int[1];
+        TelnetScanner scanner = new TelnetScanner(4, 1000, 5000, new TelnetScanner.TelnetScannerListener() {
+            @Override
+            public void onResult(Telnet telnet) {
+                results[0]++;
+            }
+        });
+        scanner.add(UNKNOWN, 80);
+        scanner.add(LOOPBACK, mOpenPort, mClosedPort);
+        scanner.start();
+
+        assertEquals(3, results[0]);
+        assertEquals(NetModel.UNKNOWN_HOST_ERROR, scanner.getTelnets().get(0).getError());
+        assertEquals(NetModel.SUCCEED, scanner.getTelnets().get(1).getError());
+        assertEquals(NetModel.TCP_LINK_ERROR, scanner.getTelnets().get(2).getError());
+    }
+
+    @Test
+    public void restartAfterCancel() throws InterruptedException {
+        final TelnetScanner scanner = new TelnetScanner(4, 1000, 5000, null);
+        scanner.add(LOOPBACK, mOpenPort);
+        scanner.cancel();
+        scanner.start();
+        assertEquals(NetModel.SUCCEED, scanner.getTelnets().get(0).getError());
+
+        // Cancel from another thread while the scan runs, the next start must scan again
+        final CountDownLatch started = new CountDownLatch(1);
+        Thread thread = new Thread() {
+            @Override
+            public void run() {
+                started.countDown();
+                scanner.start();
+            }
+        };
+        thread.start();
+        started.await();
+        scanner.cancel();
+        thread.join(5000);
+        assertFalse(thread.isAlive());
+
+        scanner.start();
+        Telnet telnet = scanner.getTelnets().get(0);
+        assertEquals(NetModel.SUCCEED, telnet.getError());
+        assertTrue(telnet.isConnected());
+    }
+
+    @Test
+    public void telnetRestartAfterCancel() {
+        Telnet telnet = new Telnet(LOOPBACK, mOpenPort, 2, 0);
+        telnet.cancel();
+        telnet.start();
+        assertEquals(NetModel.SUCCEED, telnet.getError());
+        assertTrue(telnet.isConnected());
+        assertEquals(2, telnet.getHistogram().getCount());
+        assertTrue(telnet.getDelayNanos() > 0);
+
+        // The histogram is reused, each start records into it again
+        LatencyHistogram histogram = telnet.getHistogram();
+        telnet.start();
+        assertSame(histogram, telnet.getHistogram());
+        assertEquals(2, histogram.getCount());
+    }
+}
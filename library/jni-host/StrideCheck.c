@@ -0,0 +1,91 @@
+/*
+ * Copyright (C) 2014 Qiujuer <qiujuer@live.cn>
+ * WebSite http://www.qiujuer.net
+ * Created 10/19/2026
+ * Changed 10/19/2026
+ * Version 1.0.0
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/*************************************************
+Copyright:  Copyright QIUJUER 2014.
+Author:		QiuJu
+Date:		2026-10-19
+Description:Check the blur of padded rows is same as the packed
+			blur and the padding is not touched, as the rows of
+			a bitmap with a stride bigger than the width
+**************************************************/
+#include <StackBlur.h>
+#include <stdio.h>
+#include <stdlib.h>
+#include <string.h>
+
+#define PAD_VALUE 0x5A5A5A5A
+
+static int check(int w, int h, int pad, int radius, int threads) {
+	int stride = w + pad;
+	int *packed = (int *)malloc((size_t)w * h * sizeof(int));
+	int *padded = (int *)malloc((size_t)stride * h * sizeof(int));
+	int x, y, failed = 0;
+
+	srand(19);
+	for (y = 0; y < h; y++) {
+		for (x = 0; x < stride; x++) {
+			int value = x < w ? rand() : PAD_VALUE;
+			padded[y * stride + x] = value;
+			if (x < w)
+				packed[y * w + x] = value;
+		}
+	}
+
+	stackBlur(packed, w, h, radius, threads);
+	stackBlurStride(padded, stride, w, h, radius, threads);
+
+	for (y = 0; y < h && !failed; y++) {
+		if (memcmp(packed + y * w, padded + y * stride, w * sizeof(int)) != 0)
+			failed = 1;
+		for (x = w; x < stride; x++) {
+			if (padded[y * stride + x] != PAD_VALUE)
+				failed = 1;
+		}
+	}
+	if (failed)
+		printf("Not same: %dx%d pad %d radius %d threads %d\n", w, h, pad, radius, threads);
+
+	free(packed);
+	free(padded);
+	return failed;
+}
+
+int main(void) {
+	static const int sizes[][2] = {{1, 1}, {7, 3}, {64, 64}, {333, 97}, {640, 480}};
+	static const int pads[] = {0, 1, 3, 16};
+	static const int radii[] = {1, 5, 25, 50};
+	unsigned i, j, k;
+	int failures = 0;
+
+	for (i = 0; i < sizeof(sizes) / sizeof(sizes[0]); i++)
+		for (j = 0; j < sizeof(pads) / sizeof(pads[0]); j++)
+			for (k = 0; k < sizeof(radii) / sizeof(radii[0]); k++)
+				failures += check(sizes[i][0], sizes[i][1], pads[j], radii[k], 0)
+						+ check(sizes[i][0], sizes[i][1], pads[j], radii[k], 1);
+
+	if (stackBlurStride(NULL, 3, 4, 1, 1, 1) != -1) {
+		printf("Stride less than the width is not rejected\n");
+		failures++;
+	}
+
+	printf(failures == 0 ? "Strides same\n" : "%d strides not same\n", failures);
+	return failures == 0 ? 0 : 1;
+}
@@ -0,0 +1,38 @@
+/*
+ * Host stub of the NDK bitmap header, the bitmap calls fail on host
+ */
+#ifndef ANDROID_BITMAP_H
+#define ANDROID_BITMAP_H
+
+#include <stdint.h>
+#include <jni.h>
+
+#define ANDROID_BITMAP_RESULT_SUCCESS 0
+#define ANDROID_BITMAP_RESULT_JNI_EXCEPTION -3
+
+enum AndroidBitmapFormat {
+	ANDROID_BITMAP_FORMAT_NONE = 0,
+	ANDROID_BITMAP_FORMAT_RGBA_8888 = 1
+};
+
+typedef struct {
+	uint32_t width;
+	uint32_t height;
+	uint32_t stride;
+	int32_t format;
+	uint32_t flags;
+} AndroidBitmapInfo;
+
+static inline int AndroidBitmap_getInfo(JNIEnv *env, jobject bitmap, AndroidBitmapInfo *info) {
+	return ANDROID_BITMAP_RESULT_JNI_EXCEPTION;
+}
+
+static inline int AndroidBitmap_lockPixels(JNIEnv *env, jobject bitmap, void **addrPtr) {
+	return ANDROID_BITMAP_RESULT_JNI_EXCEPTION;
+}
+
+static inline int AndroidBitmap_unlockPixels(JNIEnv *env, jobject bitmap) {
+	return ANDROID_BITMAP_RESULT_JNI_EXCEPTION;
+}
+
+#endif
@@ -0,0 +1,7 @@
+package android.content;
+
+/**
+ * Host stub of the ContentResolver, only for the signatures of the library
+ */
+public abstract class ContentResolver {
+}
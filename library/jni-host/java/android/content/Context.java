@@ -0,0 +1,8 @@
+package android.content;
+
+/**
+ * Host stub of the Context, only for the signatures of the library
+ */
+public abstract class Context {
+    public abstract ContentResolver getContentResolver();
+}
@@ -0,0 +1,113 @@
+package android.graphics;
+
+/**
+ * Host stub of the Bitmap, the pixels are kept in an int array
+ * for the blur on a plain JVM
+ */
+public final class Bitmap {
+    public enum Config {
+        ALPHA_8, RGB_565, ARGB_4444, ARGB_8888
+    }
+
+    private final int mWidth;
+    private final int mHeight;
+    private final Config mConfig;
+    private final int[] mPixels;
+    private final boolean isMutable;
+    private boolean isRecycled;
+
+    private Bitmap(int width, int height, Config config, boolean mutable) {
+        if (width <= 0 || height <= 0)
+            throw new IllegalArgumentException("width and height must be > 0");
+        mWidth = width;
+        mHeight = height;
+        mConfig = config;
+        mPixels = new int[width * height];
+        isMutable = mutable;
+    }
+
+    public static Bitmap createBitmap(int width, int height, Config config) {
+        return new Bitmap(width, height, config, true);
+    }
+
+    public static Bitmap createBitmap(int[] colors, int width, int height, Config config) {
+        Bitmap bitmap = new Bitmap(width, height, config, false);
+        System.arraycopy(colors, 0, bitmap.mPixels, 0, width * height);
+        return bitmap;
+    }
+
+    public Bitmap copy(Config config, boolean isMutable) {
+        checkRecycled("Can't call copy() on a recycled bitmap");
+        Bitmap bitmap = new Bitmap(mWidth, mHeight, config, isMutable);
+        System.arraycopy(mPixels, 0, bitmap.mPixels, 0, mPixels.length);
+        return bitmap;
+    }
+
+    public int getWidth() {
+        return mWidth;
+    }
+
+    public int getHeight() {
+        return mHeight;
+    }
+
+    public Config getConfig() {
+        return mConfig;
+    }
+
+    public boolean isMutable() {
+        return isMutable;
+    }
+
+    public int getByteCount() {
+        return mPixels.length * 4;
+    }
+
+    public void recycle() {
+        isRecycled = true;
+    }
+
+    public boolean isRecycled() {
+        return isRecycled;
+    }
+
+    public int getPixel(int x, int y) {
+        checkRegion(x, y, 1, 1);
+        return mPixels[y * mWidth + x];
+    }
+
+    public void setPixel(int x, int y, int color) {
+        checkMutable();
+        checkRegion(x, y, 1, 1);
+        mPixels[y * mWidth + x] = color;
+    }
+
+    public void getPixels(int[] pixels, int offset, int stride, int x, int y, int width, int height) {
+        checkRecycled("Can't call getPixels() on a recycled bitmap");
+        checkRegion(x, y, width, height);
+        for (int row = 0; row < height; row++)
+            System.arraycopy(mPixels, (y + row) * mWidth + x, pixels, offset + row * stride, width);
+    }
+
+    public void setPixels(int[] pixels, int offset, int stride, int x, int y, int width, int height) {
+        checkMutable();
+        checkRegion(x, y, width, height);
+        for (int row = 0; row < height; row++)
+            System.arraycopy(pixels, offset + row * stride, mPixels, (y + row) * mWidth + x, width);
+    }
+
+    private void checkRecycled(String message) {
+        if (isRecycled)
+            throw new IllegalStateException(message);
+    }
+
+    private void checkMutable() {
+        if (!isMutable)
+            throw new IllegalStateException("Bitmap is immutable");
+    }
+
+    private void checkRegion(int x, int y, int width, int height) {
+        if (x < 0 || y < 0 || width < 0 || height < 0 || x + width > mWidth || y + height > mHeight)
+            throw new IllegalArgumentException("Region out of the bitmap");
+    }
+}
@@ -0,0 +1,18 @@
+package android.os;
+
+/**
+ * Host stub of the Build
+ */
+public final class Build {
+    public static final String SERIAL = "unknown";
+
+    public static class VERSION {
+        public static final int SDK_INT = VERSION_CODES.LOLLIPOP_MR1;
+    }
+
+    public static class VERSION_CODES {
+        public static final int KITKAT = 19;
+        public static final int LOLLIPOP = 21;
+        public static final int LOLLIPOP_MR1 = 22;
+    }
+}
@@ -0,0 +1,108 @@
+package android.os;
+
+/**
+ * Host stub of the Handler
+ */
+public class Handler {
+    private final Looper mLooper;
+    private final MessageQueue mQueue;
+
+    public Handler() {
+        this(Looper.myLooper());
+    }
+
+    public Handler(Looper looper) {
+        if (looper == null)
+            throw new RuntimeException("Can't create handler without a looper");
+        mLooper = looper;
+        mQueue = looper.mQueue;
+    }
+
+    public void handleMessage(Message msg) {
+    }
+
+    public void dispatchMessage(Message msg) {
+        if (msg.callback != null)
+            msg.callback.run();
+        else
+            handleMessage(msg);
+    }
+
+    public final Looper getLooper() {
+        return mLooper;
+    }
+
+    public final Message obtainMessage() {
+        Message m = Message.obtain();
+        m.target = this;
+        return m;
+    }
+
+    public final Message obtainMessage(int what) {
+        Message m = obtainMessage();
+        m.what = what;
+        return m;
+    }
+
+    public final Message obtainMessage(int what, Object obj) {
+        Message m = obtainMessage(what);
+        m.obj = obj;
+        return m;
+    }
+
+    public final boolean post(Runnable r) {
+        return sendMessageDelayed(getPostMessage(r), 0);
+    }
+
+    public final boolean postDelayed(Runnable r, long delayMillis) {
+        return sendMessageDelayed(getPostMessage(r), delayMillis);
+    }
+
+    public final boolean postAtFrontOfQueue(Runnable r) {
+        return sendMessageAtFrontOfQueue(getPostMessage(r));
+    }
+
+    public final boolean sendMessage(Message msg) {
+        return sendMessageDelayed(msg, 0);
+    }
+
+    public final boolean sendEmptyMessage(int what) {
+        return sendMessage(obtainMessage(what));
+    }
+
+    public final boolean sendMessageDelayed(Message msg, long delayMillis) {
+        return sendMessageAtTime(msg, SystemClock.uptimeMillis() + Math.max(0, delayMillis));
+    }
+
+    public boolean sendMessageAtTime(Message msg, long uptimeMillis) {
+        msg.target = this;
+        return mQueue.enqueueMessage(msg, uptimeMillis);
+    }
+
+    public final boolean sendMessageAtFrontOfQueue(Message msg) {
+        msg.target = this;
+        return mQueue.enqueueMessage(msg, 0);
+    }
+
+    public final boolean hasMessages(int what) {
+        return mQueue.hasMessages(this, what);
+    }
+
+    public final void removeCallbacks(Runnable r) {
+        mQueue.removeMessages(this, 0, r, null, false);
+    }
+
+    public final void removeMessages(int what) {
+        mQueue.removeMessages(this, what, null, null, false);
+    }
+
+    public final void removeCallbacksAndMessages(Object token) {
+        mQueue.removeMessages(this, 0, null, token, true);
+    }
+
+    private Message getPostMessage(Runnable r) {
+        Message m = obtainMessage();
+        m.callback = r;
+        return m;
+    }
+}
@@ -0,0 +1,63 @@
+package android.os;
+
+/**
+ * Host stub of the Looper
+ */
+public final class Looper {
+    private static final ThreadLocal<Looper> sThreadLocal = new ThreadLocal<>();
+    private static Looper sMainLooper;
+
+    final MessageQueue mQueue = new MessageQueue();
+    private final Thread mThread = Thread.currentThread();
+
+    private Looper() {
+    }
+
+    public static void prepare() {
+        if (sThreadLocal.get() != null)
+            throw new RuntimeException("Only one Looper may be created per thread");
+        sThreadLocal.set(new Looper());
+    }
+
+    public static void prepareMainLooper() {
+        prepare();
+        synchronized (Looper.class) {
+            sMainLooper = myLooper();
+        }
+    }
+
+    public static Looper getMainLooper() {
+        synchronized (Looper.class) {
+            return sMainLooper;
+        }
+    }
+
+    public static Looper myLooper() {
+        return sThreadLocal.get();
+    }
+
+    public static MessageQueue myQueue() {
+        return myLooper().mQueue;
+    }
+
+    public static void loop() {
+        Looper me = myLooper();
+        if (me == null)
+            throw new RuntimeException("No Looper; Looper.prepare() wasn't called on this thread.");
+        while (true) {
+            Message msg = me.mQueue.next();
+            if (msg == null)
+                return;
+            msg.target.dispatchMessage(msg);
+            msg.recycleUnchecked();
+        }
+    }
+
+    public Thread getThread() {
+        return mThread;
+    }
+
+    public void quit() {
+        mQueue.quit();
+    }
+}
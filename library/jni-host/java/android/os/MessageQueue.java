@@ -0,0 +1,120 @@
+package android.os;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+
+/**
+ * Host stub of the MessageQueue, the messages are ordered by the time and the
+ * idle handlers are called once each time the queue becomes idle
+ */
+public final class MessageQueue {
+    public interface IdleHandler {
+        boolean queueIdle();
+    }
+
+    private final ArrayList<Message> mMessages = new ArrayList<>();
+    private final ArrayList<IdleHandler> mIdleHandlers = new ArrayList<>();
+    private boolean isQuitting;
+
+    MessageQueue() {
+    }
+
+    public void addIdleHandler(IdleHandler handler) {
+        if (handler == null)
+            throw new NullPointerException("Can't add a null IdleHandler");
+        synchronized (this) {
+            mIdleHandlers.add(handler);
+        }
+    }
+
+    public void removeIdleHandler(IdleHandler handler) {
+        synchronized (this) {
+            mIdleHandlers.remove(handler);
+        }
+    }
+
+    synchronized boolean enqueueMessage(Message msg, long when) {
+        if (isQuitting) {
+            msg.recycleUnchecked();
+            return false;
+        }
+        msg.when = when;
+        int index = mMessages.size();
+        while (index > 0 && mMessages.get(index - 1).when > when)
+            index--;
+        mMessages.add(index, msg);
+        notifyAll();
+        return true;
+    }
+
+    synchronized boolean hasMessages(Handler h, int what) {
+        for (Message m : mMessages) {
+            if (m.target == h && m.what == what && m.callback == null)
+                return true;
+        }
+        return false;
+    }
+
+    synchronized void removeMessages(Handler h, int what, Runnable r, Object token, boolean all) {
+        Iterator<Message> iterator = mMessages.iterator();
+        while (iterator.hasNext()) {
+            Message m = iterator.next();
+            if (m.target != h)
+                continue;
+            boolean remove;
+            if (all)
+                remove = token == null || m.obj == token;
+            else if (r != null)
+                remove = m.callback == r;
+            else
+                remove = m.callback == null && m.what == what;
+            if (remove) {
+                iterator.remove();
+                m.recycleUnchecked();
+            }
+        }
+    }
+
+    Message next() {
+        // The idle handlers run once in a call, as the Android queue
+        boolean idleRan = false;
+        while (true) {
+            IdleHandler[] idleHandlers;
+            synchronized (this) {
+                if (isQuitting)
+                    return null;
+                long now = SystemClock.uptimeMillis();
+                if (!mMessages.isEmpty() && mMessages.get(0).when <= now)
+                    return mMessages.remove(0);
+                if (idleRan || mIdleHandlers.isEmpty()) {
+                    try {
+                        if (mMessages.isEmpty())
+                            wait();
+                        else
+                            wait(Math.max(1, mMessages.get(0).when - now));
+                    } catch (InterruptedException e) {
+                        return null;
+                    }
+                    continue;
+                }
+                idleHandlers = mIdleHandlers.toArray(new IdleHandler[mIdleHandlers.size()]);
+            }
+            for (IdleHandler handler : idleHandlers) {
+                boolean keep = false;
+                try {
+                    keep = handler.queueIdle();
+                } catch (Throwable t) {
+                    t.printStackTrace();
+                }
+                if (!keep)
+                    removeIdleHandler(handler);
+            }
+            idleRan = true;
+        }
+    }
+
+    synchronized void quit() {
+        isQuitting = true;
+        notifyAll();
+    }
+}
@@ -0,0 +1,13 @@
+package android.os;
+
+/**
+ * Host stub of the SystemClock, the uptime is the JVM nano time
+ */
+public final class SystemClock {
+    private SystemClock() {
+    }
+
+    public static long uptimeMillis() {
+        return System.nanoTime() / 1000000L;
+    }
+}
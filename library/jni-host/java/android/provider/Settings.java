@@ -0,0 +1,18 @@
+package android.provider;
+
+import android.content.ContentResolver;
+
+/**
+ * Host stub of the Settings, there is no setting on host
+ */
+public final class Settings {
+    public static final class System {
+        public static String getString(ContentResolver resolver, String name) {
+            return null;
+        }
+    }
+
+    public static final class Secure {
+        public static final String ANDROID_ID = "android_id";
+    }
+}
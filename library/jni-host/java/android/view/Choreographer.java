@@ -0,0 +1,78 @@
+package android.view;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import java.util.ArrayList;
+
+/**
+ * Host stub of the Choreographer, a frame every 16.7ms on the looper of the thread
+ */
+public final class Choreographer {
+    private static final long FRAME_INTERVAL_NANOS = 16666667L;
+    private static final ThreadLocal<Choreographer> sThreadInstance = new ThreadLocal<>();
+
+    public interface FrameCallback {
+        void doFrame(long frameTimeNanos);
+    }
+
+    private final Handler mHandler;
+    private final ArrayList<FrameCallback> mCallbacks = new ArrayList<>();
+    private final long mOrigin = System.nanoTime();
+    private long mLastFrame;
+    private boolean isScheduled;
+
+    private Choreographer(Looper looper) {
+        mHandler = new Handler(looper);
+    }
+
+    public static Choreographer getInstance() {
+        Choreographer choreographer = sThreadInstance.get();
+        if (choreographer == null) {
+            Looper looper = Looper.myLooper();
+            if (looper == null)
+                throw new IllegalStateException("The current thread must have a looper!");
+            choreographer = new Choreographer(looper);
+            sThreadInstance.set(choreographer);
+        }
+        return choreographer;
+    }
+
+    public void postFrameCallback(FrameCallback callback) {
+        mCallbacks.add(callback);
+        if (!isScheduled)
+            scheduleFrame();
+    }
+
+    public void removeFrameCallback(FrameCallback callback) {
+        mCallbacks.remove(callback);
+    }
+
+    /**
+     * Not in Android, the count of the callbacks waiting the next frame
+     */
+    public int getFrameCallbackCount() {
+        return mCallbacks.size();
+    }
+
+    private void scheduleFrame() {
+        isScheduled = true;
+        long now = System.nanoTime();
+        // The next vsync, never 2 frames in a vsync
+        long frame = mOrigin + ((now - mOrigin) / FRAME_INTERVAL_NANOS + 1) * FRAME_INTERVAL_NANOS;
+        if (frame <= mLastFrame)
+            frame = mLastFrame + FRAME_INTERVAL_NANOS;
+        mLastFrame = frame;
+        final long frameTimeNanos = frame;
+        mHandler.postDelayed(new Runnable() {
+            @Override
+            public void run() {
+                isScheduled = false;
+                FrameCallback[] callbacks = mCallbacks.toArray(new FrameCallback[mCallbacks.size()]);
+                mCallbacks.clear();
+                for (FrameCallback callback : callbacks)
+                    callback.doFrame(frameTimeNanos);
+            }
+        }, (frame - now + 999999L) / 1000000L);
+    }
+}
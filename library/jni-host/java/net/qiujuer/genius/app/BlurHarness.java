@@ -0,0 +1,123 @@
+/*
+ * Copyright (C) 2014 Qiujuer <qiujuer@live.cn>
+ * WebSite http://www.qiujuer.net
+ * Created 10/19/2026
+ * Changed 10/19/2026
+ * Version 1.0.0
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.qiujuer.genius.app;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Created by Qiujuer
+ * on 2026/10/19.
+ * <p/>
+ * Host harness of the BlurNative library: the output of {@link BlurNative#blurPixels}
+ * and {@link BlurNative#blurBuffer} must be same as {@link StackBlur}, then each
+ * size and radius is timed. Exit with 1 if any output is not same.
+ */
+public final class BlurHarness {
+    private static final int[][] SIZES = {{1, 1}, {7, 3}, {64, 64}, {640, 480}, {1280, 720}, {1920, 1080}};
+    private static final int[] RADII = {1, 2, 5, 10, 25, 50, 100};
+    private static final int ROUNDS = 5;
+
+    public static void main(String[] args) {
+        System.loadLibrary("BlurNative");
+        Random random = new Random(19);
+        BlurContext context = new BlurContext();
+        int failures = 0;
+
+        System.out.println("size        radius   java ns/px   pixels ns/px   buffer ns/px");
+        for (int[] size : SIZES) {
+            int w = size[0], h = size[1];
+            int[] source = new int[w * h];
+            for (int i = 0; i < source.length; i++)
+                source[i] = random.nextInt();
+            IntBuffer buffer = ByteBuffer.allocateDirect(source.length * 4)
+                    .order(ByteOrder.nativeOrder()).asIntBuffer();
+
+            for (int radius : RADII) {
+                int[] expected = source.clone();
+                StackBlur.blur(expected, w, h, radius, context);
+
+                int[] pixels = source.clone();
+                BlurNative.blurPixels(pixels, w, h, radius);
+
+                buffer.clear();
+                buffer.put(source);
+                boolean blurred = BlurNative.blurBuffer(buffer, 0, w, h, radius);
+                int[] buffered = new int[source.length];
+                buffer.clear();
+                buffer.get(buffered);
+
+                if (!Arrays.equals(expected, pixels) || !blurred || !Arrays.equals(expected, buffered)) {
+                    failures++;
+                    System.out.println("Not same: " + w + "x" + h + " radius " + radius);
+                    continue;
+                }
+
+                double pixelCount = w * h;
+                System.out.printf("%-11s %6d %12.2f %14.2f %14.2f%n", w + "x" + h, radius,
+                        timeJava(source, w, h, radius, context) / pixelCount,
+                        timePixels(source, w, h, radius) / pixelCount,
+                        timeBuffer(source, buffer, w, h, radius) / pixelCount);
+            }
+        }
+
+        System.out.println(failures == 0 ? "All same" : failures + " not same");
+        System.exit(failures == 0 ? 0 : 1);
+    }
+
+    private static long timeJava(int[] source, int w, int h, int radius, BlurContext context) {
+        int[] pix = new int[source.length];
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < ROUNDS; i++) {
+            System.arraycopy(source, 0, pix, 0, source.length);
+            long start = System.nanoTime();
+            StackBlur.blur(pix, w, h, radius, context);
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return best;
+    }
+
+    private static long timePixels(int[] source, int w, int h, int radius) {
+        int[] pix = new int[source.length];
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < ROUNDS; i++) {
+            System.arraycopy(source, 0, pix, 0, source.length);
+            long start = System.nanoTime();
+            BlurNative.blurPixels(pix, w, h, radius);
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return best;
+    }
+
+    private static long timeBuffer(int[] source, IntBuffer buffer, int w, int h, int radius) {
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < ROUNDS; i++) {
+            buffer.clear();
+            buffer.put(source);
+            long start = System.nanoTime();
+            BlurNative.blurBuffer(buffer, 0, w, h, radius);
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return best;
+    }
+}
@@ -0,0 +1,312 @@
+/*
+ * Copyright (C) 2014 Qiujuer <qiujuer@live.cn>
+ * WebSite http://www.qiujuer.net
+ * Created 10/19/2026
+ * Changed 10/19/2026
+ * Version 1.0.0
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.qiujuer.genius.app;
+
+import android.graphics.Bitmap;
+
+/**
+ * Created by Qiujuer
+ * on 2026/10/19.
+ * <p/>
+ * Incremental {@link StackBlur} of a frequently changing image.
+ * The last source and the blurred output are kept, when a region of
+ * the source is changed only the region expanded by the radius is blurred
+ * again and patched into the output, the result is same as a full blur.
+ * <p/>
+ * A cache must be used by one thread at a time.
+ */
+public final class BlurCache {
+    private final int mRadius;
+    private final BlurContext mContext;
+
+    private int[] mSource;
+    private int[] mOutput;
+    private int[] mWork;
+    private int mWidth;
+    private int mHeight;
+    private Bitmap mBitmap;
+
+    // The last patched region
+    private int mPatchX;
+    private int mPatchY;
+    private int mPatchW;
+    private int mPatchH;
+
+    public BlurCache(int radius) {
+        this(radius, null);
+    }
+
+    /**
+     * @param radius  Blur radius
+     * @param context Scratch buffers, null is create a new one
+     */
+    public BlurCache(int radius, BlurContext context) {
+        if (radius < 1)
+            throw new IllegalArgumentException("Radius must be greater than 0");
+        this.mRadius = radius;
+        this.mContext = context == null ? new BlurContext() : context;
+    }
+
+    /**
+     * Blur the whole source, the source is copied
+     *
+     * @param pix Source pixels, width * height
+     * @param w   Width
+     * @param h   Height
+     * @return The blurred pixels, kept by the cache and changed by the next update
+     */
+    public int[] blur(int[] pix, int w, int h) {
+        if (w < 1 || h < 1 || pix.length < w * h)
+            throw new IllegalArgumentException("Size not match the pixels");
+        int size = w * h;
+        if (mSource == null || mSource.length != size) {
+            mSource = new int[size];
+            mOutput = new int[size];
+        }
+        mWidth = w;
+        mHeight = h;
+        mBitmap = null;
+
+        System.arraycopy(pix, 0, mSource, 0, size);
+        System.arraycopy(pix, 0, mOutput, 0, size);
+        StackBlur.blur(mOutput, w, h, mRadius, mContext);
+        setPatch(0, 0, w, h);
+        return mOutput;
+    }
+
+    /**
+     * Compare with the last source and blur the changed bounds
+     *
+     * @param pix New source pixels, same size of the last source
+     * @return The blurred pixels
+     */
+    public int[] update(int[] pix) {
+        checkSource(pix);
+        final int[] source = mSource;
+        final int w = mWidth;
+        final int h = mHeight;
+        int top = -1, bottom = -1, left = w, right = -1;
+        for (int y = 0, i = 0; y < h; y++) {
+            int first = -1, last = -1;
+            for (int x = 0; x < w; x++, i++) {
+                if (pix[i] != source[i]) {
+                    if (first < 0)
+                        first = x;
+                    last = x;
+                }
+            }
+            if (first >= 0) {
+                if (top < 0)
+                    top = y;
+                bottom = y;
+                left = Math.min(left, first);
+                right = Math.max(right, last);
+            }
+        }
+        if (top < 0) {
+            setPatch(0, 0, 0, 0);
+            return mOutput;
+        }
+        return update(pix, left, top, right - left + 1, bottom - top + 1);
+    }
+
+    /**
+     * Blur again the changed region of the source,
+     * the output bitmap of {@link #blur(Bitmap)} is patched too
+     *
+     * @param pix New source pixels, same size of the last source,
+     *            only the dirty region is read
+     * @param x   Dirty left
+     * @param y   Dirty top
+     * @param w   Dirty width
+     * @param h   Dirty height
+     * @return The blurred pixels
+     */
+    public int[] update(int[] pix, int x, int y, int w, int h) {
+        checkSource(pix);
+        if (!clip(x, y, w, h))
+            return mOutput;
+
+        // Copy the dirty to the source
+        if (pix != mSource) {
+            for (int row = mPatchY, end = mPatchY + mPatchH; row < end; row++) {
+                int i = row * mWidth + mPatchX;
+                System.arraycopy(pix, i, mSource, i, mPatchW);
+            }
+        }
+        patch();
+        if (mBitmap != null)
+            setBitmapPatch();
+        return mOutput;
+    }
+
+    /**
+     * Blur the whole source bitmap, the output bitmap is kept
+     *
+     * @param source Source bitmap
+     * @return The blurred bitmap, kept by the cache and changed by the next update
+     */
+    public Bitmap blur(Bitmap source) {
+        int w = source.getWidth();
+        int h = source.getHeight();
+        int[] pix = mContext.obtainPixels(w * h);
+        source.getPixels(pix, 0, w, 0, 0, w, h);
+        blur(pix, w, h);
+
+        mBitmap = Bitmap.createBitmap(w, h, Bitmap.Config.ARGB_8888);
+        mBitmap.setPixels(mOutput, 0, w, 0, 0, w, h);
+        return mBitmap;
+    }
+
+    /**
+     * Blur again the changed region of the source bitmap,
+     * only the patched region of the output bitmap is set
+     *
+     * @param source Source bitmap, same size of the last source
+     * @param x      Dirty left
+     * @param y      Dirty top
+     * @param w      Dirty width
+     * @param h      Dirty height
+     * @return The blurred bitmap
+     */
+    public Bitmap update(Bitmap source, int x, int y, int w, int h) {
+        if (mBitmap == null)
+            return blur(source);
+        if (source.getWidth() != mWidth || source.getHeight() != mHeight)
+            throw new IllegalArgumentException("Size not match the last source");
+        if (!clip(x, y, w, h))
+            return mBitmap;
+
+        // Read the dirty to the source
+        source.getPixels(mSource, mPatchY * mWidth + mPatchX, mWidth, mPatchX, mPatchY, mPatchW, mPatchH);
+        patch();
+        setBitmapPatch();
+        return mBitmap;
+    }
+
+    private void setBitmapPatch() {
+        mBitmap.setPixels(mOutput, mPatchY * mWidth + mPatchX, mWidth, mPatchX, mPatchY, mPatchW, mPatchH);
+    }
+
+    /**
+     * Blur the dirty expanded by radius, the source of the blur is
+     * expanded again so the pixels of the patch are not touched by
+     * the edges of the blur region
+     */
+    private void patch() {
+        final int radius = mRadius;
+        final int w = mWidth;
+        final int h = mHeight;
+
+        // The changed output
+        int px = Math.max(0, mPatchX - radius);
+        int py = Math.max(0, mPatchY - radius);
+        int pr = Math.min(w, mPatchX + mPatchW + radius);
+        int pb = Math.min(h, mPatchY + mPatchH + radius);
+        setPatch(px, py, pr - px, pb - py);
+
+        // The source of the changed output
+        int sx = Math.max(0, px - radius);
+        int sy = Math.max(0, py - radius);
+        int sw = Math.min(w, pr + radius) - sx;
+        int sh = Math.min(h, pb + radius) - sy;
+
+        int size = sw * sh;
+        if (mWork == null || mWork.length < size)
+            mWork = new int[size];
+        final int[] work = mWork;
+        for (int row = 0; row < sh; row++)
+            System.arraycopy(mSource, (sy + row) * w + sx, work, row * sw, sw);
+
+        StackBlur.blur(work, 0, sw, 0, 0, sw, sh, radius, mContext);
+
+        for (int row = 0; row < mPatchH; row++)
+            System.arraycopy(work, (py - sy + row) * sw + px - sx, mOutput, (py + row) * w + px, mPatchW);
+    }
+
+    private boolean clip(int x, int y, int w, int h) {
+        int left = Math.max(0, x);
+        int top = Math.max(0, y);
+        int right = Math.min(mWidth, x + w);
+        int bottom = Math.min(mHeight, y + h);
+        if (right <= left || bottom <= top) {
+            setPatch(0, 0, 0, 0);
+            return false;
+        }
+        setPatch(left, top, right - left, bottom - top);
+        return true;
+    }
+
+    private void setPatch(int x, int y, int w, int h) {
+        mPatchX = x;
+        mPatchY = y;
+        mPatchW = w;
+        mPatchH = h;
+    }
+
+    private void checkSource(int[] pix) {
+        if (mSource == null)
+            throw new IllegalStateException("Blur the whole source before update");
+        if (pix.length < mSource.length)
+            throw new IllegalArgumentException("Size not match the last source");
+    }
+
+    public int getRadius() {
+        return mRadius;
+    }
+
+    public int getWidth() {
+        return mWidth;
+    }
+
+    public int getHeight() {
+        return mHeight;
+    }
+
+    /**
+     * The blurred pixels, null before the first blur
+     *
+     * @return Pixels
+     */
+    public int[] getOutput() {
+        return mOutput;
+    }
+
+    /**
+     * The output region changed by the last blur or update,
+     * as {x, y, width, height}
+     *
+     * @return The region, width and height is 0 if not changed
+     */
+    public int[] getPatch() {
+        return new int[]{mPatchX, mPatchY, mPatchW, mPatchH};
+    }
+
+    /**
+     * Release the source, the output and the buffers
+     */
+    public void clear() {
+        mSource = mOutput = mWork = null;
+        mBitmap = null;
+        mWidth = mHeight = 0;
+        setPatch(0, 0, 0, 0);
+        mContext.trim();
+    }
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright (C) 2014 Qiujuer <qiujuer@live.cn>
+ * WebSite http://www.qiujuer.net
+ * Created 10/19/2026
+ * Changed 10/19/2026
+ * Version 1.0.0
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.qiujuer.genius.app;
+
+/**
+ * Created by Qiujuer
+ * on 2026/10/19.
+ * <p/>
+ * Channel split and passes shared by the separable blurs
+ */
+final class BlurChannels {
+    private BlurChannels() {
+    }
+
+    /**
+     * The sigma of the stack blur kernel of the radius, so all blurs of a radius
+     * have the same spread: the stack kernel is a triangle with the variance r(r+2)/6
+     */
+    static double sigmaOf(int radius) {
+        return Math.sqrt(radius * (radius + 2) / 6.0);
+    }
+
+    static void checkRegion(int[] pix, int offset, int stride, int x, int y, int w, int h) {
+        checkRegion(pix.length, offset, stride, x, y, w, h);
+    }
+
+    /**
+     * The region must be in the length pixels, as the remaining of a buffer
+     */
+    static void checkRegion(int length, int offset, int stride, int x, int y, int w, int h) {
+        if (x < 0 || y < 0 || w > stride - x || offset < 0
+                || offset + (long) (y + h - 1) * stride + x + w > length)
+            throw new ArrayIndexOutOfBoundsException("Region out of the pixels");
+    }
+
+    /**
+     * Split the region from pix[base] to r g b of width w
+     */
+    static void unpack(int[] pix, int base, int stride, int w, int h, int[] r, int[] g, int[] b) {
+        for (int y = 0, i = 0; y < h; y++) {
+            for (int p = base + y * stride, end = p + w; p < end; p++, i++) {
+                int c = pix[p];
+                r[i] = (c >> 16) & 0xff;
+                g[i] = (c >> 8) & 0xff;
+                b[i] = c & 0xff;
+            }
+        }
+    }
+
+    /**
+     * Put r g b back to the region, the alpha is kept
+     */
+    static void pack(int[] r, int[] g, int[] b, int w, int h, int[] pix, int base, int stride) {
+        for (int y = 0, i = 0; y < h; y++) {
+            for (int p = base + y * stride, end = p + w; p < end; p++, i++) {
+                pix[p] = (0xff000000 & pix[p]) | (r[i] << 16) | (g[i] << 8) | b[i];
+            }
+        }
+    }
+
+    /**
+     * Box pass of the half size k, the edges are extended.
+     * For the rows step is 1 and lineStep is w, for the columns step is w and lineStep is 1
+     *
+     * @param length Pixels of a line
+     * @param lines  Count of lines
+     */
+    static void box(int[] src, int[] dst, int length, int lines, int step, int lineStep, int k) {
+        final int size = k + k + 1;
+        final int mul = (65536 + (size >> 1)) / size;
+        final int last = length - 1;
+        for (int line = 0; line < lines; line++) {
+            final int start = line * lineStep;
+            int sum = (k + 1) * src[start];
+            for (int i = 1; i <= k; i++)
+                sum += src[start + Math.min(i, last) * step];
+            // The clamp is only needed near the edges
+            final int inner = Math.min(length, last - k);
+            int i = 0, p = start;
+            for (; i <= k && i < length; i++, p += step) {
+                dst[p] = (sum * mul + 32768) >>> 16;
+                sum += src[start + Math.min(i + k + 1, last) * step] - src[start];
+            }
+            for (int add = p + (k + 1) * step, sub = p - k * step; i < inner;
+                 i++, p += step, add += step, sub += step) {
+                dst[p] = (sum * mul + 32768) >>> 16;
+                sum += src[add] - src[sub];
+            }
+            for (; i < length; i++, p += step) {
+                dst[p] = (sum * mul + 32768) >>> 16;
+                sum += src[start + last * step] - src[start + (i - k) * step];
+            }
+        }
+    }
+
+    /**
+     * Kernel pass, the weights of the kernel sum to 65536, the edges are extended.
+     * For the rows step is 1 and lineStep is w, for the columns step is w and lineStep is 1
+     *
+     * @param length Pixels of a line
+     * @param lines  Count of lines
+     */
+    static void convolve(int[] src, int[] dst, int length, int lines, int step, int lineStep, int[] kernel) {
+        final int k = kernel.length >> 1;
+        final int last = length - 1;
+        for (int line = 0; line < lines; line++) {
+            final int start = line * lineStep;
+            for (int i = 0, p = start; i < length; i++, p += step) {
+                int sum = 32768;
+                if (i >= k && i + k <= last) {
+                    for (int j = 0, q = p - k * step; j < kernel.length; j++, q += step)
+                        sum += kernel[j] * src[q];
+                } else {
+                    for (int j = -k; j <= k; j++)
+                        sum += kernel[j + k] * src[start + Math.max(0, Math.min(i + j, last)) * step];
+                }
+                dst[p] = sum >>> 16;
+            }
+        }
+    }
+}
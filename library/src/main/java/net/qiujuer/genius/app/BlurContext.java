@@ -0,0 +1,226 @@
+/*
+ * Copyright (C) 2014 Qiujuer <qiujuer@live.cn>
+ * WebSite http://www.qiujuer.net
+ * Created 10/19/2026
+ * Changed 10/19/2026
+ * Version 1.0.0
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.qiujuer.genius.app;
+
+/**
+ * Created by Qiujuer
+ * on 2026/10/19.
+ * <p/>
+ * Scratch buffers of the blur, keep one context for repeat blurs
+ * and the blur will not allocate after the first call with the same
+ * size and radius.
+ * Buffers grow to the largest image seen, call {@link #trim()} to release.
+ * <p/>
+ * A context must be used by one thread at a time.
+ */
+public final class BlurContext {
+    // The count of division tables kept, one table of radius 50 is about 2.7MB
+    private static final int MAX_DIV_TABLES = 2;
+
+    private int[] mPixels;
+    private int[] mA;
+    private int[] mR;
+    private int[] mG;
+    private int[] mB;
+    private int[] mStack;
+    private int[][] mStacks;
+    private int[] mTemp;
+    private int[] mScaled;
+    private int[] mIndex;
+
+    private int[] mKernel;
+    private int mKernelRadius;
+
+    private final int[] mDivRadius = new int[MAX_DIV_TABLES];
+    private final int[][] mDivTables = new int[MAX_DIV_TABLES][];
+
+    /**
+     * Pixels array for the Bitmap copy, the length may be bigger than size
+     */
+    int[] obtainPixels(int size) {
+        if (mPixels == null || mPixels.length < size)
+            mPixels = new int[size];
+        return mPixels;
+    }
+
+    int[] obtainA(int size) {
+        if (mA == null || mA.length < size)
+            mA = new int[size];
+        return mA;
+    }
+
+    int[] obtainR(int size) {
+        if (mR == null || mR.length < size)
+            mR = new int[size];
+        return mR;
+    }
+
+    int[] obtainG(int size) {
+        if (mG == null || mG.length < size)
+            mG = new int[size];
+        return mG;
+    }
+
+    int[] obtainB(int size) {
+        if (mB == null || mB.length < size)
+            mB = new int[size];
+        return mB;
+    }
+
+    int[] obtainStack(int size) {
+        if (mStack == null || mStack.length < size)
+            mStack = new int[size];
+        return mStack;
+    }
+
+    /**
+     * A stack for each band of the parallel blur
+     */
+    int[][] obtainStacks(int count, int size) {
+        if (mStacks == null || mStacks.length < count)
+            mStacks = new int[count][];
+        for (int i = 0; i < count; i++) {
+            if (mStacks[i] == null || mStacks[i].length < size)
+                mStacks[i] = new int[size];
+        }
+        return mStacks;
+    }
+
+    /**
+     * Temp channel of the separable passes
+     */
+    int[] obtainTemp(int size) {
+        if (mTemp == null || mTemp.length < size)
+            mTemp = new int[size];
+        return mTemp;
+    }
+
+    /**
+     * Pixels array of the down scaled image
+     */
+    int[] obtainScaled(int size) {
+        if (mScaled == null || mScaled.length < size)
+            mScaled = new int[size];
+        return mScaled;
+    }
+
+    /**
+     * Index table of the up scale
+     */
+    int[] obtainIndex(int size) {
+        if (mIndex == null || mIndex.length < size)
+            mIndex = new int[size];
+        return mIndex;
+    }
+
+    /**
+     * The Gaussian kernel of the radius, the last used is kept
+     */
+    int[] obtainKernel(int radius) {
+        if (mKernel == null || mKernelRadius != radius) {
+            mKernel = GaussianBlur.kernel(BlurChannels.sigmaOf(radius));
+            mKernelRadius = radius;
+        }
+        return mKernel;
+    }
+
+    /**
+     * The division table of the radius, the last used tables are kept
+     */
+    int[] obtainDivTable(int radius) {
+        for (int i = 0; i < MAX_DIV_TABLES; i++) {
+            if (mDivTables[i] != null && mDivRadius[i] == radius) {
+                // Move to first
+                int[] table = mDivTables[i];
+                for (int j = i; j > 0; j--) {
+                    mDivTables[j] = mDivTables[j - 1];
+                    mDivRadius[j] = mDivRadius[j - 1];
+                }
+                mDivTables[0] = table;
+                mDivRadius[0] = radius;
+                return table;
+            }
+        }
+        int[] table = StackBlur.buildDivTable(radius);
+        for (int j = MAX_DIV_TABLES - 1; j > 0; j--) {
+            mDivTables[j] = mDivTables[j - 1];
+            mDivRadius[j] = mDivRadius[j - 1];
+        }
+        mDivTables[0] = table;
+        mDivRadius[0] = radius;
+        return table;
+    }
+
+    /**
+     * Release the buffers bigger than the pixels count,
+     * and the division tables except the last used
+     *
+     * @param pixels Pixels count to keep
+     */
+    public void trimTo(int pixels) {
+        if (mPixels != null && mPixels.length > pixels)
+            mPixels = null;
+        if (mA != null && mA.length > pixels)
+            mA = null;
+        if (mR != null && mR.length > pixels)
+            mR = null;
+        if (mG != null && mG.length > pixels)
+            mG = null;
+        if (mB != null && mB.length > pixels)
+            mB = null;
+        if (mTemp != null && mTemp.length > pixels)
+            mTemp = null;
+        if (mScaled != null && mScaled.length > pixels)
+            mScaled = null;
+        for (int i = 1; i < MAX_DIV_TABLES; i++)
+            mDivTables[i] = null;
+    }
+
+    /**
+     * Release all buffers
+     */
+    public void trim() {
+        mPixels = mA = mR = mG = mB = mStack = mTemp = mScaled = mIndex = mKernel = null;
+        mStacks = null;
+        for (int i = 0; i < MAX_DIV_TABLES; i++)
+            mDivTables[i] = null;
+    }
+
+    /**
+     * Bytes of the buffers
+     *
+     * @return Bytes
+     */
+    public long getSize() {
+        long size = length(mPixels) + length(mA) + length(mR) + length(mG) + length(mB)
+                + length(mStack) + length(mTemp) + length(mScaled) + length(mIndex) + length(mKernel);
+        for (int[] table : mDivTables)
+            size += length(table);
+        if (mStacks != null) {
+            for (int[] stack : mStacks)
+                size += length(stack);
+        }
+        return size * 4;
+    }
+
+    private static long length(int[] array) {
+        return array == null ? 0 : array.length;
+    }
+}
@@ -2,7 +2,7 @@
  * Copyright (C) 2014 Qiujuer <qiujuer@live.cn>
  * WebSite http://www.qiujuer.net
  * Created 12/25/2014
- * Changed 12/25/2014
+ * Changed 10/19/2026
  * Version 1.0.0
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
@@ -21,6 +21,9 @@ package net.qiujuer.genius.app;
 
 import android.graphics.Bitmap;
 
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+
 /**
  * Created by QiuJu
  * on 2014/11/25.
@@ -28,6 +31,11 @@ import android.graphics.Bitmap;
  * This is blur image class
  */
 final public class BlurKit {
+    private static final int ENGINE_STACK = 0;
+    private static final int ENGINE_NATIVE = 1;
+    private static final int ENGINE_PARALLEL = 2;
+    private static final int ENGINE_SCALED = 3;
+    private static final int ENGINE_ALGORITHM = 4;
 
     private static Bitmap buildBitmap(Bitmap bitmap, boolean canReuseInBitmap) {
         // If can reuse in bitmap return this or copy
@@ -40,6 +48,58 @@ final public class BlurKit {
         return (rBitmap);
     }
 
+    /**
+     * Copy the pixels out of the bitmap, blur by the engine and copy back
+     *
+     * @param algorithm The algorithm of {@link #ENGINE_ALGORITHM}
+     * @param factor    The factor of {@link #ENGINE_SCALED}, less than 1 is pick by radius
+     * @param context   Scratch buffers, null is allocate the pixels for this call
+     */
+    private static Bitmap blurPixels(Bitmap original, int radius, boolean canReuseInBitmap,
+                                     int engine, BlurAlgorithm algorithm, int factor, BlurContext context) {
+        if (radius < 1) {
+            return (null);
+        }
+
+        Bitmap bitmap = buildBitmap(original, canReuseInBitmap);
+
+        // Return this none blur
+        if (radius == 1) {
+            return bitmap;
+        }
+
+        int w = bitmap.getWidth();
+        int h = bitmap.getHeight();
+
+        int[] pix = context == null ? new int[w * h] : context.obtainPixels(w * h);
+        // get array
+        bitmap.getPixels(pix, 0, w, 0, 0, w, h);
+
+        // run Blur
+        switch (engine) {
+            case ENGINE_NATIVE:
+                BlurNative.blurPixels(pix, w, h, radius);
+                break;
+            case ENGINE_PARALLEL:
+                StackBlur.blurParallel(pix, w, h, radius, 0, context);
+                break;
+            case ENGINE_SCALED:
+                ScaleBlur.blur(pix, w, h, radius, factor < 1 ? ScaleBlur.getFactor(radius) : factor, context);
+                break;
+            case ENGINE_ALGORITHM:
+                algorithm.blur(pix, w, h, radius, context);
+                break;
+            default:
+                StackBlur.blur(pix, w, h, radius, context);
+                break;
+        }
+
+        // set Bitmap
+        bitmap.setPixels(pix, 0, w, 0, 0, w, h);
+
+        return (bitmap);
+    }
+
     /**
      * StackBlur By Jni Bitmap
      *
@@ -75,29 +135,32 @@ final public class BlurKit {
      * @return Image Bitmap
      */
     public static Bitmap blurNativelyPixels(Bitmap original, int radius, boolean canReuseInBitmap) {
-        if (radius < 1) {
-            return null;
-        }
+        return blurPixels(original, radius, canReuseInBitmap, ENGINE_NATIVE, null, 0, null);
+    }
 
-        Bitmap bitmap = buildBitmap(original, canReuseInBitmap);
+    /**
+     * StackBlur By Jni direct buffer, the pixels are blurred in place without copy
+     *
+     * @param buffer Direct buffer of native order, the pixels start from the position
+     *               and must be in the remaining
+     * @param w      Width
+     * @param h      Height
+     * @param radius Blur radius
+     * @return True if blurred
+     */
+    public static boolean blurNatively(IntBuffer buffer, int w, int h, int radius) {
+        if (radius < 1 || !buffer.isDirect() || buffer.order() != ByteOrder.nativeOrder()) {
+            return false;
+        }
+        BlurChannels.checkRegion(buffer.remaining(), 0, w, 0, 0, w, h);
 
         // Return this none blur
         if (radius == 1) {
-            return bitmap;
+            return true;
         }
 
-        int w = bitmap.getWidth();
-        int h = bitmap.getHeight();
-
-        int[] pix = new int[w * h];
-        bitmap.getPixels(pix, 0, w, 0, 0, w, h);
-
-        // Jni Pixels Blur
-        BlurNative.blurPixels(pix, w, h, radius);
-
-        bitmap.setPixels(pix, 0, w, 0, 0, w, h);
-
-        return (bitmap);
+        // Jni Buffer Blur
+        return BlurNative.blurBuffer(buffer, buffer.position(), w, h, radius);
     }
 
     /**
@@ -136,211 +199,107 @@ final public class BlurKit {
         // the following line:
         //
         // Stack Blur Algorithm by Mario Klingemann <mario@quasimondo.com>
+        return blurPixels(original, radius, canReuseInBitmap, ENGINE_STACK, null, 0, null);
+    }
+
+    /**
+     * StackBlur By Java Bitmap with the scratch buffers of the context,
+     * repeat calls with the same size and radius will not allocate buffers
+     *
+     * @param original         Original Image
+     * @param radius           Blur radius
+     * @param canReuseInBitmap Can reuse In original Bitmap
+     * @param context          Scratch buffers, must not be used by other thread at the same time
+     * @return Image Bitmap
+     */
+    public static Bitmap blur(Bitmap original, int radius, boolean canReuseInBitmap, BlurContext context) {
+        return blurPixels(original, radius, canReuseInBitmap, ENGINE_STACK, null, 0, context);
+    }
+
+    /**
+     * Blur By Java Bitmap with the algorithm
+     *
+     * @param original         Original Image
+     * @param radius           Blur radius
+     * @param canReuseInBitmap Can reuse In original Bitmap
+     * @param algorithm        Blur algorithm, speed or quality
+     * @param context          Scratch buffers, null is allocate for this call
+     * @return Image Bitmap
+     */
+    public static Bitmap blur(Bitmap original, int radius, boolean canReuseInBitmap,
+                              BlurAlgorithm algorithm, BlurContext context) {
+        if (context == null)
+            context = new BlurContext();
+        return blurPixels(original, radius, canReuseInBitmap, ENGINE_ALGORITHM, algorithm, 0, context);
+    }
+
+    /**
+     * StackBlur a region of the mutable bitmap in place,
+     * the pixels out of the region are not read or changed
+     *
+     * @param bitmap  Mutable Image
+     * @param radius  Blur radius
+     * @param x       Region left
+     * @param y       Region top
+     * @param w       Region width
+     * @param h       Region height
+     * @param context Scratch buffers, null is allocate for this call
+     * @return Image Bitmap
+     */
+    public static Bitmap blur(Bitmap bitmap, int radius, int x, int y, int w, int h, BlurContext context) {
         if (radius < 1) {
             return (null);
         }
 
-        Bitmap bitmap = buildBitmap(original, canReuseInBitmap);
-
         // Return this none blur
-        if (radius == 1) {
+        if (radius == 1 || w < 1 || h < 1) {
             return bitmap;
         }
 
-        int w = bitmap.getWidth();
-        int h = bitmap.getHeight();
+        if (context == null)
+            context = new BlurContext();
 
-        int[] pix = new int[w * h];
-        // get array
-        bitmap.getPixels(pix, 0, w, 0, 0, w, h);
+        int[] pix = context.obtainPixels(w * h);
+        // get region array
+        bitmap.getPixels(pix, 0, w, x, y, w, h);
 
         // run Blur
-        int wm = w - 1;
-        int hm = h - 1;
-        int wh = w * h;
-        int div = radius + radius + 1;
-
-        int r[] = new int[wh];
-        int g[] = new int[wh];
-        int b[] = new int[wh];
-        int rSum, gSum, bSum, x, y, i, p, yp, yi, yw;
-        int vMin[] = new int[Math.max(w, h)];
-
-        int divSum = (div + 1) >> 1;
-        divSum *= divSum;
-        int dv[] = new int[256 * divSum];
-        for (i = 0; i < 256 * divSum; i++) {
-            dv[i] = (i / divSum);
-        }
-
-        yw = yi = 0;
-
-        int[][] stack = new int[div][3];
-        int stackPointer;
-        int stackStart;
-        int[] sir;
-        int rbs;
-        int r1 = radius + 1;
-        int routSum, goutSum, boutSum;
-        int rinSum, ginSum, binSum;
-
-        for (y = 0; y < h; y++) {
-            rinSum = ginSum = binSum = routSum = goutSum = boutSum = rSum = gSum = bSum = 0;
-            for (i = -radius; i <= radius; i++) {
-                p = pix[yi + Math.min(wm, Math.max(i, 0))];
-                sir = stack[i + radius];
-                sir[0] = (p & 0xff0000) >> 16;
-                sir[1] = (p & 0x00ff00) >> 8;
-                sir[2] = (p & 0x0000ff);
-                rbs = r1 - Math.abs(i);
-                rSum += sir[0] * rbs;
-                gSum += sir[1] * rbs;
-                bSum += sir[2] * rbs;
-                if (i > 0) {
-                    rinSum += sir[0];
-                    ginSum += sir[1];
-                    binSum += sir[2];
-                } else {
-                    routSum += sir[0];
-                    goutSum += sir[1];
-                    boutSum += sir[2];
-                }
-            }
-            stackPointer = radius;
-
-            for (x = 0; x < w; x++) {
-
-                r[yi] = dv[rSum];
-                g[yi] = dv[gSum];
-                b[yi] = dv[bSum];
-
-                rSum -= routSum;
-                gSum -= goutSum;
-                bSum -= boutSum;
-
-                stackStart = stackPointer - radius + div;
-                sir = stack[stackStart % div];
-
-                routSum -= sir[0];
-                goutSum -= sir[1];
-                boutSum -= sir[2];
-
-                if (y == 0) {
-                    vMin[x] = Math.min(x + radius + 1, wm);
-                }
-                p = pix[yw + vMin[x]];
-
-                sir[0] = (p & 0xff0000) >> 16;
-                sir[1] = (p & 0x00ff00) >> 8;
-                sir[2] = (p & 0x0000ff);
-
-                rinSum += sir[0];
-                ginSum += sir[1];
-                binSum += sir[2];
-
-                rSum += rinSum;
-                gSum += ginSum;
-                bSum += binSum;
-
-                stackPointer = (stackPointer + 1) % div;
-                sir = stack[(stackPointer) % div];
-
-                routSum += sir[0];
-                goutSum += sir[1];
-                boutSum += sir[2];
-
-                rinSum -= sir[0];
-                ginSum -= sir[1];
-                binSum -= sir[2];
-
-                yi++;
-            }
-            yw += w;
-        }
-        for (x = 0; x < w; x++) {
-            rinSum = ginSum = binSum = routSum = goutSum = boutSum = rSum = gSum = bSum = 0;
-            yp = -radius * w;
-            for (i = -radius; i <= radius; i++) {
-                yi = Math.max(0, yp) + x;
-
-                sir = stack[i + radius];
-
-                sir[0] = r[yi];
-                sir[1] = g[yi];
-                sir[2] = b[yi];
-
-                rbs = r1 - Math.abs(i);
-
-                rSum += r[yi] * rbs;
-                gSum += g[yi] * rbs;
-                bSum += b[yi] * rbs;
-
-                if (i > 0) {
-                    rinSum += sir[0];
-                    ginSum += sir[1];
-                    binSum += sir[2];
-                } else {
-                    routSum += sir[0];
-                    goutSum += sir[1];
-                    boutSum += sir[2];
-                }
-
-                if (i < hm) {
-                    yp += w;
-                }
-            }
-            yi = x;
-            stackPointer = radius;
-            for (y = 0; y < h; y++) {
-                // Preserve alpha channel: ( 0xff000000 & pix[yi] )
-                pix[yi] = (0xff000000 & pix[yi]) | (dv[rSum] << 16) | (dv[gSum] << 8) | dv[bSum];
-
-                rSum -= routSum;
-                gSum -= goutSum;
-                bSum -= boutSum;
-
-                stackStart = stackPointer - radius + div;
-                sir = stack[stackStart % div];
-
-                routSum -= sir[0];
-                goutSum -= sir[1];
-                boutSum -= sir[2];
-
-                if (x == 0) {
-                    vMin[y] = Math.min(y + r1, hm) * w;
-                }
-                p = x + vMin[y];
-
-                sir[0] = r[p];
-                sir[1] = g[p];
-                sir[2] = b[p];
-
-                rinSum += sir[0];
-                ginSum += sir[1];
-                binSum += sir[2];
-
-                rSum += rinSum;
-                gSum += ginSum;
-                bSum += binSum;
-
-                stackPointer = (stackPointer + 1) % div;
-                sir = stack[stackPointer];
-
-                routSum += sir[0];
-                goutSum += sir[1];
-                boutSum += sir[2];
-
-                rinSum -= sir[0];
-                ginSum -= sir[1];
-                binSum -= sir[2];
-
-                yi += w;
-            }
-        }
+        StackBlur.blur(pix, 0, w, 0, 0, w, h, radius, context);
 
         // set Bitmap
-        bitmap.setPixels(pix, 0, w, 0, 0, w, h);
+        bitmap.setPixels(pix, 0, w, x, y, w, h);
 
         return (bitmap);
     }
+
+    /**
+     * StackBlur By Java Bitmap on a down scaled image, for radius above 10
+     * it's close to {@link #blur(Bitmap, int, boolean)} and much faster
+     *
+     * @param original         Original Image
+     * @param radius           Blur radius
+     * @param canReuseInBitmap Can reuse In original Bitmap
+     * @param factor           Down scale factor, less than 1 is pick by radius
+     * @param context          Scratch buffers, null is allocate for this call
+     * @return Image Bitmap
+     */
+    public static Bitmap blurScaled(Bitmap original, int radius, boolean canReuseInBitmap,
+                                    int factor, BlurContext context) {
+        if (context == null)
+            context = new BlurContext();
+        return blurPixels(original, radius, canReuseInBitmap, ENGINE_SCALED, null, factor, context);
+    }
+
+    /**
+     * StackBlur By Java Bitmap on all processors,
+     * the result is same as {@link #blur(Bitmap, int, boolean)}
+     *
+     * @param original         Original Image
+     * @param radius           Blur radius
+     * @param canReuseInBitmap Can reuse In original Bitmap
+     * @return Image Bitmap
+     */
+    public static Bitmap blurParallel(Bitmap original, int radius, boolean canReuseInBitmap) {
+        return blurPixels(original, radius, canReuseInBitmap, ENGINE_PARALLEL, null, 0, null);
+    }
 }
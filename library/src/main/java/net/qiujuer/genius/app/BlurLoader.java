@@ -0,0 +1,497 @@
+/*
+ * Copyright (C) 2014 Qiujuer <qiujuer@live.cn>
+ * WebSite http://www.qiujuer.net
+ * Created 10/19/2026
+ * Changed 10/19/2026
+ * Version 1.0.0
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.qiujuer.genius.app;
+
+import android.graphics.Bitmap;
+import android.util.LruCache;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Created by Qiujuer
+ * on 2026/10/19.
+ * <p/>
+ * Blur bitmaps on a bounded pool and deliver the results on the main thread
+ * by {@link UIKit#runOnMainThreadAsync(Runnable)}.
+ * <p/>
+ * Each request has a key of the source, as an url or a view. A new request
+ * of a key cancels the old one that is waiting or running, so only the latest
+ * request of a key is delivered. The results are kept in a LRU cache bounded
+ * by bytes, a request found in the cache is delivered without a blur.
+ * The result bitmaps are shared by the cache and must not be changed or recycled.
+ * <p/>
+ * The waiting requests are bounded, when the queue is full the oldest waiting
+ * request is dropped for the new one. A dropped or failed request is reported by
+ * {@link BlurListener#onFailed(Object, Throwable)}, so each request not cancelled
+ * by the caller gets one call of the listener.
+ */
+public final class BlurLoader {
+    private static final int PENDING = 0;
+    private static final int RUNNING = 1;
+    private static final int DELIVERING = 2;
+    private static final int DELIVERED = 3;
+    private static final int CANCELLED = 4;
+    private static final int FAILED = 5;
+    private static final int DEFAULT_QUEUE_SIZE = 64;
+
+    private final ThreadPoolExecutor mExecutor;
+    private final LruCache<CacheKey, Bitmap> mCache;
+    // The latest task of each key, guarded by itself
+    private final HashMap<Object, BlurTask> mTasks = new HashMap<>();
+    private final ThreadLocal<BlurContext> mContexts = new ThreadLocal<BlurContext>() {
+        @Override
+        protected BlurContext initialValue() {
+            return new BlurContext();
+        }
+    };
+
+    private final AtomicLong mSubmittedCount = new AtomicLong();
+    private final AtomicLong mCoalescedCount = new AtomicLong();
+    private final AtomicLong mCancelledCount = new AtomicLong();
+    private final AtomicLong mCompletedCount = new AtomicLong();
+    private final AtomicLong mFailedCount = new AtomicLong();
+
+    /**
+     * Half of the processors and 1/8 of the max memory for the cache
+     */
+    public BlurLoader() {
+        this(Math.max(1, Runtime.getRuntime().availableProcessors() / 2),
+                (int) Math.min(Integer.MAX_VALUE, Runtime.getRuntime().maxMemory() / 8));
+    }
+
+    /**
+     * @param threads       Threads of the pool
+     * @param maxCacheBytes Max bytes of the cached bitmaps, 0 is no cache
+     */
+    public BlurLoader(int threads, int maxCacheBytes) {
+        this(threads, DEFAULT_QUEUE_SIZE, maxCacheBytes);
+    }
+
+    /**
+     * @param threads       Threads of the pool
+     * @param maxQueueSize  Max requests waiting for a thread, the oldest is dropped when full
+     * @param maxCacheBytes Max bytes of the cached bitmaps, 0 is no cache
+     */
+    public BlurLoader(int threads, int maxQueueSize, int maxCacheBytes) {
+        if (threads < 1)
+            throw new IllegalArgumentException("Threads must be greater than 0");
+        if (maxQueueSize < 1)
+            throw new IllegalArgumentException("Queue size must be greater than 0");
+        mExecutor = new ThreadPoolExecutor(threads, threads, 30, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<Runnable>(maxQueueSize), new ThreadFactory() {
+            private final AtomicInteger mCount = new AtomicInteger();
+
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "BlurLoader:" + mCount.incrementAndGet());
+                thread.setDaemon(true);
+                thread.setPriority(Thread.NORM_PRIORITY - 1);
+                return thread;
+            }
+        }, new RejectedExecutionHandler() {
+            @Override
+            public void rejectedExecution(Runnable runnable, ThreadPoolExecutor executor) {
+                if (executor.isShutdown()) {
+                    ((BlurTask) runnable).reject();
+                    return;
+                }
+                // Drop the oldest waiting for the new one
+                Runnable oldest = executor.getQueue().poll();
+                if (oldest != null)
+                    ((BlurTask) oldest).reject();
+                executor.execute(runnable);
+            }
+        });
+        mExecutor.allowCoreThreadTimeOut(true);
+        mCache = new LruCache<CacheKey, Bitmap>(Math.max(1, maxCacheBytes)) {
+            @Override
+            protected int sizeOf(CacheKey key, Bitmap value) {
+                return value.getByteCount();
+            }
+        };
+    }
+
+    /**
+     * Blur with {@link BlurAlgorithm#STACK}
+     *
+     * @see #blur(Object, Bitmap, int, BlurAlgorithm, BlurListener)
+     */
+    public BlurTask blur(Object key, Bitmap source, int radius, BlurListener listener) {
+        return blur(key, source, radius, BlurAlgorithm.STACK, listener);
+    }
+
+    /**
+     * Blur the source on the pool, the source is not changed.
+     * The waiting or running request of the same key is cancelled.
+     *
+     * @param key       Key of the source, same key must be the same image
+     * @param source    Source bitmap, must not be changed until delivered
+     * @param radius    Blur radius
+     * @param algorithm Blur algorithm
+     * @param listener  Called on the main thread with the result
+     * @return The task to cancel
+     */
+    public BlurTask blur(Object key, Bitmap source, int radius, BlurAlgorithm algorithm, BlurListener listener) {
+        if (key == null || source == null || listener == null || algorithm == null)
+            throw new NullPointerException("Key, source, algorithm and listener must not be null");
+        if (radius < 1)
+            throw new IllegalArgumentException("Radius must be greater than 0");
+
+        mSubmittedCount.incrementAndGet();
+        CacheKey cacheKey = new CacheKey(key, radius, algorithm);
+        BlurTask task = new BlurTask(cacheKey, source, listener);
+
+        synchronized (mTasks) {
+            BlurTask old = mTasks.put(key, task);
+            if (old != null && old.cancelInternal())
+                mCoalescedCount.incrementAndGet();
+        }
+
+        Bitmap cached = mCache.get(cacheKey);
+        if (cached != null) {
+            // Cancelled by a newer request of the key on other thread
+            if (task.mState.compareAndSet(PENDING, RUNNING))
+                task.deliver(cached);
+        } else {
+            mExecutor.execute(task);
+        }
+        return task;
+    }
+
+    /**
+     * Cancel the latest request of the key
+     *
+     * @param key Key of the source
+     * @return True if a request is cancelled
+     */
+    public boolean cancel(Object key) {
+        BlurTask task;
+        synchronized (mTasks) {
+            task = mTasks.get(key);
+        }
+        return task != null && task.cancel();
+    }
+
+    /**
+     * Remove the cached results of the key
+     *
+     * @param key Key of the source
+     */
+    public void invalidate(Object key) {
+        for (CacheKey cacheKey : mCache.snapshot().keySet()) {
+            if (cacheKey.mKey.equals(key))
+                mCache.remove(cacheKey);
+        }
+    }
+
+    /**
+     * Cancel all requests, clear the cache and stop the pool
+     */
+    public void dispose() {
+        synchronized (mTasks) {
+            Iterator<BlurTask> iterator = mTasks.values().iterator();
+            while (iterator.hasNext()) {
+                iterator.next().cancelInternal();
+                iterator.remove();
+            }
+        }
+        mExecutor.shutdownNow();
+        mCache.evictAll();
+    }
+
+    /**
+     * Count of requests waiting for a thread
+     *
+     * @return Count
+     */
+    public int getQueueSize() {
+        return mExecutor.getQueue().size();
+    }
+
+    /**
+     * Count of requests running on the pool
+     *
+     * @return Count
+     */
+    public int getActiveCount() {
+        return mExecutor.getActiveCount();
+    }
+
+    public long getSubmittedCount() {
+        return mSubmittedCount.get();
+    }
+
+    /**
+     * Requests cancelled by a new request of the same key
+     *
+     * @return Count
+     */
+    public long getCoalescedCount() {
+        return mCoalescedCount.get();
+    }
+
+    /**
+     * Requests cancelled by {@link BlurTask#cancel()} or {@link #cancel(Object)}
+     *
+     * @return Count
+     */
+    public long getCancelledCount() {
+        return mCancelledCount.get();
+    }
+
+    /**
+     * Blurs done and put to the cache, the cache hits are not counted
+     *
+     * @return Count
+     */
+    public long getCompletedCount() {
+        return mCompletedCount.get();
+    }
+
+    /**
+     * Requests failed by the blur or dropped by the full queue
+     *
+     * @return Count
+     */
+    public long getFailedCount() {
+        return mFailedCount.get();
+    }
+
+    /**
+     * Bytes of the cached bitmaps
+     *
+     * @return Bytes
+     */
+    public int getCacheSize() {
+        return mCache.size();
+    }
+
+    public int getCacheMaxSize() {
+        return mCache.maxSize();
+    }
+
+    public int getCacheHitCount() {
+        return mCache.hitCount();
+    }
+
+    public int getCacheMissCount() {
+        return mCache.missCount();
+    }
+
+    public int getCacheEvictionCount() {
+        return mCache.evictionCount();
+    }
+
+    /**
+     * A request of {@link #blur(Object, Bitmap, int, BlurAlgorithm, BlurListener)}
+     */
+    public final class BlurTask implements Runnable {
+        private final CacheKey mCacheKey;
+        private final BlurListener mListener;
+        private final AtomicInteger mState = new AtomicInteger(PENDING);
+        // Set by the caller, cleared by the worker or by the thread that drops
+        // the request, volatile as these may be three threads. A cancel doesn't
+        // touch it, the worker blurs its own copy read before the state CAS.
+        private volatile Bitmap mSource;
+
+        private BlurTask(CacheKey cacheKey, Bitmap source, BlurListener listener) {
+            mCacheKey = cacheKey;
+            mSource = source;
+            mListener = listener;
+        }
+
+        @Override
+        public void run() {
+            final Bitmap source = mSource;
+            mSource = null;
+            if (!mState.compareAndSet(PENDING, RUNNING))
+                return;
+            Bitmap result;
+            try {
+                result = BlurKit.blur(source, mCacheKey.mRadius, false, mCacheKey.mAlgorithm, mContexts.get());
+            } catch (Throwable e) {
+                fail(e);
+                return;
+            }
+
+            // Drop the result of a cancelled request, the source may be changed
+            if (mState.get() == RUNNING) {
+                mCache.put(mCacheKey, result);
+                mCompletedCount.incrementAndGet();
+                deliver(result);
+            } else {
+                finish();
+            }
+        }
+
+        /**
+         * Dropped by the full queue or the stopped pool
+         */
+        private void reject() {
+            if (mState.compareAndSet(PENDING, RUNNING)) {
+                mSource = null;
+                fail(new RejectedExecutionException("Dropped by a newer request"));
+            }
+        }
+
+        private void fail(final Throwable error) {
+            mFailedCount.incrementAndGet();
+            if (!mState.compareAndSet(RUNNING, DELIVERING)) {
+                finish();
+                return;
+            }
+            UIKit.runOnMainThreadAsync(new Runnable() {
+                @Override
+                public void run() {
+                    if (mState.compareAndSet(DELIVERING, FAILED))
+                        mListener.onFailed(mCacheKey.mKey, error);
+                    finish();
+                }
+            });
+        }
+
+        private void deliver(final Bitmap result) {
+            if (!mState.compareAndSet(RUNNING, DELIVERING)) {
+                finish();
+                return;
+            }
+            UIKit.runOnMainThreadAsync(new Runnable() {
+                @Override
+                public void run() {
+                    if (mState.compareAndSet(DELIVERING, DELIVERED))
+                        mListener.onBlurred(mCacheKey.mKey, result);
+                    finish();
+                }
+            });
+        }
+
+        /**
+         * Remove this from the latest tasks if it's still the latest
+         */
+        private void finish() {
+            synchronized (mTasks) {
+                if (mTasks.get(mCacheKey.mKey) == this)
+                    mTasks.remove(mCacheKey.mKey);
+            }
+        }
+
+        /**
+         * Cancel if not delivered, a waiting request is removed from the pool queue
+         */
+        private boolean cancelInternal() {
+            while (true) {
+                int state = mState.get();
+                if (state == DELIVERED || state == CANCELLED || state == FAILED)
+                    return false;
+                if (mState.compareAndSet(state, CANCELLED)) {
+                    if (state == PENDING)
+                        mExecutor.remove(this);
+                    return true;
+                }
+            }
+        }
+
+        /**
+         * Cancel the request, the listener is not called after this on the main thread
+         *
+         * @return False if delivered, failed or cancelled
+         */
+        public boolean cancel() {
+            if (!cancelInternal())
+                return false;
+            mCancelledCount.incrementAndGet();
+            finish();
+            return true;
+        }
+
+        public boolean isCancelled() {
+            return mState.get() == CANCELLED;
+        }
+
+        public boolean isDelivered() {
+            return mState.get() == DELIVERED;
+        }
+
+        /**
+         * The blur failed or the request was dropped, reported by
+         * {@link BlurListener#onFailed(Object, Throwable)}
+         *
+         * @return True if failed
+         */
+        public boolean isFailed() {
+            return mState.get() == FAILED;
+        }
+
+        public Object getKey() {
+            return mCacheKey.mKey;
+        }
+    }
+
+    private static final class CacheKey {
+        private final Object mKey;
+        private final int mRadius;
+        private final BlurAlgorithm mAlgorithm;
+
+        CacheKey(Object key, int radius, BlurAlgorithm algorithm) {
+            mKey = key;
+            mRadius = radius;
+            mAlgorithm = algorithm;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o)
+                return true;
+            if (!(o instanceof CacheKey))
+                return false;
+            CacheKey other = (CacheKey) o;
+            return mRadius == other.mRadius && mAlgorithm == other.mAlgorithm && mKey.equals(other.mKey);
+        }
+
+        @Override
+        public int hashCode() {
+            return (mKey.hashCode() * 31 + mRadius) * 31 + mAlgorithm.hashCode();
+        }
+    }
+
+    /**
+     * Listener of the blur result, called on the main thread
+     */
+    public static interface BlurListener {
+        void onBlurred(Object key, Bitmap bitmap);
+
+        /**
+         * The blur threw or the request was dropped by the full queue
+         *
+         * @param key   Key of the source
+         * @param error The error, a {@link RejectedExecutionException} if dropped
+         */
+        void onFailed(Object key, Throwable error);
+    }
+}
@@ -21,6 +21,8 @@ package net.qiujuer.genius.app;
 
 import android.graphics.Bitmap;
 
+import java.nio.IntBuffer;
+
 /**
  * Created by QiuJu
  * on 2014/11/25.
@@ -30,20 +32,35 @@ import android.graphics.Bitmap;
 class BlurNative {
 
     /**
-     * Blur Image By Pixels
+     * Blur Image By Pixels, the pixels are copied and blurred by all processors,
+     * without the memory for a copy the array is blurred in place on one thread
      *
      * @param img Img pixel array
      * @param w   Img width
      * @param h   Img height
      * @param r   Blur radius
+     * @throws OutOfMemoryError if the blur buffers can't be allocated
      */
     public static native void blurPixels(int[] img, int w, int h, int r);
 
+    /**
+     * Blur Image By direct IntBuffer, the pixels are not copied
+     *
+     * @param buffer Direct buffer of native order
+     * @param offset Index of the first pixel
+     * @param w      Img width
+     * @param h      Img height
+     * @param r      Blur radius
+     * @return False if the buffer is not direct or too small, or out of memory
+     */
+    public static native boolean blurBuffer(IntBuffer buffer, int offset, int w, int h, int r);
+
     /**
      * Blur Image By Bitmap
      *
      * @param bitmap Img Bitmap
      * @param r      Blur radius
+     * @throws OutOfMemoryError if the blur buffers can't be allocated
      */
     public static native void blurBitmap(Bitmap bitmap, int r);
 
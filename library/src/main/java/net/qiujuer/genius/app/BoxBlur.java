@@ -0,0 +1,105 @@
+/*
+ * Copyright (C) 2014 Qiujuer <qiujuer@live.cn>
+ * WebSite http://www.qiujuer.net
+ * Created 10/19/2026
+ * Changed 10/19/2026
+ * Version 1.0.0
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.qiujuer.genius.app;
+
+/**
+ * Created by Qiujuer
+ * on 2026/10/19.
+ * <p/>
+ * Three running sum box blurs on each axis, it's close to a Gaussian
+ * and the cost of each pixel is not changed by the radius.
+ * The box sizes are picked to match the spread of the {@link StackBlur}
+ * of the same radius. The alpha of each pixel is kept.
+ */
+public final class BoxBlur {
+    private static final int PASSES = 3;
+
+    private BoxBlur() {
+    }
+
+    /**
+     * Half sizes of the boxes, the three boxes have the variance of the sigma
+     */
+    static void boxes(double sigma, int[] halves) {
+        double ideal = Math.sqrt(12 * sigma * sigma / PASSES + 1);
+        int lower = (int) Math.floor(ideal);
+        if (lower % 2 == 0)
+            lower--;
+        int upper = lower + 2;
+        double mIdeal = (12 * sigma * sigma - PASSES * lower * lower - 4 * PASSES * lower - 3 * PASSES)
+                / (-4 * lower - 4);
+        long m = Math.round(mIdeal);
+        for (int i = 0; i < PASSES; i++)
+            halves[i] = ((i < m ? lower : upper) - 1) >> 1;
+    }
+
+    public static void blur(int[] pix, int w, int h, int radius, BlurContext context) {
+        blur(pix, 0, w, 0, 0, w, h, radius, context);
+    }
+
+    /**
+     * Blur a region in place, the pixels out of the region are not read or changed
+     *
+     * @param pix     Pixels, the pixel (x, y) is at pix[offset + y * stride + x]
+     * @param offset  Offset of the first pixel
+     * @param stride  Pixels of a row, can be bigger than the width
+     * @param x       Region left
+     * @param y       Region top
+     * @param w       Region width
+     * @param h       Region height
+     * @param radius  Blur radius
+     * @param context Scratch buffers, null is allocate for this call
+     */
+    public static void blur(int[] pix, int offset, int stride, int x, int y, int w, int h,
+                            int radius, BlurContext context) {
+        if (radius < 1 || w < 1 || h < 1)
+            return;
+        BlurChannels.checkRegion(pix, offset, stride, x, y, w, h);
+        if (context == null)
+            context = new BlurContext();
+
+        int wh = w * h;
+        int[] r = context.obtainR(wh);
+        int[] g = context.obtainG(wh);
+        int[] b = context.obtainB(wh);
+        int[] temp = context.obtainTemp(wh);
+        int[] halves = context.obtainStack(PASSES);
+        boxes(BlurChannels.sigmaOf(radius), halves);
+        int base = offset + y * stride + x;
+
+        BlurChannels.unpack(pix, base, stride, w, h, r, g, b);
+        blurChannel(r, temp, w, h, halves);
+        blurChannel(g, temp, w, h, halves);
+        blurChannel(b, temp, w, h, halves);
+        BlurChannels.pack(r, g, b, w, h, pix, base, stride);
+    }
+
+    /**
+     * Three passes on rows and three on columns, the result is back in channel
+     */
+    private static void blurChannel(int[] channel, int[] temp, int w, int h, int[] halves) {
+        BlurChannels.box(channel, temp, w, h, 1, w, halves[0]);
+        BlurChannels.box(temp, channel, w, h, 1, w, halves[1]);
+        BlurChannels.box(channel, temp, w, h, 1, w, halves[2]);
+        BlurChannels.box(temp, channel, h, w, w, 1, halves[0]);
+        BlurChannels.box(channel, temp, h, w, w, 1, halves[1]);
+        BlurChannels.box(temp, channel, h, w, w, 1, halves[2]);
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright (C) 2014 Qiujuer <qiujuer@live.cn>
+ * WebSite http://www.qiujuer.net
+ * Created 10/19/2026
+ * Changed 10/19/2026
+ * Version 1.0.0
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.qiujuer.genius.app;
+
+/**
+ * Created by Qiujuer
+ * on 2026/10/19.
+ * <p/>
+ * Separable Gaussian blur with a 16 bits fixed point kernel of 3 sigma,
+ * the sigma is picked to match the spread of the {@link StackBlur}
+ * of the same radius. It's the best quality and the cost grows with the radius.
+ * The alpha of each pixel is kept.
+ */
+public final class GaussianBlur {
+    private GaussianBlur() {
+    }
+
+    /**
+     * The kernel of the sigma, the weights sum to 65536
+     */
+    static int[] kernel(double sigma) {
+        int k = Math.max(1, (int) Math.ceil(sigma * 3));
+        double[] weights = new double[k + k + 1];
+        double total = 0;
+        for (int i = -k; i <= k; i++) {
+            weights[i + k] = Math.exp(-(i * i) / (2 * sigma * sigma));
+            total += weights[i + k];
+        }
+        int[] kernel = new int[k + k + 1];
+        int sum = 0;
+        for (int i = 0; i < kernel.length; i++) {
+            kernel[i] = (int) Math.round(weights[i] / total * 65536);
+            sum += kernel[i];
+        }
+        // The rounding rest to the center
+        kernel[k] += 65536 - sum;
+        return kernel;
+    }
+
+    public static void blur(int[] pix, int w, int h, int radius, BlurContext context) {
+        blur(pix, 0, w, 0, 0, w, h, radius, context);
+    }
+
+    /**
+     * Blur a region in place, the pixels out of the region are not read or changed
+     *
+     * @param pix     Pixels, the pixel (x, y) is at pix[offset + y * stride + x]
+     * @param offset  Offset of the first pixel
+     * @param stride  Pixels of a row, can be bigger than the width
+     * @param x       Region left
+     * @param y       Region top
+     * @param w       Region width
+     * @param h       Region height
+     * @param radius  Blur radius
+     * @param context Scratch buffers, null is allocate for this call
+     */
+    public static void blur(int[] pix, int offset, int stride, int x, int y, int w, int h,
+                            int radius, BlurContext context) {
+        if (radius < 1 || w < 1 || h < 1)
+            return;
+        BlurChannels.checkRegion(pix, offset, stride, x, y, w, h);
+        if (context == null)
+            context = new BlurContext();
+
+        int wh = w * h;
+        int[] r = context.obtainR(wh);
+        int[] g = context.obtainG(wh);
+        int[] b = context.obtainB(wh);
+        int[] temp = context.obtainTemp(wh);
+        int[] kernel = context.obtainKernel(radius);
+        int base = offset + y * stride + x;
+
+        BlurChannels.unpack(pix, base, stride, w, h, r, g, b);
+        blurChannel(r, temp, w, h, kernel);
+        blurChannel(g, temp, w, h, kernel);
+        blurChannel(b, temp, w, h, kernel);
+        BlurChannels.pack(r, g, b, w, h, pix, base, stride);
+    }
+
+    private static void blurChannel(int[] channel, int[] temp, int w, int h, int[] kernel) {
+        BlurChannels.convolve(channel, temp, w, h, 1, w, kernel);
+        BlurChannels.convolve(temp, channel, h, w, w, 1, kernel);
+    }
+}
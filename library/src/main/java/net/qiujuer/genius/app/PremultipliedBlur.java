@@ -0,0 +1,294 @@
+/*
+ * Copyright (C) 2014 Qiujuer <qiujuer@live.cn>
+ * WebSite http://www.qiujuer.net
+ * Created 10/19/2026
+ * Changed 10/19/2026
+ * Version 1.0.0
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.qiujuer.genius.app;
+
+/**
+ * Created by Qiujuer
+ * on 2026/10/19.
+ * <p/>
+ * Stack blur of all four channels in premultiplied space.
+ * {@link StackBlur} keeps the alpha of each pixel and blurs the colors of
+ * transparent pixels too, so the edges of transparent regions get halos.
+ * Here the colors are multiplied by the alpha while read, the alpha is
+ * blurred with them, and the colors are divided by the blurred alpha
+ * while written, so transparent pixels add nothing to the color.
+ * <p/>
+ * The passes are the same as {@link StackBlur} with a fourth channel,
+ * an opaque image gets the same result as {@link StackBlur}.
+ */
+public final class PremultipliedBlur {
+    // 255 / alpha in 16 bits fixed point
+    private static final int[] UNPREMULTIPLY = new int[256];
+
+    static {
+        for (int a = 1; a < 256; a++)
+            UNPREMULTIPLY[a] = ((255 << 16) + (a >> 1)) / a;
+    }
+
+    private PremultipliedBlur() {
+    }
+
+    public static void blur(int[] pix, int w, int h, int radius, BlurContext context) {
+        blur(pix, 0, w, 0, 0, w, h, radius, context);
+    }
+
+    /**
+     * Blur a region in place, the pixels out of the region are not read or changed
+     *
+     * @param pix     Unpremultiplied pixels, as Bitmap.getPixels,
+     *                the pixel (x, y) is at pix[offset + y * stride + x]
+     * @param offset  Offset of the first pixel
+     * @param stride  Pixels of a row, can be bigger than the width
+     * @param x       Region left
+     * @param y       Region top
+     * @param w       Region width
+     * @param h       Region height
+     * @param radius  Blur radius
+     * @param context Scratch buffers, null is allocate for this call
+     */
+    public static void blur(int[] pix, int offset, int stride, int x, int y, int w, int h,
+                            int radius, BlurContext context) {
+        if (radius < 1 || w < 1 || h < 1)
+            return;
+        BlurChannels.checkRegion(pix, offset, stride, x, y, w, h);
+        if (context == null)
+            context = new BlurContext();
+        int wh = w * h;
+        int[] a = context.obtainA(wh);
+        int[] r = context.obtainR(wh);
+        int[] g = context.obtainG(wh);
+        int[] b = context.obtainB(wh);
+        int[] dv = context.obtainDivTable(radius);
+        int[] stack = context.obtainStack((radius + radius + 1) * 4);
+        int base = offset + y * stride + x;
+
+        blurHorizontal(pix, base, stride, a, r, g, b, w, h, radius, dv, stack);
+        blurVertical(pix, base, stride, a, r, g, b, w, h, radius, dv, stack);
+    }
+
+    /**
+     * c * a / 255 rounded, exact for all c and a of 8 bits
+     */
+    private static int premultiply(int c, int a) {
+        int t = c * a + 128;
+        return (t + (t >> 8)) >> 8;
+    }
+
+    /**
+     * Horizontal pass, the premultiplied channels are put to a r g b of width w
+     */
+    private static void blurHorizontal(int[] pix, int base, int stride, int[] a, int[] r, int[] g, int[] b,
+                                       int w, int h, int radius, int[] dv, int[] stack) {
+        int wm = w - 1;
+        int div = radius + radius + 1;
+        int r1 = radius + 1;
+        int aSum, rSum, gSum, bSum, x, y, i, p, pa, yi, yw, sir;
+        int stackPointer, rbs;
+        int aoutSum, routSum, goutSum, boutSum;
+        int ainSum, rinSum, ginSum, binSum;
+
+        yi = 0;
+        yw = base;
+        for (y = 0; y < h; y++) {
+            ainSum = rinSum = ginSum = binSum = aoutSum = routSum = goutSum = boutSum = 0;
+            aSum = rSum = gSum = bSum = 0;
+            for (i = -radius; i <= radius; i++) {
+                p = pix[yw + Math.min(wm, Math.max(i, 0))];
+                pa = p >>> 24;
+                sir = (i + radius) << 2;
+                stack[sir] = pa;
+                stack[sir + 1] = premultiply((p >> 16) & 0xff, pa);
+                stack[sir + 2] = premultiply((p >> 8) & 0xff, pa);
+                stack[sir + 3] = premultiply(p & 0xff, pa);
+                rbs = r1 - Math.abs(i);
+                aSum += stack[sir] * rbs;
+                rSum += stack[sir + 1] * rbs;
+                gSum += stack[sir + 2] * rbs;
+                bSum += stack[sir + 3] * rbs;
+                if (i > 0) {
+                    ainSum += stack[sir];
+                    rinSum += stack[sir + 1];
+                    ginSum += stack[sir + 2];
+                    binSum += stack[sir + 3];
+                } else {
+                    aoutSum += stack[sir];
+                    routSum += stack[sir + 1];
+                    goutSum += stack[sir + 2];
+                    boutSum += stack[sir + 3];
+                }
+            }
+            stackPointer = radius;
+
+            for (x = 0; x < w; x++) {
+                a[yi] = dv[aSum];
+                r[yi] = dv[rSum];
+                g[yi] = dv[gSum];
+                b[yi] = dv[bSum];
+
+                aSum -= aoutSum;
+                rSum -= routSum;
+                gSum -= goutSum;
+                bSum -= boutSum;
+
+                sir = ((stackPointer + r1) % div) << 2;
+
+                aoutSum -= stack[sir];
+                routSum -= stack[sir + 1];
+                goutSum -= stack[sir + 2];
+                boutSum -= stack[sir + 3];
+
+                p = pix[yw + Math.min(x + r1, wm)];
+                pa = p >>> 24;
+                stack[sir] = pa;
+                stack[sir + 1] = premultiply((p >> 16) & 0xff, pa);
+                stack[sir + 2] = premultiply((p >> 8) & 0xff, pa);
+                stack[sir + 3] = premultiply(p & 0xff, pa);
+
+                ainSum += stack[sir];
+                rinSum += stack[sir + 1];
+                ginSum += stack[sir + 2];
+                binSum += stack[sir + 3];
+
+                aSum += ainSum;
+                rSum += rinSum;
+                gSum += ginSum;
+                bSum += binSum;
+
+                stackPointer = (stackPointer + 1) % div;
+                sir = stackPointer << 2;
+
+                aoutSum += stack[sir];
+                routSum += stack[sir + 1];
+                goutSum += stack[sir + 2];
+                boutSum += stack[sir + 3];
+
+                ainSum -= stack[sir];
+                rinSum -= stack[sir + 1];
+                ginSum -= stack[sir + 2];
+                binSum -= stack[sir + 3];
+
+                yi++;
+            }
+            yw += stride;
+        }
+    }
+
+    /**
+     * Vertical pass, the channels are divided by the blurred alpha and put to pix
+     */
+    private static void blurVertical(int[] pix, int base, int stride, int[] a, int[] r, int[] g, int[] b,
+                                     int w, int h, int radius, int[] dv, int[] stack) {
+        final int[] unpremultiply = UNPREMULTIPLY;
+        int hm = h - 1;
+        int div = radius + radius + 1;
+        int r1 = radius + 1;
+        int aSum, rSum, gSum, bSum, x, y, i, p, pa, yi, pi, sir;
+        int stackPointer, rbs;
+        int aoutSum, routSum, goutSum, boutSum;
+        int ainSum, rinSum, ginSum, binSum;
+
+        for (x = 0; x < w; x++) {
+            ainSum = rinSum = ginSum = binSum = aoutSum = routSum = goutSum = boutSum = 0;
+            aSum = rSum = gSum = bSum = 0;
+            for (i = -radius; i <= radius; i++) {
+                yi = Math.min(hm, Math.max(i, 0)) * w + x;
+                sir = (i + radius) << 2;
+                stack[sir] = a[yi];
+                stack[sir + 1] = r[yi];
+                stack[sir + 2] = g[yi];
+                stack[sir + 3] = b[yi];
+                rbs = r1 - Math.abs(i);
+                aSum += a[yi] * rbs;
+                rSum += r[yi] * rbs;
+                gSum += g[yi] * rbs;
+                bSum += b[yi] * rbs;
+                if (i > 0) {
+                    ainSum += stack[sir];
+                    rinSum += stack[sir + 1];
+                    ginSum += stack[sir + 2];
+                    binSum += stack[sir + 3];
+                } else {
+                    aoutSum += stack[sir];
+                    routSum += stack[sir + 1];
+                    goutSum += stack[sir + 2];
+                    boutSum += stack[sir + 3];
+                }
+            }
+            pi = base + x;
+            stackPointer = radius;
+            for (y = 0; y < h; y++) {
+                pa = dv[aSum];
+                if (pa == 0) {
+                    pix[pi] = 0;
+                } else {
+                    // The premultiplied color is not above the alpha but the rounding may be
+                    int u = unpremultiply[pa];
+                    pix[pi] = (pa << 24)
+                            | (Math.min(255, (dv[rSum] * u + 32768) >> 16) << 16)
+                            | (Math.min(255, (dv[gSum] * u + 32768) >> 16) << 8)
+                            | Math.min(255, (dv[bSum] * u + 32768) >> 16);
+                }
+
+                aSum -= aoutSum;
+                rSum -= routSum;
+                gSum -= goutSum;
+                bSum -= boutSum;
+
+                sir = ((stackPointer + r1) % div) << 2;
+
+                aoutSum -= stack[sir];
+                routSum -= stack[sir + 1];
+                goutSum -= stack[sir + 2];
+                boutSum -= stack[sir + 3];
+
+                p = x + Math.min(y + r1, hm) * w;
+                stack[sir] = a[p];
+                stack[sir + 1] = r[p];
+                stack[sir + 2] = g[p];
+                stack[sir + 3] = b[p];
+
+                ainSum += stack[sir];
+                rinSum += stack[sir + 1];
+                ginSum += stack[sir + 2];
+                binSum += stack[sir + 3];
+
+                aSum += ainSum;
+                rSum += rinSum;
+                gSum += ginSum;
+                bSum += binSum;
+
+                stackPointer = (stackPointer + 1) % div;
+                sir = stackPointer << 2;
+
+                aoutSum += stack[sir];
+                routSum += stack[sir + 1];
+                goutSum += stack[sir + 2];
+                boutSum += stack[sir + 3];
+
+                ainSum -= stack[sir];
+                rinSum -= stack[sir + 1];
+                ginSum -= stack[sir + 2];
+                binSum -= stack[sir + 3];
+
+                pi += stride;
+            }
+        }
+    }
+}
@@ -0,0 +1,168 @@
+/*
+ * Copyright (C) 2014 Qiujuer <qiujuer@live.cn>
+ * WebSite http://www.qiujuer.net
+ * Created 10/19/2026
+ * Changed 10/19/2026
+ * Version 1.0.0
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.qiujuer.genius.app;
+
+/**
+ * Created by Qiujuer
+ * on 2026/10/19.
+ * <p/>
+ * Blur large radius on a down scaled image:
+ * the image is averaged by factor * factor blocks, blurred by
+ * {@link StackBlur} with radius / factor and scaled back with bilinear filter.
+ * For radius above 10 the result is close to the full size blur
+ * at a fraction of the cost. The alpha of each pixel is kept.
+ */
+public final class ScaleBlur {
+    private ScaleBlur() {
+    }
+
+    /**
+     * The down scale factor of the radius, the scaled radius is kept
+     * at least 5, smaller radius is too coarse on the scaled image
+     *
+     * @param radius Blur radius
+     * @return 1, 2, 4 or 8
+     */
+    public static int getFactor(int radius) {
+        if (radius < 10)
+            return 1;
+        if (radius < 20)
+            return 2;
+        if (radius < 40)
+            return 4;
+        return 8;
+    }
+
+    /**
+     * Blur with the factor of {@link #getFactor(int)}
+     *
+     * @param pix     Pixels, width * height
+     * @param w       Width
+     * @param h       Height
+     * @param radius  Blur radius of the full size image
+     * @param context Scratch buffers, null is allocate for this call
+     */
+    public static void blur(int[] pix, int w, int h, int radius, BlurContext context) {
+        blur(pix, w, h, radius, getFactor(radius), context);
+    }
+
+    /**
+     * Blur on the image down scaled by factor
+     *
+     * @param pix     Pixels, width * height
+     * @param w       Width
+     * @param h       Height
+     * @param radius  Blur radius of the full size image
+     * @param factor  Down scale factor, 1 is the full size blur
+     * @param context Scratch buffers, null is allocate for this call
+     */
+    public static void blur(int[] pix, int w, int h, int radius, int factor, BlurContext context) {
+        if (radius < 1 || w < 1 || h < 1)
+            return;
+        if (context == null)
+            context = new BlurContext();
+        if (factor <= 1) {
+            StackBlur.blur(pix, w, h, radius, context);
+            return;
+        }
+
+        int sw = (w + factor - 1) / factor;
+        int sh = (h + factor - 1) / factor;
+        int[] scaled = context.obtainScaled(sw * sh);
+
+        downScale(pix, w, h, scaled, sw, sh, factor);
+        StackBlur.blur(scaled, sw, sh, Math.max(1, (radius + (factor >> 1)) / factor), context);
+        upScale(scaled, sw, sh, pix, w, h, context.obtainIndex(w * 2));
+    }
+
+    /**
+     * Average each block to a pixel, the blocks on the right and bottom may be smaller
+     */
+    private static void downScale(int[] pix, int w, int h, int[] scaled, int sw, int sh, int factor) {
+        for (int sy = 0; sy < sh; sy++) {
+            int y0 = sy * factor;
+            int y1 = Math.min(h, y0 + factor);
+            for (int sx = 0; sx < sw; sx++) {
+                int x0 = sx * factor;
+                int x1 = Math.min(w, x0 + factor);
+                int rSum = 0, gSum = 0, bSum = 0;
+                for (int y = y0; y < y1; y++) {
+                    for (int i = y * w + x0, end = y * w + x1; i < end; i++) {
+                        int p = pix[i];
+                        rSum += (p >> 16) & 0xff;
+                        gSum += (p >> 8) & 0xff;
+                        bSum += p & 0xff;
+                    }
+                }
+                int count = (y1 - y0) * (x1 - x0);
+                scaled[sy * sw + sx] = 0xff000000
+                        | ((rSum / count) << 16) | ((gSum / count) << 8) | (bSum / count);
+            }
+        }
+    }
+
+    /**
+     * Bilinear scale with 8 bits weight, the pixel centers are aligned
+     */
+    private static void upScale(int[] scaled, int sw, int sh, int[] pix, int w, int h, int[] index) {
+        // The x index and weight of each column
+        for (int x = 0; x < w; x++) {
+            int fx = position(x, w, sw);
+            index[x << 1] = fx >> 8;
+            index[(x << 1) + 1] = fx & 0xff;
+        }
+
+        int swm = sw - 1;
+        for (int y = 0; y < h; y++) {
+            int fy = position(y, h, sh);
+            int row0 = (fy >> 8) * sw;
+            int row1 = Math.min((fy >> 8) + 1, sh - 1) * sw;
+            int wy = fy & 0xff;
+            int iy = 256 - wy;
+            int yi = y * w;
+            for (int x = 0; x < w; x++, yi++) {
+                int x0 = index[x << 1];
+                int x1 = Math.min(x0 + 1, swm);
+                int wx = index[(x << 1) + 1];
+                int ix = 256 - wx;
+                int p00 = scaled[row0 + x0], p01 = scaled[row0 + x1];
+                int p10 = scaled[row1 + x0], p11 = scaled[row1 + x1];
+
+                int r = ((((p00 >> 16) & 0xff) * ix + ((p01 >> 16) & 0xff) * wx) * iy
+                        + (((p10 >> 16) & 0xff) * ix + ((p11 >> 16) & 0xff) * wx) * wy) >> 16;
+                int g = ((((p00 >> 8) & 0xff) * ix + ((p01 >> 8) & 0xff) * wx) * iy
+                        + (((p10 >> 8) & 0xff) * ix + ((p11 >> 8) & 0xff) * wx) * wy) >> 16;
+                int b = (((p00 & 0xff) * ix + (p01 & 0xff) * wx) * iy
+                        + ((p10 & 0xff) * ix + (p11 & 0xff) * wx) * wy) >> 16;
+
+                // Preserve alpha channel
+                pix[yi] = (0xff000000 & pix[yi]) | (r << 16) | (g << 8) | b;
+            }
+        }
+    }
+
+    /**
+     * The source position of the destination pixel center, 8 bits fixed point
+     */
+    private static int position(int d, int size, int scaledSize) {
+        int f = (int) (((2L * d + 1) * scaledSize << 8) / (2L * size)) - 128;
+        return Math.max(0, Math.min(f, (scaledSize - 1) << 8));
+    }
+}
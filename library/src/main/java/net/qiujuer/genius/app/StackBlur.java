@@ -0,0 +1,480 @@
+/*
+ * Copyright (C) 2014 Qiujuer <qiujuer@live.cn>
+ * WebSite http://www.qiujuer.net
+ * Created 10/19/2026
+ * Changed 10/19/2026
+ * Version 1.0.0
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.qiujuer.genius.app;
+
+import java.nio.IntBuffer;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Created by Qiujuer
+ * on 2026/10/19.
+ * <p/>
+ * Stack Blur Algorithm by Mario Klingemann <mario@quasimondo.com>
+ * <p/>
+ * Stack blur on int pixels, it's the Java core of {@link BlurKit#blur}
+ * and needs no android class, so it can be used on any int[] or IntBuffer
+ * image, a region of it, or a video frame, and tested on a plain JVM.
+ * <p/>
+ * The horizontal pass is run by rows and the vertical pass by columns,
+ * each row or column is independent, so the parallel blur splits them
+ * to bands and the result is the same as the serial blur.
+ */
+public final class StackBlur {
+    // Min rows or columns of a band, smaller bands cost more than they save
+    private static final int MIN_BAND_SIZE = 32;
+    private static final int THREAD_COUNT = Runtime.getRuntime().availableProcessors();
+
+    private StackBlur() {
+    }
+
+    /**
+     * The pool is created by the class loading on the first parallel blur
+     */
+    private static final class ExecutorHolder {
+        static final ExecutorService EXECUTOR = Executors.newFixedThreadPool(THREAD_COUNT, new ThreadFactory() {
+            private final AtomicInteger mCount = new AtomicInteger();
+
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "StackBlur:" + mCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+
+    /**
+     * Blur the pixels on the calling thread, the alpha is kept
+     *
+     * @param pix    Pixels, width * height
+     * @param w      Width
+     * @param h      Height
+     * @param radius Blur radius
+     */
+    public static void blur(int[] pix, int w, int h, int radius) {
+        blur(pix, w, h, radius, null);
+    }
+
+    /**
+     * Blur the pixels on the calling thread with the scratch buffers of the context
+     *
+     * @param pix     Pixels, width * height
+     * @param w       Width
+     * @param h       Height
+     * @param radius  Blur radius
+     * @param context Scratch buffers, null is allocate for this call
+     */
+    public static void blur(int[] pix, int w, int h, int radius, BlurContext context) {
+        if (radius < 1 || w < 1 || h < 1)
+            return;
+        if (context == null)
+            context = new BlurContext();
+        int wh = w * h;
+        int[] r = context.obtainR(wh);
+        int[] g = context.obtainG(wh);
+        int[] b = context.obtainB(wh);
+        int[] dv = context.obtainDivTable(radius);
+        int[] stack = context.obtainStack((radius + radius + 1) * 3);
+
+        blurHorizontal(pix, 0, w, r, g, b, w, radius, dv, stack, 0, h);
+        blurVertical(pix, 0, w, r, g, b, w, h, radius, dv, stack, 0, w);
+    }
+
+    /**
+     * Blur a region in place, the pixels out of the region are not read or changed
+     *
+     * @param pix     Pixels, the pixel (x, y) is at pix[offset + y * stride + x]
+     * @param offset  Offset of the first pixel
+     * @param stride  Pixels of a row, can be bigger than the width
+     * @param x       Region left
+     * @param y       Region top
+     * @param w       Region width
+     * @param h       Region height
+     * @param radius  Blur radius
+     * @param context Scratch buffers, null is allocate for this call
+     */
+    public static void blur(int[] pix, int offset, int stride, int x, int y, int w, int h,
+                            int radius, BlurContext context) {
+        if (radius < 1 || w < 1 || h < 1)
+            return;
+        BlurChannels.checkRegion(pix, offset, stride, x, y, w, h);
+        if (context == null)
+            context = new BlurContext();
+        int wh = w * h;
+        int[] r = context.obtainR(wh);
+        int[] g = context.obtainG(wh);
+        int[] b = context.obtainB(wh);
+        int[] dv = context.obtainDivTable(radius);
+        int[] stack = context.obtainStack((radius + radius + 1) * 3);
+        int base = offset + y * stride + x;
+
+        blurHorizontal(pix, base, stride, r, g, b, w, radius, dv, stack, 0, h);
+        blurVertical(pix, base, stride, r, g, b, w, h, radius, dv, stack, 0, w);
+    }
+
+    /**
+     * Blur a region of the buffer in place, the buffer position is not changed.
+     * The region is copied out and back when the buffer has no array, as a direct buffer.
+     * The region must be in the remaining of the buffer.
+     *
+     * @param buffer  Pixels, the pixel (x, y) is at buffer.get(position + offset + y * stride + x)
+     * @param offset  Offset of the first pixel from the buffer position
+     * @param stride  Pixels of a row, can be bigger than the width
+     * @param x       Region left
+     * @param y       Region top
+     * @param w       Region width
+     * @param h       Region height
+     * @param radius  Blur radius
+     * @param context Scratch buffers, null is allocate for this call
+     */
+    public static void blur(IntBuffer buffer, int offset, int stride, int x, int y, int w, int h,
+                            int radius, BlurContext context) {
+        if (radius < 1 || w < 1 || h < 1)
+            return;
+        BlurChannels.checkRegion(buffer.remaining(), offset, stride, x, y, w, h);
+        if (buffer.hasArray()) {
+            blur(buffer.array(), buffer.arrayOffset() + buffer.position() + offset, stride,
+                    x, y, w, h, radius, context);
+            return;
+        }
+        if (context == null)
+            context = new BlurContext();
+
+        int[] pix = context.obtainPixels(w * h);
+        IntBuffer rows = buffer.duplicate();
+        int base = buffer.position() + offset + y * stride + x;
+        for (int i = 0; i < h; i++) {
+            rows.position(base + i * stride);
+            rows.get(pix, i * w, w);
+        }
+        blur(pix, 0, w, 0, 0, w, h, radius, context);
+        for (int i = 0; i < h; i++) {
+            rows.position(base + i * stride);
+            rows.put(pix, i * w, w);
+        }
+    }
+
+    /**
+     * Blur the pixels by bands on a shared pool, the calling thread runs a band too.
+     * The result is same as {@link #blur(int[], int, int, int)}.
+     *
+     * @param pix     Pixels, width * height
+     * @param w       Width
+     * @param h       Height
+     * @param radius  Blur radius
+     * @param threads Max bands of each pass, less than 1 is the count of processors
+     */
+    public static void blurParallel(int[] pix, int w, int h, int radius, int threads) {
+        blurParallel(pix, w, h, radius, threads, null);
+    }
+
+    /**
+     * Blur the pixels by bands with the scratch buffers of the context,
+     * each band has its own stack kept by the context
+     *
+     * @param pix     Pixels, width * height
+     * @param w       Width
+     * @param h       Height
+     * @param radius  Blur radius
+     * @param threads Max bands of each pass, less than 1 is the count of processors
+     * @param context Scratch buffers, null is allocate for this call
+     */
+    public static void blurParallel(final int[] pix, final int w, final int h, final int radius,
+                                    int threads, BlurContext context) {
+        if (radius < 1 || w < 1 || h < 1)
+            return;
+        if (threads < 1)
+            threads = THREAD_COUNT;
+        final int bands = Math.min(threads, Math.max(w, h) / MIN_BAND_SIZE);
+        if (bands < 2) {
+            blur(pix, w, h, radius, context);
+            return;
+        }
+        if (context == null)
+            context = new BlurContext();
+
+        int wh = w * h;
+        final int[] r = context.obtainR(wh);
+        final int[] g = context.obtainG(wh);
+        final int[] b = context.obtainB(wh);
+        final int[] dv = context.obtainDivTable(radius);
+        final int[][] stacks = context.obtainStacks(bands, (radius + radius + 1) * 3);
+
+        // Horizontal by rows
+        runBands(bands, h, new Band() {
+            @Override
+            public void run(int index, int start, int end) {
+                blurHorizontal(pix, 0, w, r, g, b, w, radius, dv, stacks[index], start, end);
+            }
+        });
+        // Vertical by columns
+        runBands(bands, w, new Band() {
+            @Override
+            public void run(int index, int start, int end) {
+                blurVertical(pix, 0, w, r, g, b, w, h, radius, dv, stacks[index], start, end);
+            }
+        });
+    }
+
+    private static void runBands(int bands, int size, final Band band) {
+        bands = Math.max(1, Math.min(bands, size / MIN_BAND_SIZE));
+        final CountDownLatch latch = new CountDownLatch(bands - 1);
+        final Throwable[] error = new Throwable[1];
+        final int step = (size + bands - 1) / bands;
+
+        ExecutorService executor = ExecutorHolder.EXECUTOR;
+        for (int i = 1; i < bands; i++) {
+            final int index = i;
+            final int start = i * step;
+            final int end = Math.min(size, start + step);
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        if (start < end)
+                            band.run(index, start, end);
+                    } catch (Throwable e) {
+                        error[0] = e;
+                    } finally {
+                        latch.countDown();
+                    }
+                }
+            });
+        }
+
+        // The first band on this thread
+        band.run(0, 0, Math.min(size, step));
+
+        boolean interrupted = false;
+        while (true) {
+            try {
+                latch.await();
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted)
+            Thread.currentThread().interrupt();
+        if (error[0] != null)
+            throw new RuntimeException(error[0]);
+    }
+
+    static int[] buildDivTable(int radius) {
+        int div = radius + radius + 1;
+        int divSum = (div + 1) >> 1;
+        divSum *= divSum;
+        int[] dv = new int[256 * divSum];
+        for (int i = 0; i < 256 * divSum; i++) {
+            dv[i] = (i / divSum);
+        }
+        return dv;
+    }
+
+    /**
+     * Horizontal pass of the rows from yStart to yEnd, the channels are put to r g b
+     * of width w, the pixel (x, y) is at pix[base + y * stride + x]
+     */
+    static void blurHorizontal(int[] pix, int base, int stride, int[] r, int[] g, int[] b, int w, int radius,
+                               int[] dv, int[] stack, int yStart, int yEnd) {
+        int wm = w - 1;
+        int div = radius + radius + 1;
+        int r1 = radius + 1;
+        int rSum, gSum, bSum, x, y, i, p, yi, yw, sir;
+        int stackPointer, stackStart, rbs;
+        // yi is the index of r g b, yw is the row start of pix
+        int routSum, goutSum, boutSum;
+        int rinSum, ginSum, binSum;
+
+        yi = yStart * w;
+        yw = base + yStart * stride;
+        for (y = yStart; y < yEnd; y++) {
+            rinSum = ginSum = binSum = routSum = goutSum = boutSum = rSum = gSum = bSum = 0;
+            for (i = -radius; i <= radius; i++) {
+                p = pix[yw + Math.min(wm, Math.max(i, 0))];
+                sir = (i + radius) * 3;
+                stack[sir] = (p & 0xff0000) >> 16;
+                stack[sir + 1] = (p & 0x00ff00) >> 8;
+                stack[sir + 2] = (p & 0x0000ff);
+                rbs = r1 - Math.abs(i);
+                rSum += stack[sir] * rbs;
+                gSum += stack[sir + 1] * rbs;
+                bSum += stack[sir + 2] * rbs;
+                if (i > 0) {
+                    rinSum += stack[sir];
+                    ginSum += stack[sir + 1];
+                    binSum += stack[sir + 2];
+                } else {
+                    routSum += stack[sir];
+                    goutSum += stack[sir + 1];
+                    boutSum += stack[sir + 2];
+                }
+            }
+            stackPointer = radius;
+
+            for (x = 0; x < w; x++) {
+
+                r[yi] = dv[rSum];
+                g[yi] = dv[gSum];
+                b[yi] = dv[bSum];
+
+                rSum -= routSum;
+                gSum -= goutSum;
+                bSum -= boutSum;
+
+                stackStart = stackPointer - radius + div;
+                sir = (stackStart % div) * 3;
+
+                routSum -= stack[sir];
+                goutSum -= stack[sir + 1];
+                boutSum -= stack[sir + 2];
+
+                p = pix[yw + Math.min(x + r1, wm)];
+
+                stack[sir] = (p & 0xff0000) >> 16;
+                stack[sir + 1] = (p & 0x00ff00) >> 8;
+                stack[sir + 2] = (p & 0x0000ff);
+
+                rinSum += stack[sir];
+                ginSum += stack[sir + 1];
+                binSum += stack[sir + 2];
+
+                rSum += rinSum;
+                gSum += ginSum;
+                bSum += binSum;
+
+                stackPointer = (stackPointer + 1) % div;
+                sir = stackPointer * 3;
+
+                routSum += stack[sir];
+                goutSum += stack[sir + 1];
+                boutSum += stack[sir + 2];
+
+                rinSum -= stack[sir];
+                ginSum -= stack[sir + 1];
+                binSum -= stack[sir + 2];
+
+                yi++;
+            }
+            yw += stride;
+        }
+    }
+
+    /**
+     * Vertical pass of the columns from xStart to xEnd, the result is put to pix with the old alpha,
+     * the pixel (x, y) is at pix[base + y * stride + x]
+     */
+    static void blurVertical(int[] pix, int base, int stride, int[] r, int[] g, int[] b, int w, int h, int radius,
+                             int[] dv, int[] stack, int xStart, int xEnd) {
+        int hm = h - 1;
+        int div = radius + radius + 1;
+        int r1 = radius + 1;
+        int rSum, gSum, bSum, x, y, i, p, yp, yi, pi, sir;
+        int stackPointer, stackStart, rbs;
+        int routSum, goutSum, boutSum;
+        int rinSum, ginSum, binSum;
+
+        for (x = xStart; x < xEnd; x++) {
+            rinSum = ginSum = binSum = routSum = goutSum = boutSum = rSum = gSum = bSum = 0;
+            yp = -radius * w;
+            for (i = -radius; i <= radius; i++) {
+                yi = Math.max(0, yp) + x;
+
+                sir = (i + radius) * 3;
+
+                stack[sir] = r[yi];
+                stack[sir + 1] = g[yi];
+                stack[sir + 2] = b[yi];
+
+                rbs = r1 - Math.abs(i);
+
+                rSum += r[yi] * rbs;
+                gSum += g[yi] * rbs;
+                bSum += b[yi] * rbs;
+
+                if (i > 0) {
+                    rinSum += stack[sir];
+                    ginSum += stack[sir + 1];
+                    binSum += stack[sir + 2];
+                } else {
+                    routSum += stack[sir];
+                    goutSum += stack[sir + 1];
+                    boutSum += stack[sir + 2];
+                }
+
+                if (i < hm) {
+                    yp += w;
+                }
+            }
+            pi = base + x;
+            stackPointer = radius;
+            for (y = 0; y < h; y++) {
+                // Preserve alpha channel: ( 0xff000000 & pix[pi] )
+                pix[pi] = (0xff000000 & pix[pi]) | (dv[rSum] << 16) | (dv[gSum] << 8) | dv[bSum];
+
+                rSum -= routSum;
+                gSum -= goutSum;
+                bSum -= boutSum;
+
+                stackStart = stackPointer - radius + div;
+                sir = (stackStart % div) * 3;
+
+                routSum -= stack[sir];
+                goutSum -= stack[sir + 1];
+                boutSum -= stack[sir + 2];
+
+                p = x + Math.min(y + r1, hm) * w;
+
+                stack[sir] = r[p];
+                stack[sir + 1] = g[p];
+                stack[sir + 2] = b[p];
+
+                rinSum += stack[sir];
+                ginSum += stack[sir + 1];
+                binSum += stack[sir + 2];
+
+                rSum += rinSum;
+                gSum += ginSum;
+                bSum += binSum;
+
+                stackPointer = (stackPointer + 1) % div;
+                sir = stackPointer * 3;
+
+                routSum += stack[sir];
+                goutSum += stack[sir + 1];
+                boutSum += stack[sir + 2];
+
+                rinSum -= stack[sir];
+                ginSum -= stack[sir + 1];
+                binSum -= stack[sir + 2];
+
+                pi += stride;
+            }
+        }
+    }
+
+    private interface Band {
+        void run(int index, int start, int end);
+    }
+}
@@ -2,7 +2,7 @@
  * Copyright (C) 2014 Qiujuer <qiujuer@live.cn>
  * WebSite http://www.qiujuer.net
  * Created 11/24/2014
- * Changed 01/07/2015
+ * Changed 10/19/2026
  * Version 2.0.0
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
@@ -21,18 +21,55 @@ package net.qiujuer.genius.app;
 
 import android.os.Looper;
 
+import java.util.Collection;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+
 /**
  * Created by QiuJu
  * on 2014/11/24.
  */
 final public class UIKit {
+    /**
+     * The lanes of the async runnables, a flooded lane
+     * delays the lower lanes but not stops them
+     */
+    public enum Priority {
+        /**
+         * User visible work, about 4/7 of the runnables when all lanes are busy
+         */
+        HIGH(UIKitPoster.LANE_HIGH),
+        /**
+         * The default lane, about 2/7
+         */
+        NORMAL(UIKitPoster.LANE_NORMAL),
+        /**
+         * Low value updates as progress ticks, about 1/7
+         */
+        IDLE(UIKitPoster.LANE_IDLE);
+
+        final int mLane;
+
+        Priority(int lane) {
+            mLane = lane;
+        }
+    }
+
+    // Leave the last of the frame for the input and the next vsync
+    private static final float DEFAULT_FRAME_BUDGET = 0.8f;
+    private static final int DEFAULT_IDLE_BUDGET = 4;
     private static UIKitHandlerPoster mainPoster = null;
+    private static volatile float mainFrameBudget = DEFAULT_FRAME_BUDGET;
+    private static volatile int mainIdleBudget = DEFAULT_IDLE_BUDGET;
 
     private static UIKitHandlerPoster getMainPoster() {
         if (mainPoster == null) {
             synchronized (UIKit.class) {
                 if (mainPoster == null) {
-                    mainPoster = new UIKitHandlerPoster(Looper.getMainLooper(), 20);
+                    UIKitHandlerPoster poster = new UIKitHandlerPoster(Looper.getMainLooper(), 20);
+                    poster.setFrameBudget(mainFrameBudget);
+                    poster.setIdleBudget(mainIdleBudget);
+                    mainPoster = poster;
                 }
             }
         }
@@ -54,6 +91,95 @@ final public class UIKit {
         getMainPoster().async(runnable);
     }
 
+    /**
+     * Asynchronously all in order, with one enqueue and at most one message,
+     * the runnables of other threads are not mixed in.
+     * On the main thread they are run at once
+     *
+     * @param runnables Runnables, none can be null
+     */
+    public static void runOnMainThreadAsync(Collection<? extends Runnable> runnables) {
+        if (Looper.myLooper() == Looper.getMainLooper()) {
+            for (Runnable runnable : runnables)
+                runnable.run();
+            return;
+        }
+        getMainPoster().async(runnables);
+    }
+
+    /**
+     * Asynchronously all in order in the lane of the priority,
+     * with one enqueue and at most one message.
+     * On the main thread they are also queued and not run at once
+     *
+     * @param runnables Runnables, none can be null
+     * @param priority  The lane
+     */
+    public static void runOnMainThreadAsync(Collection<? extends Runnable> runnables, Priority priority) {
+        getMainPoster().async(runnables, priority);
+    }
+
+    /**
+     * A batch to collect runnables and post them to the main thread at once
+     *
+     * @return New batch, used by one thread at a time
+     */
+    public static UIKitBatch newMainBatch() {
+        return getMainPoster().newBatch();
+    }
+
+    /**
+     * Asynchronously in the lane of the priority,
+     * on the main thread it is also queued and not run at once
+     *
+     * @param runnable Runnable Interface
+     * @param priority The lane
+     */
+    public static void runOnMainThreadAsync(Runnable runnable, Priority priority) {
+        getMainPoster().async(runnable, priority);
+    }
+
+    /**
+     * Asynchronously with a coalescing key, a waiting runnable of the key
+     * is replaced, so only the latest runnable of the key is run.
+     * On the main thread it is also queued and not run at once
+     *
+     * @param key      The key, as the view updated, compared by equals
+     * @param runnable Runnable Interface
+     * @param priority The lane
+     */
+    public static void runOnMainThreadAsync(Object key, Runnable runnable, Priority priority) {
+        getMainPoster().async(key, runnable, priority);
+    }
+
+    /**
+     * Asynchronously with a result, the child thread is not blocked
+     * and gets the result or the exception of the callable by the future.
+     * A cancel before the main thread runs the callable removes it,
+     * the main thread is never interrupted.
+     * On the main thread the callable is run at once
+     *
+     * @param callable Callable Interface
+     * @param <T>      The result type
+     * @return The future of the result
+     */
+    public static <T> Future<T> runOnMainThread(Callable<T> callable) {
+        return runOnMainThread(callable, Priority.NORMAL);
+    }
+
+    /**
+     * Asynchronously with a result in the lane of the priority,
+     * see {@link #runOnMainThread(Callable)}
+     *
+     * @param callable Callable Interface
+     * @param priority The lane
+     * @param <T>      The result type
+     * @return The future of the result
+     */
+    public static <T> Future<T> runOnMainThread(Callable<T> callable, Priority priority) {
+        return getMainPoster().submit(callable, priority);
+    }
+
     /**
      * Synchronously
      * The child thread relative thread synchronization operation,
@@ -63,13 +189,7 @@ final public class UIKit {
      * @param runnable Runnable Interface
      */
     public static void runOnMainThreadSync(Runnable runnable) {
-        if (Looper.myLooper() == Looper.getMainLooper()) {
-            runnable.run();
-            return;
-        }
-        UIKitSyncPost poster = new UIKitSyncPost(runnable);
-        getMainPoster().sync(poster);
-        poster.waitRun();
+        getMainPoster().sync(runnable);
     }
 
     /**
@@ -84,13 +204,148 @@ final public class UIKit {
      * @param cancel   on the child thread cancel the runnable task
      */
     public static void runOnMainThreadSync(Runnable runnable, int waitTime, boolean cancel) {
-        if (Looper.myLooper() == Looper.getMainLooper()) {
-            runnable.run();
-            return;
-        }
-        UIKitSyncPost poster = new UIKitSyncPost(runnable);
-        getMainPoster().sync(poster);
-        poster.waitRun(waitTime, cancel);
+        getMainPoster().sync(runnable, waitTime, cancel);
+    }
+
+    /**
+     * Run the runnable when the main thread is idle,
+     * the idle runnables are run in order within the idle budget of each idle slot
+     *
+     * @param runnable Runnable Interface
+     */
+    public static void runOnMainThreadWhenIdle(Runnable runnable) {
+        getMainPoster().idle(runnable, 0);
+    }
+
+    /**
+     * Run the runnable when the main thread is idle,
+     * if no idle slot is found in the maxWaitTime the runnable is run
+     * as {@link Priority#NORMAL} async runnable
+     *
+     * @param runnable    Runnable Interface
+     * @param maxWaitTime Max millis to wait the idle, 0 is wait without limit
+     */
+    public static void runOnMainThreadWhenIdle(Runnable runnable, int maxWaitTime) {
+        if (maxWaitTime < 0)
+            throw new IllegalArgumentException("The max wait time must not be negative");
+        getMainPoster().idle(runnable, maxWaitTime);
+    }
+
+    /**
+     * Set the ratio of each display frame for the async and sync runnables,
+     * the runnables out of the ratio are run after the next frame is drawn
+     *
+     * @param ratio From 0 to 1, default is 0.8; 0 is not frame aware,
+     *              a batch runs for 20 millis then the rest is run at once
+     */
+    public static void setMainFrameBudget(float ratio) {
+        if (ratio < 0 || ratio > 1)
+            throw new IllegalArgumentException("The frame budget must be in [0, 1]");
+        mainFrameBudget = ratio;
+        UIKitHandlerPoster poster = mainPoster;
+        if (poster != null)
+            poster.setFrameBudget(ratio);
+    }
+
+    /**
+     * Debounce on the main thread, the runnable is run after no other runnable
+     * of the token is posted in the delay, only the latest runnable is run
+     *
+     * @param token    The token, as the view updated, compared by equals
+     * @param runnable Runnable Interface
+     * @param delay    Quiet millis
+     */
+    public static void runOnMainThreadDebounced(Object token, Runnable runnable, int delay) {
+        if (delay < 0)
+            throw new IllegalArgumentException("The delay must not be negative");
+        getMainPoster().debounce(token, runnable, delay);
+    }
+
+    /**
+     * Throttle on the main thread, the runnables of the token are run at most
+     * once in the interval: the first at once, the latest of the interval at the end.
+     * The tokens are apart from the keys of
+     * {@link #runOnMainThreadAsync(Object, Runnable, Priority)}, which coalesce
+     * the runnables waiting the same batch
+     *
+     * @param token    The token, as the view updated, compared by equals
+     * @param runnable Runnable Interface
+     * @param interval Positive interval millis
+     */
+    public static void runOnMainThreadThrottled(Object token, Runnable runnable, int interval) {
+        if (interval < 1)
+            throw new IllegalArgumentException("The interval must be positive");
+        getMainPoster().throttle(token, runnable, interval);
+    }
+
+    /**
+     * Remove the waiting debounced or throttled runnable of the token,
+     * a throttled token can run at once again
+     *
+     * @param token The token
+     */
+    public static void cancelOnMainThread(Object token) {
+        getMainPoster().cancel(token);
+    }
+
+    /**
+     * Set the millis of each idle slot of the main thread for the idle runnables,
+     * at least one runnable is run in an idle slot
+     *
+     * @param millis Positive millis, default is 4
+     */
+    public static void setMainIdleBudget(int millis) {
+        if (millis < 1)
+            throw new IllegalArgumentException("The idle budget must be positive");
+        mainIdleBudget = millis;
+        UIKitHandlerPoster poster = mainPoster;
+        if (poster != null)
+            poster.setIdleBudget(millis);
+    }
+
+    /**
+     * The frame statistics of the main thread runnables
+     *
+     * @return Snapshot of the statistics
+     */
+    public static UIKitFrameStats getMainFrameStats() {
+        return getMainPoster().getFrameStats();
+    }
+
+    /**
+     * Reset the frame statistics of the main thread runnables
+     */
+    public static void resetMainFrameStats() {
+        getMainPoster().resetFrameStats();
+    }
+
+    /**
+     * Start the instrumentation of the main thread runnables, the wait time,
+     * the run time, the batches and the queue depth are recorded.
+     * The runnables longer than the slow time are reported to the listener.
+     * A start again clears the recorded
+     *
+     * @param slowMillis The slow time, 0 is not report
+     * @param listener   Listener of the slow runnables, may be null
+     */
+    public static void startMainInstrumentation(int slowMillis, UIKitDispatchListener listener) {
+        getMainPoster().startInstrumentation(slowMillis, listener);
+    }
+
+    /**
+     * Stop the instrumentation, without it the main thread runnables are not timed
+     */
+    public static void stopMainInstrumentation() {
+        getMainPoster().stopInstrumentation();
+    }
+
+    /**
+     * Snapshot of the instrumentation
+     *
+     * @return Null if the instrumentation is not started
+     */
+    public static UIKitDispatchStats getMainDispatchStats() {
+        return getMainPoster().getDispatchStats();
     }
 
     public static void dispose() {
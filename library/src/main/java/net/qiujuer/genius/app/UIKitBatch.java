@@ -0,0 +1,89 @@
+/*
+ * Copyright (C) 2014 Qiujuer <qiujuer@live.cn>
+ * WebSite http://www.qiujuer.net
+ * Created 10/19/2026
+ * Changed 10/19/2026
+ * Version 1.0.0
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.qiujuer.genius.app;
+
+import java.util.ArrayList;
+
+/**
+ * Created by Qiujuer
+ * on 2026/10/19.
+ * <p/>
+ * Runnables collected on a thread and posted at once, as the updates of
+ * the items of a list. The batch is added to the lane in order with one
+ * enqueue and at most one message, other runnables are not mixed in it.
+ * <p/>
+ * A batch must be used by one thread at a time, it's empty after a post
+ * and can be used again.
+ */
+public final class UIKitBatch {
+    private final UIKitPoster mPoster;
+    private final ArrayList<Runnable> mRunnables = new ArrayList<>();
+
+    UIKitBatch(UIKitPoster poster) {
+        mPoster = poster;
+    }
+
+    /**
+     * Add a runnable to the batch
+     *
+     * @param runnable Runnable Interface
+     * @return This batch
+     */
+    public UIKitBatch add(Runnable runnable) {
+        if (runnable == null)
+            throw new NullPointerException("runnable");
+        mRunnables.add(runnable);
+        return this;
+    }
+
+    /**
+     * The count of the runnables added
+     */
+    public int size() {
+        return mRunnables.size();
+    }
+
+    /**
+     * Post the batch in the normal lane
+     */
+    public void post() {
+        post(UIKit.Priority.NORMAL);
+    }
+
+    /**
+     * Post the batch in the lane of the priority,
+     * on the poster thread it is also queued and not run at once
+     *
+     * @param priority The lane
+     */
+    public void post(UIKit.Priority priority) {
+        if (mRunnables.isEmpty())
+            return;
+        mPoster.async(mRunnables, priority);
+        mRunnables.clear();
+    }
+
+    /**
+     * Remove the runnables added
+     */
+    public void clear() {
+        mRunnables.clear();
+    }
+}
@@ -0,0 +1,38 @@
+/*
+ * Copyright (C) 2014 Qiujuer <qiujuer@live.cn>
+ * WebSite http://www.qiujuer.net
+ * Created 10/19/2026
+ * Changed 10/19/2026
+ * Version 1.0.0
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.qiujuer.genius.app;
+
+/**
+ * Created by Qiujuer
+ * on 2026/10/19.
+ * <p/>
+ * Listener of the UIKit dispatch instrumentation, called on the main thread
+ * after a runnable, it must be short as the runnables.
+ */
+public interface UIKitDispatchListener {
+    /**
+     * A runnable ran longer than the slow threshold
+     *
+     * @param name      Class name of the runnable, or the callable of a future
+     * @param waitNanos Time from the post to the run, -1 if posted before the instrumentation
+     * @param runNanos  Time of the run
+     */
+    void onSlowTask(String name, long waitNanos, long runNanos);
+}
@@ -0,0 +1,148 @@
+/*
+ * Copyright (C) 2014 Qiujuer <qiujuer@live.cn>
+ * WebSite http://www.qiujuer.net
+ * Created 10/19/2026
+ * Changed 10/19/2026
+ * Version 1.0.0
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.qiujuer.genius.app;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Created by Qiujuer
+ * on 2026/10/19.
+ * <p/>
+ * The dispatch instrumentation of a poster, the producers take the offer
+ * time and the looper records the runs and the batches.
+ * The queued runnables offered before the start have no time, they are
+ * not counted in the wait time and the queue depth.
+ */
+final class UIKitDispatchRecorder {
+    private final long mSlowNanos;
+    private final UIKitDispatchListener mListener;
+    private final long mStartNanos = System.nanoTime();
+    private final AtomicLong mOffered = new AtomicLong();
+
+    // Guarded by this
+    private long mPolled;
+    private long mTasks;
+    private long mRunNanos;
+    private long mMaxRunNanos;
+    private final long[] mRunHistogram = new long[UIKitDispatchStats.BUCKET_BOUNDS_MICROS.length + 1];
+    private long mWaitedTasks;
+    private long mWaitNanos;
+    private long mMaxWaitNanos;
+    private final long[] mWaitHistogram = new long[UIKitDispatchStats.BUCKET_BOUNDS_MICROS.length + 1];
+    private long mBatches;
+    private int mMaxBatchSize;
+    private long mReschedules;
+    private long mMaxQueueDepth;
+    private long mSlowTasks;
+
+    /**
+     * @param slowNanos The runnables longer are reported, 0 is not report
+     * @param listener  Listener of the slow runnables, may be null
+     */
+    UIKitDispatchRecorder(long slowNanos, UIKitDispatchListener listener) {
+        mSlowNanos = slowNanos;
+        mListener = listener;
+    }
+
+    /**
+     * Called by a producer before the offer
+     *
+     * @return The time of the offer
+     */
+    long onOffer() {
+        mOffered.incrementAndGet();
+        return System.nanoTime();
+    }
+
+    /**
+     * Called by a producer after a batch is added,
+     * the batch is stamped with {@link System#nanoTime()} before
+     *
+     * @param count The count of the batch
+     */
+    void onOfferAll(int count) {
+        mOffered.addAndGet(count);
+    }
+
+    /**
+     * Called by the looper after a poll
+     *
+     * @param offered The time of the offer, 0 if not recorded
+     */
+    synchronized void onPoll(long offered) {
+        if (offered >= mStartNanos)
+            mPolled++;
+    }
+
+    synchronized void onBatchStart() {
+        long depth = mOffered.get() - mPolled;
+        if (depth > mMaxQueueDepth)
+            mMaxQueueDepth = depth;
+    }
+
+    /**
+     * Called by the looper after a run
+     *
+     * @param target  The runnable or the class of it, as the name
+     * @param offered The time of the offer, 0 if not recorded
+     * @param begin   The time before the run
+     * @param end     The time after the run
+     */
+    void onRun(Object target, long offered, long begin, long end) {
+        long run = end - begin;
+        long wait = offered >= mStartNanos ? begin - offered : -1;
+        boolean slow = mSlowNanos > 0 && run >= mSlowNanos;
+        synchronized (this) {
+            mTasks++;
+            mRunNanos += run;
+            if (run > mMaxRunNanos)
+                mMaxRunNanos = run;
+            mRunHistogram[UIKitDispatchStats.bucketOf(run)]++;
+            if (wait >= 0) {
+                mWaitedTasks++;
+                mWaitNanos += wait;
+                if (wait > mMaxWaitNanos)
+                    mMaxWaitNanos = wait;
+                mWaitHistogram[UIKitDispatchStats.bucketOf(wait)]++;
+            }
+            if (slow)
+                mSlowTasks++;
+        }
+        if (slow && mListener != null) {
+            Class<?> cls = target instanceof Class ? (Class<?>) target : target.getClass();
+            mListener.onSlowTask(cls.getName(), wait, run);
+        }
+    }
+
+    synchronized void onBatchEnd(int size, boolean rescheduled) {
+        mBatches++;
+        if (size > mMaxBatchSize)
+            mMaxBatchSize = size;
+        if (rescheduled)
+            mReschedules++;
+    }
+
+    synchronized UIKitDispatchStats snapshot() {
+        return new UIKitDispatchStats(mTasks, mRunNanos, mMaxRunNanos, mRunHistogram.clone(),
+                mWaitedTasks, mWaitNanos, mMaxWaitNanos, mWaitHistogram.clone(),
+                mBatches, mMaxBatchSize, mReschedules,
+                Math.max(0, mOffered.get() - mPolled), mMaxQueueDepth, mSlowTasks);
+    }
+}
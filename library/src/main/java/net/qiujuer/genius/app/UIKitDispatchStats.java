@@ -0,0 +1,209 @@
+/*
+ * Copyright (C) 2014 Qiujuer <qiujuer@live.cn>
+ * WebSite http://www.qiujuer.net
+ * Created 10/19/2026
+ * Changed 10/19/2026
+ * Version 1.0.0
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.qiujuer.genius.app;
+
+import java.util.Arrays;
+
+/**
+ * Created by Qiujuer
+ * on 2026/10/19.
+ * <p/>
+ * Snapshot of the UIKit dispatch instrumentation, counted from the start
+ * of the instrumentation. The histograms count the runnables by the buckets
+ * of {@link #getBucketBoundsMicros()}, the last bucket is above all bounds.
+ */
+public final class UIKitDispatchStats {
+    // The upper bounds of the buckets
+    static final long[] BUCKET_BOUNDS_MICROS = {100, 250, 500, 1000, 2000, 4000, 8000, 16000, 32000, 64000, 128000};
+
+    private final long mTasks;
+    private final long mRunNanos;
+    private final long mMaxRunNanos;
+    private final long[] mRunHistogram;
+    private final long mWaitedTasks;
+    private final long mWaitNanos;
+    private final long mMaxWaitNanos;
+    private final long[] mWaitHistogram;
+    private final long mBatches;
+    private final int mMaxBatchSize;
+    private final long mReschedules;
+    private final long mQueueDepth;
+    private final long mMaxQueueDepth;
+    private final long mSlowTasks;
+
+    UIKitDispatchStats(long tasks, long runNanos, long maxRunNanos, long[] runHistogram,
+                       long waitedTasks, long waitNanos, long maxWaitNanos, long[] waitHistogram,
+                       long batches, int maxBatchSize, long reschedules,
+                       long queueDepth, long maxQueueDepth, long slowTasks) {
+        mTasks = tasks;
+        mRunNanos = runNanos;
+        mMaxRunNanos = maxRunNanos;
+        mRunHistogram = runHistogram;
+        mWaitedTasks = waitedTasks;
+        mWaitNanos = waitNanos;
+        mMaxWaitNanos = maxWaitNanos;
+        mWaitHistogram = waitHistogram;
+        mBatches = batches;
+        mMaxBatchSize = maxBatchSize;
+        mReschedules = reschedules;
+        mQueueDepth = queueDepth;
+        mMaxQueueDepth = maxQueueDepth;
+        mSlowTasks = slowTasks;
+    }
+
+    /**
+     * The upper bounds of the histogram buckets in micros,
+     * the histograms have one more bucket for the rest
+     */
+    public static long[] getBucketBoundsMicros() {
+        return BUCKET_BOUNDS_MICROS.clone();
+    }
+
+    /**
+     * The bucket of the nanos
+     */
+    static int bucketOf(long nanos) {
+        long micros = nanos / 1000;
+        int i = 0;
+        while (i < BUCKET_BOUNDS_MICROS.length && micros >= BUCKET_BOUNDS_MICROS[i])
+            i++;
+        return i;
+    }
+
+    /**
+     * Count of the runnables run
+     */
+    public long getTasks() {
+        return mTasks;
+    }
+
+    /**
+     * Total run time of the runnables
+     */
+    public long getRunNanos() {
+        return mRunNanos;
+    }
+
+    public long getAverageRunNanos() {
+        return mTasks == 0 ? 0 : mRunNanos / mTasks;
+    }
+
+    public long getMaxRunNanos() {
+        return mMaxRunNanos;
+    }
+
+    /**
+     * Count of the runnables by the run time buckets
+     */
+    public long[] getRunHistogram() {
+        return mRunHistogram.clone();
+    }
+
+    /**
+     * Count of the runnables with the wait time,
+     * the runnables posted before the start have not
+     */
+    public long getWaitedTasks() {
+        return mWaitedTasks;
+    }
+
+    /**
+     * Total time from the post to the run
+     */
+    public long getWaitNanos() {
+        return mWaitNanos;
+    }
+
+    public long getAverageWaitNanos() {
+        return mWaitedTasks == 0 ? 0 : mWaitNanos / mWaitedTasks;
+    }
+
+    public long getMaxWaitNanos() {
+        return mMaxWaitNanos;
+    }
+
+    /**
+     * Count of the runnables by the wait time buckets
+     */
+    public long[] getWaitHistogram() {
+        return mWaitHistogram.clone();
+    }
+
+    /**
+     * Count of the handled messages
+     */
+    public long getBatches() {
+        return mBatches;
+    }
+
+    public float getAverageBatchSize() {
+        return mBatches == 0 ? 0 : (float) mTasks / mBatches;
+    }
+
+    public int getMaxBatchSize() {
+        return mMaxBatchSize;
+    }
+
+    /**
+     * Count of the batches stopped by the time budget with runnables left
+     */
+    public long getReschedules() {
+        return mReschedules;
+    }
+
+    /**
+     * Runnables waiting in the queues now
+     */
+    public long getQueueDepth() {
+        return mQueueDepth;
+    }
+
+    /**
+     * The most runnables waiting at the start of a batch
+     */
+    public long getMaxQueueDepth() {
+        return mMaxQueueDepth;
+    }
+
+    /**
+     * Count of the runnables longer than the slow threshold
+     */
+    public long getSlowTasks() {
+        return mSlowTasks;
+    }
+
+    @Override
+    public String toString() {
+        return "UIKitDispatchStats{tasks=" + mTasks
+                + ", avgRunNanos=" + getAverageRunNanos()
+                + ", maxRunNanos=" + mMaxRunNanos
+                + ", runHistogram=" + Arrays.toString(mRunHistogram)
+                + ", avgWaitNanos=" + getAverageWaitNanos()
+                + ", maxWaitNanos=" + mMaxWaitNanos
+                + ", waitHistogram=" + Arrays.toString(mWaitHistogram)
+                + ", batches=" + mBatches
+                + ", maxBatchSize=" + mMaxBatchSize
+                + ", reschedules=" + mReschedules
+                + ", queueDepth=" + mQueueDepth
+                + ", maxQueueDepth=" + mMaxQueueDepth
+                + ", slowTasks=" + mSlowTasks
+                + "}";
+    }
+}
@@ -0,0 +1,125 @@
+/*
+ * Copyright (C) 2014 Qiujuer <qiujuer@live.cn>
+ * WebSite http://www.qiujuer.net
+ * Created 10/19/2026
+ * Changed 10/19/2026
+ * Version 1.0.0
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.qiujuer.genius.app;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Created by Qiujuer
+ * on 2026/10/19.
+ * <p/>
+ * The poster of an executor, the batches are run by one runner at a time.
+ * The runner takes the scheduled batches and runs them, the batches scheduled
+ * while running are run by the runner executed again, so a long queue yields
+ * the executor threads between the batches as a looper yields to other messages.
+ */
+final class UIKitExecutorPoster extends UIKitPoster implements Runnable {
+    private static final int CLEAR = 0x4;
+    // The runner is executed or running
+    private static final int RUNNING = 0x8;
+
+    private final Executor mExecutor;
+    // The scheduled batches and the running flag
+    private final AtomicInteger mState = new AtomicInteger();
+    private volatile Thread mRunner;
+
+    UIKitExecutorPoster(Executor executor, int maxMillisInsideBatch) {
+        super(maxMillisInsideBatch);
+        if (executor == null)
+            throw new NullPointerException("executor");
+        mExecutor = executor;
+    }
+
+    @Override
+    void send(int what) {
+        while (true) {
+            int state = mState.get();
+            // Scheduled and the runner executed, a rejected runner left the bits without it
+            if ((state & what) != 0 && (state & RUNNING) != 0)
+                return;
+            if (mState.compareAndSet(state, state | what | RUNNING)) {
+                if ((state & RUNNING) == 0)
+                    execute();
+                return;
+            }
+        }
+    }
+
+    @Override
+    boolean isPosterThread() {
+        return Thread.currentThread() == mRunner;
+    }
+
+    @Override
+    public void dispose() {
+        // The queues are cleared by the runner
+        send(CLEAR);
+    }
+
+    @Override
+    public void run() {
+        mRunner = Thread.currentThread();
+        int state = mState.getAndSet(RUNNING);
+        try {
+            if ((state & CLEAR) != 0) {
+                clear();
+            } else {
+                if ((state & SYNC) != 0)
+                    handle(SYNC);
+                if ((state & ASYNC) != 0)
+                    handle(ASYNC);
+            }
+        } finally {
+            mRunner = null;
+            // Execute again for the batches scheduled while running
+            while (true) {
+                state = mState.get();
+                if (state == RUNNING) {
+                    if (mState.compareAndSet(RUNNING, 0))
+                        break;
+                } else {
+                    execute();
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * Execute the runner, if rejected the running flag is cleared
+     * so the next send executes it again. The batches scheduled by other
+     * senders meanwhile are kept and run by that runner
+     */
+    private void execute() {
+        try {
+            mExecutor.execute(this);
+        } catch (RejectedExecutionException e) {
+            while (true) {
+                int state = mState.get();
+                if (mState.compareAndSet(state, state & ~RUNNING))
+                    break;
+            }
+            onSendFailed();
+            throw e;
+        }
+    }
+}
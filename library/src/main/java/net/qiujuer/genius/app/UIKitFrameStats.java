@@ -0,0 +1,138 @@
+/*
+ * Copyright (C) 2014 Qiujuer <qiujuer@live.cn>
+ * WebSite http://www.qiujuer.net
+ * Created 10/19/2026
+ * Changed 10/19/2026
+ * Version 1.0.0
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.qiujuer.genius.app;
+
+/**
+ * Created by Qiujuer
+ * on 2026/10/19.
+ * <p/>
+ * Snapshot of the frame statistics of a UIKit poster,
+ * counted from the poster created or the last reset.
+ */
+public final class UIKitFrameStats {
+    private final long mFrames;
+    private final long mTasks;
+    private final int mMaxFrameTasks;
+    private final int mLastFrameTasks;
+    private final long mOverruns;
+    private final long mOverrunNanos;
+    private final long mMaxOverrunNanos;
+    private final long mDeferrals;
+    private final long mFrameIntervalNanos;
+
+    UIKitFrameStats(long frames, long tasks, int maxFrameTasks, int lastFrameTasks,
+                    long overruns, long overrunNanos, long maxOverrunNanos,
+                    long deferrals, long frameIntervalNanos) {
+        mFrames = frames;
+        mTasks = tasks;
+        mMaxFrameTasks = maxFrameTasks;
+        mLastFrameTasks = lastFrameTasks;
+        mOverruns = overruns;
+        mOverrunNanos = overrunNanos;
+        mMaxOverrunNanos = maxOverrunNanos;
+        mDeferrals = deferrals;
+        mFrameIntervalNanos = frameIntervalNanos;
+    }
+
+    /**
+     * Count of the frames which have run any task
+     */
+    public long getFrames() {
+        return mFrames;
+    }
+
+    /**
+     * Count of the tasks run
+     */
+    public long getTasks() {
+        return mTasks;
+    }
+
+    /**
+     * Average tasks of the frames which have run any task
+     */
+    public float getAverageFrameTasks() {
+        return mFrames == 0 ? 0 : (float) mTasks / mFrames;
+    }
+
+    /**
+     * The most tasks run in a frame
+     */
+    public int getMaxFrameTasks() {
+        return mMaxFrameTasks;
+    }
+
+    /**
+     * Tasks run in the last frame which have run any task
+     */
+    public int getLastFrameTasks() {
+        return mLastFrameTasks;
+    }
+
+    /**
+     * Count of the batches which end after the frame deadline,
+     * a task longer than the rest of the frame makes an overrun
+     */
+    public long getOverruns() {
+        return mOverruns;
+    }
+
+    /**
+     * Total time after the deadlines of the overruns
+     */
+    public long getOverrunNanos() {
+        return mOverrunNanos;
+    }
+
+    /**
+     * The longest time after a deadline
+     */
+    public long getMaxOverrunNanos() {
+        return mMaxOverrunNanos;
+    }
+
+    /**
+     * Count of the batches which stop at the deadline and defer the rest to the next frame
+     */
+    public long getDeferrals() {
+        return mDeferrals;
+    }
+
+    /**
+     * The frame interval of the display, measured by the frame callbacks
+     */
+    public long getFrameIntervalNanos() {
+        return mFrameIntervalNanos;
+    }
+
+    @Override
+    public String toString() {
+        return "UIKitFrameStats{frames=" + mFrames
+                + ", tasks=" + mTasks
+                + ", maxFrameTasks=" + mMaxFrameTasks
+                + ", lastFrameTasks=" + mLastFrameTasks
+                + ", overruns=" + mOverruns
+                + ", overrunNanos=" + mOverrunNanos
+                + ", maxOverrunNanos=" + mMaxOverrunNanos
+                + ", deferrals=" + mDeferrals
+                + ", frameIntervalNanos=" + mFrameIntervalNanos
+                + "}";
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright (C) 2014 Qiujuer <qiujuer@live.cn>
+ * WebSite http://www.qiujuer.net
+ * Created 10/19/2026
+ * Changed 10/19/2026
+ * Version 1.0.0
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.qiujuer.genius.app;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.FutureTask;
+
+/**
+ * Created by Qiujuer
+ * on 2026/10/19.
+ * <p/>
+ * The future of a callable run on the main thread. The exception of the
+ * callable is kept by the future and thrown by {@link #get()}.
+ * A cancel removes the callable from the waiting queue, the main thread
+ * never runs it after the cancel returns true.
+ */
+final class UIKitFutureTask<T> extends FutureTask<T> {
+    private final UIKitPoster.PendingRunnable mPending;
+    private final Class<?> mCallableClass;
+
+    UIKitFutureTask(Callable<T> callable) {
+        super(callable);
+        mPending = new UIKitPoster.PendingRunnable(this);
+        mCallableClass = callable.getClass();
+    }
+
+    /**
+     * The class of the callable, as the name of this task
+     */
+    Class<?> getCallableClass() {
+        return mCallableClass;
+    }
+
+    /**
+     * The slot of this task in the queue of the poster
+     */
+    UIKitPoster.PendingRunnable getPending() {
+        return mPending;
+    }
+
+    /**
+     * Cancel and remove from the queue, the main thread is never interrupted
+     *
+     * @param mayInterruptIfRunning Ignored
+     * @return False if the task is done or running
+     */
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning) {
+        // Take the slot first, a running task can't be cancelled
+        if (!mPending.cancel())
+            return false;
+        return super.cancel(false);
+    }
+}
@@ -2,7 +2,7 @@
  * Copyright (C) 2014 Qiujuer <qiujuer@live.cn>
  * WebSite http://www.qiujuer.net
  * Created 11/24/2014
- * Changed 01/14/2015
+ * Changed 10/19/2026
  * Version 2.0.0
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
@@ -22,123 +22,403 @@ package net.qiujuer.genius.app;
 import android.os.Handler;
 import android.os.Looper;
 import android.os.Message;
+import android.os.MessageQueue;
 import android.os.SystemClock;
+import android.view.Choreographer;
 
 import net.qiujuer.genius.util.GeniusException;
 
-import java.util.LinkedList;
-import java.util.Queue;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * Created by QiuJu
  * on 2014/11/24.
+ * <p/>
+ * The poster of a looper, the batches run in handleMessage.
+ * <p/>
+ * With a frame budget a batch runs until the budget ratio of the current
+ * display frame, the frame is known by {@link Choreographer} callbacks while
+ * the poster is busy. The rest is deferred to the next frame callback, so its
+ * message runs after the drawing of the next frame.
+ * Without a frame budget a batch runs for the max millis and the rest is
+ * sent at once.
+ * <p/>
+ * The idle runnables are moved to the looper by a message and run by an
+ * {@link MessageQueue.IdleHandler} for the idle budget of each idle slot.
+ * The rest waits the next idle slot, a message is sent to make the queue
+ * busy and idle again. A runnable waited longer than its max wait time
+ * is promoted to the normal lane.
+ * <p/>
+ * The debounced and throttled runnables share one TIMER message at the
+ * earliest due time, the runnables due are run in the normal lane.
  */
-final class UIKitHandlerPoster extends Handler {
-    private static final int ASYNC = 0x1;
-    private static final int SYNC = 0x2;
-    private final Queue<Runnable> mAsyncPool;
-    private final Queue<UIKitSyncPost> mSyncPool;
-    private final int mMaxMillisInsideHandleMessage;
-    private boolean isAsyncActive;
-    private boolean isSyncActive;
+final class UIKitHandlerPoster extends UIKitPoster implements Choreographer.FrameCallback {
+    // 60 fps until the frames are measured
+    private static final long DEFAULT_FRAME_INTERVAL_NANOS = 16666667L;
+    // 240 fps
+    private static final long MIN_FRAME_INTERVAL_NANOS = 4166667L;
+    private static final int IDLE = 0x4;
+    private static final int PROMOTE = 0x8;
+    private static final int TIMER = 0x10;
+    private static final int DEFAULT_IDLE_BUDGET_MILLIS = 4;
+
+    private final Handler mHandler;
+    private volatile float mFrameBudget;
+
+    // The frame state, only used on the looper thread
+    private Choreographer mChoreographer;
+    // Set from the register to the callback, a frame has one callback at most
+    private boolean isFrameCallbackPending;
+    private boolean isFrameAware;
+    private long mFrameTimeNanos;
+    private volatile long mFrameIntervalNanos = DEFAULT_FRAME_INTERVAL_NANOS;
+    private long mFrameEndNanos;
+    private int mFrameTasks;
+    private int mDeferred;
+
+    private final UIKitTaskQueue<IdleRunnable> mIdleIncoming = new UIKitTaskQueue<>();
+    private final AtomicBoolean isIdleActive = new AtomicBoolean();
+    private volatile long mIdleBudgetNanos = DEFAULT_IDLE_BUDGET_MILLIS * 1000000L;
+
+    // The idle state, only used on the looper thread
+    private final ArrayDeque<IdleRunnable> mIdleRunnables = new ArrayDeque<>();
+    private final MessageQueue.IdleHandler mIdleHandler = new MessageQueue.IdleHandler() {
+        @Override
+        public boolean queueIdle() {
+            return runIdle();
+        }
+    };
+    private boolean isIdleHandlerAdded;
+    private long mPromoteAt;
+
+    private final UIKitRateLimiter mRateLimiter = new UIKitRateLimiter() {
+        @Override
+        void schedule(long time) {
+            mHandler.removeMessages(TIMER);
+            mHandler.sendMessageAtTime(mHandler.obtainMessage(TIMER), time);
+        }
+
+        @Override
+        void dispatch(Runnable runnable) {
+            async(LANE_NORMAL, runnable);
+        }
+    };
 
     UIKitHandlerPoster(Looper looper, int maxMillisInsideHandleMessage) {
-        super(looper);
-        this.mMaxMillisInsideHandleMessage = maxMillisInsideHandleMessage;
-        mAsyncPool = new LinkedList<>();
-        mSyncPool = new LinkedList<>();
+        super(maxMillisInsideHandleMessage);
+        mHandler = new Handler(looper) {
+            @Override
+            public void handleMessage(Message msg) {
+                if (msg.what == ASYNC || msg.what == SYNC) {
+                    handle(msg.what);
+                } else if (msg.what == IDLE) {
+                    takeIdle();
+                } else if (msg.what == PROMOTE) {
+                    promoteIdle();
+                } else if (msg.what == TIMER) {
+                    mRateLimiter.fire(SystemClock.uptimeMillis());
+                } else super.handleMessage(msg);
+            }
+        };
+    }
+
+    /**
+     * Set the ratio of the display frame for the runnables,
+     * the batch of a frame stops at the ratio after the frame start
+     *
+     * @param ratio From 0 to 1, 0 is run for the max millis without frames
+     */
+    void setFrameBudget(float ratio) {
+        if (ratio < 0 || ratio > 1)
+            throw new IllegalArgumentException("The frame budget must be in [0, 1]");
+        mFrameBudget = ratio;
+    }
+
+    float getFrameBudget() {
+        return mFrameBudget;
+    }
+
+    /**
+     * Set the time of the idle runnables in an idle slot,
+     * at least one runnable is run in a slot
+     */
+    void setIdleBudget(int millis) {
+        if (millis < 1)
+            throw new IllegalArgumentException("The idle budget must be positive");
+        mIdleBudgetNanos = millis * 1000000L;
+    }
+
+    /**
+     * Run the runnable when the looper is idle
+     *
+     * @param runnable    Runnable Interface
+     * @param maxWaitTime Max millis to wait an idle slot, then it's run in the
+     *                    normal lane; 0 is wait without limit
+     */
+    void idle(Runnable runnable, int maxWaitTime) {
+        long promoteAt = maxWaitTime > 0 ? SystemClock.uptimeMillis() + maxWaitTime : Long.MAX_VALUE;
+        mIdleIncoming.offer(new IdleRunnable(runnable, promoteAt));
+        if (isIdleActive.compareAndSet(false, true))
+            send(IDLE);
+    }
+
+    @Override
+    long getFrameIntervalNanos() {
+        return mFrameBudget > 0 ? mFrameIntervalNanos : 0;
+    }
+
+    /**
+     * Run the runnable in the normal lane after the token is quiet for the delay
+     *
+     * @param token    The token, compared by equals
+     * @param runnable Runnable Interface, replaces the waiting runnable of the token
+     * @param delay    Quiet millis
+     */
+    void debounce(Object token, Runnable runnable, int delay) {
+        mRateLimiter.debounce(token, runnable, delay, SystemClock.uptimeMillis());
+    }
+
+    /**
+     * Run the runnable in the normal lane at most once in the interval of the token
+     *
+     * @param token    The token, compared by equals
+     * @param runnable Runnable Interface, replaces the waiting runnable of the token
+     * @param interval Positive interval millis
+     */
+    void throttle(Object token, Runnable runnable, int interval) {
+        mRateLimiter.throttle(token, runnable, interval, SystemClock.uptimeMillis());
     }
 
-    void dispose() {
-        this.removeCallbacksAndMessages(null);
-        this.mAsyncPool.clear();
-        this.mSyncPool.clear();
+    /**
+     * Remove the waiting debounced or throttled runnable of the token
+     */
+    void cancel(Object token) {
+        mRateLimiter.cancel(token);
     }
 
-    void async(Runnable runnable) {
-        synchronized (mAsyncPool) {
-            mAsyncPool.offer(runnable);
-            if (!isAsyncActive) {
-                isAsyncActive = true;
-                if (!sendMessage(obtainMessage(ASYNC))) {
-                    throw new GeniusException("Could not send handler message");
+    @Override
+    boolean isPosterThread() {
+        return Looper.myLooper() == mHandler.getLooper();
+    }
+
+    @Override
+    public void dispose() {
+        mHandler.removeCallbacksAndMessages(null);
+        // The queues are cleared by the consumer
+        if (isPosterThread()) {
+            clear();
+        } else {
+            mHandler.postAtFrontOfQueue(new Runnable() {
+                @Override
+                public void run() {
+                    clear();
                 }
-            }
+            });
         }
     }
 
-    void sync(UIKitSyncPost post) {
-        synchronized (mSyncPool) {
-            mSyncPool.offer(post);
-            if (!isSyncActive) {
-                isSyncActive = true;
-                if (!sendMessage(obtainMessage(SYNC))) {
-                    throw new GeniusException("Could not send handler message");
-                }
-            }
+    @Override
+    void clear() {
+        if (isFrameCallbackPending) {
+            mChoreographer.removeFrameCallback(this);
+            isFrameCallbackPending = false;
         }
+        mDeferred = 0;
+        isIdleActive.set(false);
+        mIdleIncoming.clear();
+        mIdleRunnables.clear();
+        if (isIdleHandlerAdded) {
+            Looper.myQueue().removeIdleHandler(mIdleHandler);
+            isIdleHandlerAdded = false;
+        }
+        mPromoteAt = 0;
+        mRateLimiter.clear();
+        super.clear();
     }
 
     @Override
-    public void handleMessage(Message msg) {
-        if (msg.what == ASYNC) {
-            boolean rescheduled = false;
-            try {
-                long started = SystemClock.uptimeMillis();
-                while (true) {
-                    Runnable runnable = mAsyncPool.poll();
-                    if (runnable == null) {
-                        synchronized (mAsyncPool) {
-                            // Check again, this time in synchronized
-                            runnable = mAsyncPool.poll();
-                            if (runnable == null) {
-                                isAsyncActive = false;
-                                return;
-                            }
-                        }
-                    }
-                    runnable.run();
-                    long timeInMethod = SystemClock.uptimeMillis() - started;
-                    if (timeInMethod >= mMaxMillisInsideHandleMessage) {
-                        if (!sendMessage(obtainMessage(ASYNC))) {
-                            throw new GeniusException("Could not send handler message");
-                        }
-                        rescheduled = true;
-                        return;
-                    }
-                }
-            } finally {
-                isAsyncActive = rescheduled;
+    void send(int what) {
+        if (!mHandler.sendMessage(mHandler.obtainMessage(what))) {
+            throw new GeniusException("Could not send handler message");
+        }
+    }
+
+    @Override
+    long deadlineOf(long started) {
+        isFrameAware = mFrameBudget > 0;
+        return isFrameAware ? frameDeadline(started) : super.deadlineOf(started);
+    }
+
+    @Override
+    void reschedule(int what) {
+        if (isFrameAware) {
+            mDeferred |= what;
+            postFrameCallback();
+        } else {
+            send(what);
+        }
+    }
+
+    @Override
+    long overrunOf(long ended, long deadline) {
+        return isFrameAware ? ended - mFrameEndNanos : super.overrunOf(ended, deadline);
+    }
+
+    @Override
+    void onBatchEnd(int count) {
+        if (isFrameAware)
+            mFrameTasks += count;
+    }
+
+    /**
+     * The deadline of the frame of now, the frame start is
+     * moved by intervals from the last frame callback
+     */
+    private long frameDeadline(long now) {
+        postFrameCallback();
+        long interval = mFrameIntervalNanos;
+        long frame = mFrameTimeNanos;
+        if (frame == 0 || now < frame) {
+            // No frame seen, as a frame start from now
+            frame = now;
+        } else {
+            frame += (now - frame) / interval * interval;
+        }
+        mFrameEndNanos = frame + interval;
+        long deadline = frame + (long) (interval * mFrameBudget);
+        return Math.min(deadline, now + mMaxNanosInsideBatch);
+    }
+
+    /**
+     * Register the frame callback if none is pending, the batches
+     * of a frame share one callback
+     */
+    private void postFrameCallback() {
+        if (isFrameCallbackPending)
+            return;
+        if (mChoreographer == null)
+            mChoreographer = Choreographer.getInstance();
+        mChoreographer.postFrameCallback(this);
+        isFrameCallbackPending = true;
+    }
+
+    @Override
+    public void doFrame(long frameTimeNanos) {
+        isFrameCallbackPending = false;
+
+        // The callback is posted each frame while busy, skip the gaps and dropped frames
+        long interval = mFrameIntervalNanos;
+        long delta = frameTimeNanos - mFrameTimeNanos;
+        if (mFrameTimeNanos != 0 && delta >= MIN_FRAME_INTERVAL_NANOS && delta < interval + interval / 2)
+            mFrameIntervalNanos = (interval * 7 + delta) / 8;
+        mFrameTimeNanos = frameTimeNanos;
+
+        if (mFrameTasks > 0) {
+            countFrame(mFrameTasks);
+            mFrameTasks = 0;
+        }
+
+        // Run the deferred after the drawing of this frame
+        int deferred = mDeferred;
+        mDeferred = 0;
+        if ((deferred & ASYNC) != 0)
+            send(ASYNC);
+        if ((deferred & SYNC) != 0)
+            send(SYNC);
+    }
+
+    /**
+     * Move the offered idle runnables to the looper and wait the idle slot
+     */
+    private void takeIdle() {
+        // Inactive before take, a later offer sends again
+        isIdleActive.set(false);
+        IdleRunnable runnable;
+        while ((runnable = mIdleIncoming.poll()) != null)
+            mIdleRunnables.add(runnable);
+        if (mIdleRunnables.isEmpty())
+            return;
+        if (!isIdleHandlerAdded) {
+            Looper.myQueue().addIdleHandler(mIdleHandler);
+            isIdleHandlerAdded = true;
+        }
+        schedulePromote();
+    }
+
+    /**
+     * Run the idle runnables for the budget of this idle slot
+     *
+     * @return True to keep the idle handler
+     */
+    private boolean runIdle() {
+        boolean done = false;
+        try {
+            long deadline = System.nanoTime() + mIdleBudgetNanos;
+            IdleRunnable runnable;
+            while ((runnable = mIdleRunnables.poll()) != null) {
+                runnable.mRunnable.run();
+                if (System.nanoTime() >= deadline)
+                    break;
             }
-        } else if (msg.what == SYNC) {
-            boolean rescheduled = false;
-            try {
-                long started = SystemClock.uptimeMillis();
-                while (true) {
-                    UIKitSyncPost post = mSyncPool.poll();
-                    if (post == null) {
-                        synchronized (mSyncPool) {
-                            // Check again, this time in synchronized
-                            post = mSyncPool.poll();
-                            if (post == null) {
-                                isSyncActive = false;
-                                return;
-                            }
-                        }
-                    }
-                    post.run();
-                    long timeInMethod = SystemClock.uptimeMillis() - started;
-                    if (timeInMethod >= mMaxMillisInsideHandleMessage) {
-                        if (!sendMessage(obtainMessage(SYNC))) {
-                            throw new GeniusException("Could not send handler message");
-                        }
-                        rescheduled = true;
-                        return;
-                    }
+            done = true;
+        } finally {
+            if (mIdleRunnables.isEmpty() || !done) {
+                // The queue removes a handler which threw
+                isIdleHandlerAdded = false;
+                if (mIdleRunnables.isEmpty()) {
+                    mHandler.removeMessages(PROMOTE);
+                    mPromoteAt = 0;
                 }
-            } finally {
-                isSyncActive = rescheduled;
             }
-        } else super.handleMessage(msg);
+            // The idle handler is called again after the queue is busy
+            if (!mIdleRunnables.isEmpty())
+                send(IDLE);
+        }
+        return isIdleHandlerAdded;
+    }
+
+    /**
+     * Move the idle runnables out of the max wait time to the normal lane
+     */
+    private void promoteIdle() {
+        mPromoteAt = 0;
+        long now = SystemClock.uptimeMillis();
+        Iterator<IdleRunnable> iterator = mIdleRunnables.iterator();
+        while (iterator.hasNext()) {
+            IdleRunnable runnable = iterator.next();
+            if (runnable.mPromoteAt <= now) {
+                iterator.remove();
+                async(LANE_NORMAL, runnable.mRunnable);
+            }
+        }
+        schedulePromote();
+    }
+
+    private void schedulePromote() {
+        long promoteAt = Long.MAX_VALUE;
+        for (IdleRunnable runnable : mIdleRunnables) {
+            if (runnable.mPromoteAt < promoteAt)
+                promoteAt = runnable.mPromoteAt;
+        }
+        if (promoteAt == mPromoteAt || (promoteAt == Long.MAX_VALUE && mPromoteAt == 0))
+            return;
+        mHandler.removeMessages(PROMOTE);
+        mPromoteAt = 0;
+        if (promoteAt != Long.MAX_VALUE) {
+            mHandler.sendMessageAtTime(mHandler.obtainMessage(PROMOTE), promoteAt);
+            mPromoteAt = promoteAt;
+        }
+    }
+
+    private static final class IdleRunnable {
+        private final Runnable mRunnable;
+        private final long mPromoteAt;
+
+        IdleRunnable(Runnable runnable, long promoteAt) {
+            mRunnable = runnable;
+            mPromoteAt = promoteAt;
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,616 @@
+/*
+ * Copyright (C) 2014 Qiujuer <qiujuer@live.cn>
+ * WebSite http://www.qiujuer.net
+ * Created 10/19/2026
+ * Changed 10/19/2026
+ * Version 1.0.0
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.qiujuer.genius.app;
+
+import android.os.Looper;
+
+import java.util.Collection;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Created by Qiujuer
+ * on 2026/10/19.
+ * <p/>
+ * A poster runs the runnables of any thread by batches on one consumer,
+ * a {@link Looper} or a serial use of an {@link Executor}.
+ * <p/>
+ * The runnables are added to lock free queues and a batch is scheduled
+ * only when the queue is not active. The active flag is cleared before
+ * the queue is checked the last time, and set by a producer after its
+ * runnable is added, so a runnable is never left without a batch.
+ * A batch runs until the queue is empty or out of the time budget,
+ * then the rest is run by the next batch.
+ * <p/>
+ * The async runnables are in lanes of priority, a batch takes from the lanes
+ * by smooth weighted round robin, so the high lane runs first and the lower
+ * lanes still get their shares when the high lane is flooded.
+ * A runnable with a key replaces the waiting runnable of the same key,
+ * only the latest runnable of a key is run.
+ * <p/>
+ * {@link UIKit} runs on the poster of the main looper.
+ */
+public abstract class UIKitPoster {
+    static final int ASYNC = 0x1;
+    static final int SYNC = 0x2;
+    static final int LANE_HIGH = 0;
+    static final int LANE_NORMAL = 1;
+    static final int LANE_IDLE = 2;
+    // Shares of the lanes when all are not empty
+    private static final int[] LANE_WEIGHTS = {4, 2, 1};
+
+    private final UIKitTaskQueue<Runnable>[] mAsyncLanes;
+    // The credits of the lanes, only used by the consumer
+    private final int[] mLaneCredits = new int[LANE_WEIGHTS.length];
+    private final ConcurrentHashMap<Object, KeyedRunnable> mKeyed = new ConcurrentHashMap<>();
+    private final AtomicLong mCoalesced = new AtomicLong();
+    private final UIKitSyncQueue mSyncPool;
+    final long mMaxNanosInsideBatch;
+    private final AtomicBoolean isAsyncActive = new AtomicBoolean();
+    private final AtomicBoolean isSyncActive = new AtomicBoolean();
+    private volatile UIKitDispatchRecorder mRecorder;
+    // The offer time of the last polled, only used by the consumer
+    private long mPolledTime;
+
+    // The statistics, guarded by the lock
+    private final Object mStatsLock = new Object();
+    private long mFrames;
+    private long mTasks;
+    private int mMaxFrameTasks;
+    private int mLastFrameTasks;
+    private long mOverruns;
+    private long mOverrunNanos;
+    private long mMaxOverrunNanos;
+    private long mDeferrals;
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    UIKitPoster(int maxMillisInsideBatch) {
+        if (maxMillisInsideBatch < 1)
+            throw new IllegalArgumentException("The max millis of a batch must be positive");
+        mMaxNanosInsideBatch = maxMillisInsideBatch * 1000000L;
+        mAsyncLanes = new UIKitTaskQueue[LANE_WEIGHTS.length];
+        for (int i = 0; i < mAsyncLanes.length; i++)
+            mAsyncLanes[i] = new UIKitTaskQueue<>();
+        mSyncPool = new UIKitSyncQueue();
+    }
+
+    /**
+     * Create a poster run on the looper, as a {@link android.os.HandlerThread}
+     *
+     * @param looper               The looper
+     * @param maxMillisInsideBatch Time budget of a batch, the rest is sent as a new message
+     * @return Poster
+     */
+    public static UIKitPoster create(Looper looper, int maxMillisInsideBatch) {
+        return new UIKitHandlerPoster(looper, maxMillisInsideBatch);
+    }
+
+    /**
+     * Create a poster run on the executor, one batch at a time,
+     * so the runnables are serial as on a looper
+     *
+     * @param executor             The executor, may be shared with other work
+     * @param maxMillisInsideBatch Time budget of a batch, the rest is executed as a new batch
+     * @return Poster
+     */
+    public static UIKitPoster create(Executor executor, int maxMillisInsideBatch) {
+        return new UIKitExecutorPoster(executor, maxMillisInsideBatch);
+    }
+
+    /**
+     * Schedule a batch of the what on the consumer
+     */
+    abstract void send(int what);
+
+    /**
+     * True if the calling thread is the consumer
+     */
+    abstract boolean isPosterThread();
+
+    /**
+     * Remove the scheduled batches and clear the queues on the consumer
+     */
+    public abstract void dispose();
+
+    /**
+     * The deadline of a batch started at the time
+     */
+    long deadlineOf(long started) {
+        return started + mMaxNanosInsideBatch;
+    }
+
+    /**
+     * Schedule the rest of a batch stopped by the deadline
+     */
+    void reschedule(int what) {
+        send(what);
+    }
+
+    /**
+     * The time after the deadline at the end of a batch
+     */
+    long overrunOf(long ended, long deadline) {
+        return ended - deadline;
+    }
+
+    /**
+     * The consumer can't be scheduled, the queued runnables are kept
+     * and the next post schedules it again
+     */
+    void onSendFailed() {
+        isAsyncActive.set(false);
+        isSyncActive.set(false);
+    }
+
+    /**
+     * Called at the end of a batch on the consumer
+     */
+    void onBatchEnd(int count) {
+    }
+
+    /**
+     * The frame interval of the statistics, 0 if not frame aware
+     */
+    long getFrameIntervalNanos() {
+        return 0;
+    }
+
+    /**
+     * Asynchronously in the normal lane, the calling thread is not blocked
+     *
+     * @param runnable Runnable Interface
+     */
+    public void async(Runnable runnable) {
+        async(LANE_NORMAL, runnable);
+    }
+
+    /**
+     * Asynchronously in the lane of the priority
+     *
+     * @param runnable Runnable Interface
+     * @param priority The lane
+     */
+    public void async(Runnable runnable, UIKit.Priority priority) {
+        async(priority.mLane, runnable);
+    }
+
+    /**
+     * Asynchronously with a coalescing key, a waiting runnable of the key
+     * in the same lane is replaced at its place, in other lane it is dropped
+     * and this is added. Only the latest runnable of the key is run
+     *
+     * @param key      The key, compared by equals
+     * @param runnable Runnable Interface
+     * @param priority The lane
+     */
+    public void async(Object key, Runnable runnable, UIKit.Priority priority) {
+        if (key == null)
+            throw new NullPointerException("key");
+        if (runnable == null)
+            throw new NullPointerException("runnable");
+        int lane = priority.mLane;
+        KeyedRunnable keyed = mKeyed.get(key);
+        if (keyed != null && keyed.mLane == lane && keyed.replace(runnable)) {
+            mCoalesced.incrementAndGet();
+            return;
+        }
+        keyed = new KeyedRunnable(key, lane, runnable);
+        KeyedRunnable old = mKeyed.put(key, keyed);
+        if (old != null && old.cancel())
+            mCoalesced.incrementAndGet();
+        async(lane, keyed);
+    }
+
+    /**
+     * Asynchronously all in the normal lane, in order and not mixed with
+     * other runnables, with one enqueue and at most one message
+     *
+     * @param runnables Runnables, none can be null
+     */
+    public void async(Collection<? extends Runnable> runnables) {
+        async(LANE_NORMAL, runnables);
+    }
+
+    /**
+     * Asynchronously all in the lane of the priority, in order and not mixed
+     * with other runnables, with one enqueue and at most one message
+     *
+     * @param runnables Runnables, none can be null
+     * @param priority  The lane
+     */
+    public void async(Collection<? extends Runnable> runnables, UIKit.Priority priority) {
+        async(priority.mLane, runnables);
+    }
+
+    /**
+     * A batch of runnables to post to this poster at once
+     *
+     * @return New batch
+     */
+    public UIKitBatch newBatch() {
+        return new UIKitBatch(this);
+    }
+
+    void async(int lane, Collection<? extends Runnable> runnables) {
+        UIKitDispatchRecorder recorder = mRecorder;
+        int count = mAsyncLanes[lane].offerAll(runnables, recorder == null ? 0 : System.nanoTime());
+        if (count == 0)
+            return;
+        if (recorder != null)
+            recorder.onOfferAll(count);
+        if (isAsyncActive.compareAndSet(false, true))
+            send(ASYNC);
+    }
+
+    void async(int lane, Runnable runnable) {
+        if (runnable == null)
+            throw new NullPointerException("runnable");
+        UIKitDispatchRecorder recorder = mRecorder;
+        mAsyncLanes[lane].offer(runnable, recorder == null ? 0 : recorder.onOffer());
+        if (isAsyncActive.compareAndSet(false, true))
+            send(ASYNC);
+    }
+
+    /**
+     * Count of the keyed runnables replaced by a later one
+     */
+    long getCoalescedCount() {
+        return mCoalesced.get();
+    }
+
+    /**
+     * Synchronously, the calling thread is blocked until the runnable is run,
+     * on the poster thread the runnable is run at once
+     *
+     * @param runnable Runnable Interface
+     */
+    public void sync(Runnable runnable) {
+        if (isPosterThread()) {
+            runnable.run();
+            return;
+        }
+        UIKitSyncPost post = UIKitSyncPost.obtain(runnable);
+        sync(post);
+        post.waitRun();
+    }
+
+    /**
+     * Synchronously, the calling thread is blocked until the runnable
+     * is run or the wait time is out
+     *
+     * @param runnable Runnable Interface
+     * @param waitTime Max millis of the wait
+     * @param cancel   Cancel the runnable if not run in the wait time
+     */
+    public void sync(Runnable runnable, int waitTime, boolean cancel) {
+        if (isPosterThread()) {
+            runnable.run();
+            return;
+        }
+        UIKitSyncPost post = UIKitSyncPost.obtain(runnable);
+        sync(post);
+        post.waitRun(waitTime, cancel);
+    }
+
+    void sync(UIKitSyncPost post) {
+        UIKitDispatchRecorder recorder = mRecorder;
+        if (recorder != null)
+            post.mTime = recorder.onOffer();
+        mSyncPool.offer(post);
+        if (isSyncActive.compareAndSet(false, true))
+            send(SYNC);
+    }
+
+    /**
+     * Asynchronously with a result in the lane of the priority, the calling thread
+     * is not blocked and gets the result or the exception by the future.
+     * A cancel before the run removes the callable, the poster thread is never
+     * interrupted. On the poster thread the callable is run at once
+     *
+     * @param callable Callable Interface
+     * @param priority The lane
+     * @param <T>      The result type
+     * @return The future of the result
+     */
+    public <T> Future<T> submit(Callable<T> callable, UIKit.Priority priority) {
+        UIKitFutureTask<T> task = new UIKitFutureTask<>(callable);
+        if (isPosterThread()) {
+            task.run();
+            return task;
+        }
+        async(priority.mLane, task.getPending());
+        return task;
+    }
+
+    /**
+     * Start the instrumentation, a start again clears the recorded
+     *
+     * @param slowMillis The runnables longer are reported, 0 is not report
+     * @param listener   Listener of the slow runnables, may be null
+     */
+    public void startInstrumentation(int slowMillis, UIKitDispatchListener listener) {
+        mRecorder = new UIKitDispatchRecorder(slowMillis * 1000000L, listener);
+    }
+
+    public void stopInstrumentation() {
+        mRecorder = null;
+    }
+
+    /**
+     * Snapshot of the instrumentation
+     *
+     * @return Null if the instrumentation is not started
+     */
+    public UIKitDispatchStats getDispatchStats() {
+        UIKitDispatchRecorder recorder = mRecorder;
+        return recorder == null ? null : recorder.snapshot();
+    }
+
+    /**
+     * Snapshot of the batch statistics, the frames are counted only
+     * by a frame aware poster
+     *
+     * @return Snapshot
+     */
+    public UIKitFrameStats getFrameStats() {
+        synchronized (mStatsLock) {
+            return new UIKitFrameStats(mFrames, mTasks, mMaxFrameTasks, mLastFrameTasks,
+                    mOverruns, mOverrunNanos, mMaxOverrunNanos, mDeferrals, getFrameIntervalNanos());
+        }
+    }
+
+    public void resetFrameStats() {
+        synchronized (mStatsLock) {
+            mFrames = mTasks = mOverruns = mOverrunNanos = mMaxOverrunNanos = mDeferrals = 0;
+            mMaxFrameTasks = mLastFrameTasks = 0;
+        }
+    }
+
+    /**
+     * Drop the queued runnables, only called on the consumer
+     */
+    void clear() {
+        for (UIKitTaskQueue<Runnable> lane : mAsyncLanes)
+            lane.clear();
+        this.mSyncPool.clear();
+        mKeyed.clear();
+        isAsyncActive.set(false);
+        isSyncActive.set(false);
+    }
+
+    /**
+     * Run the queue of the what until empty or out of the budget,
+     * then reschedule the rest, only called on the consumer
+     */
+    final void handle(int what) {
+        AtomicBoolean active = what == SYNC ? isSyncActive : isAsyncActive;
+        boolean handled = false;
+        boolean deferred = false;
+        long started = System.nanoTime();
+        long deadline = deadlineOf(started);
+        int count = 0;
+        UIKitDispatchRecorder recorder = mRecorder;
+        if (recorder != null)
+            recorder.onBatchStart();
+        try {
+            while (true) {
+                Runnable runnable = poll(what);
+                if (runnable == null) {
+                    active.set(false);
+                    // Check again after inactive, a runnable added before
+                    // the producer saw the flag must be run by this
+                    if (isEmpty(what) || !active.compareAndSet(false, true)) {
+                        handled = true;
+                        return;
+                    }
+                    continue;
+                }
+                if (recorder != null)
+                    recorder.onPoll(mPolledTime);
+                // A cancelled slot is a removed runnable, not run and not counted
+                if (runnable instanceof PendingRunnable && ((PendingRunnable) runnable).isCancelled())
+                    continue;
+                if (recorder == null) {
+                    runnable.run();
+                } else {
+                    // The wrappers are empty after run, take the target before
+                    Object target = targetOf(runnable);
+                    long begin = System.nanoTime();
+                    runnable.run();
+                    recorder.onRun(target, mPolledTime, begin, System.nanoTime());
+                }
+                count++;
+                // At least one runnable of a batch, the rest of
+                // the budget may be less than any runnable
+                if (System.nanoTime() >= deadline) {
+                    reschedule(what);
+                    deferred = true;
+                    handled = true;
+                    return;
+                }
+            }
+        } finally {
+            long ended = System.nanoTime();
+            // A runnable threw, make the rest be run by the next batch
+            if (!handled) {
+                active.set(false);
+                if (!isEmpty(what) && active.compareAndSet(false, true))
+                    send(what);
+            }
+            onBatchEnd(count);
+            count(count, overrunOf(ended, deadline), deferred);
+            if (recorder != null)
+                recorder.onBatchEnd(count, deferred);
+        }
+    }
+
+    /**
+     * The runnable in the wrappers, or the class of the callable of a future
+     */
+    private static Object targetOf(Runnable runnable) {
+        Runnable target = null;
+        if (runnable instanceof PendingRunnable)
+            target = ((PendingRunnable) runnable).get();
+        else if (runnable instanceof UIKitSyncPost)
+            target = ((UIKitSyncPost) runnable).getRunnable();
+        if (target == null)
+            target = runnable;
+        if (target instanceof UIKitFutureTask)
+            return ((UIKitFutureTask<?>) target).getCallableClass();
+        return target;
+    }
+
+    private Runnable poll(int what) {
+        if (what == SYNC) {
+            UIKitSyncPost post = mSyncPool.poll();
+            mPolledTime = post == null ? 0 : post.mTime;
+            return post;
+        }
+
+        // Smooth weighted round robin of the lanes not empty
+        int total = 0;
+        int best = -1;
+        for (int i = 0; i < mAsyncLanes.length; i++) {
+            if (mAsyncLanes[i].isEmpty()) {
+                mLaneCredits[i] = 0;
+                continue;
+            }
+            mLaneCredits[i] += LANE_WEIGHTS[i];
+            total += LANE_WEIGHTS[i];
+            if (best < 0 || mLaneCredits[i] > mLaneCredits[best])
+                best = i;
+        }
+        if (best < 0)
+            return null;
+        mLaneCredits[best] -= total;
+        Runnable runnable = mAsyncLanes[best].poll();
+        mPolledTime = mAsyncLanes[best].getPolledTime();
+        return runnable;
+    }
+
+    private boolean isEmpty(int what) {
+        if (what == SYNC)
+            return mSyncPool.isEmpty();
+        for (UIKitTaskQueue<Runnable> lane : mAsyncLanes) {
+            if (!lane.isEmpty())
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Count a frame which has run the tasks
+     */
+    void countFrame(int tasks) {
+        synchronized (mStatsLock) {
+            mFrames++;
+            mLastFrameTasks = tasks;
+            if (tasks > mMaxFrameTasks)
+                mMaxFrameTasks = tasks;
+        }
+    }
+
+    private void count(int tasks, long overrunNanos, boolean deferred) {
+        synchronized (mStatsLock) {
+            mTasks += tasks;
+            if (deferred)
+                mDeferrals++;
+            if (overrunNanos > 0) {
+                mOverruns++;
+                mOverrunNanos += overrunNanos;
+                if (overrunNanos > mMaxOverrunNanos)
+                    mMaxOverrunNanos = overrunNanos;
+            }
+        }
+    }
+
+    /**
+     * A slot of the queue, the runnable is taken by the run or removed by the cancel.
+     * The queue can't unlink a node on the producer side, a cancelled slot stays
+     * in the queue without the runnable and is skipped by the consumer.
+     */
+    static class PendingRunnable extends AtomicReference<Runnable> implements Runnable {
+        private static final long serialVersionUID = 1L;
+
+        PendingRunnable(Runnable runnable) {
+            super(runnable);
+        }
+
+        /**
+         * Remove the runnable if not taken
+         *
+         * @return True if removed before run
+         */
+        boolean cancel() {
+            return getAndSet(null) != null;
+        }
+
+        boolean isCancelled() {
+            return get() == null;
+        }
+
+        @Override
+        public void run() {
+            Runnable runnable = getAndSet(null);
+            if (runnable != null)
+                runnable.run();
+        }
+    }
+
+    /**
+     * The slot of a key, the runnable is replaced by the later runnable of the key
+     */
+    private final class KeyedRunnable extends PendingRunnable {
+        private static final long serialVersionUID = 1L;
+
+        private final Object mKey;
+        private final int mLane;
+
+        KeyedRunnable(Object key, int lane, Runnable runnable) {
+            super(runnable);
+            mKey = key;
+            mLane = lane;
+        }
+
+        /**
+         * Replace the runnable if not taken
+         */
+        boolean replace(Runnable runnable) {
+            while (true) {
+                Runnable current = get();
+                if (current == null)
+                    return false;
+                if (compareAndSet(current, runnable))
+                    return true;
+            }
+        }
+
+        @Override
+        public void run() {
+            mKeyed.remove(mKey, this);
+            super.run();
+        }
+    }
+}
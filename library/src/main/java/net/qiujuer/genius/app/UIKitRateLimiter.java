@@ -0,0 +1,169 @@
+/*
+ * Copyright (C) 2014 Qiujuer <qiujuer@live.cn>
+ * WebSite http://www.qiujuer.net
+ * Created 10/19/2026
+ * Changed 10/19/2026
+ * Version 1.0.0
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.qiujuer.genius.app;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+
+/**
+ * Created by Qiujuer
+ * on 2026/10/19.
+ * <p/>
+ * Debounce and throttle of the runnables keyed by token, with one shared timer.
+ * The due times of all tokens are kept here and only the earliest is given to
+ * {@link #schedule(long)}, the owner calls {@link #fire(long)} at that time.
+ * The times are passed in, so the limiter does not read a clock.
+ */
+abstract class UIKitRateLimiter {
+    static final long NONE = Long.MAX_VALUE;
+
+    private final HashMap<Object, Entry> mEntries = new HashMap<>();
+    // The time of the timer scheduled
+    private long mTimerAt = NONE;
+
+    /**
+     * Set the timer to call {@link #fire(long)} at the time,
+     * the timer set before is replaced
+     *
+     * @param time Due time
+     */
+    abstract void schedule(long time);
+
+    /**
+     * Run the runnable of a token
+     *
+     * @param runnable Runnable Interface
+     */
+    abstract void dispatch(Runnable runnable);
+
+    /**
+     * Run the runnable after the token is quiet for the delay,
+     * a waiting runnable of the token is replaced
+     */
+    synchronized void debounce(Object token, Runnable runnable, long delay, long now) {
+        Entry entry = mEntries.get(token);
+        if (entry == null || entry.isThrottle) {
+            entry = new Entry(false, 0);
+            mEntries.put(token, entry);
+        }
+        entry.mRunnable = runnable;
+        entry.mDue = now + delay;
+        scheduleAt(entry.mDue);
+    }
+
+    /**
+     * Run the runnable at most once in the interval of the token,
+     * the first is run at once and the latest in the interval is run
+     * at the end of the interval
+     */
+    void throttle(Object token, Runnable runnable, long interval, long now) {
+        synchronized (this) {
+            Entry entry = mEntries.get(token);
+            if (entry != null && entry.isThrottle && entry.mInterval == interval
+                    && (entry.mDue > now || entry.mRunnable != null)) {
+                // In the interval, wait the end
+                entry.mRunnable = runnable;
+                return;
+            }
+            entry = new Entry(true, interval);
+            entry.mDue = now + interval;
+            mEntries.put(token, entry);
+            scheduleAt(entry.mDue);
+        }
+        dispatch(runnable);
+    }
+
+    /**
+     * Remove the waiting runnable and the interval of the token
+     */
+    synchronized void cancel(Object token) {
+        mEntries.remove(token);
+    }
+
+    /**
+     * Dispatch the runnables due and schedule the next
+     *
+     * @param now The time
+     */
+    void fire(long now) {
+        ArrayList<Runnable> due = null;
+        synchronized (this) {
+            mTimerAt = NONE;
+            long next = NONE;
+            Iterator<Entry> iterator = mEntries.values().iterator();
+            while (iterator.hasNext()) {
+                Entry entry = iterator.next();
+                if (entry.mDue <= now) {
+                    Runnable runnable = entry.mRunnable;
+                    entry.mRunnable = null;
+                    if (runnable != null && entry.isThrottle) {
+                        // The trailing run starts the next interval
+                        entry.mDue += entry.mInterval;
+                        if (entry.mDue <= now)
+                            entry.mDue = now + entry.mInterval;
+                    } else {
+                        iterator.remove();
+                    }
+                    if (runnable != null) {
+                        if (due == null)
+                            due = new ArrayList<>();
+                        due.add(runnable);
+                    }
+                }
+                if (entry.mDue > now && entry.mDue < next)
+                    next = entry.mDue;
+            }
+            scheduleAt(next);
+        }
+        if (due != null) {
+            for (Runnable runnable : due)
+                dispatch(runnable);
+        }
+    }
+
+    synchronized void clear() {
+        mEntries.clear();
+        mTimerAt = NONE;
+    }
+
+    synchronized int size() {
+        return mEntries.size();
+    }
+
+    private void scheduleAt(long time) {
+        if (time < mTimerAt) {
+            mTimerAt = time;
+            schedule(time);
+        }
+    }
+
+    private static final class Entry {
+        private final boolean isThrottle;
+        private final long mInterval;
+        private Runnable mRunnable;
+        private long mDue;
+
+        Entry(boolean throttle, long interval) {
+            isThrottle = throttle;
+            mInterval = interval;
+        }
+    }
+}
@@ -2,7 +2,7 @@
  * Copyright (C) 2014 Qiujuer <qiujuer@live.cn>
  * WebSite http://www.qiujuer.net
  * Created 11/24/2014
- * Changed 01/14/2015
+ * Changed 10/19/2026
  * Version 2.0.0
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
@@ -19,63 +19,146 @@
  */
 package net.qiujuer.genius.app;
 
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.locks.LockSupport;
+
 /**
  * Created by QiuJu
  * on 2014/11/24.
+ * <p/>
+ * The waiting thread is parked and unparked by the looper, the posts are
+ * recycled to a pool as {@link android.os.Message}. A post is used by the
+ * waiter and the looper, it's recycled when both released it, so a waiter
+ * which stops waiting by time out never sees its post run other runnable.
  */
-final class UIKitSyncPost {
+final class UIKitSyncPost implements Runnable {
+    private static final int WAITING = 0;
+    private static final int RUNNING = 1;
+    private static final int DONE = 2;
+    private static final int CANCELLED = 3;
+
+    private static final int MAX_POOL_SIZE = 16;
+    private static final Object sPoolSync = new Object();
+    private static UIKitSyncPost sPool;
+    private static int sPoolSize;
+
+    private static final AtomicIntegerFieldUpdater<UIKitSyncPost> STATE =
+            AtomicIntegerFieldUpdater.newUpdater(UIKitSyncPost.class, "mState");
+    private static final AtomicIntegerFieldUpdater<UIKitSyncPost> REFS =
+            AtomicIntegerFieldUpdater.newUpdater(UIKitSyncPost.class, "mRefs");
+
+    // The link of UIKitSyncQueue
+    volatile UIKitSyncPost mNext;
+    // The time of the offer, set by the poster
+    long mTime;
+    private UIKitSyncPost mPoolNext;
     private Runnable mRunnable;
-    private boolean isEnd = false;
+    private volatile Thread mWaiter;
+    private volatile int mState;
+    private volatile int mRefs;
 
+    UIKitSyncPost() {
+    }
 
-    UIKitSyncPost(Runnable runnable) {
-        this.mRunnable = runnable;
+    /**
+     * A post of the pool or new, the calling thread is the waiter
+     */
+    static UIKitSyncPost obtain(Runnable runnable) {
+        UIKitSyncPost post = null;
+        synchronized (sPoolSync) {
+            if (sPool != null) {
+                post = sPool;
+                sPool = post.mPoolNext;
+                post.mPoolNext = null;
+                sPoolSize--;
+            }
+        }
+        if (post == null)
+            post = new UIKitSyncPost();
+        post.mRunnable = runnable;
+        post.mTime = 0;
+        post.mWaiter = Thread.currentThread();
+        post.mState = WAITING;
+        // The waiter and the looper
+        post.mRefs = 2;
+        return post;
     }
 
+    /**
+     * The runnable, null after recycled
+     */
+    Runnable getRunnable() {
+        return mRunnable;
+    }
+
+    private void release() {
+        if (REFS.decrementAndGet(this) != 0)
+            return;
+        mRunnable = null;
+        mWaiter = null;
+        synchronized (sPoolSync) {
+            if (sPoolSize < MAX_POOL_SIZE) {
+                mPoolNext = sPool;
+                sPool = this;
+                sPoolSize++;
+            }
+        }
+    }
+
+    @Override
     public void run() {
-        if (!isEnd) {
-            synchronized (this) {
-                if (!isEnd) {
-                    mRunnable.run();
-                    isEnd = true;
-                    try {
-                        this.notifyAll();
-                    } catch (Exception e) {
-                        e.printStackTrace();
-                    }
-                }
+        if (STATE.compareAndSet(this, WAITING, RUNNING)) {
+            try {
+                mRunnable.run();
+            } finally {
+                // Release the waiter even if the runnable threw
+                Thread waiter = mWaiter;
+                mState = DONE;
+                LockSupport.unpark(waiter);
+                release();
             }
+        } else {
+            // Cancelled by the waiter
+            release();
         }
     }
 
+    /**
+     * Wait until run, an interrupt stops the waiting
+     * and the interrupt status is kept
+     */
     public void waitRun() {
-        if (!isEnd) {
-            synchronized (this) {
-                if (!isEnd) {
-                    try {
-                        this.wait();
-                    } catch (InterruptedException e) {
-                        e.printStackTrace();
-                    }
-                }
+        try {
+            while (mState != DONE && !Thread.currentThread().isInterrupted()) {
+                LockSupport.park(this);
             }
+        } finally {
+            mWaiter = null;
+            release();
         }
     }
 
+    /**
+     * Wait until run or out of the time
+     *
+     * @param time   Max millis of the wait
+     * @param cancel Cancel the runnable if not run in the time
+     */
     public void waitRun(int time, boolean cancel) {
-        if (!isEnd) {
-            synchronized (this) {
-                if (!isEnd) {
-                    try {
-                        this.wait(time);
-                    } catch (InterruptedException e) {
-                        e.printStackTrace();
-                    } finally {
-                        if (!isEnd && cancel)
-                            isEnd = true;
-                    }
+        try {
+            long deadline = System.nanoTime() + time * 1000000L;
+            while (mState != DONE && !Thread.currentThread().isInterrupted()) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    if (cancel)
+                        STATE.compareAndSet(this, WAITING, CANCELLED);
+                    break;
                 }
+                LockSupport.parkNanos(this, remaining);
             }
+        } finally {
+            mWaiter = null;
+            release();
         }
     }
 }
@@ -0,0 +1,112 @@
+/*
+ * Copyright (C) 2014 Qiujuer <qiujuer@live.cn>
+ * WebSite http://www.qiujuer.net
+ * Created 10/19/2026
+ * Changed 10/19/2026
+ * Version 1.0.0
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.qiujuer.genius.app;
+
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
+/**
+ * Created by Qiujuer
+ * on 2026/10/19.
+ * <p/>
+ * Intrusive lock free queue of the sync posts, many producers and a single
+ * consumer as {@link UIKitTaskQueue}, the posts are the nodes so an offer
+ * doesn't allocate. A stub node is pushed again when the consumer reaches
+ * the last post, so a polled post is never kept by the queue and can be
+ * recycled and offered again.
+ */
+final class UIKitSyncQueue {
+    private static final AtomicReferenceFieldUpdater<UIKitSyncPost, UIKitSyncPost> NEXT =
+            AtomicReferenceFieldUpdater.newUpdater(UIKitSyncPost.class, UIKitSyncPost.class, "mNext");
+
+    private final UIKitSyncPost mStub = new UIKitSyncPost();
+    // The last offered node, swapped by producers
+    private final AtomicReference<UIKitSyncPost> mHead = new AtomicReference<>(mStub);
+    // The first node, only used by the consumer
+    private UIKitSyncPost mTail = mStub;
+
+    /**
+     * Add to the queue, can be called on any thread,
+     * the post must not be in the queue
+     */
+    void offer(UIKitSyncPost post) {
+        if (post == null)
+            throw new NullPointerException("post");
+        NEXT.lazySet(post, null);
+        UIKitSyncPost prev = mHead.getAndSet(post);
+        NEXT.lazySet(prev, post);
+    }
+
+    /**
+     * Take the first, only called by the consumer
+     *
+     * @return Null if empty or the next is being linked by a producer
+     */
+    UIKitSyncPost poll() {
+        UIKitSyncPost tail = mTail;
+        UIKitSyncPost next = tail.mNext;
+        if (tail == mStub) {
+            if (next == null)
+                return null;
+            mTail = next;
+            tail = next;
+            next = next.mNext;
+        }
+        if (next != null) {
+            mTail = next;
+            return tail;
+        }
+        // The last, a producer is linking after it
+        if (tail != mHead.get())
+            return null;
+        // Push the stub after the last so the last can leave
+        offer(mStub);
+        next = tail.mNext;
+        if (next != null) {
+            mTail = next;
+            return tail;
+        }
+        return null;
+    }
+
+    /**
+     * True if {@link #poll()} returns null now, only called by the consumer.
+     * A post not linked yet is not seen, its producer sends the message after linked
+     */
+    boolean isEmpty() {
+        UIKitSyncPost tail = mTail;
+        UIKitSyncPost next = tail.mNext;
+        if (tail == mStub) {
+            if (next == null)
+                return true;
+            tail = next;
+            next = next.mNext;
+        }
+        return next == null && tail != mHead.get();
+    }
+
+    /**
+     * Drop all, only called by the consumer
+     */
+    void clear() {
+        while (poll() != null) {
+        }
+    }
+}
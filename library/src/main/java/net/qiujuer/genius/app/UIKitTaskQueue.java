@@ -0,0 +1,158 @@
+/*
+ * Copyright (C) 2014 Qiujuer <qiujuer@live.cn>
+ * WebSite http://www.qiujuer.net
+ * Created 10/19/2026
+ * Changed 10/19/2026
+ * Version 1.0.0
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.qiujuer.genius.app;
+
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
+/**
+ * Created by Qiujuer
+ * on 2026/10/19.
+ * <p/>
+ * Lock free queue of many producers and a single consumer.
+ * A producer swaps the head to its node then links the old head to it,
+ * the consumer follows the links from the tail, so {@link #offer(Object)}
+ * never waits and {@link #poll()} never takes a lock.
+ * <p/>
+ * A node is seen by the consumer only when its link is set, an offer
+ * in progress may be not seen by {@link #poll()} or {@link #isEmpty()}
+ * until the offer returns.
+ * <p/>
+ * {@link #offerAll(Collection, long)} links the nodes first and swaps the head
+ * once, so a batch is added in order and not mixed with other offers.
+ */
+final class UIKitTaskQueue<T> {
+    @SuppressWarnings("rawtypes")
+    private static final AtomicReferenceFieldUpdater<Node, Node> NEXT =
+            AtomicReferenceFieldUpdater.newUpdater(Node.class, Node.class, "mNext");
+
+    // The last offered node, swapped by producers
+    private final AtomicReference<Node<T>> mHead;
+    // The node before the first, only used by the consumer
+    private Node<T> mTail;
+
+    UIKitTaskQueue() {
+        Node<T> stub = new Node<>(null);
+        mHead = new AtomicReference<>(stub);
+        mTail = stub;
+    }
+
+    /**
+     * Add to the queue, can be called on any thread,
+     * a null value is the empty of {@link #poll()} so it's thrown
+     */
+    void offer(T value) {
+        offer(value, 0);
+    }
+
+    /**
+     * Add to the queue with the time of the offer, can be called on any thread
+     */
+    @SuppressWarnings("unchecked")
+    void offer(T value, long time) {
+        if (value == null)
+            throw new NullPointerException("value");
+        Node<T> node = new Node<>(value);
+        node.mTime = time;
+        Node<T> prev = mHead.getAndSet(node);
+        NEXT.lazySet(prev, node);
+    }
+
+    /**
+     * Add all in order with one swap of the head, can be called on any thread
+     *
+     * @return The count added
+     */
+    @SuppressWarnings("unchecked")
+    int offerAll(Collection<? extends T> values, long time) {
+        Node<T> first = null;
+        Node<T> last = null;
+        int count = 0;
+        for (T value : values) {
+            // Nothing is added if a value is null
+            if (value == null)
+                throw new NullPointerException("value");
+            Node<T> node = new Node<>(value);
+            node.mTime = time;
+            if (first == null)
+                first = node;
+            else
+                NEXT.lazySet(last, node);
+            last = node;
+            count++;
+        }
+        if (first != null) {
+            Node<T> prev = mHead.getAndSet(last);
+            NEXT.lazySet(prev, first);
+        }
+        return count;
+    }
+
+    /**
+     * Take the first, only called by the consumer
+     *
+     * @return Null if empty
+     */
+    T poll() {
+        Node<T> next = mTail.mNext;
+        if (next == null)
+            return null;
+        T value = next.mValue;
+        // The next is the new stub
+        next.mValue = null;
+        mTail = next;
+        return value;
+    }
+
+    /**
+     * The offer time of the last polled, only called by the consumer
+     */
+    long getPolledTime() {
+        // The last polled node is the stub now
+        return mTail.mTime;
+    }
+
+    /**
+     * Only called by the consumer
+     */
+    boolean isEmpty() {
+        return mTail.mNext == null;
+    }
+
+    /**
+     * Drop all, only called by the consumer
+     */
+    void clear() {
+        while (poll() != null) {
+        }
+    }
+
+    private static final class Node<T> {
+        T mValue;
+        long mTime;
+        // Not private, the field updater is created by the outer class
+        volatile Node<T> mNext;
+
+        Node(T value) {
+            mValue = value;
+        }
+    }
+}
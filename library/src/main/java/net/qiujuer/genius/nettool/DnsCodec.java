@@ -0,0 +1,322 @@
+/*
+ * Copyright (C) 2014 Qiujuer <qiujuer@live.cn>
+ * WebSite http://www.qiujuer.net
+ * Created 10/19/2026
+ * Changed 10/19/2026
+ * Version 1.0.0
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.qiujuer.genius.nettool;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+
+/**
+ * Created by Qiujuer
+ * on 2026/10/19.
+ * <p/>
+ * DNS wire-format codec, the query is encoded directly into a caller
+ * supplied buffer and the response is decoded in place without copy.
+ * A records are kept as packed ints, one instance can be reused for
+ * any number of queries but is not thread safe.
+ */
+public final class DnsCodec {
+    public static final int TYPE_A = 0x01;
+    public static final int CLASS_IN = 0x01;
+    public static final int MAX_PACKET_SIZE = 512;
+
+    private static final int HEADER_SIZE = 12;
+    private static final int MAX_LABEL_LENGTH = 63;
+    private static final int MAX_NAME_LENGTH = 255;
+    private static final int FLAG_RESPONSE = 0x8000;
+    private static final int FLAG_TRUNCATED = 0x0200;
+    private static final int FLAG_RECURSION_DESIRED = 0x0100;
+    private static final int POINTER_MASK = 0xC0;
+
+    private int[] mAddresses;
+    private int mCount;
+    private int mResponseCode;
+    private boolean isTruncated;
+
+    public DnsCodec() {
+        this(8);
+    }
+
+    /**
+     * @param capacity Initial count of A records can be held without grow
+     */
+    public DnsCodec(int capacity) {
+        mAddresses = new int[Math.max(1, capacity)];
+    }
+
+    /**
+     * Encode a recursive query from the buffer position,
+     * after encode the position is moved to the end of the query.
+     * The domain is checked before any byte is written, if it's rejected
+     * the buffer is not changed
+     *
+     * @param buffer Target buffer
+     * @param id     Query id
+     * @param domain Domain name
+     * @param type   Query type, as {@link #TYPE_A}
+     * @return Query length in bytes
+     */
+    public static int encodeQuery(ByteBuffer buffer, int id, CharSequence domain, int type) {
+        final int start = buffer.position();
+        if (buffer.remaining() < HEADER_SIZE + nameLength(domain) + 4)
+            throw new BufferOverflowException();
+
+        // Message head
+        buffer.putShort((short) id);
+        buffer.putShort((short) FLAG_RECURSION_DESIRED);
+        buffer.putShort((short) 1);
+        buffer.putShort((short) 0);
+        buffer.putShort((short) 0);
+        buffer.putShort((short) 0);
+
+        // Add domain, write the label length when the label end
+        int lengthPos = -1;
+        int labelLength = 0;
+        for (int i = 0, len = domain.length(); i <= len; i++) {
+            char c = i < len ? domain.charAt(i) : '.';
+            if (c == '.') {
+                if (labelLength > 0) {
+                    buffer.put(lengthPos, (byte) labelLength);
+                    labelLength = 0;
+                    lengthPos = -1;
+                }
+                continue;
+            }
+            if (lengthPos < 0) {
+                lengthPos = buffer.position();
+                buffer.put((byte) 0);
+            }
+            labelLength++;
+            buffer.put((byte) c);
+        }
+        // 0 end
+        buffer.put((byte) 0);
+
+        // Record type and internet class
+        buffer.putShort((short) type);
+        buffer.putShort((short) CLASS_IN);
+        return buffer.position() - start;
+    }
+
+    /**
+     * The length of the domain in the query, the labels and the 0 end
+     *
+     * @param domain Domain name
+     * @return Bytes
+     * @throws IllegalArgumentException If not ascii or a label or the name too long
+     */
+    private static int nameLength(CharSequence domain) {
+        int length = 1;
+        int labelLength = 0;
+        for (int i = 0, len = domain.length(); i <= len; i++) {
+            char c = i < len ? domain.charAt(i) : '.';
+            if (c == '.') {
+                if (labelLength > 0)
+                    length += labelLength + 1;
+                labelLength = 0;
+                continue;
+            }
+            if (c > 0x7F)
+                throw new IllegalArgumentException("Domain must be ascii: " + domain);
+            if (++labelLength > MAX_LABEL_LENGTH)
+                throw new IllegalArgumentException("Label too long: " + domain);
+        }
+        if (length > MAX_NAME_LENGTH)
+            throw new IllegalArgumentException("Domain too long: " + domain);
+        return length;
+    }
+
+    /**
+     * Decode response from the buffer position to the limit,
+     * the buffer position and content are not changed
+     *
+     * @param buffer Response buffer
+     * @param id     The query id
+     * @return The count of A records, -1 if the response is malformed, truncated
+     * or not match the id
+     */
+    public int decodeResponse(ByteBuffer buffer, int id) {
+        mCount = 0;
+        mResponseCode = -1;
+        isTruncated = false;
+
+        final int start = buffer.position();
+        final int limit = buffer.limit();
+        if (limit - start < HEADER_SIZE)
+            return -1;
+
+        // ID and flag
+        int flags = getShort(buffer, start + 2);
+        if (getShort(buffer, start) != (id & 0xFFFF) || (flags & FLAG_RESPONSE) == 0)
+            return -1;
+        mResponseCode = flags & 0x0F;
+
+        // The records of a truncated response are not complete, the query must use TCP
+        if ((flags & FLAG_TRUNCATED) != 0) {
+            isTruncated = true;
+            return reject();
+        }
+
+        // Count
+        int queryCount = getShort(buffer, start + 4);
+        int answerCount = getShort(buffer, start + 6);
+
+        int pos = start + HEADER_SIZE;
+
+        // Skip the query part
+        for (int i = 0; i < queryCount; i++) {
+            pos = skipName(buffer, pos, limit);
+            if (pos < 0 || (pos += 4) > limit)
+                return reject();
+        }
+
+        // Get ip form answers
+        for (int i = 0; i < answerCount; i++) {
+            pos = skipName(buffer, pos, limit);
+            if (pos < 0 || pos + 10 > limit)
+                return reject();
+            int type = getShort(buffer, pos);
+            int clazz = getShort(buffer, pos + 2);
+            int dataLength = getShort(buffer, pos + 8);
+            pos += 10;
+            if (pos + dataLength > limit)
+                return reject();
+            if (type == TYPE_A && clazz == CLASS_IN && dataLength == 4)
+                add(buffer.getInt(pos));
+            pos += dataLength;
+        }
+        return mCount;
+    }
+
+    /**
+     * Drop the rcode and the records of a rejected response
+     */
+    private int reject() {
+        mCount = 0;
+        mResponseCode = -1;
+        return -1;
+    }
+
+    /**
+     * Skip a name, the name may be end with a compression pointer
+     *
+     * @return The position after the name, -1 if malformed
+     */
+    private static int skipName(ByteBuffer buffer, int pos, int limit) {
+        while (pos < limit) {
+            int len = buffer.get(pos) & 0xFF;
+            if (len == 0)
+                return pos + 1;
+            if ((len & POINTER_MASK) == POINTER_MASK)
+                return pos + 2 <= limit ? pos + 2 : -1;
+            if (len > MAX_LABEL_LENGTH)
+                return -1;
+            pos += len + 1;
+        }
+        return -1;
+    }
+
+    private static int getShort(ByteBuffer buffer, int pos) {
+        return buffer.getShort(pos) & 0xFFFF;
+    }
+
+    private void add(int address) {
+        if (mCount == mAddresses.length) {
+            int[] addresses = new int[mCount << 1];
+            System.arraycopy(mAddresses, 0, addresses, 0, mCount);
+            mAddresses = addresses;
+        }
+        mAddresses[mCount++] = address;
+    }
+
+    /**
+     * The A records count of the last decode
+     *
+     * @return Count
+     */
+    public int getCount() {
+        return mCount;
+    }
+
+    /**
+     * The rcode of the last decode, -1 if the response was rejected
+     *
+     * @return Response code
+     */
+    public int getResponseCode() {
+        return mResponseCode;
+    }
+
+    /**
+     * The last decode was rejected as the response is truncated
+     *
+     * @return True if truncated
+     */
+    public boolean isTruncated() {
+        return isTruncated;
+    }
+
+    /**
+     * Get a A record as packed int, high byte is the first byte
+     *
+     * @param index Index
+     * @return Packed ip
+     */
+    public int getAddress(int index) {
+        if (index < 0 || index >= mCount)
+            throw new IndexOutOfBoundsException("Index: " + index + " Count: " + mCount);
+        return mAddresses[index];
+    }
+
+    /**
+     * Get a A record as InetAddress
+     *
+     * @param index Index
+     * @return InetAddress
+     */
+    public InetAddress getInetAddress(int index) {
+        int address = getAddress(index);
+        try {
+            return InetAddress.getByAddress(new byte[]{
+                    (byte) (address >>> 24),
+                    (byte) (address >>> 16),
+                    (byte) (address >>> 8),
+                    (byte) address});
+        } catch (UnknownHostException e) {
+            // Never happen, the length is 4
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Append the packed ip as dotted form
+     *
+     * @param address Packed ip
+     * @param builder Target builder
+     * @return The builder
+     */
+    public static StringBuilder appendAddress(int address, StringBuilder builder) {
+        return builder.append(address >>> 24).append('.')
+                .append((address >>> 16) & 0xFF).append('.')
+                .append((address >>> 8) & 0xFF).append('.')
+                .append(address & 0xFF);
+    }
+}
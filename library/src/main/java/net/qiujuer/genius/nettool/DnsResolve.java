@@ -2,7 +2,7 @@
  * Copyright (C) 2014 Qiujuer <qiujuer@live.cn>
  * WebSite http://www.qiujuer.net
  * Created 09/20/2014
- * Changed 01/13/2015
+ * Changed 10/19/2026
  * Version 1.0.0
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
@@ -25,6 +25,7 @@ import java.net.DatagramSocket;
 import java.net.InetAddress;
 import java.net.SocketException;
 import java.net.UnknownHostException;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -33,12 +34,15 @@ import java.util.List;
  * on 2014/9/20.
  */
 public class DnsResolve extends NetModel {
-    private static final byte[] ID = new byte[]{(byte) 2, (byte) 6};
+    private static final int ID = 0x0206;
     private static final int TIME_OUT = 8000;
     private String mHostName;
     private InetAddress mServer;
     private List<String> mIPs;
     private long mDelay;
+    // Reused by each resolve of the server
+    private ByteBuffer mBuffer;
+    private DnsCodec mCodec;
 
     /**
      * Domain name resolution test
@@ -68,68 +72,32 @@ public class DnsResolve extends NetModel {
      * @return IPs
      */
     private ArrayList<String> resolve(String domain, InetAddress dnsServer) {
-        // Pointer
-        int pos = 12;
-        // Init buffer
-        byte[] sendBuffer = new byte[100];
-        // Message head
-        sendBuffer[0] = ID[0];
-        sendBuffer[1] = ID[1];
-        sendBuffer[2] = 0x01;
-        sendBuffer[3] = 0x00;
-        sendBuffer[4] = 0x00;
-        sendBuffer[5] = 0x01;
-        sendBuffer[6] = 0x00;
-        sendBuffer[7] = 0x00;
-        sendBuffer[8] = 0x00;
-        sendBuffer[9] = 0x00;
-        sendBuffer[10] = 0x00;
-        sendBuffer[11] = 0x00;
-
-        // Add domain
-        String[] part = domain.split("\\.");
-        for (String s : part) {
-            if (s == null || s.length() <= 0)
-                continue;
-            int sLength = s.length();
-            sendBuffer[pos++] = (byte) sLength;
-            int i = 0;
-            char[] val = s.toCharArray();
-            while (i < sLength) {
-                sendBuffer[pos++] = (byte) val[i++];
-            }
+        // Init buffer and add query
+        if (mBuffer == null) {
+            mBuffer = ByteBuffer.allocate(DnsCodec.MAX_PACKET_SIZE);
+            mCodec = new DnsCodec();
         }
-
-        // 0 end
-        sendBuffer[pos++] = 0x00;
-        sendBuffer[pos++] = 0x00;
-        // 1 A record query
-        sendBuffer[pos++] = 0x01;
-        sendBuffer[pos++] = 0x00;
-        // Internet record query
-        sendBuffer[pos++] = 0x01;
+        ByteBuffer buffer = mBuffer;
+        buffer.clear();
+        int length = DnsCodec.encodeQuery(buffer, ID, domain, DnsCodec.TYPE_A);
 
         /**
-         * UDP Send
+         * UDP Send, receive into the same buffer
          */
         DatagramSocket ds = null;
-        byte[] receiveBuffer = null;
         try {
             ds = new DatagramSocket();
             ds.setSoTimeout(TIME_OUT);
 
             // Send
-            DatagramPacket dp = new DatagramPacket(sendBuffer, pos, dnsServer, 53);
+            DatagramPacket dp = new DatagramPacket(buffer.array(), length, dnsServer, 53);
             ds.send(dp);
 
             // Receive
-            dp = new DatagramPacket(new byte[512], 512);
+            dp.setData(buffer.array(), 0, DnsCodec.MAX_PACKET_SIZE);
             ds.receive(dp);
-
-            // Copy
-            int len = dp.getLength();
-            receiveBuffer = new byte[len];
-            System.arraycopy(dp.getData(), 0, receiveBuffer, 0, len);
+            buffer.clear();
+            buffer.limit(dp.getLength());
         } catch (UnknownHostException e) {
             mError = UNKNOWN_HOST_ERROR;
         } catch (SocketException e) {
@@ -143,65 +111,28 @@ public class DnsResolve extends NetModel {
                 ds.close();
         }
 
-        /**
-         * Resolve data
-         */
-
         // Check is return
-        if (mError != SUCCEED || receiveBuffer == null)
-            return null;
-
-        // ID
-        if (receiveBuffer[0] != ID[0] || receiveBuffer[1] != ID[1]
-                || (receiveBuffer[2] & 0x80) != 0x80)
-            return null;
-
-        // Count
-        int queryCount = (receiveBuffer[4] << 8) | receiveBuffer[5];
-        if (queryCount == 0)
+        if (mError != SUCCEED)
             return null;
 
-        int answerCount = (receiveBuffer[6] << 8) | receiveBuffer[7];
-        if (answerCount == 0)
+        /**
+         * Resolve data
+         */
+        DnsCodec codec = mCodec;
+        int count = codec.decodeResponse(buffer, ID);
+        if (count <= 0) {
+            // Only the records of UDP are resolved
+            if (codec.isTruncated())
+                mError = DROP_DATA_ERROR;
             return null;
-
-        // Pointer restore
-        pos = 12;
-
-        // Skip the query part head
-        for (int i = 0; i < queryCount; i++) {
-            while (receiveBuffer[pos] != 0x00) {
-                pos += receiveBuffer[pos] + 1;
-            }
-            pos += 5;
         }
 
         // Get ip form data
-        ArrayList<String> iPs = new ArrayList<String>();
-        for (int i = 0; i < answerCount; i++) {
-            if (receiveBuffer[pos] == (byte) 0xC0) {
-                pos += 2;
-            } else {
-                while (receiveBuffer[pos] != (byte) 0x00) {
-                    pos += receiveBuffer[pos] + 1;
-                }
-                pos++;
-            }
-            byte queryType = (byte) (receiveBuffer[pos] << 8 | receiveBuffer[pos + 1]);
-            pos += 8;
-            int dataLength = (receiveBuffer[pos] << 8 | receiveBuffer[pos + 1]);
-            pos += 2;
-            // Add ip
-            if (queryType == (byte) 0x01) {
-                int address[] = new int[4];
-                for (int n = 0; n < 4; n++) {
-                    address[n] = receiveBuffer[pos + n];
-                    if (address[n] < 0)
-                        address[n] += 256;
-                }
-                iPs.add(String.format("%d.%d.%d.%d", address[0], address[1], address[2], address[3]));
-            }
-            pos += dataLength;
+        ArrayList<String> iPs = new ArrayList<String>(count);
+        StringBuilder builder = new StringBuilder(15);
+        for (int i = 0; i < count; i++) {
+            builder.setLength(0);
+            iPs.add(DnsCodec.appendAddress(codec.getAddress(i), builder).toString());
         }
         return iPs;
     }
@@ -0,0 +1,185 @@
+/*
+ * Copyright (C) 2014 Qiujuer <qiujuer@live.cn>
+ * WebSite http://www.qiujuer.net
+ * Created 10/19/2026
+ * Changed 10/19/2026
+ * Version 1.0.0
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.qiujuer.genius.nettool;
+
+import java.util.Arrays;
+
+/**
+ * Created by Qiujuer
+ * on 2026/10/19.
+ * <p/>
+ * Latency histogram in nanoseconds with fixed log-linear buckets,
+ * each power of two range is split into {@link #HALF_COUNT} buckets so the
+ * percentile error is less than 1/32 of the value.
+ * Values up to {@link #MAX_TRACKABLE} (about 68 seconds) are kept,
+ * larger values are put in the last bucket.
+ * <p/>
+ * Histograms can be merged, so each probe or thread can record into its own
+ * and merge into a total one.
+ */
+public final class LatencyHistogram {
+    private static final int SUB_BITS = 6;
+    private static final int SUB_COUNT = 1 << SUB_BITS;
+    private static final int HALF_COUNT = SUB_COUNT >> 1;
+    private static final int MAX_BIT = 36;
+    public static final long MAX_TRACKABLE = (1L << MAX_BIT) - 1;
+    private static final int BUCKET_COUNT = indexOf(MAX_TRACKABLE) + 1;
+
+    private final long[] mCounts = new long[BUCKET_COUNT];
+    private long mCount;
+    private long mLost;
+    private long mMin = Long.MAX_VALUE;
+    private long mMax;
+    private long mSum;
+    private double mSumOfSquares;
+
+    private static int indexOf(long value) {
+        if (value < SUB_COUNT)
+            return (int) value;
+        int shift = 64 - Long.numberOfLeadingZeros(value) - SUB_BITS;
+        return (shift << (SUB_BITS - 1)) + (int) (value >>> shift);
+    }
+
+    private static long highestOf(int index) {
+        if (index < SUB_COUNT)
+            return index;
+        int shift = (index >> (SUB_BITS - 1)) - 1;
+        long sub = index - ((long) shift << (SUB_BITS - 1));
+        return ((sub + 1) << shift) - 1;
+    }
+
+    /**
+     * Record a probe latency
+     *
+     * @param nanos Latency in nanoseconds
+     */
+    public synchronized void record(long nanos) {
+        if (nanos < 0)
+            nanos = 0;
+        mCounts[indexOf(Math.min(nanos, MAX_TRACKABLE))]++;
+        mCount++;
+        mSum += nanos;
+        mSumOfSquares += (double) nanos * nanos;
+        if (nanos < mMin)
+            mMin = nanos;
+        if (nanos > mMax)
+            mMax = nanos;
+    }
+
+    /**
+     * Record a probe without reply
+     */
+    public synchronized void recordLost() {
+        mLost++;
+    }
+
+    /**
+     * Merge the other histogram into this
+     *
+     * @param other Other histogram
+     */
+    public void merge(LatencyHistogram other) {
+        if (other == this)
+            return;
+        long[] counts = new long[BUCKET_COUNT];
+        long count, lost, min, max, sum;
+        double sumOfSquares;
+        synchronized (other) {
+            System.arraycopy(other.mCounts, 0, counts, 0, BUCKET_COUNT);
+            count = other.mCount;
+            lost = other.mLost;
+            min = other.mMin;
+            max = other.mMax;
+            sum = other.mSum;
+            sumOfSquares = other.mSumOfSquares;
+        }
+        synchronized (this) {
+            for (int i = 0; i < BUCKET_COUNT; i++)
+                mCounts[i] += counts[i];
+            mCount += count;
+            mLost += lost;
+            mSum += sum;
+            mSumOfSquares += sumOfSquares;
+            if (min < mMin)
+                mMin = min;
+            if (max > mMax)
+                mMax = max;
+        }
+    }
+
+    public synchronized void reset() {
+        Arrays.fill(mCounts, 0);
+        mCount = mLost = mSum = mMax = 0;
+        mMin = Long.MAX_VALUE;
+        mSumOfSquares = 0;
+    }
+
+    /**
+     * Value at the percentile, the value is the highest of the bucket
+     * and never bigger than the max value, the last bucket holds the values
+     * over {@link #MAX_TRACKABLE} so its highest is the max value
+     *
+     * @param percentile 0 to 100
+     * @return Nanoseconds
+     */
+    public synchronized long getValueAtPercentile(double percentile) {
+        if (mCount == 0)
+            return 0;
+        long target = (long) Math.ceil(Math.min(100, Math.max(0, percentile)) / 100 * mCount);
+        if (target < 1)
+            target = 1;
+        long total = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            total += mCounts[i];
+            if (total >= target)
+                return i == BUCKET_COUNT - 1 ? mMax : Math.max(mMin, Math.min(highestOf(i), mMax));
+        }
+        return mMax;
+    }
+
+    /**
+     * Copy current values to a statistics
+     *
+     * @return LatencyStatistics
+     */
+    public synchronized LatencyStatistics getStatistics() {
+        double mean = mCount == 0 ? 0 : (double) mSum / mCount;
+        double variance = mCount == 0 ? 0 : mSumOfSquares / mCount - mean * mean;
+        return new LatencyStatistics(mCount, mLost,
+                mCount == 0 ? 0 : mMin, mMax, mean,
+                Math.sqrt(Math.max(0, variance)),
+                getValueAtPercentile(50),
+                getValueAtPercentile(90),
+                getValueAtPercentile(99));
+    }
+
+    public synchronized long getCount() {
+        return mCount;
+    }
+
+    public synchronized long getLost() {
+        return mLost;
+    }
+
+    @Override
+    public String toString() {
+        return getStatistics().toString();
+    }
+}
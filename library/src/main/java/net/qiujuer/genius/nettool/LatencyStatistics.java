@@ -0,0 +1,105 @@
+/*
+ * Copyright (C) 2014 Qiujuer <qiujuer@live.cn>
+ * WebSite http://www.qiujuer.net
+ * Created 10/19/2026
+ * Changed 10/19/2026
+ * Version 1.0.0
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.qiujuer.genius.nettool;
+
+/**
+ * Created by Qiujuer
+ * on 2026/10/19.
+ * <p/>
+ * Statistics of {@link LatencyHistogram}, all times are in nanoseconds
+ */
+public final class LatencyStatistics {
+    private final long mCount;
+    private final long mLost;
+    private final long mMin;
+    private final long mMax;
+    private final double mMean;
+    private final double mStdDev;
+    private final long mP50;
+    private final long mP90;
+    private final long mP99;
+
+    LatencyStatistics(long count, long lost, long min, long max, double mean, double stdDev,
+                      long p50, long p90, long p99) {
+        this.mCount = count;
+        this.mLost = lost;
+        this.mMin = min;
+        this.mMax = max;
+        this.mMean = mean;
+        this.mStdDev = stdDev;
+        this.mP50 = p50;
+        this.mP90 = p90;
+        this.mP99 = p99;
+    }
+
+    public long getCount() {
+        return mCount;
+    }
+
+    public long getLost() {
+        return mLost;
+    }
+
+    public float getLossRate() {
+        long total = mCount + mLost;
+        return total == 0 ? 1f : (float) mLost / total;
+    }
+
+    public long getMin() {
+        return mMin;
+    }
+
+    public long getMax() {
+        return mMax;
+    }
+
+    public double getMean() {
+        return mMean;
+    }
+
+    public double getStdDev() {
+        return mStdDev;
+    }
+
+    public long getP50() {
+        return mP50;
+    }
+
+    public long getP90() {
+        return mP90;
+    }
+
+    public long getP99() {
+        return mP99;
+    }
+
+    @Override
+    public String toString() {
+        return "Count:" + mCount +
+                " Lost:" + mLost +
+                " Min:" + mMin +
+                " Avg:" + (long) mMean +
+                " Max:" + mMax +
+                " StdDev:" + (long) mStdDev +
+                " P50:" + mP50 +
+                " P90:" + mP90 +
+                " P99:" + mP99;
+    }
+}
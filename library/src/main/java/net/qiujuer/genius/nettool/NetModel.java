@@ -2,7 +2,7 @@
  * Copyright (C) 2014 Qiujuer <qiujuer@live.cn>
  * WebSite http://www.qiujuer.net
  * Created 09/20/2014
- * Changed 01/13/2015
+ * Changed 10/19/2026
  * Version 1.0.0
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
@@ -39,25 +39,6 @@ public abstract class NetModel {
     public static final int HOST_UNREACHABLE_ERROR = 11;
     public static final int DROP_DATA_ERROR = 12;
 
-
-    protected static final String PING = "ping";
-    protected static final String PING_FROM = "from";
-    protected static final String PING_PAREN_THESE_OPEN = "(";
-    protected static final String PING_PAREN_THESE_CLOSE = ")";
-    protected static final String PING_EXCEED = "exceed";
-    protected static final String PING_STATISTICS = "statistics";
-    protected static final String PING_TRANSMIT = "packets transmitted";
-    protected static final String PING_RECEIVED = "received";
-    protected static final String PING_ERRORS = "errors";
-    protected static final String PING_LOSS = "packet loss";
-    protected static final String PING_UNREACHABLE = "100%";
-    protected static final String PING_RTT = "rtt";
-    protected static final String PING_BREAK_LINE = "\n";
-    protected static final String PING_RATE = "%";
-    protected static final String PING_COMMA = ",";
-    protected static final String PING_EQUAL = "=";
-    protected static final String PING_SLASH = "/";
-
     protected int mError = SUCCEED;
 
     public abstract void start();
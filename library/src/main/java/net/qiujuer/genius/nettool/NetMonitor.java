@@ -0,0 +1,321 @@
+/*
+ * Copyright (C) 2014 Qiujuer <qiujuer@live.cn>
+ * WebSite http://www.qiujuer.net
+ * Created 10/19/2026
+ * Changed 10/19/2026
+ * Version 1.0.0
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.qiujuer.genius.nettool;
+
+import android.annotation.TargetApi;
+import android.os.Build;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Created by Qiujuer
+ * on 2026/10/19.
+ * <p/>
+ * Run {@link NetModel} probes periodically on a small shared pool.
+ * Probes are keyed by target, register the same target again replaces
+ * the probe and the period, so one target has at most one probe in flight.
+ * A new target is probed at once, after that on its period.
+ * The last results of each target are kept in a ring window and the
+ * statistics of the window are published to the listeners after each probe.
+ * <p/>
+ * When the probes of a target or all probes keep failing,
+ * the period is doubled up to {@link #MAX_BACKOFF} times.
+ */
+public class NetMonitor {
+    public static final int MAX_BACKOFF = 16;
+    private static final float JITTER = 0.1f;
+
+    private final Object mLock = new Object();
+    private final Map<String, Target> mTargets = new HashMap<>();
+    private final List<NetMonitorListener> mListeners = new CopyOnWriteArrayList<>();
+    private final Random mRandom = new Random();
+    private final AtomicInteger mFailures = new AtomicInteger();
+    private final int mWindowSize;
+    private final ScheduledThreadPoolExecutor mExecutor;
+
+    /**
+     * @param maxConcurrent Max count of probes run at same time, is the pool size
+     * @param windowSize    Count of the last results kept for each target
+     */
+    public NetMonitor(int maxConcurrent, int windowSize) {
+        this.mWindowSize = Math.max(1, windowSize);
+        this.mExecutor = new ScheduledThreadPoolExecutor(Math.max(1, maxConcurrent), new ThreadFactory() {
+            private final AtomicInteger mCount = new AtomicInteger();
+
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "NetMonitor:" + mCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        setRemoveOnCancelPolicy(mExecutor);
+    }
+
+    /**
+     * Cancelled probes are removed from the queue at once, so unregister
+     * many targets don't keep them in the queue until their delay is over
+     */
+    @TargetApi(Build.VERSION_CODES.LOLLIPOP)
+    private static void setRemoveOnCancelPolicy(ScheduledThreadPoolExecutor executor) {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP)
+            executor.setRemoveOnCancelPolicy(true);
+    }
+
+    public NetMonitor() {
+        this(2, 32);
+    }
+
+    /**
+     * Register a probe for the target and run it at once,
+     * if the target is registered the probe and the period are replaced
+     * and take effect from the next run, the window is kept
+     *
+     * @param target Target key, as host or host:port
+     * @param period Period in milliseconds
+     * @param probe  Create the NetModel for each run
+     */
+    public void register(String target, long period, Probe probe) {
+        synchronized (mLock) {
+            Target t = mTargets.get(target);
+            if (t != null) {
+                t.mProbe = probe;
+                t.mPeriod = period;
+                return;
+            }
+            t = new Target(target, period, probe, mWindowSize);
+            mTargets.put(target, t);
+            schedule(t, 0);
+        }
+    }
+
+    public void unregister(String target) {
+        Target t;
+        synchronized (mLock) {
+            t = mTargets.remove(target);
+        }
+        if (t != null) {
+            t.cancel();
+            if (Build.VERSION.SDK_INT < Build.VERSION_CODES.LOLLIPOP)
+                mExecutor.purge();
+        }
+    }
+
+    public void addListener(NetMonitorListener listener) {
+        mListeners.add(listener);
+    }
+
+    public void removeListener(NetMonitorListener listener) {
+        mListeners.remove(listener);
+    }
+
+    /**
+     * Get the statistics of the target window
+     *
+     * @param target Target key
+     * @return LatencyStatistics, null if the target is not registered
+     */
+    public LatencyStatistics getStatistics(String target) {
+        Target t;
+        synchronized (mLock) {
+            t = mTargets.get(target);
+        }
+        return t == null ? null : t.getStatistics();
+    }
+
+    /**
+     * Stop all probes, the monitor can't be used after
+     */
+    public void dispose() {
+        synchronized (mLock) {
+            for (Target t : mTargets.values())
+                t.cancel();
+            mTargets.clear();
+        }
+        mListeners.clear();
+        mExecutor.shutdownNow();
+    }
+
+    private void schedule(Target target, long delay) {
+        if (!mExecutor.isShutdown())
+            target.mFuture = mExecutor.schedule(target, delay, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Period with jitter and back off
+     */
+    private long nextDelay(long period, int failures) {
+        int backoff = 1 << Math.min(failures, Integer.numberOfTrailingZeros(MAX_BACKOFF));
+        float jitter;
+        synchronized (mRandom) {
+            jitter = 1f + (mRandom.nextFloat() * 2f - 1f) * JITTER;
+        }
+        return (long) (period * backoff * jitter);
+    }
+
+    private void complete(Target target, boolean succeed) {
+        int failures;
+        if (succeed) {
+            mFailures.set(0);
+            failures = target.mFailures = 0;
+        } else {
+            int count;
+            synchronized (mLock) {
+                count = Math.max(1, mTargets.size());
+            }
+            // All targets are failing, the network is down
+            failures = Math.max(++target.mFailures, mFailures.incrementAndGet() / count);
+        }
+
+        LatencyStatistics statistics = target.getStatistics();
+        for (NetMonitorListener listener : mListeners)
+            listener.onStatistics(target.mKey, statistics);
+
+        synchronized (mLock) {
+            if (mTargets.get(target.mKey) == target)
+                schedule(target, nextDelay(target.mPeriod, failures));
+        }
+    }
+
+    /**
+     * A target with the result window
+     */
+    private final class Target implements Runnable {
+        private final String mKey;
+        // Delay in nanoseconds, -1 is failed
+        private final long[] mWindow;
+        private final LatencyHistogram mHistogram = new LatencyHistogram();
+        private int mPosition;
+        private int mSize;
+
+        private volatile Probe mProbe;
+        private volatile long mPeriod;
+        private volatile ScheduledFuture<?> mFuture;
+        private volatile NetModel mModel;
+        private volatile boolean isCancel;
+        private int mFailures;
+
+        Target(String key, long period, Probe probe, int windowSize) {
+            this.mKey = key;
+            this.mPeriod = period;
+            this.mProbe = probe;
+            this.mWindow = new long[windowSize];
+        }
+
+        @Override
+        public void run() {
+            if (isCancel)
+                return;
+            Probe probe = mProbe;
+            NetModel model = probe.create();
+            mModel = model;
+            long startTime = System.nanoTime();
+            try {
+                model.start();
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+            long elapsed = System.nanoTime() - startTime;
+            mModel = null;
+            if (isCancel)
+                return;
+
+            boolean succeed = model.getError() == NetModel.SUCCEED;
+            add(succeed ? probe.getDelay(model, elapsed) : -1);
+            complete(this, succeed);
+        }
+
+        private synchronized void add(long delay) {
+            mWindow[mPosition] = delay;
+            mPosition = (mPosition + 1) % mWindow.length;
+            if (mSize < mWindow.length)
+                mSize++;
+        }
+
+        /**
+         * The window is recorded again into the histogram,
+         * so old results out of the window are not counted
+         */
+        synchronized LatencyStatistics getStatistics() {
+            LatencyHistogram histogram = mHistogram;
+            histogram.reset();
+            for (int i = 0; i < mSize; i++) {
+                long delay = mWindow[i];
+                if (delay < 0)
+                    histogram.recordLost();
+                else
+                    histogram.record(delay);
+            }
+            return histogram.getStatistics();
+        }
+
+        void cancel() {
+            isCancel = true;
+            ScheduledFuture<?> future = mFuture;
+            if (future != null)
+                future.cancel(false);
+            NetModel model = mModel;
+            if (model != null)
+                model.cancel();
+        }
+    }
+
+    /**
+     * Create the probe for each run
+     */
+    public static abstract class Probe {
+        /**
+         * Create a new NetModel, it's started on the monitor thread
+         *
+         * @return NetModel
+         */
+        public abstract NetModel create();
+
+        /**
+         * The delay of a succeed probe, default is the time of {@link NetModel#start()}
+         *
+         * @param model   The finished NetModel
+         * @param elapsed Run time in nanoseconds
+         * @return Delay in nanoseconds
+         */
+        public long getDelay(NetModel model, long elapsed) {
+            return elapsed;
+        }
+    }
+
+    public static interface NetMonitorListener {
+        /**
+         * Called on the monitor thread after each probe of the target
+         *
+         * @param target     Target key
+         * @param statistics Statistics of the target window
+         */
+        void onStatistics(String target, LatencyStatistics statistics);
+    }
+}
@@ -2,7 +2,7 @@
  * Copyright (C) 2014 Qiujuer <qiujuer@live.cn>
  * WebSite http://www.qiujuer.net
  * Created 09/21/2014
- * Changed 01/13/2015
+ * Changed 10/19/2026
  * Version 1.0.0
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
@@ -32,8 +32,13 @@ public class Ping extends NetModel {
     private float mDelay = 0;
     private float mTotalTime = 0;
 
+    private final LatencyHistogram mHistogram = new LatencyHistogram();
+    private PingResult mResult;
+    private PingParser mParser;
+
     private transient boolean isAnalysisIp;
     private transient int mCount, mSize;
+    private transient long mInterval;
     private transient Command mCommand;
 
     /**
@@ -71,6 +76,21 @@ public class Ping extends NetModel {
      * @param isAnalysisIp Whether parsing IP
      */
     public Ping(int count, int size, String target, boolean isAnalysisIp) {
+        this(count, size, target, isAnalysisIp, 0);
+    }
+
+    /**
+     * To specify the IP or domain name to Ping test and return the IP, packet loss,
+     * delay parameter, the time of each reply is recorded to the {@link #getHistogram()}
+     *
+     * @param count        Packets
+     * @param size         Packet size
+     * @param target       The target
+     * @param isAnalysisIp Whether parsing IP
+     * @param interval     Interval between packets in milliseconds, 0 is the ping default
+     */
+    public Ping(int count, int size, String target, boolean isAnalysisIp, long interval) {
+        this.mInterval = interval;
         this.isAnalysisIp = isAnalysisIp;
         this.mCount = count;
         this.mSize = size;
@@ -84,10 +104,18 @@ public class Ping extends NetModel {
      */
     private String launchPing() {
         long startTime = System.currentTimeMillis();
-        mCommand = new Command("/system/bin/ping",
-                "-c", String.valueOf(mCount),
-                "-s", String.valueOf(mSize),
-                mTarget);
+        if (mInterval > 0) {
+            mCommand = new Command("/system/bin/ping",
+                    "-c", String.valueOf(mCount),
+                    "-s", String.valueOf(mSize),
+                    "-i", String.valueOf(mInterval / 1000f),
+                    mTarget);
+        } else {
+            mCommand = new Command("/system/bin/ping",
+                    "-c", String.valueOf(mCount),
+                    "-s", String.valueOf(mSize),
+                    mTarget);
+        }
         try {
             String res = Command.command(mCommand);
             mTotalTime = (System.currentTimeMillis() - startTime);
@@ -100,61 +128,36 @@ public class Ping extends NetModel {
         }
     }
 
-    private String parseIp(String ping) {
-        String ip = null;
-        try {
-            if (ping.contains(NetModel.PING)) {
-                int indexOpen = ping.indexOf(NetModel.PING_PAREN_THESE_OPEN);
-                int indexClose = ping.indexOf(NetModel.PING_PAREN_THESE_CLOSE);
-                ip = ping.substring(indexOpen + 1, indexClose);
-            }
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
-        return ip;
+    /**
+     * Record each reply time to histogram, the packets without reply are lost
+     */
+    private void fillHistogram(PingResult result) {
+        LatencyHistogram histogram = mHistogram;
+        int count = result.getReplyCount();
+        for (int i = 0; i < count; i++)
+            histogram.record(result.getRtt(i));
+        int transmitted = result.getTransmitted() > 0 ? result.getTransmitted() : mCount;
+        for (int i = count; i < transmitted; i++)
+            histogram.recordLost();
     }
 
-    private float parseLoss(String ping) {
-        float transmit = 0f, error = 0f, receive = 0f, lossRate = 0f;
-        try {
-            if (ping.contains(NetModel.PING_STATISTICS)) {
-                String lossStr = ping.substring(ping.indexOf(NetModel.PING_BREAK_LINE, ping.indexOf(NetModel.PING_STATISTICS)) + 1);
-                lossStr = lossStr.substring(0, lossStr.indexOf(NetModel.PING_BREAK_LINE));
-                String strArray[] = lossStr.split(NetModel.PING_COMMA);
-                for (String str : strArray) {
-                    if (str.contains(NetModel.PING_TRANSMIT))
-                        transmit = Float.parseFloat(str.substring(0, str.indexOf(NetModel.PING_TRANSMIT)));
-                    else if (str.contains(NetModel.PING_RECEIVED))
-                        receive = Float.parseFloat(str.substring(0, str.indexOf(NetModel.PING_RECEIVED)));
-                    else if (str.contains(NetModel.PING_ERRORS))
-                        error = Float.parseFloat(str.substring(0, str.indexOf(NetModel.PING_ERRORS)));
-                    else if (str.contains(NetModel.PING_LOSS))
-                        lossRate = Float.parseFloat(str.substring(0, str.indexOf(NetModel.PING_RATE)));
-                }
-            }
-            if (transmit != 0)
-                lossRate = error / transmit;
-            else if (lossRate == 0)
-                lossRate = error / (error + receive);
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
-        return lossRate;
+    /**
+     * The parser is created once and reused by each {@link #start()}
+     */
+    private PingParser getParser() {
+        if (mParser == null)
+            mParser = new PingParser();
+        return mParser;
     }
 
-    private float parseDelay(String ping) {
-        float delay = 0;
-        try {
-            if (ping.contains(NetModel.PING_RTT)) {
-                String lossStr = ping.substring(ping.indexOf(NetModel.PING_RTT));
-                lossStr = lossStr.substring(lossStr.indexOf(NetModel.PING_EQUAL) + 2);
-                String strArray[] = lossStr.split(NetModel.PING_SLASH);
-                delay = Float.parseFloat(strArray[1]);
-            }
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
-        return delay;
+    /**
+     * Use the parser of the caller, it's not thread safe so the ping must be
+     * started on the thread of the parser
+     *
+     * @param parser PingParser
+     */
+    void setParser(PingParser parser) {
+        mParser = parser;
     }
 
     /**
@@ -165,20 +168,24 @@ public class Ping extends NetModel {
 
     @Override
     public void start() {
+        mHistogram.reset();
         String res = launchPing();
         if (res != null && res.length() > 0) {
-            res = res.toLowerCase();
-            if (res.contains(NetModel.PING_UNREACHABLE) && !res.contains(NetModel.PING_EXCEED)) {
+            PingResult result = getParser().parse(res);
+            if (result.isAllLost() && !result.isExceeded()) {
                 // Failed
                 mLossRate = 1f;
                 mError = HOST_UNREACHABLE_ERROR;
             } else {
                 // Succeed
-                mLossRate = parseLoss(res);
-                mDelay = parseDelay(res);
+                long avg = result.getAvg();
+                mLossRate = result.getLossRate();
+                mDelay = avg < 0 ? 0 : avg / 1000000f;
+                fillHistogram(result);
                 if (isAnalysisIp)
-                    mIp = parseIp(res);
+                    mIp = result.getIp();
             }
+            mResult = result;
         } else {
             mError = DROP_DATA_ERROR;
         }
@@ -202,6 +209,26 @@ public class Ping extends NetModel {
         return mDelay;
     }
 
+    /**
+     * The time of each reply, the histogram is reset by each {@link #start()}
+     * and filled when it succeed
+     *
+     * @return LatencyHistogram
+     */
+    public LatencyHistogram getHistogram() {
+        return mHistogram;
+    }
+
+    /**
+     * The parsed output with each reply rtt and ttl, only set after {@link #start()},
+     * the result is reused and filled again by the next start
+     *
+     * @return PingResult
+     */
+    public PingResult getResult() {
+        return mResult;
+    }
+
     public float getTotalTime() {
         return mTotalTime;
     }
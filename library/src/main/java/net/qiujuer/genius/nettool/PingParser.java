@@ -0,0 +1,298 @@
+/*
+ * Copyright (C) 2014 Qiujuer <qiujuer@live.cn>
+ * WebSite http://www.qiujuer.net
+ * Created 10/19/2026
+ * Changed 10/19/2026
+ * Version 1.0.0
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.qiujuer.genius.nettool;
+
+import java.util.Arrays;
+
+/**
+ * Created by Qiujuer
+ * on 2026/10/19.
+ * <p/>
+ * Incremental parser of ping output, the output can be fed in any
+ * chunks, each line is parsed in a reused buffer when the line end
+ * and the values are set to a {@link PingResult}.
+ * Lines of Linux (iputils), Android and BusyBox ping are known:
+ * <pre>
+ * PING host (1.2.3.4) 56(84) bytes of data.
+ * 64 bytes from 1.2.3.4: icmp_seq=1 ttl=57 time=10.5 ms
+ * From 10.0.0.1 icmp_seq=1 Time to live exceeded
+ * 4 packets transmitted, 4 received, +1 errors, 0% packet loss, time 3004ms
+ * rtt min/avg/max/mdev = 9.1/10.2/11.3/0.5 ms
+ * round-trip min/avg/max = 9.1/10.2/11.3 ms
+ * </pre>
+ * The parser is not thread safe.
+ */
+public final class PingParser {
+    private static final int MAX_LINE_LENGTH = 1024;
+    private static final long NANOS_PER_MILLI = 1000000;
+
+    private final char[] mLine = new char[MAX_LINE_LENGTH];
+    private final long[] mSummary = new long[4];
+    private int mLength;
+    private PingResult mResult;
+
+    // The end position of the last parsed number
+    private int mEnd;
+
+    public PingParser() {
+        this(new PingResult());
+    }
+
+    public PingParser(PingResult result) {
+        this.mResult = result;
+    }
+
+    /**
+     * Reset this and the result for a new output
+     *
+     * @param result The result to fill, null is keep the current
+     */
+    public void reset(PingResult result) {
+        if (result != null)
+            mResult = result;
+        mResult.reset();
+        mLength = 0;
+    }
+
+    public PingResult getResult() {
+        return mResult;
+    }
+
+    /**
+     * Feed a chunk of the output
+     *
+     * @param chunk Chunk
+     * @param start Start index
+     * @param end   End index, exclusive
+     */
+    public void feed(CharSequence chunk, int start, int end) {
+        for (int i = start; i < end; i++)
+            feed(chunk.charAt(i));
+    }
+
+    public void feed(char[] chunk, int start, int end) {
+        for (int i = start; i < end; i++)
+            feed(chunk[i]);
+    }
+
+    public void feed(char c) {
+        if (c == '\n' || c == '\r') {
+            if (mLength > 0)
+                parseLine();
+            mLength = 0;
+        } else if (mLength < MAX_LINE_LENGTH) {
+            // Lower case the ascii while copy
+            mLine[mLength++] = c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c;
+        }
+    }
+
+    /**
+     * Parse the last line without line end
+     *
+     * @return The result
+     */
+    public PingResult finish() {
+        if (mLength > 0)
+            parseLine();
+        mLength = 0;
+        return mResult;
+    }
+
+    /**
+     * Parse the whole output
+     *
+     * @param output Ping output
+     * @return The result
+     */
+    public PingResult parse(CharSequence output) {
+        reset(null);
+        feed(output, 0, output.length());
+        return finish();
+    }
+
+    private void parseLine() {
+        final PingResult result = mResult;
+        int index;
+        if (startsWith("ping ")) {
+            // Head, the ip in the first paren these
+            index = indexOf("(", 0);
+            if (index >= 0)
+                result.setIp(readIp(index + 1));
+            else
+                result.setIp(readIp(5));
+        } else if ((index = indexOf("from ", 0)) >= 0) {
+            // Reply or icmp error
+            index += 5;
+            int end = tokenEnd(index);
+            // Only the first is kept, the later lines don't build a string
+            if (result.getFromIp() == null) {
+                if (end + 1 < mLength && mLine[end] == ' ' && mLine[end + 1] == '(')
+                    result.setFromIp(readIp(end + 2));
+                else
+                    result.setFromIp(readIp(index));
+            }
+
+            if ((index = indexOf("time=", end)) >= 0) {
+                long rtt = parseMillis(index + 5);
+                int ttl = -1;
+                if ((index = indexOf("ttl=", end)) >= 0)
+                    ttl = (int) parseLong(index + 4);
+                result.addReply(rtt, ttl);
+            } else if (indexOf("exceed", end) >= 0) {
+                result.setExceeded();
+            } else if (indexOf("unreachable", end) >= 0) {
+                result.setUnreachable();
+            }
+        } else if (indexOf("packets transmitted", 0) >= 0) {
+            parseCounts();
+        } else if (startsWith("rtt ") || startsWith("round-trip")) {
+            parseSummary();
+        } else if (indexOf("exceed", 0) >= 0) {
+            result.setExceeded();
+        }
+    }
+
+    /**
+     * 4 packets transmitted, 3 received, +1 errors, 25% packet loss, time 3004ms
+     */
+    private void parseCounts() {
+        int transmitted = -1, received = -1, errors = 0;
+        float loss = -1;
+        int start = 0;
+        while (start < mLength) {
+            int end = indexOf(",", start);
+            if (end < 0)
+                end = mLength;
+            long value = parseLong(start);
+            if (mEnd > start) {
+                if (indexOf("transmitted", start, end) >= 0)
+                    transmitted = (int) value;
+                else if (indexOf("received", start, end) >= 0)
+                    received = (int) value;
+                else if (indexOf("error", start, end) >= 0)
+                    errors = (int) value;
+                else if (indexOf("loss", start, end) >= 0)
+                    loss = parseMillis(start) / (float) NANOS_PER_MILLI;
+            }
+            start = end + 1;
+        }
+        mResult.setCounts(transmitted, received, errors, loss);
+    }
+
+    /**
+     * rtt min/avg/max/mdev = 9.1/10.2/11.3/0.5 ms
+     */
+    private void parseSummary() {
+        int index = indexOf("=", 0);
+        if (index < 0)
+            return;
+        final long[] values = mSummary;
+        Arrays.fill(values, -1);
+        index++;
+        for (int i = 0; i < values.length && index < mLength; i++) {
+            values[i] = parseMillis(index);
+            if (mEnd >= mLength || mLine[mEnd] != '/')
+                break;
+            index = mEnd + 1;
+        }
+        mResult.setSummary(values[0], values[1], values[2], values[3]);
+    }
+
+    private boolean startsWith(String token) {
+        return indexOf(token, 0, Math.min(mLength, token.length())) == 0;
+    }
+
+    private int indexOf(String token, int from) {
+        return indexOf(token, from, mLength);
+    }
+
+    private int indexOf(String token, int from, int to) {
+        final int len = token.length();
+        final char first = token.charAt(0);
+        for (int i = from, max = to - len; i <= max; i++) {
+            if (mLine[i] != first)
+                continue;
+            int j = 1;
+            while (j < len && mLine[i + j] == token.charAt(j))
+                j++;
+            if (j == len)
+                return i;
+        }
+        return -1;
+    }
+
+    private int tokenEnd(int start) {
+        int i = start;
+        while (i < mLength && mLine[i] != ' ' && mLine[i] != ':' && mLine[i] != ')')
+            i++;
+        return i;
+    }
+
+    private String readIp(int start) {
+        while (start < mLength && mLine[start] == ' ')
+            start++;
+        int end = tokenEnd(start);
+        return end > start ? new String(mLine, start, end - start) : null;
+    }
+
+    /**
+     * Parse a int after spaces and '+', the end is set to {@link #mEnd}
+     */
+    private long parseLong(int start) {
+        int i = start;
+        while (i < mLength && (mLine[i] == ' ' || mLine[i] == '+'))
+            i++;
+        long value = 0;
+        int digitStart = i;
+        for (; i < mLength; i++) {
+            char c = mLine[i];
+            if (c < '0' || c > '9')
+                break;
+            value = value * 10 + (c - '0');
+        }
+        mEnd = i > digitStart ? i : start;
+        return value;
+    }
+
+    /**
+     * Parse a decimal milliseconds to nanoseconds, the end is set to {@link #mEnd}
+     */
+    private long parseMillis(int start) {
+        long millis = parseLong(start);
+        if (mEnd == start)
+            return -1;
+        int i = mEnd;
+        long fraction = 0;
+        if (i < mLength && mLine[i] == '.') {
+            long scale = NANOS_PER_MILLI;
+            for (i++; i < mLength; i++) {
+                char c = mLine[i];
+                if (c < '0' || c > '9')
+                    break;
+                if (scale > 1) {
+                    scale /= 10;
+                    fraction += (c - '0') * scale;
+                }
+            }
+            mEnd = i;
+        }
+        return millis * NANOS_PER_MILLI + fraction;
+    }
+}
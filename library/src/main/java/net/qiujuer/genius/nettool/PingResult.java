@@ -0,0 +1,216 @@
+/*
+ * Copyright (C) 2014 Qiujuer <qiujuer@live.cn>
+ * WebSite http://www.qiujuer.net
+ * Created 10/19/2026
+ * Changed 10/19/2026
+ * Version 1.0.0
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.qiujuer.genius.nettool;
+
+/**
+ * Created by Qiujuer
+ * on 2026/10/19.
+ * <p/>
+ * The result filled by {@link PingParser}, can be reused by {@link #reset()}.
+ * All times are in nanoseconds, -1 if not in the output.
+ */
+public final class PingResult {
+    private String mIp;
+    private String mFromIp;
+    private boolean isExceeded;
+    private boolean isUnreachable;
+
+    private int mTransmitted = -1;
+    private int mReceived = -1;
+    private int mErrors;
+    private float mLossPercent = -1;
+
+    private long mMin = -1;
+    private long mAvg = -1;
+    private long mMax = -1;
+    private long mMdev = -1;
+
+    private long[] mRtts = new long[8];
+    private int[] mTtls = new int[8];
+    private int mReplyCount;
+
+    public void reset() {
+        mIp = mFromIp = null;
+        isExceeded = isUnreachable = false;
+        mTransmitted = mReceived = -1;
+        mErrors = 0;
+        mLossPercent = -1;
+        mMin = mAvg = mMax = mMdev = -1;
+        mReplyCount = 0;
+    }
+
+    void setIp(String ip) {
+        if (mIp == null)
+            mIp = ip;
+    }
+
+    void setFromIp(String ip) {
+        if (mFromIp == null)
+            mFromIp = ip;
+    }
+
+    void setExceeded() {
+        isExceeded = true;
+    }
+
+    void setUnreachable() {
+        isUnreachable = true;
+    }
+
+    void setCounts(int transmitted, int received, int errors, float lossPercent) {
+        mTransmitted = transmitted;
+        mReceived = received;
+        mErrors = errors;
+        mLossPercent = lossPercent;
+    }
+
+    void setSummary(long min, long avg, long max, long mdev) {
+        mMin = min;
+        mAvg = avg;
+        mMax = max;
+        mMdev = mdev;
+    }
+
+    void addReply(long rtt, int ttl) {
+        if (mReplyCount == mRtts.length) {
+            long[] rtts = new long[mReplyCount << 1];
+            int[] ttls = new int[mReplyCount << 1];
+            System.arraycopy(mRtts, 0, rtts, 0, mReplyCount);
+            System.arraycopy(mTtls, 0, ttls, 0, mReplyCount);
+            mRtts = rtts;
+            mTtls = ttls;
+        }
+        mRtts[mReplyCount] = rtt;
+        mTtls[mReplyCount] = ttl;
+        mReplyCount++;
+    }
+
+    /**
+     * The ip in the first line, as "PING host (ip)"
+     *
+     * @return IP
+     */
+    public String getIp() {
+        return mIp;
+    }
+
+    /**
+     * The first ip of a "From ip" line, as the router when ttl exceeded
+     *
+     * @return IP
+     */
+    public String getFromIp() {
+        return mFromIp;
+    }
+
+    public boolean isExceeded() {
+        return isExceeded;
+    }
+
+    public boolean isUnreachable() {
+        return isUnreachable;
+    }
+
+    public int getTransmitted() {
+        return mTransmitted;
+    }
+
+    public int getReceived() {
+        return mReceived;
+    }
+
+    public int getErrors() {
+        return mErrors;
+    }
+
+    /**
+     * Transmitted but not received, or the "packet loss" value
+     *
+     * @return 0 to 1
+     */
+    public float getLossRate() {
+        if (mTransmitted > 0 && mReceived >= 0)
+            return (float) (mTransmitted - mReceived) / mTransmitted;
+        if (mLossPercent >= 0)
+            return mLossPercent / 100f;
+        return 1f;
+    }
+
+    /**
+     * All packets transmitted are lost
+     *
+     * @return True if lost
+     */
+    public boolean isAllLost() {
+        return mTransmitted > 0 ? mReceived == 0 : mLossPercent >= 100;
+    }
+
+    public long getMin() {
+        return mMin;
+    }
+
+    /**
+     * The rtt avg of the summary line, or the avg of replies
+     *
+     * @return Nanoseconds
+     */
+    public long getAvg() {
+        if (mAvg >= 0 || mReplyCount == 0)
+            return mAvg;
+        long sum = 0;
+        for (int i = 0; i < mReplyCount; i++)
+            sum += mRtts[i];
+        return sum / mReplyCount;
+    }
+
+    public long getMax() {
+        return mMax;
+    }
+
+    public long getMdev() {
+        return mMdev;
+    }
+
+    public int getReplyCount() {
+        return mReplyCount;
+    }
+
+    public long getRtt(int index) {
+        if (index < 0 || index >= mReplyCount)
+            throw new IndexOutOfBoundsException("Index: " + index + " Count: " + mReplyCount);
+        return mRtts[index];
+    }
+
+    public int getTtl(int index) {
+        if (index < 0 || index >= mReplyCount)
+            throw new IndexOutOfBoundsException("Index: " + index + " Count: " + mReplyCount);
+        return mTtls[index];
+    }
+
+    @Override
+    public String toString() {
+        return "IP:" + mIp +
+                " From:" + mFromIp +
+                " Transmitted:" + mTransmitted +
+                " Received:" + mReceived +
+                " Replies:" + mReplyCount +
+                " Avg:" + getAvg();
+    }
+}
@@ -2,7 +2,7 @@
  * Copyright (C) 2014 Qiujuer <qiujuer@live.cn>
  * WebSite http://www.qiujuer.net
  * Created 09/21/2014
- * Changed 01/13/2015
+ * Changed 10/19/2026
  * Version 1.0.0
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
@@ -19,33 +19,61 @@
  */
 package net.qiujuer.genius.nettool;
 
+import net.qiujuer.genius.util.Tools;
+
 import java.io.IOException;
 import java.net.InetSocketAddress;
 import java.net.Socket;
 import java.net.SocketException;
 import java.net.UnknownHostException;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Created by QiuJu
  * on 2014/9/21.
  */
 public class Telnet extends NetModel {
-    private static final int TIME_OUT = 3000;
+    static final int TIME_OUT = 3000;
     private String mHost;
     private int mPort;
     private long mDelay;
+    private long mDelayNanos;
     private boolean isConnected;
 
+    private transient int mCount;
+    private transient long mInterval;
+    private transient volatile boolean isCancel;
+    private final LatencyHistogram mHistogram = new LatencyHistogram();
+
     public Telnet(String host, int port) {
+        this(host, port, 1, 0);
+    }
+
+    /**
+     * Sampling mode, connect the count times and record each delay
+     * to the {@link #getHistogram()}, the {@link #getDelay()} is the average
+     *
+     * @param host     Host
+     * @param port     Port
+     * @param count    Connect count
+     * @param interval Interval between connects in milliseconds
+     */
+    public Telnet(String host, int port, int count, long interval) {
         this.mHost = host;
         this.mPort = port;
+        this.mCount = Math.max(1, count);
+        this.mInterval = interval;
     }
 
-    @Override
-    public void start() {
+    /**
+     * Connect once
+     *
+     * @return The connect delay in nanoseconds, -1 if failed
+     */
+    private long connect() {
         Socket socket = null;
         try {
-            Long startTime = System.currentTimeMillis();
+            long startTime = System.nanoTime();
             socket = new Socket();
             try {
                 socket.setSoTimeout(TIME_OUT);
@@ -53,8 +81,8 @@ public class Telnet extends NetModel {
                 e.printStackTrace();
             }
             socket.connect(new InetSocketAddress(mHost, mPort), TIME_OUT);
-            if (isConnected = socket.isConnected())
-                mDelay = System.currentTimeMillis() - startTime;
+            if (socket.isConnected())
+                return System.nanoTime() - startTime;
             else
                 mError = TCP_LINK_ERROR;
         } catch (UnknownHostException e) {
@@ -69,11 +97,61 @@ public class Telnet extends NetModel {
                     e.printStackTrace();
                 }
         }
+        return -1;
+    }
+
+    @Override
+    public void start() {
+        isCancel = false;
+        mError = SUCCEED;
+        LatencyHistogram histogram = mHistogram;
+        histogram.reset();
+        for (int i = 0; i < mCount && !isCancel; i++) {
+            if (i > 0 && mInterval > 0)
+                Tools.sleepIgnoreInterrupt(mInterval);
+            long delay = connect();
+            if (delay >= 0)
+                histogram.record(delay);
+            else if (mError == UNKNOWN_HOST_ERROR)
+                break;
+            else
+                histogram.recordLost();
+        }
+
+        if (isConnected = histogram.getCount() > 0) {
+            mError = SUCCEED;
+            mDelayNanos = (long) histogram.getStatistics().getMean();
+        } else {
+            mDelayNanos = 0;
+        }
+        mDelay = TimeUnit.NANOSECONDS.toMillis(mDelayNanos);
+    }
+
+    /**
+     * Set the result when the connect is run by {@link TelnetScanner}
+     *
+     * @param error     Error code
+     * @param connected Is connected
+     * @param delay     Connect delay in nanoseconds
+     */
+    void setResult(int error, boolean connected, long delay) {
+        this.mError = error;
+        this.isConnected = connected;
+        this.mDelayNanos = delay;
+        this.mDelay = TimeUnit.NANOSECONDS.toMillis(delay);
     }
 
     @Override
     public void cancel() {
+        isCancel = true;
+    }
 
+    public String getHost() {
+        return mHost;
+    }
+
+    public int getPort() {
+        return mPort;
     }
 
     public boolean isConnected() {
@@ -84,6 +162,24 @@ public class Telnet extends NetModel {
         return mDelay;
     }
 
+    /**
+     * The connect delay without the round to milliseconds
+     *
+     * @return Delay in nanoseconds
+     */
+    public long getDelayNanos() {
+        return mDelayNanos;
+    }
+
+    /**
+     * The delay of each connect, the histogram is reset and filled again by each {@link #start()}
+     *
+     * @return LatencyHistogram
+     */
+    public LatencyHistogram getHistogram() {
+        return mHistogram;
+    }
+
     @Override
     public String toString() {
         return "Port:" + mPort +
@@ -0,0 +1,348 @@
+/*
+ * Copyright (C) 2014 Qiujuer <qiujuer@live.cn>
+ * WebSite http://www.qiujuer.net
+ * Created 10/19/2026
+ * Changed 10/19/2026
+ * Version 1.0.0
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.qiujuer.genius.nettool;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Created by Qiujuer
+ * on 2026/10/19.
+ * <p/>
+ * Multi-target {@link Telnet}, all connects are non-blocking and
+ * registered on a single Selector, so many ports can be checked
+ * on the calling thread.
+ * The hosts are resolved before the connects, each host on a thread,
+ * and a lookup not done in the deadline fails its targets.
+ * Each target result is a {@link Telnet} and is reported when done.
+ */
+public class TelnetScanner extends NetModel {
+    private final List<Telnet> mTelnets = new ArrayList<>();
+    private final int mMaxConcurrent;
+    private final long mTimeOut;
+    private final long mDeadline;
+    private final TelnetScannerListener mListener;
+
+    private transient volatile boolean isCancel;
+    private transient volatile Selector mSelector;
+    private transient volatile List<Future<InetAddress>> mLookups;
+
+    /**
+     * @param maxConcurrent Max count of connects in flight
+     * @param timeOut       Each connect time out in milliseconds
+     * @param deadline      The whole scan time out in milliseconds
+     * @param listener      Called on the scan thread when a target is done, can be null
+     */
+    public TelnetScanner(int maxConcurrent, long timeOut, long deadline, TelnetScannerListener listener) {
+        this.mMaxConcurrent = Math.max(1, maxConcurrent);
+        this.mTimeOut = timeOut;
+        this.mDeadline = deadline;
+        this.mListener = listener;
+    }
+
+    public TelnetScanner(TelnetScannerListener listener) {
+        this(64, Telnet.TIME_OUT, Telnet.TIME_OUT * 10, listener);
+    }
+
+    /**
+     * Add a target, must be called before {@link #start()}
+     *
+     * @param host Host
+     * @param port Port
+     * @return This
+     */
+    public TelnetScanner add(String host, int port) {
+        mTelnets.add(new Telnet(host, port));
+        return this;
+    }
+
+    public TelnetScanner add(String host, int... ports) {
+        for (int port : ports)
+            add(host, port);
+        return this;
+    }
+
+    @Override
+    public void start() {
+        isCancel = false;
+        mError = SUCCEED;
+        final int size = mTelnets.size();
+        if (size == 0)
+            return;
+
+        final long timeOut = TimeUnit.MILLISECONDS.toNanos(mTimeOut);
+        final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(mDeadline);
+        final InetAddress[] addresses = resolve(deadline);
+
+        Selector selector;
+        try {
+            selector = Selector.open();
+        } catch (IOException e) {
+            mError = NETWORK_IO_ERROR;
+            e.printStackTrace();
+            return;
+        }
+        mSelector = selector;
+
+        final long[] startTimes = new long[size];
+        int next = 0;
+        int active = 0;
+
+        try {
+            while (!isCancel) {
+                // Open connects up to the max concurrent
+                while (active < mMaxConcurrent && next < size && !isCancel) {
+                    if (connect(selector, next, addresses[next], startTimes))
+                        active++;
+                    next++;
+                }
+                if (active == 0 && next >= size)
+                    break;
+
+                long now = System.nanoTime();
+                if (now >= deadline)
+                    break;
+
+                // Wait the first connect time out or the deadline
+                long wait = deadline - now;
+                for (SelectionKey key : selector.keys()) {
+                    if (key.isValid())
+                        wait = Math.min(wait, startTimes[(Integer) key.attachment()] + timeOut - now);
+                }
+                selector.select(Math.max(1, TimeUnit.NANOSECONDS.toMillis(wait)));
+
+                // Finish connects
+                Iterator<SelectionKey> iterator = selector.selectedKeys().iterator();
+                while (iterator.hasNext()) {
+                    SelectionKey key = iterator.next();
+                    iterator.remove();
+                    int index = (Integer) key.attachment();
+                    try {
+                        if (!((SocketChannel) key.channel()).finishConnect())
+                            continue;
+                        finish(key, index, SUCCEED, System.nanoTime() - startTimes[index]);
+                    } catch (IOException e) {
+                        // Refused or unreachable
+                        finish(key, index, TCP_LINK_ERROR, 0);
+                    }
+                    active--;
+                }
+
+                // Time out connects
+                now = System.nanoTime();
+                for (SelectionKey key : selector.keys()) {
+                    int index = (Integer) key.attachment();
+                    if (key.isValid() && now - startTimes[index] >= timeOut) {
+                        finish(key, index, TCP_LINK_ERROR, 0);
+                        active--;
+                    }
+                }
+            }
+
+            // Deadline or cancel, the rest are failed
+            for (SelectionKey key : selector.keys()) {
+                if (key.isValid())
+                    finish(key, (Integer) key.attachment(), TCP_LINK_ERROR, 0);
+            }
+            for (int i = next; i < size; i++) {
+                if (addresses[i] != null)
+                    done(mTelnets.get(i), TCP_LINK_ERROR, 0);
+            }
+        } catch (IOException e) {
+            mError = NETWORK_IO_ERROR;
+            e.printStackTrace();
+        } finally {
+            mSelector = null;
+            for (SelectionKey key : selector.keys())
+                close(key);
+            try {
+                selector.close();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * Resolve the hosts of the targets, the lookups of different hosts run at once
+     * on daemon threads, so the scan thread waits no longer than the deadline
+     *
+     * @param deadline The deadline of {@link System#nanoTime()}
+     * @return The address of each target, null if not resolved
+     */
+    private InetAddress[] resolve(long deadline) {
+        final int size = mTelnets.size();
+        InetAddress[] addresses = new InetAddress[size];
+        Map<String, Future<InetAddress>> lookups = new HashMap<>();
+        ExecutorService resolver = Executors.newCachedThreadPool(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "TelnetScanner:resolve");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        try {
+            for (Telnet telnet : mTelnets) {
+                final String host = telnet.getHost();
+                if (!lookups.containsKey(host)) {
+                    lookups.put(host, resolver.submit(new Callable<InetAddress>() {
+                        @Override
+                        public InetAddress call() throws Exception {
+                            return InetAddress.getByName(host);
+                        }
+                    }));
+                }
+            }
+            List<Future<InetAddress>> futures = new ArrayList<>(lookups.values());
+            mLookups = futures;
+            if (isCancel)
+                cancel(futures);
+
+            for (int i = 0; i < size; i++) {
+                Telnet telnet = mTelnets.get(i);
+                try {
+                    long wait = deadline - System.nanoTime();
+                    addresses[i] = lookups.get(telnet.getHost()).get(Math.max(0, wait), TimeUnit.NANOSECONDS);
+                } catch (ExecutionException e) {
+                    done(telnet, UNKNOWN_HOST_ERROR, 0);
+                } catch (TimeoutException e) {
+                    done(telnet, TCP_LINK_ERROR, 0);
+                } catch (Exception e) {
+                    // Cancelled or interrupted
+                    done(telnet, TCP_LINK_ERROR, 0);
+                }
+            }
+        } finally {
+            mLookups = null;
+            // A lookup can't be stopped, the thread ends when it's done
+            resolver.shutdownNow();
+        }
+        return addresses;
+    }
+
+    /**
+     * Start a non-blocking connect
+     *
+     * @param inetAddress The resolved address, null if the target is done
+     * @return True if the connect is pending on the selector
+     */
+    private boolean connect(Selector selector, int index, InetAddress inetAddress, long[] startTimes) {
+        if (inetAddress == null)
+            return false;
+        Telnet telnet = mTelnets.get(index);
+        InetSocketAddress address = new InetSocketAddress(inetAddress, telnet.getPort());
+
+        SocketChannel channel = null;
+        try {
+            channel = SocketChannel.open();
+            channel.configureBlocking(false);
+            startTimes[index] = System.nanoTime();
+            if (channel.connect(address)) {
+                done(telnet, SUCCEED, System.nanoTime() - startTimes[index]);
+                channel.close();
+                return false;
+            }
+            channel.register(selector, SelectionKey.OP_CONNECT, index);
+            return true;
+        } catch (IOException e) {
+            done(telnet, TCP_LINK_ERROR, 0);
+            if (channel != null) {
+                try {
+                    channel.close();
+                } catch (IOException e1) {
+                    e1.printStackTrace();
+                }
+            }
+            return false;
+        }
+    }
+
+    private void finish(SelectionKey key, int index, int error, long delay) {
+        close(key);
+        done(mTelnets.get(index), error, delay);
+    }
+
+    private void done(Telnet telnet, int error, long delay) {
+        telnet.setResult(error, error == SUCCEED, delay);
+        if (mListener != null)
+            mListener.onResult(telnet);
+    }
+
+    private static void close(SelectionKey key) {
+        key.cancel();
+        try {
+            key.channel().close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    @Override
+    public void cancel() {
+        isCancel = true;
+        List<Future<InetAddress>> lookups = mLookups;
+        if (lookups != null)
+            cancel(lookups);
+        Selector selector = mSelector;
+        if (selector != null)
+            selector.wakeup();
+    }
+
+    private static void cancel(List<Future<InetAddress>> lookups) {
+        for (Future<InetAddress> lookup : lookups)
+            lookup.cancel(true);
+    }
+
+    /**
+     * All targets, the result is set after {@link #start()}
+     *
+     * @return Telnets
+     */
+    public List<Telnet> getTelnets() {
+        return mTelnets;
+    }
+
+    @Override
+    public String toString() {
+        return "Telnets:" + mTelnets.toString();
+    }
+
+    public static interface TelnetScannerListener {
+        void onResult(Telnet telnet);
+    }
+}
@@ -2,7 +2,7 @@
  * Copyright (C) 2014 Qiujuer <qiujuer@live.cn>
  * WebSite http://www.qiujuer.net
  * Created 09/21/2014
- * Changed 01/14/2015
+ * Changed 10/19/2026
  * Version 2.0.0
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
@@ -34,6 +34,8 @@ public class TraceRoute extends NetModel implements TraceRouteThread.TraceThread
     private final static int LOOP_COUNT = 30 / ONCE_COUNT;
 
     private final Object mLock = new Object();
+    // Parsers free to the threads, each thread parses with one at a time
+    private final List<PingParser> mParsers = new ArrayList<>(ONCE_COUNT);
     private String mTarget;
     private String mIP;
     private List<String> mRoutes = null;
@@ -80,6 +82,9 @@ public class TraceRoute extends NetModel implements TraceRouteThread.TraceThread
                 }
             }
         }
+        synchronized (mLock) {
+            mParsers.add(trace.getParser());
+        }
         if (!isDone) {
             if (isError)
                 this.errorCount++;
@@ -116,7 +121,7 @@ public class TraceRoute extends NetModel implements TraceRouteThread.TraceThread
                     // Get ttl
                     final int ttl = i * ONCE_COUNT + j;
                     // Thread run get tp ttl ping information
-                    threads.add(new TraceRouteThread(mIP, ttl, this));
+                    threads.add(new TraceRouteThread(mIP, ttl, obtainParser(), this));
                 }
             }
             // Await 40 seconds long time
@@ -172,6 +177,14 @@ public class TraceRoute extends NetModel implements TraceRouteThread.TraceThread
         threads = null;
     }
 
+    /**
+     * Take a free parser or create one, must be called with the lock
+     */
+    private PingParser obtainParser() {
+        int size = mParsers.size();
+        return size > 0 ? mParsers.remove(size - 1) : new PingParser();
+    }
+
     /**
      * Override Cancel
      */
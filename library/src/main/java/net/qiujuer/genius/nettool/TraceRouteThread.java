@@ -2,7 +2,7 @@
  * Copyright (C) 2014 Qiujuer <qiujuer@live.cn>
  * WebSite http://www.qiujuer.net
  * Created 01/14/2015
- * Changed 01/14/2015
+ * Changed 10/19/2026
  * Version 2.0.0
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
@@ -31,14 +31,16 @@ class TraceRouteThread extends Thread {
     private String mIP;
     private Ping mPing;
     private Command mCommand;
+    private final PingParser mParser;
     private TraceThreadInterface mInterface;
 
     private boolean isArrived;
     private boolean isError;
 
 
-    public TraceRouteThread(String ip, int ttl, TraceThreadInterface traceThreadInterface) {
+    public TraceRouteThread(String ip, int ttl, PingParser parser, TraceThreadInterface traceThreadInterface) {
         this.mIP = ip;
+        this.mParser = parser;
         this.mTTL = ttl;
         this.mInterface = traceThreadInterface;
 
@@ -57,12 +59,13 @@ class TraceRouteThread extends Thread {
     private TraceRouteContainer trace(String ip, int ttl) {
         String res = launchRoute(ip, ttl);
         if (!this.isInterrupted() && res != null && res.length() > 0) {
-            res = res.toLowerCase();
-            if (res.contains(NetModel.PING_EXCEED) || !res.contains(NetModel.PING_UNREACHABLE)) {
-                // Succeed
-                String pIp = parseIpFromRoute(res);
+            PingResult result = mParser.parse(res);
+            if (result.isExceeded() || !result.isAllLost()) {
+                // Succeed, get ip when ttl exceeded or from the target
+                String pIp = result.getFromIp() != null ? result.getFromIp() : result.getIp();
                 if (!this.isInterrupted() && pIp != null && pIp.length() > 0) {
                     mPing = new Ping(4, 32, pIp, false);
+                    mPing.setParser(mParser);
                     mPing.start();
                     TraceRouteContainer routeContainer = new TraceRouteContainer(ttl, pIp, mPing.getLossRate(), mPing.getDelay());
                     mPing = null;
@@ -100,43 +103,6 @@ class TraceRouteThread extends Thread {
         return str;
     }
 
-    /**
-     * Parsing IP address
-     *
-     * @param ping Ping IP and TTL Result
-     * @return IP Address
-     */
-    private String parseIpFromRoute(String ping) {
-        String ip = null;
-        try {
-            if (ping.contains(NetModel.PING_FROM)) {
-                // Get ip when ttl exceeded
-                int index = ping.indexOf(NetModel.PING_FROM);
-                ip = ping.substring(index + 5);
-                if (ip.contains(NetModel.PING_PAREN_THESE_OPEN)) {
-                    int indexOpen = ip.indexOf(NetModel.PING_PAREN_THESE_OPEN);
-                    int indexClose = ip.indexOf(NetModel.PING_PAREN_THESE_CLOSE);
-                    ip = ip.substring(indexOpen + 1, indexClose);
-                } else {
-                    // Get ip when after from
-                    ip = ip.substring(0, ip.indexOf("\n"));
-                    if (ip.contains(":"))
-                        index = ip.indexOf(":");
-                    else
-                        index = ip.indexOf(" ");
-                    ip = ip.substring(0, index);
-                }
-            } else if (ping.contains(NetModel.PING)) {
-                int indexOpen = ping.indexOf(NetModel.PING_PAREN_THESE_OPEN);
-                int indexClose = ping.indexOf(NetModel.PING_PAREN_THESE_CLOSE);
-                ip = ping.substring(indexOpen + 1, indexClose);
-            }
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
-        return ip;
-    }
-
     @Override
     public void run() {
         super.run();
@@ -145,6 +111,15 @@ class TraceRouteThread extends Thread {
         mInterface = null;
     }
 
+    /**
+     * The parser given by the trace, it's free after complete
+     *
+     * @return PingParser
+     */
+    PingParser getParser() {
+        return mParser;
+    }
+
     /**
      * Cancel
      */
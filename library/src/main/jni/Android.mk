@@ -2,8 +2,9 @@ LOCAL_PATH		:= $(call my-dir)
 
 include $(CLEAR_VARS)
 
-LOCAL_MODULE    := genius
-LOCAL_SRC_FILES := BlurNative.c JniLoad.c
+LOCAL_MODULE    := BlurNative
+LOCAL_SRC_FILES := StackBlur.c BlurNative.c JniLoad.c
+LOCAL_CFLAGS    := -O3 -std=gnu99
 LOCAL_LDLIBS    := -lm -llog -ljnigraphics
 
 include $(BUILD_SHARED_LIBRARY)
\ No newline at end of file
@@ -15,6 +15,14 @@ extern "C" {
 	JNIEXPORT void JNICALL Java_net_qiujuer_genius_app_BlurNative_blurPixels
 		(JNIEnv *, jclass, jintArray, jint, jint, jint);
 
+	/*
+	 * Class:     net_qiujuer_genius_app_BlurNative
+	 * Method:    blurBuffer
+	 * Signature: (Ljava/nio/IntBuffer;IIII)Z
+	 */
+	JNIEXPORT jboolean JNICALL Java_net_qiujuer_genius_app_BlurNative_blurBuffer
+		(JNIEnv *, jclass, jobject, jint, jint, jint, jint);
+
 	/*
 	 * Class:     net_qiujuer_genius_app_BlurNative
 	 * Method:    blurBitmap
@@ -0,0 +1,386 @@
+/*
+ * Copyright (C) 2014 Qiujuer <qiujuer@live.cn>
+ * WebSite http://www.qiujuer.net
+ * Created 10/19/2026
+ * Changed 10/19/2026
+ * Version 1.0.0
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/*************************************************
+Copyright:  Copyright QIUJUER 2014.
+Author:		QiuJu
+Date:		2026-10-19
+Description:Stack blur on planar channels, the loops of the
+			column pass run on contiguous rows so the compiler
+			can vectorize them, the passes run on bands of threads
+**************************************************/
+#include <StackBlur.h>
+#include <stdlib.h>
+#include <stdint.h>
+#include <unistd.h>
+#include <pthread.h>
+
+#define MAX(a,b) ((a)>(b)?(a):(b))
+#define MIN(a,b) ((a)<(b)?(a):(b))
+
+// Rows or columns of a band at least
+#define MIN_BAND_SIZE 32
+#define MAX_THREADS 16
+// The sum / divsum by multiply is exact while 256 * divsum * divsum < 2^40
+#define MAX_EXACT_RADIUS 254
+#define DIV_SHIFT 40
+
+#define MUL_DIVIDE(sum) ((int)(((uint64_t)(sum) * mul) >> DIV_SHIFT))
+#define DIVIDE(sum) (exact ? MUL_DIVIDE(sum) : (sum) / divsum)
+
+typedef struct {
+	int *pix;
+	int *r;
+	int *g;
+	int *b;
+	// Ints of a pixel row, not less than w
+	int stride;
+	int w;
+	int h;
+	int radius;
+	// Rows of the row pass, columns of the column pass
+	int start;
+	int end;
+	int error;
+} Band;
+
+/*************************************************
+Function:		blurRows
+Description:    Row pass of the band, from the pixels to the channels
+Input:          Band
+Output:         Channels of the band rows
+*************************************************/
+static void* blurRows(void *arg) {
+	Band *band = (Band *)arg;
+	const int *pix = band->pix;
+	const int w = band->w;
+	const int wm = w - 1;
+	const int radius = band->radius;
+	const int r1 = radius + 1;
+	const int div = radius + radius + 1;
+	const int divsum = r1 * r1;
+	const int exact = radius <= MAX_EXACT_RADIUS;
+	const uint64_t mul = (((uint64_t)1 << DIV_SHIFT) / divsum) + 1;
+	int x, y, i, p, slot, sp, rbs;
+	int rsum, gsum, bsum, rinsum, ginsum, binsum, routsum, goutsum, boutsum;
+
+	int *sr = (int *)malloc(div * 3 * sizeof(int));
+	int *sg = sr + div;
+	int *sb = sg + div;
+	if (sr == NULL) {
+		band->error = -1;
+		return NULL;
+	}
+
+	for (y = band->start; y < band->end; y++) {
+		const int *row = pix + y * band->stride;
+		int *ro = band->r + y * w;
+		int *go = band->g + y * w;
+		int *bo = band->b + y * w;
+		rinsum = ginsum = binsum = routsum = goutsum = boutsum = rsum = gsum = bsum = 0;
+
+		for (i = -radius; i <= radius; i++) {
+			p = row[MIN(wm, MAX(i, 0))];
+			slot = i + radius;
+			sr[slot] = (p >> 16) & 0xff;
+			sg[slot] = (p >> 8) & 0xff;
+			sb[slot] = p & 0xff;
+
+			rbs = r1 - (i < 0 ? -i : i);
+			rsum += sr[slot] * rbs;
+			gsum += sg[slot] * rbs;
+			bsum += sb[slot] * rbs;
+			if (i > 0) {
+				rinsum += sr[slot];
+				ginsum += sg[slot];
+				binsum += sb[slot];
+			} else {
+				routsum += sr[slot];
+				goutsum += sg[slot];
+				boutsum += sb[slot];
+			}
+		}
+		sp = radius;
+
+		for (x = 0; x < w; x++) {
+			ro[x] = DIVIDE(rsum);
+			go[x] = DIVIDE(gsum);
+			bo[x] = DIVIDE(bsum);
+
+			rsum -= routsum;
+			gsum -= goutsum;
+			bsum -= boutsum;
+
+			// The oldest of the stack: (sp - radius + div) % div
+			slot = sp + r1;
+			if (slot >= div)
+				slot -= div;
+
+			routsum -= sr[slot];
+			goutsum -= sg[slot];
+			boutsum -= sb[slot];
+
+			p = row[MIN(x + r1, wm)];
+			sr[slot] = (p >> 16) & 0xff;
+			sg[slot] = (p >> 8) & 0xff;
+			sb[slot] = p & 0xff;
+
+			rinsum += sr[slot];
+			ginsum += sg[slot];
+			binsum += sb[slot];
+
+			rsum += rinsum;
+			gsum += ginsum;
+			bsum += binsum;
+
+			if (++sp == div)
+				sp = 0;
+
+			routsum += sr[sp];
+			goutsum += sg[sp];
+			boutsum += sb[sp];
+
+			rinsum -= sr[sp];
+			ginsum -= sg[sp];
+			binsum -= sb[sp];
+		}
+	}
+
+	free(sr);
+	return NULL;
+}
+
+/*************************************************
+Function:		stepColumns
+Description:    Move the stacks of the columns down a row,
+				the oldest values are replaced by the next row
+Input:          Count of columns, the sums of the columns, the oldest
+				and the next stack row, the next row of the channel
+*************************************************/
+static void stepColumns(int count, int * restrict sum, int * restrict in, int * restrict out,
+	int * restrict oldest, const int * restrict next, const int * restrict src) {
+	int x;
+	for (x = 0; x < count; x++) {
+		int s = sum[x] - out[x];
+		int o = out[x] - oldest[x];
+		int i = in[x] + src[x];
+		oldest[x] = src[x];
+		s += i;
+		o += next[x];
+		i -= next[x];
+		sum[x] = s;
+		out[x] = o;
+		in[x] = i;
+	}
+}
+
+/*************************************************
+Function:		blurColumns
+Description:    Column pass of the band, from the channels to the pixels.
+				The sums and the stack of all columns are kept in arrays,
+				each row is one contiguous loop on the columns
+Input:          Band
+Output:         Pixels of the band columns, the alpha is kept
+*************************************************/
+static void* blurColumns(void *arg) {
+	Band *band = (Band *)arg;
+	int * restrict pix = band->pix;
+	const int * restrict r = band->r;
+	const int * restrict g = band->g;
+	const int * restrict b = band->b;
+	const int w = band->w;
+	const int hm = band->h - 1;
+	const int h = band->h;
+	const int x0 = band->start;
+	const int bw = band->end - band->start;
+	const int radius = band->radius;
+	const int r1 = radius + 1;
+	const int div = radius + radius + 1;
+	const int divsum = r1 * r1;
+	const int exact = radius <= MAX_EXACT_RADIUS;
+	const uint64_t mul = (((uint64_t)1 << DIV_SHIFT) / divsum) + 1;
+	int x, y, i, slot, sp, rbs;
+
+	// 9 sums and 3 stacks of each column
+	int *buffer = (int *)calloc(bw * (9 + div * 3), sizeof(int));
+	if (buffer == NULL) {
+		band->error = -1;
+		return NULL;
+	}
+	int * restrict rsum = buffer;
+	int * restrict gsum = rsum + bw;
+	int * restrict bsum = gsum + bw;
+	int * restrict rinsum = bsum + bw;
+	int * restrict ginsum = rinsum + bw;
+	int * restrict binsum = ginsum + bw;
+	int * restrict routsum = binsum + bw;
+	int * restrict goutsum = routsum + bw;
+	int * restrict boutsum = goutsum + bw;
+	int * restrict sr = boutsum + bw;
+	int * restrict sg = sr + div * bw;
+	int * restrict sb = sg + div * bw;
+
+	for (i = -radius; i <= radius; i++) {
+		const int row = MIN(hm, MAX(i, 0)) * w + x0;
+		const int s = (i + radius) * bw;
+		rbs = r1 - (i < 0 ? -i : i);
+		for (x = 0; x < bw; x++) {
+			sr[s + x] = r[row + x];
+			sg[s + x] = g[row + x];
+			sb[s + x] = b[row + x];
+			rsum[x] += r[row + x] * rbs;
+			gsum[x] += g[row + x] * rbs;
+			bsum[x] += b[row + x] * rbs;
+		}
+		if (i > 0) {
+			for (x = 0; x < bw; x++) {
+				rinsum[x] += r[row + x];
+				ginsum[x] += g[row + x];
+				binsum[x] += b[row + x];
+			}
+		} else {
+			for (x = 0; x < bw; x++) {
+				routsum[x] += r[row + x];
+				goutsum[x] += g[row + x];
+				boutsum[x] += b[row + x];
+			}
+		}
+	}
+	sp = radius;
+
+	for (y = 0; y < h; y++) {
+		int * restrict out = pix + y * band->stride + x0;
+		const int row = MIN(y + r1, hm) * w + x0;
+		slot = sp + r1;
+		if (slot >= div)
+			slot -= div;
+		if (++sp == div)
+			sp = 0;
+		const int so = slot * bw;
+		const int sn = sp * bw;
+
+		// Preserve alpha channel: ( 0xff000000 & pix[yi] )
+		if (exact) {
+			for (x = 0; x < bw; x++)
+				out[x] = (0xff000000 & out[x]) | (MUL_DIVIDE(rsum[x]) << 16)
+					| (MUL_DIVIDE(gsum[x]) << 8) | MUL_DIVIDE(bsum[x]);
+		} else {
+			for (x = 0; x < bw; x++)
+				out[x] = (0xff000000 & out[x]) | ((rsum[x] / divsum) << 16)
+					| ((gsum[x] / divsum) << 8) | (bsum[x] / divsum);
+		}
+
+		stepColumns(bw, rsum, rinsum, routsum, sr + so, sr + sn, r + row);
+		stepColumns(bw, gsum, ginsum, goutsum, sg + so, sg + sn, g + row);
+		stepColumns(bw, bsum, binsum, boutsum, sb + so, sb + sn, b + row);
+	}
+
+	free(buffer);
+	return NULL;
+}
+
+/*************************************************
+Function:		runBands
+Description:    Split the size to bands and run the pass on threads,
+				the first band runs on the calling thread
+Return:         0 if success, -1 if a band out of memory
+*************************************************/
+static int runBands(void* (*pass)(void *), Band *base, int size, int threads) {
+	Band bands[MAX_THREADS];
+	pthread_t ids[MAX_THREADS];
+	int started[MAX_THREADS];
+	int count = MAX(1, MIN(threads, size / MIN_BAND_SIZE));
+	int i, error = 0;
+
+	for (i = 0; i < count; i++) {
+		bands[i] = *base;
+		bands[i].start = (int)((int64_t)size * i / count);
+		bands[i].end = (int)((int64_t)size * (i + 1) / count);
+		bands[i].error = 0;
+		started[i] = 0;
+	}
+	for (i = 1; i < count; i++) {
+		started[i] = pthread_create(&ids[i], NULL, pass, &bands[i]) == 0;
+		// Run on this thread if can't start
+		if (!started[i])
+			pass(&bands[i]);
+	}
+	pass(&bands[0]);
+	for (i = 0; i < count; i++) {
+		if (started[i])
+			pthread_join(ids[i], NULL);
+		error |= bands[i].error;
+	}
+	return error;
+}
+
+/*************************************************
+Function:		stackBlur
+Description:    Using stack way blurred image pixels
+Calls:          stackBlurStride
+Input:          Collection of pixels, wide image, image is high, the blur radius,
+				count of threads, 0 is the count of processors
+Output:         After return to fuzzy collection of pixels
+Return:         0 if success, -1 if out of memory
+*************************************************/
+int stackBlur(int *pix, int w, int h, int radius, int threads) {
+	return stackBlurStride(pix, w, w, h, radius, threads);
+}
+
+/*************************************************
+Function:		stackBlurStride
+Description:    Stack blur of pixels with padded rows, as the rows of a bitmap
+Calls:          malloc pthread_create
+Input:          Collection of pixels, ints of a row, wide image, image is high,
+				the blur radius, count of threads, 0 is the count of processors
+Output:         After return to fuzzy collection of pixels, the padding is not touched
+Return:         0 if success, -1 if out of memory or the stride less than the width
+*************************************************/
+int stackBlurStride(int *pix, int stride, int w, int h, int radius, int threads) {
+	if (radius < 1 || w < 1 || h < 1)
+		return 0;
+	if (stride < w)
+		return -1;
+	if (threads <= 0)
+		threads = (int)sysconf(_SC_NPROCESSORS_ONLN);
+	threads = MAX(1, MIN(threads, MAX_THREADS));
+
+	size_t wh = (size_t)w * h;
+	int *planes = (int *)malloc(wh * 3 * sizeof(int));
+	if (planes == NULL)
+		return -1;
+
+	Band band;
+	band.pix = pix;
+	band.r = planes;
+	band.g = planes + wh;
+	band.b = planes + wh * 2;
+	band.stride = stride;
+	band.w = w;
+	band.h = h;
+	band.radius = radius;
+
+	int error = runBands(blurRows, &band, h, threads);
+	if (error == 0)
+		error = runBands(blurColumns, &band, w, threads);
+
+	free(planes);
+	return error;
+}
@@ -0,0 +1,49 @@
+/*
+ * Copyright (C) 2014 Qiujuer <qiujuer@live.cn>
+ * WebSite http://www.qiujuer.net
+ * Created 10/19/2026
+ * Changed 10/19/2026
+ * Version 1.0.0
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+#ifndef _Included_StackBlur
+#define _Included_StackBlur
+
+#ifdef __cplusplus
+extern "C" {
+#endif
+
+	/*
+	 * Stack blur the pixels in place, the alpha of each pixel is kept.
+	 * The result is same as the Java StackBlur.
+	 *
+	 * pix:     Pixels, width * height
+	 * threads: Count of threads, 0 is the count of processors
+	 * return:  0 if success, -1 if out of memory
+	 */
+	int stackBlur(int *pix, int w, int h, int radius, int threads);
+
+	/*
+	 * Same as stackBlur, the pixel (x, y) is at pix[y * stride + x]
+	 * and the padding of the rows is not read or changed.
+	 *
+	 * stride:  Ints of a row, not less than the width
+	 * return:  0 if success, -1 if out of memory or the stride less than the width
+	 */
+	int stackBlurStride(int *pix, int stride, int w, int h, int radius, int threads);
+
+#ifdef __cplusplus
+}
+#endif
+#endif